@@ -0,0 +1,157 @@
+package personalfinancetracker;
+
+import java.text.ParseException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+// Measures mixed read/write throughput of ConcurrentRecordManager against a RecordManager behind one global lock.
+// Usage: ConcurrentThroughputBenchmark [size] [threads,threads,...] [read%,read%,...] [seconds]
+//        (default 200000 1,4,16 50,90,99 3)
+// Reads are a day search, the balance or a 30-day summary; writes add a record or edit one day.
+public class ConcurrentThroughputBenchmark {
+    private static final int DAYS = 3650;
+    private static final int FIRST_DAY = (int) LocalDate.of(2015, 1, 1).toEpochDay();
+
+    // The operations the workload mixes, implemented once per manager.
+    private interface Workload {
+        void read(Random random);
+
+        void write(Random random) throws ParseException;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        String threadList = args.length > 1 ? args[1] : "1,4,16";
+        String readList = args.length > 2 ? args[2] : "50,90,99";
+        int seconds = args.length > 3 ? Integer.parseInt(args[3]) : 3;
+        System.out.printf("%,d records, %d available processors, %d s per run%n",
+                size, Runtime.getRuntime().availableProcessors(), seconds);
+        System.out.printf("%-8s %-6s %16s %16s%n", "threads", "read%", "global lock", "concurrent");
+        for (String reads : readList.split(",")) {
+            for (String threads : threadList.split(",")) {
+                int readPercent = Integer.parseInt(reads.trim());
+                int threadCount = Integer.parseInt(threads.trim());
+                double locked = run(lockedWorkload(size), threadCount, readPercent, seconds);
+                double concurrent = run(concurrentWorkload(size), threadCount, readPercent, seconds);
+                System.out.printf("%-8d %-6d %,12.0f/s %,12.0f/s%n", threadCount, readPercent, locked, concurrent);
+            }
+        }
+    }
+
+    // Method to run the workload on the given number of threads and return the operations per second.
+    private static double run(Workload workload, int threads, int readPercent, int seconds) throws InterruptedException {
+        AtomicBoolean stop = new AtomicBoolean();
+        LongAdder operations = new LongAdder();
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            int seed = t;
+            new Thread(() -> {
+                Random random = new Random(seed);
+                try {
+                    while (!stop.get()) {
+                        if (random.nextInt(100) < readPercent) {
+                            workload.read(random);
+                        } else {
+                            workload.write(random);
+                        }
+                        operations.increment();
+                    }
+                } catch (ParseException e) {
+                    throw new IllegalStateException(e);
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+        long start = System.nanoTime();
+        Thread.sleep(seconds * 1000L);
+        stop.set(true);
+        done.await();
+        return operations.sum() / ((System.nanoTime() - start) / 1e9);
+    }
+
+    // Method to build a RecordManager workload that serializes every call on one lock.
+    private static Workload lockedWorkload(int size) {
+        RecordManager manager = new RecordManager(new ColumnarRecordStore());
+        manager.addRecords(ledger(size));
+        return new Workload() {
+            @Override
+            public void read(Random random) {
+                synchronized (manager) {
+                    switch (random.nextInt(3)) {
+                        case 0:
+                            manager.searchRecordsByDate(randomDate(random));
+                            break;
+                        case 1:
+                            manager.calculateBalance();
+                            break;
+                        default:
+                            manager.summarizeLastDays(30);
+                    }
+                }
+            }
+
+            @Override
+            public void write(Random random) throws ParseException {
+                synchronized (manager) {
+                    if (random.nextBoolean()) {
+                        manager.addRecord(randomDate(random), "EXPENSE", "Food", "Benchmark", random.nextInt(10000) / 100.0);
+                    } else {
+                        manager.editRecord(randomDate(random), "", "", "", random.nextInt(10000) / 100.0);
+                    }
+                }
+            }
+        };
+    }
+
+    // Method to build the same workload on a ConcurrentRecordManager, without any outside locking.
+    private static Workload concurrentWorkload(int size) {
+        ConcurrentRecordManager manager = new ConcurrentRecordManager();
+        manager.addRecords(ledger(size));
+        return new Workload() {
+            @Override
+            public void read(Random random) {
+                switch (random.nextInt(3)) {
+                    case 0:
+                        manager.searchRecordsByDate(randomDate(random));
+                        break;
+                    case 1:
+                        manager.calculateBalance();
+                        break;
+                    default:
+                        manager.summarizeLastDays(30);
+                }
+            }
+
+            @Override
+            public void write(Random random) throws ParseException {
+                if (random.nextBoolean()) {
+                    manager.addRecord(randomDate(random), "EXPENSE", "Food", "Benchmark", random.nextInt(10000) / 100.0);
+                } else {
+                    manager.editRecord(randomDate(random), "", "", "", random.nextInt(10000) / 100.0);
+                }
+            }
+        };
+    }
+
+    // Method to build a synthetic ledger spread over DAYS days.
+    private static List<Record> ledger(int size) {
+        Random random = new Random(12);
+        List<Record> records = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String type = random.nextInt(4) == 0 ? "INCOME" : "EXPENSE";
+            records.add(new Record(FIRST_DAY + random.nextInt(DAYS), type, "Category" + (i % 16), "Row " + i,
+                    random.nextInt(100000) / 100.0));
+        }
+        return records;
+    }
+
+    private static String randomDate(Random random) {
+        return LocalDate.ofEpochDay(FIRST_DAY + random.nextInt(DAYS)).toString();
+    }
+}
@@ -0,0 +1,90 @@
+package personalfinancetracker;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.LocalDate;
+import java.util.Random;
+
+// Generates a bank-export style CSV and measures CsvImporter against adding the same rows one by one.
+// Usage: CsvImportBenchmark [rows] [batchSize]   (default 10000000 10000)
+// Every hundredth line is malformed so the reject path is exercised too.
+public class CsvImportBenchmark {
+    private static final String[] CATEGORIES = {"Food", "Rent", "Salary", "Transport", "Utilities", "Fun", "Health", "Gifts"};
+
+    public static void main(String[] args) throws IOException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        int batchSize = args.length > 1 ? Integer.parseInt(args[1]) : CsvImporter.DEFAULT_BATCH_SIZE;
+        Path file = Files.createTempFile("pft-import", ".csv");
+        try {
+            long start = System.nanoTime();
+            generate(file, rows);
+            System.out.printf("Generated %,d rows (%,d MB) in %d ms%n", rows, Files.size(file) >> 20,
+                    (System.nanoTime() - start) / 1_000_000);
+
+            for (int round = 0; round < 2; round++) {
+                RecordManager manager = new RecordManager(new ColumnarRecordStore());
+                ImportResult result = new CsvImporter(manager, batchSize).importFile(file);
+                System.out.println("CsvImporter:           " + result);
+            }
+
+            // Baseline: one addRecord call per parsed line, as the interactive menu does.
+            RecordManager manager = new RecordManager(new ColumnarRecordStore());
+            start = System.nanoTime();
+            long added = 0;
+            for (String line : (Iterable<String>) Files.lines(file, StandardCharsets.UTF_8)::iterator) {
+                String[] fields = line.split(",");
+                if (fields.length != 5) {
+                    continue;
+                }
+                try {
+                    double amount = Double.parseDouble(fields[4]);
+                    manager.addRecord(fields[0], fields[1], fields[2], fields[3], amount);
+                    added++;
+                } catch (ParseException | RuntimeException e) {
+                    // Header and malformed lines.
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+            System.out.printf("split + addRecord:     %,d records in %.2f s (%,.0f rows/s)%n",
+                    added, elapsed / 1e9, rows / (elapsed / 1e9));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static void generate(Path file, int rows) throws IOException {
+        Random random = new Random(11);
+        LocalDate firstDay = LocalDate.of(2015, 1, 1);
+        String[] dates = new String[3650];
+        for (int i = 0; i < dates.length; i++) {
+            dates[i] = firstDay.plusDays(i).toString();
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("date,type,category,description,amount\n");
+            for (int i = 0; i < rows; i++) {
+                if (i % 100 == 99) {
+                    writer.write("not-a-date,EXPENSE,Food,broken row,1.00\n");
+                    continue;
+                }
+                String type = random.nextInt(4) == 0 ? "INCOME" : "expense";
+                writer.write(dates[random.nextInt(dates.length)]);
+                writer.write(',');
+                writer.write(type);
+                writer.write(',');
+                writer.write(CATEGORIES[random.nextInt(CATEGORIES.length)]);
+                writer.write(",Row ");
+                writer.write(Integer.toString(i));
+                writer.write(',');
+                writer.write(Integer.toString(random.nextInt(100000) / 100));
+                writer.write('.');
+                int cents = random.nextInt(100);
+                writer.write(cents < 10 ? "0" + cents : Integer.toString(cents));
+                writer.write('\n');
+            }
+        }
+    }
+}
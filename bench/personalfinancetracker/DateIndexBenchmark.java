@@ -0,0 +1,142 @@
+package personalfinancetracker;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+// Compares the date index in RecordManager with the linear scans it replaced.
+// Usage: DateIndexBenchmark [size,size,...]   (default 1000000,10000000)
+public class DateIndexBenchmark {
+    private static final int DAYS = 3650;         // Spread records over roughly ten years.
+    private static final int LOOKUPS = 200;       // Exact-date lookups per measurement.
+    private static final int RANGES = 5;          // Range filters per measurement.
+    private static final LocalDate FIRST_DAY = LocalDate.of(2015, 1, 1);
+
+    public static void main(String[] args) throws ParseException {
+        String sizes = args.length > 0 ? args[0] : "1000000,10000000";
+        for (String size : sizes.split(",")) {
+            run(Integer.parseInt(size.trim()));
+        }
+    }
+
+    private static void run(int size) throws ParseException {
+        String[] dates = new String[DAYS];
+        for (int i = 0; i < DAYS; i++) {
+            dates[i] = FIRST_DAY.plusDays(i).toString();
+        }
+        Random random = new Random(42);
+        RecordManager manager = new RecordManager();
+        long loadStart = System.nanoTime();
+        for (int i = 0; i < size; i++) {
+            String type = random.nextInt(4) == 0 ? "INCOME" : "EXPENSE";
+            manager.addRecord(dates[random.nextInt(DAYS)], type, "Category" + (i % 16), "Row " + i, random.nextInt(100000) / 100.0);
+        }
+        System.out.printf("%n%,d records loaded in %d ms%n", size, (System.nanoTime() - loadStart) / 1_000_000);
+        List<Record> all = manager.getAllRecords();
+
+        // Exact-date lookups.
+        long linear = time(() -> {
+            for (int i = 0; i < LOOKUPS; i++) {
+                String date = dates[(i * 37) % DAYS];
+                consume(all.stream().filter(r -> r.getDate().equals(date)).collect(Collectors.toList()).size());
+            }
+        });
+        long indexed = time(() -> {
+            for (int i = 0; i < LOOKUPS; i++) {
+                consume(manager.searchRecordsByDate(dates[(i * 37) % DAYS]).size());
+            }
+        });
+        report("searchRecordsByDate", LOOKUPS, linear, indexed);
+
+        // 30-day range filters.
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd");
+        linear = time(() -> {
+            for (int i = 0; i < RANGES; i++) {
+                String start = dates[i * 300];
+                String end = dates[i * 300 + 29];
+                consume(all.stream().filter(r -> {
+                    try {
+                        Date recordDate = format.parse(r.getDate());
+                        return !recordDate.before(format.parse(start)) && !recordDate.after(format.parse(end));
+                    } catch (ParseException e) {
+                        return false;
+                    }
+                }).collect(Collectors.toList()).size());
+            }
+        });
+        indexed = time(() -> {
+            for (int i = 0; i < RANGES; i++) {
+                consume(manager.filterByDateRange(all, dates[i * 300], dates[i * 300 + 29]).size());
+            }
+        });
+        report("filterByDateRange", RANGES, linear, indexed);
+
+        // Edits of the first record on a date.
+        linear = time(() -> {
+            for (int i = 0; i < LOOKUPS; i++) {
+                String date = dates[(i * 53) % DAYS];
+                for (Record record : all) {
+                    if (record.getDate().equals(date)) {
+                        record.setDescription("edited");
+                        break;
+                    }
+                }
+            }
+        });
+        indexed = time(() -> {
+            for (int i = 0; i < LOOKUPS; i++) {
+                manager.editRecord(dates[(i * 53) % DAYS], "", "", "edited", -1);
+            }
+        });
+        report("editRecord", LOOKUPS, linear, indexed);
+
+        // Deletes of dates that have no records (the list itself still compacts in O(n) on a hit).
+        linear = time(() -> {
+            for (int i = 0; i < LOOKUPS; i++) {
+                String date = "1999-01-" + String.format("%02d", i % 28 + 1);
+                consume(all.removeIf(r -> r.getDate().equals(date)) ? 1 : 0);
+            }
+        });
+        indexed = time(() -> {
+            for (int i = 0; i < LOOKUPS; i++) {
+                consume(manager.deleteRecord("1999-01-" + String.format("%02d", i % 28 + 1)) ? 1 : 0);
+            }
+        });
+        report("deleteRecord (miss)", LOOKUPS, linear, indexed);
+
+        // Deletes of populated dates, measured once since each call removes its date.
+        long start = System.nanoTime();
+        for (int i = 0; i < RANGES; i++) {
+            consume(manager.deleteRecord(dates[DAYS - 1 - i]) ? 1 : 0);
+        }
+        report("deleteRecord (hit)", RANGES, 0, System.nanoTime() - start);
+        System.out.println("sink=" + sink);
+    }
+
+    private static long sink;
+
+    private static void consume(int value) {
+        sink += value;
+    }
+
+    private static long time(Runnable body) {
+        body.run(); // Warm-up pass.
+        long start = System.nanoTime();
+        body.run();
+        return System.nanoTime() - start;
+    }
+
+    private static void report(String name, int operations, long linearNanos, long indexedNanos) {
+        if (linearNanos == 0) {
+            System.out.printf("%-22s indexed %12.3f ms/op%n", name, indexedNanos / 1e6 / operations);
+            return;
+        }
+        System.out.printf("%-22s linear %12.3f ms/op   indexed %12.3f ms/op   speed-up %8.1fx%n",
+                name, linearNanos / 1e6 / operations, indexedNanos / 1e6 / operations,
+                (double) linearNanos / Math.max(1, indexedNanos));
+    }
+}
@@ -0,0 +1,83 @@
+package personalfinancetracker;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.Stream;
+
+// Measures journal appends per second under each fsync policy, and recovery time from a log and from a snapshot.
+// Usage: JournalBenchmark [appends] [alwaysAppends] [recoverySize]   (default 1000000 2000 10000000)
+// ALWAYS forces after every entry, so it gets its own, smaller count.
+public class JournalBenchmark {
+    public static void main(String[] args) throws IOException, ParseException {
+        int appends = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int alwaysAppends = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+        int recoverySize = args.length > 2 ? Integer.parseInt(args[2]) : 10_000_000;
+        String[] dates = new String[3650];
+        for (int i = 0; i < dates.length; i++) {
+            dates[i] = LocalDate.of(2015, 1, 1).plusDays(i).toString();
+        }
+
+        for (FsyncPolicy policy : FsyncPolicy.values()) {
+            int count = policy == FsyncPolicy.ALWAYS ? alwaysAppends : appends;
+            Path directory = Files.createTempDirectory("pft-journal-");
+            LedgerJournal journal = new LedgerJournal(directory, policy, 256, 10, 0);
+            RecordManager manager = new RecordManager();
+            journal.recover(manager);
+            long start = System.nanoTime();
+            fill(manager, dates, count);
+            journal.close();
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%-6s %,10d appends  %,12.0f appends/s%n", policy, count, count / seconds);
+            delete(directory);
+        }
+
+        // Recovery: replay a full log, then load the same ledger from a snapshot.
+        Path directory = Files.createTempDirectory("pft-recovery-");
+        LedgerJournal journal = new LedgerJournal(directory, FsyncPolicy.NONE, 256, 10, 0);
+        RecordManager manager = new RecordManager(new ColumnarRecordStore());
+        journal.recover(manager);
+        fill(manager, dates, recoverySize);
+        journal.close();
+        System.out.printf("%nlog of %,d entries: %,d MB%n", recoverySize, Files.size(directory.resolve(LedgerJournal.LOG_FILE)) >> 20);
+        manager = null;
+
+        RecordManager recovered = new RecordManager(new ColumnarRecordStore());
+        journal = new LedgerJournal(directory, FsyncPolicy.NONE, 256, 10, 0);
+        long start = System.nanoTime();
+        journal.recover(recovered);
+        System.out.printf("recovery from log only:  %,d records in %,d ms%n",
+                recovered.getAllRecords().size(), (System.nanoTime() - start) / 1_000_000);
+        journal.snapshot(recovered);
+        journal.close();
+        System.out.printf("snapshot: %,d MB%n", Files.size(directory.resolve(LedgerJournal.SNAPSHOT_FILE)) >> 20);
+        recovered = null;
+
+        RecordManager fromSnapshot = new RecordManager(new ColumnarRecordStore());
+        journal = new LedgerJournal(directory, FsyncPolicy.NONE, 256, 10, 0);
+        start = System.nanoTime();
+        journal.recover(fromSnapshot);
+        System.out.printf("recovery from snapshot:  %,d records in %,d ms%n",
+                fromSnapshot.getAllRecords().size(), (System.nanoTime() - start) / 1_000_000);
+        journal.close();
+        delete(directory);
+    }
+
+    private static void fill(RecordManager manager, String[] dates, int count) throws ParseException {
+        Random random = new Random(5);
+        for (int i = 0; i < count; i++) {
+            manager.addRecord(dates[random.nextInt(dates.length)], random.nextInt(4) == 0 ? "INCOME" : "EXPENSE",
+                    "Category" + random.nextInt(20), "Card payment " + i, random.nextInt(100000) / 100.0);
+        }
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package personalfinancetracker;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Generates a synthetic ledger that looks like a real one, for benchmarks:
+//  - dates cover the given number of years up to today, with more spending on weekends and around payday;
+//  - categories follow a skewed distribution: groceries and dining are common, insurance and fees are rare;
+//  - amounts are log-normal around a typical value per category, and fixed for rent and salary;
+//  - income is a monthly salary on the 1st plus occasional refunds and transfers;
+//  - descriptions combine a merchant name per category with a reference number, like bank exports.
+// The same seed always produces the same records relative to today.
+public class LedgerGenerator {
+    // Category name, relative weight, typical amount and spread (sigma of the log-normal).
+    private static final Object[][] EXPENSES = {
+        {"Groceries", 30, 55.0, 0.6}, {"Dining", 18, 24.0, 0.5}, {"Transport", 14, 9.5, 0.7},
+        {"Shopping", 10, 45.0, 0.9}, {"Utilities", 5, 80.0, 0.3}, {"Entertainment", 6, 18.0, 0.6},
+        {"Health", 4, 35.0, 0.8}, {"Travel", 2, 420.0, 0.7}, {"Education", 2, 60.0, 0.5},
+        {"Gifts", 3, 40.0, 0.6}, {"Insurance", 1, 110.0, 0.2}, {"Fees", 1, 4.5, 0.5}
+    };
+    private static final String[][] MERCHANTS = {
+        {"Supermarket", "Corner shop", "Farmers market", "Organic grocer"},
+        {"Pizza place", "Coffee bar", "Sushi bar", "Burger grill", "Noodle house"},
+        {"Metro ticket", "Fuel station", "Taxi ride", "Bike share", "Parking"},
+        {"Online order", "Bookshop", "Clothing store", "Electronics store"},
+        {"Electricity bill", "Water bill", "Internet bill", "Phone bill"},
+        {"Cinema", "Concert tickets", "Streaming service", "Museum"},
+        {"Pharmacy", "Dentist", "Gym membership", "Doctor visit"},
+        {"Flight", "Hotel", "Train ticket", "Car rental"},
+        {"Course fee", "Textbooks", "Language lessons"},
+        {"Birthday present", "Charity donation", "Wedding gift"},
+        {"Car insurance", "Home insurance", "Health insurance"},
+        {"Bank fee", "ATM fee", "Card fee"}
+    };
+    private static final double RENT = 1250.00;
+    private static final double SALARY = 3850.00;
+
+    private final Random random;
+    private final int firstDay;         // First epoch day of the ledger.
+    private final int days;             // Number of days covered.
+    private final int totalWeight;      // Sum of the category weights.
+
+    // Constructor to initialize a generator covering the given number of years up to today.
+    public LedgerGenerator(long seed, int years) {
+        this.random = new Random(seed);
+        int today = (int) LocalDate.now().toEpochDay();
+        this.days = years * 365;
+        this.firstDay = today - days + 1;
+        int weight = 0;
+        for (Object[] category : EXPENSES) {
+            weight += (Integer) category[1];
+        }
+        this.totalWeight = weight;
+    }
+
+    // Method to generate the given number of records, in date order as a real ledger would be entered.
+    public List<Record> generate(int size) {
+        List<Record> records = new ArrayList<>(size);
+        // Spread the records over the days; fixed monthly entries are added on the 1st of each month.
+        double perDay = (double) size / days;
+        double owed = 0;
+        for (int day = firstDay; day < firstDay + days && records.size() < size; day++) {
+            LocalDate date = LocalDate.ofEpochDay(day);
+            if (date.getDayOfMonth() == 1) {
+                records.add(new Record(day, "INCOME", "Salary", "Monthly salary " + date.getMonthValue() + "/" + date.getYear(), SALARY));
+                if (records.size() < size) {
+                    records.add(new Record(day, "EXPENSE", "Rent", "Rent " + date.getMonthValue() + "/" + date.getYear(), RENT));
+                }
+                owed -= 2;
+            }
+            owed += perDay * dayFactor(date);
+            while (owed >= 1 && records.size() < size) {
+                records.add(nextOn(day));
+                owed--;
+            }
+        }
+        while (records.size() < size) {
+            records.add(nextOn(firstDay + days - 1)); // Rounding left a few over; they go on the last day.
+        }
+        return records;
+    }
+
+    // Method to generate one record on a random day of the ledger.
+    public Record next() {
+        return nextOn(randomDay());
+    }
+
+    // Method to generate one record on the given day.
+    public Record nextOn(int epochDay) {
+        if (random.nextInt(40) == 0) {
+            // Refunds and transfers in are small, occasional income.
+            return new Record(epochDay, "INCOME", random.nextBoolean() ? "Refund" : "Transfer",
+                    (random.nextBoolean() ? "Refund from " : "Transfer from ") + merchant(random.nextInt(EXPENSES.length)),
+                    logNormal(60.0, 0.8));
+        }
+        int category = category();
+        return new Record(epochDay, "EXPENSE", (String) EXPENSES[category][0],
+                merchant(category) + " #" + (100000 + random.nextInt(900000)),
+                logNormal((Double) EXPENSES[category][2], (Double) EXPENSES[category][3]));
+    }
+
+    // Method to get a random day of the ledger as an epoch day.
+    public int randomDay() {
+        return firstDay + random.nextInt(days);
+    }
+
+    // Method to get a random day of the ledger in yyyy-MM-dd form.
+    public String randomDate() {
+        return LocalDate.ofEpochDay(randomDay()).toString();
+    }
+
+    // Method to get an expense category, picked with the same weights as the generated records.
+    public String randomCategory() {
+        return (String) EXPENSES[category()][0];
+    }
+
+    // Method to get a word that appears in the generated descriptions.
+    public String randomMerchant() {
+        return merchant(category());
+    }
+
+    // Getter method to retrieve the first day of the ledger in yyyy-MM-dd form.
+    public String getFirstDate() {
+        return LocalDate.ofEpochDay(firstDay).toString();
+    }
+
+    // Getter method to retrieve the last day of the ledger (today) in yyyy-MM-dd form.
+    public String getLastDate() {
+        return LocalDate.ofEpochDay(firstDay + days - 1).toString();
+    }
+
+    // Method to weight a day: weekends and the days after payday see more spending.
+    private static double dayFactor(LocalDate date) {
+        double factor = date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY ? 1.4 : 0.84;
+        return date.getDayOfMonth() <= 5 ? factor * 1.2 : factor * 0.97;
+    }
+
+    // Method to pick a category index by weight.
+    private int category() {
+        int pick = random.nextInt(totalWeight);
+        for (int i = 0; i < EXPENSES.length; i++) {
+            pick -= (Integer) EXPENSES[i][1];
+            if (pick < 0) {
+                return i;
+            }
+        }
+        return EXPENSES.length - 1;
+    }
+
+    // Method to pick a merchant of a category.
+    private String merchant(int category) {
+        String[] names = MERCHANTS[category];
+        return names[random.nextInt(names.length)];
+    }
+
+    // Method to draw a log-normal amount around a typical value, rounded to the cent.
+    private double logNormal(double typical, double sigma) {
+        double amount = typical * Math.exp(sigma * random.nextGaussian());
+        return Math.max(1, Math.round(amount * 100)) / 100.0;
+    }
+}
@@ -0,0 +1,68 @@
+package personalfinancetracker;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.Stream;
+
+// Builds a mapped ledger, then measures how long reopening it takes and how fast scans run over the mapping.
+// Usage: MappedLedgerBenchmark [size]   (default 50000000; needs about 3.5 GB of disk)
+public class MappedLedgerBenchmark {
+    private static final String[] CATEGORIES = {"Groceries", "Rent", "Salary", "Transport", "Dining", "Utilities", "Health", "Travel"};
+
+    public static void main(String[] args) throws IOException {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 50_000_000;
+        Path directory = Files.createTempDirectory("pft-mapped-");
+        int firstDay = (int) LocalDate.of(2015, 1, 1).toEpochDay();
+        Random random = new Random(9);
+        long start = System.nanoTime();
+        try (MappedRecordStore store = MappedRecordStore.open(directory)) {
+            for (int i = 0; i < size; i++) {
+                store.add(new Record(firstDay + random.nextInt(3650), random.nextInt(4) == 0 ? "INCOME" : "EXPENSE",
+                        CATEGORIES[random.nextInt(CATEGORIES.length)], "Card payment " + i, random.nextInt(100000) / 100.0));
+            }
+        }
+        System.out.printf("wrote %,d rows in %,d ms (%,d MB rows, %,d MB strings on disk)%n", size,
+                (System.nanoTime() - start) / 1_000_000,
+                Files.size(directory.resolve(MappedRecordStore.ROWS_FILE)) >> 20,
+                Files.size(directory.resolve(MappedRecordStore.STRINGS_FILE)) >> 20);
+
+        long heapBefore = usedHeap();
+        start = System.nanoTime();
+        try (MappedRecordStore store = MappedRecordStore.open(directory)) {
+            RecordManager manager = new RecordManager(store);
+            System.out.printf("open: %.3f ms, heap held: %,d KB%n", (System.nanoTime() - start) / 1e6, (usedHeap() - heapBefore) >> 10);
+            for (int round = 0; round < 3; round++) {
+                start = System.nanoTime();
+                long balance = store.calculateBalanceCents();
+                long elapsed = System.nanoTime() - start;
+                System.out.printf("balance scan: %,8d ms  %6.1f M rows/s  (%s)%n", elapsed / 1_000_000, size / (elapsed / 1e9) / 1e6,
+                        Money.format(balance));
+            }
+            for (int round = 0; round < 2; round++) {
+                start = System.nanoTime();
+                int matches = manager.filterByCategory(manager.getAllRecords(), "rent").size();
+                long elapsed = System.nanoTime() - start;
+                System.out.printf("filterByCategory: %,8d ms  %6.1f M rows/s  (%,d records built)%n",
+                        elapsed / 1_000_000, size / (elapsed / 1e9) / 1e6, matches);
+            }
+            start = System.nanoTime();
+            manager.calculateBalance(); // First use builds the in-memory indexes.
+            System.out.printf("first indexed query (builds date index and totals): %,d ms%n", (System.nanoTime() - start) / 1_000_000);
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
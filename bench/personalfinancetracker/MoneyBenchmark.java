@@ -0,0 +1,130 @@
+package personalfinancetracker;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+// Compares amounts kept as doubles with amounts kept as exact cents: summing, a running balance under churn,
+// sorting by amount and formatting. BigDecimal sums are the exact reference for the drift figures.
+// Usage: MoneyBenchmark [size]   (default 1000000)
+public class MoneyBenchmark {
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Random random = new Random(14);
+        long[] cents = new long[size];
+        double[] amounts = new double[size];
+        for (int i = 0; i < size; i++) {
+            cents[i] = random.nextInt(1_000_000);       // Up to 9,999.99 with every cent value equally likely.
+            amounts[i] = Money.toAmount(cents[i]);
+        }
+        System.out.printf("%,d amounts%n", size);
+
+        BigDecimal exact = BigDecimal.ZERO;
+        long start = System.nanoTime();
+        for (long c : cents) {
+            exact = exact.add(BigDecimal.valueOf(c, 2));
+        }
+        report("sum, BigDecimal", size, System.nanoTime() - start);
+        double doubleSum = 0;
+        long longSum = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            start = System.nanoTime();
+            doubleSum = 0;
+            for (double amount : amounts) {
+                doubleSum += amount;
+            }
+            report("sum, double", size, System.nanoTime() - start);
+            start = System.nanoTime();
+            longSum = 0;
+            for (long c : cents) {
+                longSum = Money.add(longSum, c);
+            }
+            report("sum, checked long cents", size, System.nanoTime() - start);
+        }
+        System.out.printf("exact %s, cents %s, double %s (off by %s)%n", exact.toPlainString(), Money.format(longSum),
+                doubleSum, new BigDecimal(doubleSum).subtract(exact).toPlainString());
+
+        // Every amount is added to a running balance and later taken out again, as edits and deletes do.
+        // The exact balance returns to zero; the double one keeps the rounding errors of both passes.
+        int[] removeOrder = new int[size];
+        for (int i = 0; i < size; i++) {
+            int j = random.nextInt(i + 1);              // Shuffle, so amounts are taken out in a different order.
+            removeOrder[i] = removeOrder[j];
+            removeOrder[j] = i;
+        }
+        double doubleBalance = 0;
+        long centsBalance = 0;
+        start = System.nanoTime();
+        for (int i = 0; i < size; i++) {
+            doubleBalance += amounts[i];
+        }
+        for (int i = 0; i < size; i++) {
+            doubleBalance -= amounts[removeOrder[i]];
+        }
+        report("add then remove all, double", 2 * size, System.nanoTime() - start);
+        start = System.nanoTime();
+        for (int i = 0; i < size; i++) {
+            centsBalance = Money.add(centsBalance, cents[i]);
+        }
+        for (int i = 0; i < size; i++) {
+            centsBalance = Money.subtract(centsBalance, cents[removeOrder[i]]);
+        }
+        report("add then remove all, checked long cents", 2 * size, System.nanoTime() - start);
+        System.out.printf("balance after removing everything: double %s, cents %s%n", doubleBalance, Money.format(centsBalance));
+
+        int firstDay = (int) LocalDate.of(2015, 1, 1).toEpochDay();
+        List<Record> records = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            records.add(new Record(firstDay + i % 3650, "EXPENSE", "Food", "Row " + i, amounts[i]));
+        }
+        Comparator<Record> byDouble = (r1, r2) -> Double.compare(r2.getAmount(), r1.getAmount());
+        for (int round = 0; round < ROUNDS; round++) {
+            List<Record> copy = new ArrayList<>(records);
+            start = System.nanoTime();
+            copy.sort(byDouble);
+            report("sortByAmount, double comparator", size, System.nanoTime() - start);
+            copy = new ArrayList<>(records);
+            start = System.nanoTime();
+            copy.sort(Record.HIGHEST_AMOUNT_FIRST);
+            report("sortByAmount, cents comparator", size, System.nanoTime() - start);
+        }
+
+        StringBuilder out = new StringBuilder(64);
+        for (int round = 0; round < ROUNDS; round++) {
+            start = System.nanoTime();
+            long length = 0;
+            for (double amount : amounts) {
+                length += String.format("%.2f", amount).length();
+            }
+            report("format, String.format(\"%.2f\")", size, System.nanoTime() - start);
+            start = System.nanoTime();
+            for (double amount : amounts) {
+                length += String.valueOf(amount).length();
+            }
+            report("format, Double.toString (inexact)", size, System.nanoTime() - start);
+            start = System.nanoTime();
+            for (long c : cents) {
+                out.setLength(0);
+                length += Money.append(out, c).length();
+            }
+            report("format, Money.append", size, System.nanoTime() - start);
+            consume(length);
+        }
+        System.out.printf("sink=%d%n", sink);
+    }
+
+    private static long sink;
+
+    private static void consume(long value) {
+        sink += value;
+    }
+
+    private static void report(String name, int operations, long nanos) {
+        System.out.printf("%-42s %10.2f ns/op%n", name, (double) nanos / operations);
+    }
+}
@@ -0,0 +1,79 @@
+package personalfinancetracker;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+// Measures filters, searches and sorts at several query parallelism settings.
+// Usage: ParallelQueryBenchmark [size] [threads,threads,...] [list|columnar]   (default 20000000 1,4,16,32 columnar)
+// Each operation is warmed up, then run ROUNDS times; the median time is reported.
+public class ParallelQueryBenchmark {
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 20_000_000;
+        String threadList = args.length > 1 ? args[1] : "1,4,16,32";
+        boolean list = args.length > 2 && args[2].equalsIgnoreCase("list");
+
+        Random random = new Random(5);
+        int firstDay = (int) LocalDate.of(2015, 1, 1).toEpochDay();
+        RecordManager manager = new RecordManager(list ? new ListRecordStore() : new ColumnarRecordStore());
+        List<Record> batch = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            String type = random.nextInt(4) == 0 ? "INCOME" : "EXPENSE";
+            batch.add(new Record(firstDay + random.nextInt(3650), type, "Category" + (i % 16), "Row " + i,
+                    random.nextInt(100000) / 100.0));
+            if (batch.size() == 100_000) {
+                manager.addRecords(batch);
+                batch.clear();
+            }
+        }
+        manager.addRecords(batch);
+        List<Record> all = manager.getAllRecords();
+        List<Record> copy = new ArrayList<>(all); // A plain list, so no store shortcut applies.
+        System.out.printf("%,d records, %d available processors%n", size, Runtime.getRuntime().availableProcessors());
+
+        System.out.printf("%-22s", "threads");
+        String[] threads = threadList.split(",");
+        for (String count : threads) {
+            System.out.printf("%12s", count);
+        }
+        System.out.println();
+        String[] names = {"filterByType", "filterByCategory", "filterByDateRange", "searchByDescription", "sortByDate", "sortByAmount"};
+        long[][] millis = new long[names.length][threads.length];
+        for (int t = 0; t < threads.length; t++) {
+            manager.setQueryParallelism(Integer.parseInt(threads[t].trim()));
+            millis[0][t] = time(() -> manager.filterByType(all, "income").size());
+            millis[1][t] = time(() -> manager.filterByCategory(all, "category3").size());
+            millis[2][t] = time(() -> manager.filterByDateRange(copy, "2017-01-01", "2019-12-31").size());
+            millis[3][t] = time(() -> manager.searchByDescription(copy, "99").size());
+            millis[4][t] = time(() -> manager.sortByDate(copy).size());
+            millis[5][t] = time(() -> manager.sortByAmount(copy).size());
+        }
+        for (int op = 0; op < names.length; op++) {
+            System.out.printf("%-22s", names[op]);
+            for (int t = 0; t < threads.length; t++) {
+                System.out.printf("%9d ms", millis[op][t]);
+            }
+            System.out.println();
+        }
+        System.out.println("sink=" + sink);
+    }
+
+    private static long sink;
+
+    private static long time(Supplier<Integer> body) {
+        sink += body.get(); // Warm-up pass.
+        long[] rounds = new long[ROUNDS];
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            sink += body.get();
+            rounds[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(rounds);
+        return rounds[ROUNDS / 2] / 1_000_000;
+    }
+}
@@ -0,0 +1,102 @@
+package personalfinancetracker;
+
+import java.lang.management.ManagementFactory;
+import java.text.ParseException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Compares typical dashboard queries run through RecordQuery with the same queries chained from the
+// single-criterion RecordManager methods, reporting time and bytes allocated per query.
+// Usage: QueryBenchmark [size]   (default 5000000)
+public class QueryBenchmark {
+    private static final int ROUNDS = 10;
+
+    public static void main(String[] args) throws ParseException {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+        Random random = new Random(3);
+        int firstDay = (int) LocalDate.of(2015, 1, 1).toEpochDay();
+        RecordManager manager = new RecordManager(new ColumnarRecordStore());
+        List<Record> batch = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            String type = random.nextInt(4) == 0 ? "INCOME" : "EXPENSE";
+            batch.add(new Record(firstDay + random.nextInt(3650), type, "Category" + (i % 32), "Row " + i,
+                    random.nextInt(100000) / 100.0));
+            if (batch.size() == 100_000) {
+                manager.addRecords(batch);
+                batch.clear();
+            }
+        }
+        manager.addRecords(batch);
+        List<Record> all = manager.getAllRecords();
+        System.out.printf("%,d records%n", size);
+
+        // Top 10 expenses in one category over a quarter.
+        compare("top 10 in category and quarter",
+                () -> {
+                    List<Record> rows = manager.filterByType(all, "EXPENSE");
+                    rows = manager.filterByCategory(rows, "Category7");
+                    rows = manager.filterByDateRange(rows, "2020-01-01", "2020-03-31");
+                    return manager.sortByAmount(rows).subList(0, 10);
+                },
+                () -> manager.query().type("EXPENSE").category("Category7").between("2020-01-01", "2020-03-31")
+                        .sortByAmount().limit(10).list());
+        // Latest 20 records of a category.
+        compare("latest 20 in category",
+                () -> manager.sortByDate(manager.filterByCategory(all, "Category3")).subList(0, 20),
+                () -> manager.query().category("Category3").sortByDate().limit(20).list());
+        // Latest 20 records overall.
+        compare("latest 20 overall",
+                () -> manager.sortByDate(all).subList(0, 20),
+                () -> manager.query().sortByDate().limit(20).list());
+        // Large records mentioning a text in one month, latest first.
+        compare("text and amount in a month",
+                () -> {
+                    List<Record> rows = manager.filterByDateRange(all, "2021-06-01", "2021-06-30");
+                    rows = manager.searchByDescription(rows, "7");
+                    List<Record> result = new ArrayList<>();
+                    for (Record record : rows) {
+                        if (record.getAmount() >= 500) {
+                            result.add(record);
+                        }
+                    }
+                    return manager.sortByDate(result);
+                },
+                () -> manager.query().between("2021-06-01", "2021-06-30").descriptionContains("7").minAmount(500)
+                        .sortByDate().list());
+        System.out.println("sink=" + sink);
+    }
+
+    private static long sink;
+
+    private interface QueryBody {
+        List<Record> run() throws ParseException;
+    }
+
+    private static void compare(String name, QueryBody chained, QueryBody query) throws ParseException {
+        if (!chained.run().toString().equals(query.run().toString())) {
+            throw new IllegalStateException("Results differ for " + name);
+        }
+        System.out.printf("%n%s%n", name);
+        report("  chained methods", measure(chained));
+        report("  RecordQuery", measure(query));
+    }
+
+    private static long[] measure(QueryBody body) throws ParseException {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        sink += body.run().size(); // Warm-up pass.
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            sink += body.run().size();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        return new long[] {elapsed / ROUNDS, allocated / ROUNDS};
+    }
+
+    private static void report(String name, long[] result) {
+        System.out.printf("%-20s %10.3f ms/query %,14d bytes/query%n", name, result[0] / 1e6, result[1]);
+    }
+}
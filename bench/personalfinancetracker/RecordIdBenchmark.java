@@ -0,0 +1,92 @@
+package personalfinancetracker;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+// Measures lookups, edits and deletes by record id.
+// Usage: RecordIdBenchmark [size,size,...] [list|columnar]   (default 1000000,10000000 columnar)
+// "compact each delete" forces the store to be compacted after every delete, as deleteRecord used to do;
+// "tombstones" leaves compaction to the manager, which runs it once a quarter of the slots are dead.
+public class RecordIdBenchmark {
+    private static final int DAYS = 3650;
+    private static final int OPERATIONS = 100_000;  // Lookups and edits per measurement.
+    private static final int EAGER_DELETES = 20;    // Deletes with a compaction each, which cost O(n) apiece.
+
+    public static void main(String[] args) {
+        String sizes = args.length > 0 ? args[0] : "1000000,10000000";
+        boolean list = args.length > 1 && args[1].equalsIgnoreCase("list");
+        for (String size : sizes.split(",")) {
+            run(Integer.parseInt(size.trim()), list);
+        }
+    }
+
+    private static void run(int size, boolean list) {
+        Random random = new Random(13);
+        int firstDay = (int) LocalDate.of(2015, 1, 1).toEpochDay();
+        RecordManager manager = new RecordManager(list ? new ListRecordStore() : new ColumnarRecordStore());
+        List<Record> batch = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            String type = random.nextInt(4) == 0 ? "INCOME" : "EXPENSE";
+            batch.add(new Record(firstDay + random.nextInt(DAYS), type, "Category" + (i % 16), "Row " + i,
+                    random.nextInt(100000) / 100.0));
+            if (batch.size() == 100_000) {
+                manager.addRecords(batch);
+                batch.clear();
+            }
+        }
+        manager.addRecords(batch);
+        System.out.printf("%n%,d records (%s store)%n", size, list ? "list" : "columnar");
+
+        long[] ids = new long[OPERATIONS];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = 1 + random.nextInt(size);
+        }
+        long start = System.nanoTime();
+        for (long id : ids) {
+            consume(manager.getRecord(id).getEpochDay());
+        }
+        report("getRecord(id)", OPERATIONS, System.nanoTime() - start);
+
+        start = System.nanoTime();
+        for (long id : ids) {
+            consume(manager.editRecord(id, "", "", "", id % 1000) ? 1 : 0);
+        }
+        report("editRecord(id)", OPERATIONS, System.nanoTime() - start);
+
+        // Deletes of distinct random ids, first compacting after each one, then leaving it to the manager.
+        List<Long> shuffled = new ArrayList<>(size);
+        for (long id = 1; id <= size; id++) {
+            shuffled.add(id);
+        }
+        Collections.shuffle(shuffled, random);
+        int next = 0;
+        start = System.nanoTime();
+        for (int i = 0; i < EAGER_DELETES; i++) {
+            consume(manager.deleteRecord(shuffled.get(next++)) ? 1 : 0);
+            consume(manager.getAllRecords().size()); // Compacts the store.
+        }
+        report("deleteRecord(id), compact each delete", EAGER_DELETES, System.nanoTime() - start);
+
+        int deletes = size / 2; // Enough to trigger compaction more than once.
+        start = System.nanoTime();
+        for (int i = 0; i < deletes; i++) {
+            consume(manager.deleteRecord(shuffled.get(next++)) ? 1 : 0);
+        }
+        report("deleteRecord(id), tombstones", deletes, System.nanoTime() - start);
+        manager.verifyAggregates();
+        System.out.printf("%,d records left; sink=%d%n", manager.getAllRecords().size(), sink);
+    }
+
+    private static long sink;
+
+    private static void consume(long value) {
+        sink += value;
+    }
+
+    private static void report(String name, int operations, long nanos) {
+        System.out.printf("%-40s %12.3f us/op%n", name, nanos / 1e3 / operations);
+    }
+}
@@ -0,0 +1,295 @@
+package personalfinancetracker;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+// Measures every RecordManager operation on a synthetic ledger (see LedgerGenerator): time per operation and
+// bytes allocated per operation, read from the thread's allocation counter, which is what the JMH gc profiler
+// reports too. Each operation is warmed up before it is measured.
+// Results can be saved and later compared against, so a slower build fails before it is released:
+//
+//     RecordManagerBenchmark 10000,1000000 --save baseline.csv
+//     RecordManagerBenchmark 10000,1000000 --baseline baseline.csv      (exits with 1 on a regression)
+//
+// Usage: RecordManagerBenchmark [size,size,...] [--store list|columnar] [--only regex]
+//                               [--save file] [--baseline file] [--tolerance fraction]
+//        (default 10000,1000000,10000000 columnar, tolerance 0.25)
+public class RecordManagerBenchmark {
+    private static final long WARMUP_NANOS = 500_000_000L;    // Warm-up time per operation.
+    private static final long MEASURE_NANOS = 1_000_000_000L; // Measured time per operation.
+    private static final int INPUTS = 1024;                    // Pre-generated arguments, used in turn.
+    private static final int PAGE = 1000;                      // Rows printed by the printing benchmarks.
+    private static final PrintStream NO_OUTPUT = new PrintStream(OutputStream.nullOutputStream());
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static long sink;
+    private static Pattern only;
+    private static final List<String> results = new ArrayList<>(); // Lines of the saved results file.
+
+    // One operation, run with the number of the invocation so it can pick its arguments.
+    private interface Operation {
+        long run(int invocation) throws Exception;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String sizes = "10000,1000000,10000000";
+        boolean list = false;
+        Path save = null;
+        Path baseline = null;
+        double tolerance = 0.25;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--store":
+                    list = args[++i].equalsIgnoreCase("list");
+                    break;
+                case "--only":
+                    only = Pattern.compile(args[++i]);
+                    break;
+                case "--save":
+                    save = Paths.get(args[++i]);
+                    break;
+                case "--baseline":
+                    baseline = Paths.get(args[++i]);
+                    break;
+                case "--tolerance":
+                    tolerance = Double.parseDouble(args[++i]);
+                    break;
+                default:
+                    sizes = args[i];
+            }
+        }
+        THREADS.setThreadAllocatedMemoryEnabled(true);
+        for (String size : sizes.split(",")) {
+            run(Integer.parseInt(size.trim()), list);
+        }
+        System.out.println("sink=" + sink);
+        if (save != null) {
+            Files.write(save, results);
+            System.out.println("Saved " + results.size() + " results to " + save);
+        }
+        if (baseline != null && !compare(baseline, tolerance)) {
+            System.exit(1);
+        }
+    }
+
+    private static void run(int size, boolean list) throws Exception {
+        LedgerGenerator generator = new LedgerGenerator(15, 10);
+        RecordManager manager = new RecordManager(list ? new ListRecordStore() : new ColumnarRecordStore());
+        long start = System.nanoTime();
+        List<Record> ledger = generator.generate(size);
+        for (int from = 0; from < ledger.size(); from += 100_000) {
+            manager.addRecords(ledger.subList(from, Math.min(from + 100_000, ledger.size())));
+        }
+        ledger = null;
+        System.out.printf("%n%,d records (%s store), generated and loaded in %,d ms%n", size, list ? "list" : "columnar",
+                (System.nanoTime() - start) / 1_000_000);
+        System.out.printf("%-34s %14s %14s %12s %10s%n", "operation", "ns/op", "ops/s", "B/op", "MB/s");
+
+        // Arguments are generated up front so that making them is not measured.
+        String[] dates = new String[INPUTS];
+        String[] rangeEnds = new String[INPUTS];
+        String[] categories = new String[INPUTS];
+        String[] merchants = new String[INPUTS];
+        long[] ids = new long[INPUTS];
+        Record[] added = new Record[INPUTS];
+        Random random = new Random(15);
+        for (int i = 0; i < INPUTS; i++) {
+            dates[i] = generator.randomDate();
+            rangeEnds[i] = LocalDate.parse(dates[i]).plusDays(30).toString();
+            categories[i] = generator.randomCategory();
+            merchants[i] = generator.randomMerchant();
+            ids[i] = 1 + random.nextInt(size);
+            added[i] = generator.next();
+        }
+        String type = "INCOME";
+
+        // Reads first, so that the writes below cannot change what they see.
+        measure(size, "searchRecordsByDate", i -> manager.searchRecordsByDate(dates[i % INPUTS]).size());
+        measure(size, "filterByType", i -> manager.filterByType(manager.getAllRecords(), type).size());
+        measure(size, "filterByCategory", i -> manager.filterByCategory(manager.getAllRecords(), categories[i % INPUTS]).size());
+        measure(size, "filterByTypeAndCategory",
+                i -> manager.filterByTypeAndCategory(manager.getAllRecords(), "EXPENSE", categories[i % INPUTS]).size());
+        measure(size, "filterByDateRange (31 days)",
+                i -> manager.filterByDateRange(manager.getAllRecords(), dates[i % INPUTS], rangeEnds[i % INPUTS]).size());
+        measure(size, "sortByDate", i -> manager.sortByDate(manager.getAllRecords()).size());
+        measure(size, "sortByAmount", i -> manager.sortByAmount(manager.getAllRecords()).size());
+        measure(size, "searchByDescription", i -> manager.searchByDescription(manager.getAllRecords(), merchants[i % INPUTS]).size());
+        measure(size, "calculateBalance", i -> (long) manager.calculateBalance());
+        int lastYear = LocalDate.parse(generator.getLastDate()).getYear();
+        measure(size, "pivotCategories (year x category)",
+                i -> manager.pivotCategories(lastYear - i % 3, RecordType.EXPENSE).getYearTotalCents());
+        measure(size, "rollup slice (category, month)", i -> {
+            YearMonth month = YearMonth.from(LocalDate.parse(dates[i % INPUTS]));
+            return manager.getRollupTotalCents(month, month, "EXPENSE", categories[i % INPUTS]);
+        });
+        PrintStream out = System.out;
+        try {
+            measure(size, "printSummary(30)", i -> {
+                System.setOut(NO_OUTPUT);   // Printing itself is measured, only the terminal is left out.
+                manager.printSummary(30);
+                System.setOut(out);
+                return 0;
+            });
+            measure(size, "printSummary(date range)", i -> {
+                System.setOut(NO_OUTPUT);
+                manager.printSummary(dates[i % INPUTS], rangeEnds[i % INPUTS]);
+                System.setOut(out);
+                return 0;
+            });
+            // Rows go to a stream that, like System.out, is auto-flushed and backed by a file descriptor.
+            List<Record> page = manager.getAllRecords().subList(0, Math.min(PAGE, size));
+            PrintStream console = consoleLikeStream();
+            measure(size, "println per row (1,000 rows)", i -> { // How printAllRecords used to print, for comparison.
+                System.setOut(console);
+                for (Record record : page) {
+                    System.out.println(record);
+                }
+                System.setOut(out);
+                return 0;
+            });
+            RecordPrinter text = new RecordPrinter(console, RecordPrinter.Format.TEXT, StandardCharsets.UTF_8);
+            measure(size, "printRecords (1,000 rows, text)", i -> {
+                manager.printRecords(manager.getAllRecords(), 0, page.size(), text);
+                return text.getRows();
+            });
+            RecordPrinter csv = new RecordPrinter(console, RecordPrinter.Format.CSV, StandardCharsets.UTF_8);
+            measure(size, "printRecords (1,000 rows, csv)", i -> {
+                manager.printRecords(manager.getAllRecords(), 0, page.size(), csv);
+                return csv.getRows();
+            });
+            RecordPrinter json = new RecordPrinter(console, RecordPrinter.Format.JSON, StandardCharsets.UTF_8);
+            measure(size, "printRecords (1,000 rows, json)", i -> {
+                manager.printRecords(manager.getAllRecords(), 0, page.size(), json);
+                return json.getRows();
+            });
+        } finally {
+            System.setOut(out);
+        }
+
+        // Writes. Every record added here is deleted again by id, so the ledger ends at its original size.
+        measure(size, "editRecord(id)", i -> manager.editRecord(ids[i % INPUTS], "", "", "", (i % 10000) / 100.0) ? 1 : 0);
+        measure(size, "editRecord(date)", i -> manager.editRecord(dates[i % INPUTS], "", "", "", (i % 10000) / 100.0) ? 1 : 0);
+        long firstAdded = manager.getStore().getNextId();
+        int addedCount = measure(size, "addRecord", i -> { // Returns the count with the warm-up included.
+            Record record = added[i % INPUTS];
+            manager.addRecord(record.getDate(), record.getType(), record.getCategory(), record.getDescription(),
+                    Money.ofCents(record.getAmountCents()));
+            return 1;
+        });
+        // Deletes cannot be repeated, so they are measured over the records just added rather than for a set time.
+        measureOnce(size, "deleteRecord(id)", addedCount, i -> manager.deleteRecord(firstAdded + i) ? 1 : 0);
+        int lastDay = (int) LocalDate.parse(generator.getLastDate()).toEpochDay();
+        int emptyDays = Math.min(INPUTS, Math.max(1, size / 100));
+        for (int i = 0; i < emptyDays; i++) {
+            Record record = added[i];
+            manager.addRecord(LocalDate.ofEpochDay(lastDay + 1 + i).toString(), record.getType(), record.getCategory(),
+                    record.getDescription(), Money.ofCents(record.getAmountCents()));
+        }
+        measureOnce(size, "deleteRecord(date)", emptyDays,
+                i -> manager.deleteRecord(LocalDate.ofEpochDay(lastDay + 1 + i).toString()) ? 1 : 0);
+        manager.verifyAggregates();
+        if (manager.getAllRecords().size() != size) {
+            throw new IllegalStateException("Ledger holds " + manager.getAllRecords().size() + " records, expected " + size);
+        }
+    }
+
+    // Method to open an auto-flushed stream onto the null device, or onto nothing where there is none.
+    private static PrintStream consoleLikeStream() throws IOException {
+        Path nullDevice = Paths.get(System.getProperty("os.name").startsWith("Windows") ? "NUL" : "/dev/null");
+        try {
+            return new PrintStream(Files.newOutputStream(nullDevice), true);
+        } catch (IOException e) {
+            return NO_OUTPUT;
+        }
+    }
+
+    // Method to warm up and then run an operation for a set time. Returns the number of invocations, warm-up included.
+    private static int measure(int size, String name, Operation operation) throws Exception {
+        if (only != null && !only.matcher(name).find()) {
+            return 0;
+        }
+        int invocation = 0;
+        long end = System.nanoTime() + WARMUP_NANOS;
+        do {
+            sink += operation.run(invocation++);
+        } while (System.nanoTime() < end);
+        long allocatedBefore = THREADS.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        end = start + MEASURE_NANOS;
+        int count = 0;
+        long now;
+        do {
+            sink += operation.run(invocation++);
+            count++;
+            now = System.nanoTime();
+        } while (now < end);
+        report(size, name, count, now - start, THREADS.getCurrentThreadAllocatedBytes() - allocatedBefore);
+        return invocation;
+    }
+
+    // Method to run an operation a given number of times, without warming up, for operations that use up state.
+    private static void measureOnce(int size, String name, int count, Operation operation) throws Exception {
+        if (only != null && !only.matcher(name).find()) {
+            for (int i = 0; i < count; i++) {
+                sink += operation.run(i); // Still run, so the ledger is left as the other sizes expect.
+            }
+            return;
+        }
+        long allocatedBefore = THREADS.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            sink += operation.run(i);
+        }
+        report(size, name, count, System.nanoTime() - start, THREADS.getCurrentThreadAllocatedBytes() - allocatedBefore);
+    }
+
+    private static void report(int size, String name, int count, long nanos, long allocated) {
+        double nanosPerOp = (double) nanos / Math.max(1, count);
+        double bytesPerOp = (double) allocated / Math.max(1, count);
+        System.out.printf("%-34s %14.1f %14.1f %12.1f %10.1f%n", name, nanosPerOp, 1e9 / nanosPerOp, bytesPerOp,
+                allocated / (nanos / 1e9) / (1 << 20));
+        results.add(size + "," + name + "," + nanosPerOp + "," + bytesPerOp);
+    }
+
+    // Method to compare the results with a saved baseline. Returns false if an operation got slower, or allocates
+    // more, by more than the tolerance.
+    private static boolean compare(Path baseline, double tolerance) throws IOException {
+        Map<String, double[]> saved = new HashMap<>();
+        for (String line : Files.readAllLines(baseline)) {
+            String[] fields = line.split(",");
+            saved.put(fields[0] + "," + fields[1], new double[] {Double.parseDouble(fields[2]), Double.parseDouble(fields[3])});
+        }
+        boolean ok = true;
+        System.out.printf("%nCompared with %s (tolerance %.0f%%):%n", baseline, tolerance * 100);
+        for (String line : results) {
+            String[] fields = line.split(",");
+            double[] before = saved.get(fields[0] + "," + fields[1]);
+            if (before == null) {
+                continue;
+            }
+            double time = Double.parseDouble(fields[2]) / before[0] - 1;
+            // Tiny allocation counts are noise from the counter itself, so allow a few bytes either way.
+            double allocation = (Double.parseDouble(fields[3]) + 64) / (before[1] + 64) - 1;
+            boolean regressed = time > tolerance || allocation > tolerance;
+            ok &= !regressed;
+            System.out.printf("%-10s %-34s time %+7.1f%%  allocation %+7.1f%%%s%n", fields[0], fields[1],
+                    time * 100, allocation * 100, regressed ? "  REGRESSION" : "");
+        }
+        return ok;
+    }
+}
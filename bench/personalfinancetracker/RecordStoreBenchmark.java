@@ -0,0 +1,63 @@
+package personalfinancetracker;
+
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.function.Supplier;
+
+// Compares heap usage and scan throughput of the ArrayList and columnar RecordStore backends.
+// Usage: RecordStoreBenchmark [size]   (default 10000000)
+public class RecordStoreBenchmark {
+    private static final String[] CATEGORIES = {
+        "Groceries", "Rent", "Salary", "Transport", "Dining", "Utilities", "Health", "Travel",
+        "Shopping", "Insurance", "Entertainment", "Education", "Gifts", "Savings", "Fees", "Other"
+    };
+    private static final int ROUNDS = 5;
+    private static long sink;
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        run("ArrayList", size, ListRecordStore::new);
+        run("Columnar", size, ColumnarRecordStore::new);
+        System.out.println("sink=" + sink);
+    }
+
+    private static void run(String name, int size, Supplier<RecordStore> backend) {
+        long before = usedHeap();
+        RecordStore store = backend.get();
+        Random random = new Random(11);
+        int firstDay = (int) LocalDate.of(2015, 1, 1).toEpochDay();
+        for (int i = 0; i < size; i++) {
+            // Fresh strings per row, as records read from Scanner input would be.
+            String type = new String(random.nextInt(4) == 0 ? "INCOME" : "EXPENSE");
+            String category = new String(CATEGORIES[random.nextInt(CATEGORIES.length)]);
+            store.add(new Record(firstDay + random.nextInt(3650), type, category, "Payment #" + i, random.nextInt(100000) / 100.0));
+        }
+        long heap = usedHeap() - before;
+        System.out.printf("%n%s backend, %,d records: ~%,d MB heap (%.1f bytes/record)%n",
+                name, size, heap >> 20, (double) heap / size);
+
+        RecordManager manager = new RecordManager(store);
+        measure("filterByType", size, () -> sink += manager.filterByType(manager.getAllRecords(), "income").size());
+        measure("filterByCategory", size, () -> sink += manager.filterByCategory(manager.getAllRecords(), "rent").size());
+        measure("calculateBalance", size, () -> sink += (long) manager.calculateBalance());
+        measure("printSummary(30)", size, () -> manager.printSummary(30));
+    }
+
+    private static void measure(String name, int size, Runnable body) {
+        body.run(); // Warm-up.
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            body.run();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9 / ROUNDS;
+        System.out.printf("  %-18s %10.2f ms/scan  %8.1f M rows/s%n", name, seconds * 1e3, size / seconds / 1e6);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,57 @@
+package personalfinancetracker;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+// Compares sortByDate on pre-parsed epoch days with the old comparator that parsed both dates on every comparison.
+// Usage: SortByDateBenchmark [size] [legacySize]   (default 5000000 100000)
+// The legacy comparator is only run on the smaller size; at 5M rows it needs over 100M parse calls.
+public class SortByDateBenchmark {
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+        int legacySize = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+
+        Random random = new Random(7);
+        LocalDate firstDay = LocalDate.of(2015, 1, 1);
+        List<Record> records = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            records.add(new Record((int) firstDay.toEpochDay() + random.nextInt(3650), "EXPENSE", "Food", "Row " + i, 1.0));
+        }
+        RecordManager manager = new RecordManager();
+
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            List<Record> sorted = manager.sortByDate(records);
+            long elapsed = System.nanoTime() - start;
+            System.out.printf("sortByDate (epoch day)  %,10d rows  %8.1f ms  first=%s%n",
+                    size, elapsed / 1e6, sorted.get(0).getDate());
+        }
+
+        // Old behaviour: a shared SimpleDateFormat parsing both sides of every comparison.
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd");
+        Comparator<Record> legacy = (r1, r2) -> {
+            try {
+                return format.parse(r2.getDate()).compareTo(format.parse(r1.getDate()));
+            } catch (ParseException e) {
+                return 0;
+            }
+        };
+        List<Record> sample = records.subList(0, Math.min(legacySize, size));
+        for (int round = 0; round < 2; round++) {
+            long start = System.nanoTime();
+            List<Record> sorted = sample.stream().sorted(legacy).collect(Collectors.toList());
+            long legacyElapsed = System.nanoTime() - start;
+            start = System.nanoTime();
+            manager.sortByDate(sample);
+            long elapsed = System.nanoTime() - start;
+            System.out.printf("%,d rows: legacy comparator %8.1f ms, epoch day %8.1f ms (%s)%n",
+                    sample.size(), legacyElapsed / 1e6, elapsed / 1e6, sorted.get(0).getDate());
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package personalfinancetracker;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Measures description searches with the full-text index against a scan of every description, and reports how
+// long the index takes to build and how much memory it holds.
+// Usage: TextSearchBenchmark [size]   (default 10000000)
+public class TextSearchBenchmark {
+    private static final String[] MERCHANTS = {"AMAZON MKTP", "Starbucks Coffee", "UBER TRIP", "Shell Fuel", "Netflix.com",
+        "ALDI Supermarket", "Spotify AB", "Apple Store", "IKEA", "Deutsche Bahn", "Lidl", "Rewe Markt", "Zara", "H&M",
+        "Vodafone", "Stadtwerke", "Rent payment", "Salary ACME GmbH", "PayPal Transfer", "Dentist Dr. Weber"};
+    private static final int ROUNDS = 200;
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        Random random = new Random(17);
+        int firstDay = (int) LocalDate.of(2015, 1, 1).toEpochDay();
+        RecordManager manager = new RecordManager(new ColumnarRecordStore());
+        List<Record> batch = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            // Merchant strings with a branch or reference number, like a bank export.
+            String description = MERCHANTS[random.nextInt(MERCHANTS.length)] + " #" + random.nextInt(5000);
+            batch.add(new Record(firstDay + random.nextInt(3650), "EXPENSE", "Shopping", description, 9.99));
+            if (batch.size() == 100_000) {
+                manager.addRecords(batch);
+                batch.clear();
+            }
+        }
+        manager.addRecords(batch);
+        List<Record> all = manager.getAllRecords();
+        List<Record> copy = new ArrayList<>(all); // A plain list is always scanned.
+        System.out.printf("%,d records%n", size);
+
+        long start = System.nanoTime();
+        int warm = manager.searchByDescription(all, "Weber").size(); // Builds the index.
+        System.out.printf("index built in %,d ms: %s%n", (System.nanoTime() - start) / 1_000_000,
+                manager.describeDescriptionIndex());
+
+        String[] substrings = {"#4711", "Dr. Weber", "Coffee #12", "MKTP #99"};
+        for (String text : substrings) {
+            long scan = time(() -> manager.searchByDescription(copy, text).size(), 3);
+            long indexed = time(() -> manager.searchByDescription(all, text).size(), ROUNDS);
+            System.out.printf("substring %-14s scan %10.3f ms   indexed %10.3f ms   %,9d matches%n",
+                    '"' + text + '"', scan / 1e6, indexed / 1e6, manager.searchByDescription(all, text).size());
+        }
+        String[] searches = {"4711", "weber 12*", "starbucks 4711", "amaz* 99*"};
+        for (String search : searches) {
+            long indexed = time(() -> manager.searchDescriptions(search).size(), ROUNDS);
+            System.out.printf("words     %-18s                 indexed %10.3f ms   %,9d matches%n",
+                    '"' + search + '"', indexed / 1e6, manager.searchDescriptions(search).size());
+        }
+        System.out.println("sink=" + (sink + warm));
+    }
+
+    private static long sink;
+
+    private interface Search {
+        int run();
+    }
+
+    // Average nanoseconds per search after one warm-up call.
+    private static long time(Search search, int rounds) {
+        sink += search.run();
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            sink += search.run();
+        }
+        return (System.nanoTime() - start) / rounds;
+    }
+}
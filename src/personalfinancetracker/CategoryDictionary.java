@@ -0,0 +1,67 @@
+package personalfinancetracker;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// The CategoryDictionary class maps names that are equal ignoring case to one small int id and one canonical
+// String, the spelling first seen. Records hold the canonical String, so a million records in a few dozen
+// categories share a few dozen Strings, and equalsIgnoreCase between them stops at its identity check.
+// Spellings already seen are found without upper-casing, so looking up a known name does not allocate.
+class CategoryDictionary {
+    private final Map<String, Integer> spellings; // Map of every spelling seen -> id.
+    private final Map<String, Integer> keys;      // Map of upper-cased name -> id.
+    private final List<String> names;             // Canonical name of each id.
+
+    // Constructor to initialize an empty dictionary.
+    CategoryDictionary() {
+        this.spellings = new HashMap<>();
+        this.keys = new HashMap<>();
+        this.names = new ArrayList<>();
+    }
+
+    // Method to get the id of a name, adding it if no name equal to it ignoring case has been seen.
+    int idOf(String name) {
+        Integer id = spellings.get(name);
+        if (id != null) {
+            return id;
+        }
+        id = keys.computeIfAbsent(name.toUpperCase(Locale.ROOT), k -> {
+            names.add(name);
+            return names.size() - 1;
+        });
+        spellings.put(name, id);
+        return id;
+    }
+
+    // Method to get the id of a name ignoring case, or -1 if it has not been added.
+    int find(String name) {
+        Integer id = spellings.get(name);
+        if (id == null) {
+            id = keys.get(name.toUpperCase(Locale.ROOT));
+        }
+        return id == null ? -1 : id;
+    }
+
+    // Method to get the canonical String of a name, adding it if it is new.
+    String canonical(String name) {
+        return names.get(idOf(name));
+    }
+
+    // Method to get the canonical name of an id.
+    String name(int id) {
+        return names.get(id);
+    }
+
+    // Method to get the number of distinct names.
+    int size() {
+        return names.size();
+    }
+
+    // Method to estimate the heap held by the dictionary, in bytes.
+    long estimateHeapBytes() {
+        return 3 * 48 + 96L * spellings.size() + 56L * keys.size(); // Entries, boxed ids and the upper-cased keys.
+    }
+}
@@ -0,0 +1,151 @@
+package personalfinancetracker;
+
+import java.util.Arrays;
+
+// The CategoryIndex class is a secondary index from category and from type (both ignoring case) to record slots.
+// Names are turned into small int ids by a CategoryDictionary and every id keeps its slots in a SlotBitmap, so
+// a type and category filter is the AND of two bitmaps, and walking a bitmap returns records in ledger order.
+class CategoryIndex {
+    private final CategoryDictionary categories;   // Category ignoring case -> id and canonical name.
+    private final CategoryDictionary types;        // Type ignoring case -> id.
+    private SlotBitmap[] byCategory;               // Slots of each category id; null once a category empties.
+    private SlotBitmap[] byType;                   // Slots of each type id; null once a type empties.
+    private int categoryCount;                     // Number of categories that have slots.
+
+    // Constructor to initialize an empty index.
+    CategoryIndex() {
+        this.categories = new CategoryDictionary();
+        this.types = new CategoryDictionary();
+        this.byCategory = new SlotBitmap[16];
+        this.byType = new SlotBitmap[4];
+    }
+
+    // Method to get the canonical spelling of a category, the one first seen ignoring case.
+    String canonicalCategory(String category) {
+        return categories.canonical(category);
+    }
+
+    // Method to add a slot under its type and category.
+    void add(String type, String category, int slot) {
+        int categoryId = categories.idOf(category);
+        if (categoryId >= byCategory.length) {
+            byCategory = Arrays.copyOf(byCategory, Math.max(categoryId + 1, 2 * byCategory.length));
+        }
+        if (byCategory[categoryId] == null) {
+            byCategory[categoryId] = new SlotBitmap();
+            categoryCount++;
+        }
+        byCategory[categoryId].add(slot);
+        int typeId = types.idOf(type);
+        if (typeId >= byType.length) {
+            byType = Arrays.copyOf(byType, Math.max(typeId + 1, 2 * byType.length));
+        }
+        if (byType[typeId] == null) {
+            byType[typeId] = new SlotBitmap();
+        }
+        byType[typeId].add(slot);
+    }
+
+    // Method to move a slot to its new type and category after an edit.
+    void replace(String oldType, String oldCategory, String newType, String newCategory, int slot) {
+        if (categories.idOf(oldCategory) == categories.idOf(newCategory) && types.idOf(oldType) == types.idOf(newType)) {
+            return;
+        }
+        remove(oldType, oldCategory, slot);
+        add(newType, newCategory, slot);
+    }
+
+    // Method to remove a single slot from its type and category.
+    void remove(String type, String category, int slot) {
+        int categoryId = categories.find(category);
+        if (categoryId >= 0 && byCategory[categoryId] != null && byCategory[categoryId].remove(slot)
+                && byCategory[categoryId].cardinality() == 0) {
+            byCategory[categoryId] = null;
+            categoryCount--;
+        }
+        int typeId = types.find(type);
+        if (typeId >= 0 && byType[typeId] != null && byType[typeId].remove(slot) && byType[typeId].cardinality() == 0) {
+            byType[typeId] = null;
+        }
+    }
+
+    // Method to get the slots of a category, or null if it has none.
+    SlotBitmap slots(String category) {
+        int categoryId = categories.find(category);
+        return categoryId < 0 ? null : byCategory[categoryId];
+    }
+
+    // Method to get the slots of a type, or null if it has none.
+    SlotBitmap typeSlots(String type) {
+        int typeId = types.find(type);
+        return typeId < 0 ? null : byType[typeId];
+    }
+
+    // Method to get the slots of a type and a category, either of which may be null for any; null if none match.
+    // At least one of them must be given.
+    SlotBitmap select(String type, String category) {
+        if (type == null) {
+            return slots(category);
+        }
+        if (category == null) {
+            return typeSlots(type);
+        }
+        SlotBitmap ofType = typeSlots(type);
+        SlotBitmap inCategory = slots(category);
+        return ofType == null || inCategory == null ? null : SlotBitmap.and(ofType, inCategory);
+    }
+
+    // Method to count the slots of a category.
+    int count(String category) {
+        SlotBitmap slots = slots(category);
+        return slots == null ? 0 : slots.cardinality();
+    }
+
+    // Method to get the number of distinct categories (ignoring case).
+    int categoryCount() {
+        return categoryCount;
+    }
+
+    // Method to estimate the heap held by the index, in bytes.
+    long estimateHeapBytes() {
+        long bytes = 64 + 4L * (byCategory.length + byType.length) + categories.estimateHeapBytes() + types.estimateHeapBytes();
+        for (SlotBitmap slots : byCategory) {
+            bytes += slots == null ? 0 : slots.heapBytes();
+        }
+        for (SlotBitmap slots : byType) {
+            bytes += slots == null ? 0 : slots.heapBytes();
+        }
+        return bytes;
+    }
+
+    // Method to drop the given (ascending) slots and renumber the rest after they were removed from the store.
+    void removeAndShift(DateIndex.SlotList removed) {
+        if (removed.size() == 0) {
+            return;
+        }
+        for (int id = 0; id < byCategory.length; id++) {
+            if (byCategory[id] != null) {
+                byCategory[id] = byCategory[id].removeAndShift(removed);
+                if (byCategory[id].cardinality() == 0) {
+                    byCategory[id] = null;
+                    categoryCount--;
+                }
+            }
+        }
+        for (int id = 0; id < byType.length; id++) {
+            if (byType[id] != null) {
+                byType[id] = byType[id].removeAndShift(removed);
+                if (byType[id].cardinality() == 0) {
+                    byType[id] = null;
+                }
+            }
+        }
+    }
+
+    // Method to empty the index. Names keep their ids, so canonical spellings stay the same.
+    void clear() {
+        Arrays.fill(byCategory, null);
+        Arrays.fill(byType, null);
+        categoryCount = 0;
+    }
+}
@@ -0,0 +1,68 @@
+package personalfinancetracker;
+
+import java.util.Collections;
+import java.util.List;
+
+// The CategoryPivot class holds a year of totals per category and month, as read from the rollup cube.
+// Totals are exact cents. Months are numbered 1 to 12; categories are in the order they were first recorded.
+public class CategoryPivot {
+    private final int year;
+    private final String type;            // Type the totals are for, or null for every type.
+    private final List<String> categories; // Categories with records in the year.
+    private final long[][] totals;        // Totals in cents, by category and then month - 1.
+
+    // Constructor to initialize a pivot with given totals in cents, one row of 12 months per category.
+    public CategoryPivot(int year, String type, List<String> categories, long[][] totals) {
+        this.year = year;
+        this.type = type;
+        this.categories = Collections.unmodifiableList(categories);
+        this.totals = totals;
+    }
+
+    // Getter method to retrieve the year.
+    public int getYear() {
+        return year;
+    }
+
+    // Getter method to retrieve the type the totals are for, or null if they cover every type.
+    public String getType() {
+        return type;
+    }
+
+    // Getter method to retrieve the categories, one per row.
+    public List<String> getCategories() {
+        return categories;
+    }
+
+    // Getter method to retrieve the total of a category (by row) in a month (1 to 12), in cents.
+    public long getTotalCents(int row, int month) {
+        return totals[row][month - 1];
+    }
+
+    // Method to get the total of a category (by row) over the year, in cents.
+    public long getCategoryTotalCents(int row) {
+        long total = 0;
+        for (long cents : totals[row]) {
+            total = Money.add(total, cents);
+        }
+        return total;
+    }
+
+    // Method to get the total of every category in a month (1 to 12), in cents.
+    public long getMonthTotalCents(int month) {
+        long total = 0;
+        for (long[] row : totals) {
+            total = Money.add(total, row[month - 1]);
+        }
+        return total;
+    }
+
+    // Method to get the total of every category over the year, in cents.
+    public long getYearTotalCents() {
+        long total = 0;
+        for (int row = 0; row < totals.length; row++) {
+            total = Money.add(total, getCategoryTotalCents(row));
+        }
+        return total;
+    }
+}
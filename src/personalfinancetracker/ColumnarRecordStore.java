@@ -0,0 +1,305 @@
+package personalfinancetracker;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.Set;
+
+// The ColumnarRecordStore class keeps records column by column in primitive arrays instead of one object per row.
+// Types and categories are dictionary encoded, amounts are stored in minor units (cents) and descriptions
+// live as UTF-8 bytes in a single pool. Record objects are only built when a row is read through get().
+public class ColumnarRecordStore implements RecordStore {
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int MAX_TYPES = 128;            // Type codes must fit in a byte.
+
+    private long[] ids;                                  // Column of record ids.
+    private int[] epochDays;                             // Column of dates as days since 1970-01-01.
+    private byte[] typeCodes;                            // Column of type ids into the type dictionary.
+    private int[] categoryIds;                           // Column of category ids into the category dictionary.
+    private long[] amounts;                              // Column of amounts in minor units.
+    private int[] descriptionOffsets;                    // Column of description start offsets in the pool.
+    private int[] descriptionLengths;                    // Column of description lengths in bytes.
+    private byte[] descriptionPool;                      // UTF-8 bytes of every description, back to back.
+    private int poolSize;                                // Bytes used in the description pool.
+    private int size;                                    // Number of rows.
+    private long nextId = 1;                             // Id the next new record is given.
+
+    private final StringDictionary types;                // Dictionary of distinct type strings.
+    private final StringDictionary categories;           // Dictionary of distinct category strings.
+    private boolean[] incomeTypes = new boolean[MAX_TYPES];  // Type ids that equal INCOME ignoring case.
+    private boolean[] expenseTypes = new boolean[MAX_TYPES]; // Type ids that equal EXPENSE ignoring case.
+    private final List<Record> view;                     // Read-only list view over the rows.
+
+    // Constructor to initialize an empty store.
+    public ColumnarRecordStore() {
+        this.ids = new long[INITIAL_CAPACITY];
+        this.epochDays = new int[INITIAL_CAPACITY];
+        this.typeCodes = new byte[INITIAL_CAPACITY];
+        this.categoryIds = new int[INITIAL_CAPACITY];
+        this.amounts = new long[INITIAL_CAPACITY];
+        this.descriptionOffsets = new int[INITIAL_CAPACITY];
+        this.descriptionLengths = new int[INITIAL_CAPACITY];
+        this.descriptionPool = new byte[INITIAL_CAPACITY * 16];
+        this.types = new StringDictionary();
+        this.categories = new StringDictionary();
+        this.view = new RowView();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Record get(int slot) {
+        checkSlot(slot);
+        return new Record(ids[slot], epochDays[slot], types.name(typeCodes[slot]), categories.name(categoryIds[slot]),
+                description(slot), amounts[slot]);
+    }
+
+    @Override
+    public void add(Record record) {
+        if (size == epochDays.length) {
+            grow(size * 2);
+        }
+        if (record.getId() == 0) {
+            record.setId(nextId);
+        }
+        nextId = Math.max(nextId, record.getId() + 1);
+        write(size++, record);
+    }
+
+    @Override
+    public void reserve(List<Record> records) {
+        Set<String> newTypes = new HashSet<>();
+        long poolNeeded = poolSize;
+        for (Record record : records) {
+            if (types.find(record.getType()) == null) {
+                newTypes.add(record.getType());
+            }
+            poolNeeded += utf8Length(record.getDescription());
+        }
+        if (types.size() + newTypes.size() > MAX_TYPES) {
+            throw new IllegalStateException("Too many distinct record types for a columnar store: " + newTypes);
+        }
+        if (poolNeeded > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Description pool is full");
+        }
+        if ((long) size + records.size() > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Too many records for a columnar store");
+        }
+        if (size + records.size() > epochDays.length) {
+            grow((int) Math.min(Integer.MAX_VALUE - 8, Math.max(size + records.size(), 2L * epochDays.length)));
+        }
+        if (poolNeeded > descriptionPool.length) {
+            descriptionPool = Arrays.copyOf(descriptionPool,
+                    (int) Math.min(Integer.MAX_VALUE - 8, Math.max(poolNeeded, 2L * descriptionPool.length)));
+        }
+    }
+
+    @Override
+    public void set(int slot, Record record) {
+        checkSlot(slot);
+        write(slot, record); // The old description bytes stay in the pool until the next removal compacts it.
+    }
+
+    @Override
+    public void removeSlots(int[] slots, int count) {
+        if (count == 0) {
+            return;
+        }
+        byte[] pool = new byte[Math.max(poolSize, 16)];
+        int poolWrite = 0;
+        int write = 0;
+        int next = 0;
+        for (int read = 0; read < size; read++) {
+            if (next < count && slots[next] == read) {
+                next++;
+                continue;
+            }
+            ids[write] = ids[read];
+            epochDays[write] = epochDays[read];
+            typeCodes[write] = typeCodes[read];
+            categoryIds[write] = categoryIds[read];
+            amounts[write] = amounts[read];
+            // Copy the description too, which also drops bytes left behind by edits.
+            System.arraycopy(descriptionPool, descriptionOffsets[read], pool, poolWrite, descriptionLengths[read]);
+            descriptionOffsets[write] = poolWrite;
+            descriptionLengths[write] = descriptionLengths[read];
+            poolWrite += descriptionLengths[read];
+            write++;
+        }
+        size = write;
+        descriptionPool = pool;
+        poolSize = poolWrite;
+    }
+
+    @Override
+    public void markDeleted(int slot) {
+        // Nothing to persist; the journal records the delete.
+    }
+
+    @Override
+    public boolean isDeleted(int slot) {
+        return false;
+    }
+
+    @Override
+    public long getId(int slot) {
+        checkSlot(slot);
+        return ids[slot];
+    }
+
+    @Override
+    public long getNextId() {
+        return nextId;
+    }
+
+    @Override
+    public void reserveIds(long nextId) {
+        this.nextId = Math.max(this.nextId, nextId);
+    }
+
+    @Override
+    public int getEpochDay(int slot) {
+        checkSlot(slot);
+        return epochDays[slot];
+    }
+
+    @Override
+    public String getType(int slot) {
+        checkSlot(slot);
+        return types.name(typeCodes[slot]);
+    }
+
+    @Override
+    public String getCategory(int slot) {
+        checkSlot(slot);
+        return categories.name(categoryIds[slot]);
+    }
+
+    @Override
+    public String getDescription(int slot) {
+        checkSlot(slot);
+        return description(slot);
+    }
+
+    @Override
+    public long getAmountCents(int slot) {
+        checkSlot(slot);
+        return amounts[slot];
+    }
+
+    @Override
+    public boolean isIncome(int slot) {
+        checkSlot(slot);
+        return incomeTypes[typeCodes[slot]];
+    }
+
+    @Override
+    public boolean isExpense(int slot) {
+        checkSlot(slot);
+        return expenseTypes[typeCodes[slot]];
+    }
+
+    @Override
+    public long calculateBalanceCents() {
+        long balance = 0;
+        for (int i = 0; i < size; i++) {
+            balance = incomeTypes[typeCodes[i]] ? Money.add(balance, amounts[i]) : Money.subtract(balance, amounts[i]);
+        }
+        return balance;
+    }
+
+    @Override
+    public List<Record> asList() {
+        return view;
+    }
+
+    // Method to estimate the heap held by the columns, pool and dictionaries, in bytes.
+    @Override
+    public long estimateHeapBytes() {
+        long columns = (long) epochDays.length * (8 + 4 + 1 + 4 + 8 + 4 + 4);
+        return columns + descriptionPool.length + (types.size() + categories.size()) * 64L;
+    }
+
+    // Method to write a record's values into a row.
+    private void write(int slot, Record record) {
+        int typeId = types.idOf(record.getType());
+        if (typeId >= MAX_TYPES) {
+            throw new IllegalStateException("Too many distinct record types for a columnar store: " + record.getType());
+        }
+        incomeTypes[typeId] = record.getType().equalsIgnoreCase("INCOME");
+        expenseTypes[typeId] = record.getType().equalsIgnoreCase("EXPENSE");
+        ids[slot] = record.getId();
+        epochDays[slot] = record.getEpochDay();
+        typeCodes[slot] = (byte) typeId;
+        categoryIds[slot] = categories.idOf(record.getCategory());
+        amounts[slot] = record.getAmountCents();
+        byte[] bytes = record.getDescription().getBytes(StandardCharsets.UTF_8);
+        if (poolSize + bytes.length > descriptionPool.length) {
+            long needed = Math.max((long) descriptionPool.length * 2, (long) poolSize + bytes.length);
+            if (needed > Integer.MAX_VALUE - 8) {
+                throw new IllegalStateException("Description pool is full");
+            }
+            descriptionPool = Arrays.copyOf(descriptionPool, (int) needed);
+        }
+        System.arraycopy(bytes, 0, descriptionPool, poolSize, bytes.length);
+        descriptionOffsets[slot] = poolSize;
+        descriptionLengths[slot] = bytes.length;
+        poolSize += bytes.length;
+    }
+
+    // Method to count the UTF-8 bytes of a string without encoding it.
+    private static long utf8Length(String value) {
+        long bytes = value.length();
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x800) {
+                bytes += Character.isSurrogate(c) ? 1 : 2; // 4 bytes per pair; a lone surrogate ('?') is over-counted.
+            } else if (c >= 0x80) {
+                bytes++;
+            }
+        }
+        return bytes;
+    }
+
+    // Method to decode the description of a row from the pool.
+    private String description(int slot) {
+        return new String(descriptionPool, descriptionOffsets[slot], descriptionLengths[slot], StandardCharsets.UTF_8);
+    }
+
+    // Method to enlarge every column to the given capacity.
+    private void grow(int capacity) {
+        ids = Arrays.copyOf(ids, capacity);
+        epochDays = Arrays.copyOf(epochDays, capacity);
+        typeCodes = Arrays.copyOf(typeCodes, capacity);
+        categoryIds = Arrays.copyOf(categoryIds, capacity);
+        amounts = Arrays.copyOf(amounts, capacity);
+        descriptionOffsets = Arrays.copyOf(descriptionOffsets, capacity);
+        descriptionLengths = Arrays.copyOf(descriptionLengths, capacity);
+    }
+
+    // Method to reject slots outside the stored rows.
+    private void checkSlot(int slot) {
+        if (slot < 0 || slot >= size) {
+            throw new IndexOutOfBoundsException("Slot " + slot + " out of " + size);
+        }
+    }
+
+    // Read-only list view that materializes a Record for each get().
+    private final class RowView extends AbstractList<Record> implements RandomAccess {
+        @Override
+        public Record get(int index) {
+            return ColumnarRecordStore.this.get(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
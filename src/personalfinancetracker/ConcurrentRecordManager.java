@@ -0,0 +1,548 @@
+package personalfinancetracker;
+
+import java.text.ParseException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// The ConcurrentRecordManager class is a thread-safe variant of RecordManager for many concurrent readers and
+// writers, for example a service used by several people or importers running in background threads.
+//
+// Records are split into partitions of 32 consecutive days. Each partition publishes an immutable state (its days,
+// the records of each day and its totals) through a volatile field:
+//  - writers lock only the partition of the date they change, copy the part of the state they touch and publish
+//    the new state, so writes to different partitions run in parallel;
+//  - readers never lock: they read the current states and work on them while writers publish new ones.
+// Records are copied when they come in, get an id from a shared counter, and are never changed once published: the
+// records handed out refuse their setters, and an edit replaces the record with a new one that keeps its id.
+//
+// A Snapshot holds one state per partition, each read at some point while the snapshot was taken, and answers
+// all its queries from those states. Each partition's state is consistent on its own, so a snapshot's balance
+// always equals the sum of its records, and every change except a batch spanning several partitions is seen by
+// a snapshot entirely or not at all. Changes to different partitions made while a snapshot is being taken may
+// be seen in any combination, so a snapshot is not the whole ledger at a single moment.
+// Records come back in date order, in the order they were added within a day.
+public class ConcurrentRecordManager {
+    private static final int PARTITION_SHIFT = 5;                       // Each partition covers 2^5 = 32 days.
+
+    private final ConcurrentSkipListMap<Integer, Partition> partitions; // Partitions by epochDay >> PARTITION_SHIFT.
+    private final AtomicLong nextId;                                    // Id for the next record that comes in.
+
+    // Constructor to initialize an empty manager.
+    public ConcurrentRecordManager() {
+        this.partitions = new ConcurrentSkipListMap<>();
+        this.nextId = new AtomicLong(1);
+    }
+
+    // Method to add a new record. Throws IllegalArgumentException if the type is not INCOME or EXPENSE.
+    public void addRecord(String date, String type, String category, String description, double amount) throws ParseException {
+        type = RecordType.parse(type).name();
+        Record record = new PublishedRecord(nextId.getAndIncrement(), Record.toEpochDay(date), type, category, description,
+                Money.toCents(amount));
+        Partition partition = partition(record.getEpochDay());
+        synchronized (partition) {
+            partition.state = partition.state.withAdded(List.of(record));
+        }
+    }
+
+    // Method to add many records at once, locking each partition they fall in once. The records are copied, so the
+    // caller's records stay its own, and every copy gets an id of its own. Throws IllegalArgumentException, before
+    // anything is added, if a type is not INCOME or EXPENSE.
+    public void addRecords(List<Record> batch) {
+        List<Record> sorted = new ArrayList<>(batch.size());
+        for (Record record : batch) {
+            sorted.add(new PublishedRecord(nextId.getAndIncrement(), record.getEpochDay(), RecordType.parse(record.getType()).name(),
+                    record.getCategory(), record.getDescription(), record.getAmountCents()));
+        }
+        sorted.sort(Comparator.comparingInt(Record::getEpochDay)); // Stable, so each day keeps the batch order.
+        int from = 0;
+        while (from < sorted.size()) {
+            int key = sorted.get(from).getEpochDay() >> PARTITION_SHIFT;
+            int to = from + 1;
+            while (to < sorted.size() && sorted.get(to).getEpochDay() >> PARTITION_SHIFT == key) {
+                to++;
+            }
+            Partition partition = partition(sorted.get(from).getEpochDay());
+            synchronized (partition) {
+                partition.state = partition.state.withAdded(sorted.subList(from, to));
+            }
+            from = to;
+        }
+    }
+
+    // Method to search records by date.
+    public List<Record> searchRecordsByDate(String date) {
+        Integer epochDay = toEpochDayOrNull(date);
+        Partition partition = epochDay == null ? null : partitions.get(epochDay >> PARTITION_SHIFT);
+        List<Record> result = new ArrayList<>();
+        if (partition != null) {
+            Record[] records = partition.state.recordsOn(epochDay);
+            if (records != null) {
+                result.addAll(Arrays.asList(records));
+            }
+        }
+        return result;
+    }
+
+    // Method to edit the first record added on the given date. Empty values and a negative amount keep the old ones.
+    // Throws IllegalArgumentException if a new type is given and is not INCOME or EXPENSE.
+    public boolean editRecord(String date, String type, String category, String description, double amount) {
+        type = type == null || type.trim().isEmpty() ? "" : RecordType.parse(type).name();
+        Integer epochDay = toEpochDayOrNull(date);
+        Partition partition = epochDay == null ? null : partitions.get(epochDay >> PARTITION_SHIFT);
+        if (partition == null) {
+            return false;
+        }
+        synchronized (partition) {
+            PartitionState edited = partition.state.withEdited(epochDay, type, category, description, amount);
+            if (edited == null) {
+                return false;
+            }
+            partition.state = edited;
+            return true;
+        }
+    }
+
+    // Method to delete every record on the given date.
+    public boolean deleteRecord(String date) {
+        Integer epochDay = toEpochDayOrNull(date);
+        Partition partition = epochDay == null ? null : partitions.get(epochDay >> PARTITION_SHIFT);
+        if (partition == null) {
+            return false;
+        }
+        synchronized (partition) {
+            PartitionState remaining = partition.state.withoutDay(epochDay);
+            if (remaining == null) {
+                return false;
+            }
+            partition.state = remaining;
+            return true;
+        }
+    }
+
+    // Method to capture the current state of every partition. Never waits for writers.
+    public Snapshot snapshot() {
+        List<PartitionState> states = new ArrayList<>();
+        for (Partition partition : partitions.values()) {
+            PartitionState state = partition.state;
+            if (state.count > 0) {
+                states.add(state);
+            }
+        }
+        return new Snapshot(states.toArray(new PartitionState[0]));
+    }
+
+    // Method to get all records, in date order.
+    public List<Record> getAllRecords() {
+        return snapshot().getRecords();
+    }
+
+    // Method to get the balance: income minus everything else.
+    public double calculateBalance() {
+        return snapshot().calculateBalance();
+    }
+
+    // Method to get the exact balance: income minus everything else.
+    public Money getBalance() {
+        return snapshot().getBalance();
+    }
+
+    // Method to filter all records by type.
+    public List<Record> filterByType(String type) {
+        return snapshot().filterByType(type);
+    }
+
+    // Method to filter all records by category.
+    public List<Record> filterByCategory(String category) {
+        return snapshot().filterByCategory(category);
+    }
+
+    // Method to filter all records by date range.
+    public List<Record> filterByDateRange(String startDate, String endDate) throws ParseException {
+        return snapshot().filterByDateRange(Record.toEpochDay(startDate), Record.toEpochDay(endDate));
+    }
+
+    // Method to search all records by description.
+    public List<Record> searchByDescription(String description) {
+        return snapshot().searchByDescription(description);
+    }
+
+    // Method to summarize the records between two dates (inclusive).
+    public PeriodSummary summarize(String startDate, String endDate) throws ParseException {
+        return snapshot().summarize(Record.toEpochDay(startDate), Record.toEpochDay(endDate));
+    }
+
+    // Method to summarize the last given number of days, today included.
+    public PeriodSummary summarizeLastDays(int days) {
+        int today = (int) LocalDate.now().toEpochDay();
+        return snapshot().summarize(today - days + 1, today);
+    }
+
+    // Method to get the partition a day falls in, creating it on first use.
+    private Partition partition(int epochDay) {
+        return partitions.computeIfAbsent(epochDay >> PARTITION_SHIFT, key -> new Partition());
+    }
+
+    // Method to convert a date into an epoch day, returning null if it cannot be parsed.
+    private static Integer toEpochDayOrNull(String date) {
+        try {
+            return Record.toEpochDay(date);
+        } catch (ParseException e) {
+            return null;
+        }
+    }
+
+    // A partition: its current state and the lock writers take on it (the partition object itself).
+    private static final class Partition {
+        private volatile PartitionState state = PartitionState.EMPTY;
+    }
+
+    // A record as published by the manager. Readers share it, so every setter throws; editRecord publishes a new
+    // record instead.
+    private static final class PublishedRecord extends Record {
+        PublishedRecord(long id, int epochDay, String type, String category, String description, long amountCents) {
+            super(id, epochDay, type, category, description, amountCents);
+        }
+
+        @Override
+        void setId(long id) {
+            throw unchangeable();
+        }
+
+        @Override
+        public void setType(String type) {
+            throw unchangeable();
+        }
+
+        @Override
+        public void setCategory(String category) {
+            throw unchangeable();
+        }
+
+        @Override
+        public void setDescription(String description) {
+            throw unchangeable();
+        }
+
+        @Override
+        public void setAmount(double amount) {
+            throw unchangeable();
+        }
+
+        @Override
+        public void setAmountCents(long amountCents) {
+            throw unchangeable();
+        }
+
+        private static UnsupportedOperationException unchangeable() {
+            return new UnsupportedOperationException("Records of a ConcurrentRecordManager cannot be changed; use editRecord");
+        }
+    }
+
+    // The immutable contents of a partition.
+    private static final class PartitionState {
+        static final PartitionState EMPTY = new PartitionState(new int[0], new Record[0][], new long[0], new long[0], 0, 0);
+
+        final int[] days;           // Days that have records, ascending.
+        final Record[][] records;   // Records of each day, in the order they were added.
+        final long[] income;        // Income total of each day, in cents.
+        final long[] expenses;      // Expense total of each day, in cents.
+        final int count;            // Number of records.
+        final long balance;         // Income minus everything else, in cents.
+
+        PartitionState(int[] days, Record[][] records, long[] income, long[] expenses, int count, long balance) {
+            this.days = days;
+            this.records = records;
+            this.income = income;
+            this.expenses = expenses;
+            this.count = count;
+            this.balance = balance;
+        }
+
+        // Returns the records of a day, or null if it has none. The array must not be changed.
+        Record[] recordsOn(int epochDay) {
+            int at = Arrays.binarySearch(days, epochDay);
+            return at < 0 ? null : records[at];
+        }
+
+        // Returns a copy with the given records (sorted by day) appended to their days.
+        PartitionState withAdded(List<Record> added) {
+            int[] newDays = days;
+            Record[][] newRecords = records.clone();
+            long[] newIncome = income.clone();
+            long[] newExpenses = expenses.clone();
+            long newBalance = balance;
+            int from = 0;
+            while (from < added.size()) {
+                int epochDay = added.get(from).getEpochDay();
+                int to = from + 1;
+                while (to < added.size() && added.get(to).getEpochDay() == epochDay) {
+                    to++;
+                }
+                int at = Arrays.binarySearch(newDays, epochDay);
+                if (at < 0) {
+                    at = -at - 1;
+                    newDays = insert(newDays, at, epochDay);
+                    newRecords = insert(newRecords, at, new Record[0]);
+                    newIncome = insert(newIncome, at, 0);
+                    newExpenses = insert(newExpenses, at, 0);
+                }
+                Record[] dayRecords = Arrays.copyOf(newRecords[at], newRecords[at].length + to - from);
+                for (int i = from; i < to; i++) {
+                    Record record = added.get(i);
+                    dayRecords[newRecords[at].length + i - from] = record;
+                    newIncome[at] = Money.add(newIncome[at], incomeOf(record));
+                    newExpenses[at] = Money.add(newExpenses[at], expensesOf(record));
+                    newBalance = Money.add(newBalance, balanceChange(record));
+                }
+                newRecords[at] = dayRecords;
+                from = to;
+            }
+            return new PartitionState(newDays, newRecords, newIncome, newExpenses, count + added.size(), newBalance);
+        }
+
+        // Returns a copy with the first record of a day edited, or null if the day has no records.
+        PartitionState withEdited(int epochDay, String type, String category, String description, double amount) {
+            int at = Arrays.binarySearch(days, epochDay);
+            if (at < 0) {
+                return null;
+            }
+            Record old = records[at][0];
+            Record edited = new PublishedRecord(old.getId(), epochDay,
+                    type != null && !type.isEmpty() ? type : old.getType(),
+                    category != null && !category.isEmpty() ? category : old.getCategory(),
+                    description != null && !description.isEmpty() ? description : old.getDescription(),
+                    amount >= 0 ? Money.toCents(amount) : old.getAmountCents());
+            Record[][] newRecords = records.clone();
+            newRecords[at] = records[at].clone();
+            newRecords[at][0] = edited;
+            long[] newIncome = income.clone();
+            long[] newExpenses = expenses.clone();
+            newIncome[at] = Money.add(Money.subtract(newIncome[at], incomeOf(old)), incomeOf(edited));
+            newExpenses[at] = Money.add(Money.subtract(newExpenses[at], expensesOf(old)), expensesOf(edited));
+            return new PartitionState(days, newRecords, newIncome, newExpenses, count,
+                    Money.add(Money.subtract(balance, balanceChange(old)), balanceChange(edited)));
+        }
+
+        // Returns a copy without the records of a day, or null if the day has no records.
+        PartitionState withoutDay(int epochDay) {
+            int at = Arrays.binarySearch(days, epochDay);
+            if (at < 0) {
+                return null;
+            }
+            long newBalance = balance;
+            for (Record record : records[at]) {
+                newBalance = Money.subtract(newBalance, balanceChange(record));
+            }
+            return new PartitionState(remove(days, at), remove(records, at), remove(income, at), remove(expenses, at),
+                    count - records[at].length, newBalance);
+        }
+
+        private static long balanceChange(Record record) {
+            return DailySummaryIndex.isIncome(record) ? record.getAmountCents() : -record.getAmountCents();
+        }
+
+        private static long incomeOf(Record record) {
+            return DailySummaryIndex.isIncome(record) ? record.getAmountCents() : 0;
+        }
+
+        private static long expensesOf(Record record) {
+            return DailySummaryIndex.isExpense(record) ? record.getAmountCents() : 0;
+        }
+
+        private static int[] insert(int[] array, int at, int value) {
+            int[] copy = new int[array.length + 1];
+            System.arraycopy(array, 0, copy, 0, at);
+            copy[at] = value;
+            System.arraycopy(array, at, copy, at + 1, array.length - at);
+            return copy;
+        }
+
+        private static long[] insert(long[] array, int at, long value) {
+            long[] copy = new long[array.length + 1];
+            System.arraycopy(array, 0, copy, 0, at);
+            copy[at] = value;
+            System.arraycopy(array, at, copy, at + 1, array.length - at);
+            return copy;
+        }
+
+        private static Record[][] insert(Record[][] array, int at, Record[] value) {
+            Record[][] copy = new Record[array.length + 1][];
+            System.arraycopy(array, 0, copy, 0, at);
+            copy[at] = value;
+            System.arraycopy(array, at, copy, at + 1, array.length - at);
+            return copy;
+        }
+
+        private static int[] remove(int[] array, int at) {
+            int[] copy = new int[array.length - 1];
+            System.arraycopy(array, 0, copy, 0, at);
+            System.arraycopy(array, at + 1, copy, at, copy.length - at);
+            return copy;
+        }
+
+        private static long[] remove(long[] array, int at) {
+            long[] copy = new long[array.length - 1];
+            System.arraycopy(array, 0, copy, 0, at);
+            System.arraycopy(array, at + 1, copy, at, copy.length - at);
+            return copy;
+        }
+
+        private static Record[][] remove(Record[][] array, int at) {
+            Record[][] copy = new Record[array.length - 1][];
+            System.arraycopy(array, 0, copy, 0, at);
+            System.arraycopy(array, at + 1, copy, at, copy.length - at);
+            return copy;
+        }
+    }
+
+    // The ConcurrentRecordManager.Snapshot class is an unchanging view of the ledger, consistent within each partition.
+    // See the class comment for what it guarantees across partitions.
+    public static final class Snapshot {
+        private final PartitionState[] states; // Non-empty partitions in date order.
+
+        private Snapshot(PartitionState[] states) {
+            this.states = states;
+        }
+
+        // Method to get the number of records.
+        public int size() {
+            int size = 0;
+            for (PartitionState state : states) {
+                size += state.count;
+            }
+            return size;
+        }
+
+        // Method to get all records, in date order.
+        public List<Record> getRecords() {
+            List<Record> result = new ArrayList<>(size());
+            for (PartitionState state : states) {
+                for (Record[] day : state.records) {
+                    result.addAll(Arrays.asList(day));
+                }
+            }
+            return result;
+        }
+
+        // Method to get the balance: income minus everything else.
+        public double calculateBalance() {
+            return Money.toAmount(balanceCents());
+        }
+
+        // Method to get the exact balance: income minus everything else.
+        public Money getBalance() {
+            return Money.ofCents(balanceCents());
+        }
+
+        private long balanceCents() {
+            long balance = 0;
+            for (PartitionState state : states) {
+                balance = Money.add(balance, state.balance);
+            }
+            return balance;
+        }
+
+        // Method to filter records by type.
+        public List<Record> filterByType(String type) {
+            List<Record> result = new ArrayList<>();
+            for (Record record : getRecords()) {
+                if (record.getType().equalsIgnoreCase(type)) {
+                    result.add(record);
+                }
+            }
+            return result;
+        }
+
+        // Method to filter records by category.
+        public List<Record> filterByCategory(String category) {
+            List<Record> result = new ArrayList<>();
+            for (Record record : getRecords()) {
+                if (record.getCategory().equalsIgnoreCase(category)) {
+                    result.add(record);
+                }
+            }
+            return result;
+        }
+
+        // Method to filter records between two epoch days (inclusive).
+        public List<Record> filterByDateRange(int startDay, int endDay) {
+            List<Record> result = new ArrayList<>();
+            for (PartitionState state : states) {
+                for (int i = 0; i < state.days.length; i++) {
+                    if (state.days[i] >= startDay && state.days[i] <= endDay) {
+                        result.addAll(Arrays.asList(state.records[i]));
+                    }
+                }
+            }
+            return result;
+        }
+
+        // Method to search records by description.
+        public List<Record> searchByDescription(String description) {
+            List<Record> result = new ArrayList<>();
+            for (Record record : getRecords()) {
+                if (record.getDescription().contains(description)) {
+                    result.add(record);
+                }
+            }
+            return result;
+        }
+
+        // Method to summarize the records between two epoch days (inclusive) from the per-day totals.
+        public PeriodSummary summarize(int startDay, int endDay) {
+            long totalIncome = 0;
+            long totalExpenses = 0;
+            int count = 0;
+            for (PartitionState state : states) {
+                if (state.days[0] > endDay || state.days[state.days.length - 1] < startDay) {
+                    continue;
+                }
+                for (int i = 0; i < state.days.length; i++) {
+                    if (state.days[i] >= startDay && state.days[i] <= endDay) {
+                        totalIncome = Money.add(totalIncome, state.income[i]);
+                        totalExpenses = Money.add(totalExpenses, state.expenses[i]);
+                        count += state.records[i].length;
+                    }
+                }
+            }
+            return new PeriodSummary(startDay, endDay, totalIncome, totalExpenses, count);
+        }
+
+        // Method to recompute the balance and every day's totals from the records and compare them with the kept
+        // totals. Throws IllegalStateException on a mismatch; meant for tests.
+        public void verify() {
+            for (PartitionState state : states) {
+                long balance = 0;
+                int count = 0;
+                for (int i = 0; i < state.days.length; i++) {
+                    long income = 0;
+                    long expenses = 0;
+                    if (state.records[i].length == 0 || (i > 0 && state.days[i - 1] >= state.days[i])) {
+                        throw new IllegalStateException("Days out of order or empty near day " + state.days[i]);
+                    }
+                    for (Record record : state.records[i]) {
+                        if (record.getEpochDay() != state.days[i]) {
+                            throw new IllegalStateException("Record filed under the wrong day: " + record);
+                        }
+                        income = Money.add(income, PartitionState.incomeOf(record));
+                        expenses = Money.add(expenses, PartitionState.expensesOf(record));
+                        balance = Money.add(balance, PartitionState.balanceChange(record));
+                        count++;
+                    }
+                    if (income != state.income[i] || expenses != state.expenses[i]) {
+                        throw new IllegalStateException("Day totals are out of date on day " + state.days[i]);
+                    }
+                }
+                if (count != state.count || balance != state.balance) {
+                    throw new IllegalStateException("Partition totals are out of date: " + count + " vs " + state.count
+                            + ", " + Money.format(balance) + " vs " + Money.format(state.balance));
+                }
+            }
+        }
+    }
+}
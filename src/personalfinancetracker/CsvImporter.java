@@ -0,0 +1,407 @@
+package personalfinancetracker;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+// The CsvImporter class streams large CSV files (for example bank exports) into a RecordManager.
+//
+// Each line holds: date (yyyy-MM-dd), type (INCOME/EXPENSE, any case), category, description, amount.
+// If the type is left empty the sign of the amount decides it: negative amounts are expenses.
+// Fields may be wrapped in double quotes, with "" for a quote inside; a quoted field cannot span lines.
+// A first line that does not start with a date is taken as a header.
+//
+// The file is read through one reusable byte buffer and fields are parsed in place: dates and amounts are
+// converted straight from the bytes and repeated categories reuse the same String, so the only allocations per
+// row are the Record and its description. Records are handed to RecordManager.addRecords in batches. A bad line
+// is counted and reported but does not stop the import. That includes a line whose amount would overflow the
+// ledger's totals: a batch that fails that check is added again one record at a time, so only those lines are lost.
+public class CsvImporter {
+    public static final int DEFAULT_BATCH_SIZE = 10_000;
+    private static final int FIELDS = 5;
+    private static final int MAX_REJECT_SAMPLES = 20;
+    private static final int CACHE_SIZE = 1 << 12;       // Distinct categories kept as shared Strings.
+
+    private final RecordManager manager;
+    private final int batchSize;
+    private final long[] batchLines;                      // Line number of each record in the current batch.
+    private byte[] buffer = new byte[1 << 16];           // Read buffer; grows only for very long lines.
+    private byte[] scratch = new byte[256];              // Space to unescape quoted fields.
+    private final int[] fieldStart = new int[FIELDS];
+    private final int[] fieldEnd = new int[FIELDS];
+    private final boolean[] fieldEscaped = new boolean[FIELDS];
+    private final byte[][] cachedBytes = new byte[CACHE_SIZE][];
+    private final String[] cachedStrings = new String[CACHE_SIZE];
+    private int cachedCount;
+    private String rejectReason;                          // Why the current line was rejected.
+    private long amountCents;                             // Amount of the current line, in cents.
+
+    // Constructor to initialize an importer with the default batch size.
+    public CsvImporter(RecordManager manager) {
+        this(manager, DEFAULT_BATCH_SIZE);
+    }
+
+    // Constructor to initialize an importer with a given batch size.
+    public CsvImporter(RecordManager manager, int batchSize) {
+        this.manager = manager;
+        this.batchSize = Math.max(1, batchSize);
+        this.batchLines = new long[this.batchSize];
+    }
+
+    // Method to import a CSV file.
+    public ImportResult importFile(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return importStream(in);
+        }
+    }
+
+    // Method to import CSV data from a stream.
+    public ImportResult importStream(InputStream in) throws IOException {
+        long startTime = System.nanoTime();
+        List<Record> batch = new ArrayList<>(batchSize);
+        List<String> rejectSamples = new ArrayList<>();
+        long lineNumber = 0;
+        long imported = 0;
+        long rejected = 0;
+        int start = 0;        // Start of the current line in the buffer.
+        int end = 0;          // End of the data in the buffer.
+        int scan = 0;         // Where to continue looking for the end of the line.
+        boolean eof = false;
+        while (true) {
+            int newline = -1;
+            for (int i = scan; i < end; i++) {
+                if (buffer[i] == '\n') {
+                    newline = i;
+                    break;
+                }
+            }
+            if (newline < 0 && !eof) {
+                // Move the partial line to the front, growing the buffer if the line fills it, then read more.
+                if (start > 0) {
+                    System.arraycopy(buffer, start, buffer, 0, end - start);
+                    end -= start;
+                    start = 0;
+                }
+                if (end == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                scan = end;
+                int read = in.read(buffer, end, buffer.length - end);
+                if (read < 0) {
+                    eof = true;
+                } else {
+                    end += read;
+                }
+                continue;
+            }
+            int lineEnd = newline < 0 ? end : newline;
+            if (newline < 0 && start == end) {
+                break; // End of input.
+            }
+            lineNumber++;
+            Record record = parseLine(start, lineEnd);
+            if (record != null) {
+                batchLines[batch.size()] = lineNumber;
+                batch.add(record);
+                if (batch.size() == batchSize) {
+                    int overflowed = addBatch(batch, rejectSamples);
+                    imported += batch.size() - overflowed;
+                    rejected += overflowed;
+                    batch.clear();
+                }
+            } else if (rejectReason != null && !(lineNumber == 1 && "unparseable date".equals(rejectReason))) {
+                rejected++;
+                if (rejectSamples.size() < MAX_REJECT_SAMPLES) {
+                    rejectSamples.add("line " + lineNumber + ": " + rejectReason + ": "
+                            + new String(buffer, start, Math.min(lineEnd - start, 200), StandardCharsets.UTF_8).trim());
+                }
+            }
+            start = newline < 0 ? end : newline + 1;
+            scan = start;
+            if (newline < 0) {
+                break;
+            }
+        }
+        int overflowed = addBatch(batch, rejectSamples);
+        imported += batch.size() - overflowed;
+        rejected += overflowed;
+        return new ImportResult(lineNumber, imported, rejected, System.nanoTime() - startTime, rejectSamples);
+    }
+
+    // Method to add a batch to the manager. If a total would overflow, nothing of the batch has been added, so its
+    // records are added one at a time and only the ones that would overflow are rejected. Returns how many were.
+    private int addBatch(List<Record> batch, List<String> rejectSamples) {
+        try {
+            manager.addRecords(batch);
+            return 0;
+        } catch (ArithmeticException e) {
+            int overflowed = 0;
+            for (int i = 0; i < batch.size(); i++) {
+                try {
+                    manager.addRecords(Collections.singletonList(batch.get(i)));
+                } catch (ArithmeticException overflow) {
+                    overflowed++;
+                    if (rejectSamples.size() < MAX_REJECT_SAMPLES) {
+                        rejectSamples.add("line " + batchLines[i] + ": amount would overflow the totals");
+                    }
+                }
+            }
+            return overflowed;
+        }
+    }
+
+    // Method to parse one line into a record. Returns null with rejectReason set for a bad line,
+    // or null with rejectReason null for a blank line.
+    private Record parseLine(int from, int to) {
+        rejectReason = null;
+        while (to > from && (buffer[to - 1] == '\r' || buffer[to - 1] == ' ' || buffer[to - 1] == '\t')) {
+            to--;
+        }
+        if (to == from) {
+            return null; // Blank line.
+        }
+        if (!splitFields(from, to)) {
+            return null;
+        }
+        int epochDay = parseDate(fieldStart[0], fieldEnd[0]);
+        if (epochDay == Record.INVALID_DAY) {
+            rejectReason = "unparseable date";
+            return null;
+        }
+        if (!parseAmount(fieldStart[4], fieldEnd[4])) {
+            return null;
+        }
+        String type;
+        if (fieldEnd[1] == fieldStart[1]) {
+            type = amountCents < 0 ? "EXPENSE" : "INCOME"; // Bank statements sign the amount instead.
+            amountCents = Math.abs(amountCents);
+        } else if (equalsIgnoreCase(fieldStart[1], fieldEnd[1], "INCOME")) {
+            type = "INCOME";
+        } else if (equalsIgnoreCase(fieldStart[1], fieldEnd[1], "EXPENSE")) {
+            type = "EXPENSE";
+        } else {
+            rejectReason = "type must be INCOME or EXPENSE";
+            return null;
+        }
+        if (amountCents < 0) {
+            rejectReason = "negative amount with an explicit type";
+            return null;
+        }
+        String category = cachedString(2);
+        String description = string(3);
+        return new Record(0, epochDay, type, category, description, amountCents);
+    }
+
+    // Method to find the five fields of a line. Returns false with rejectReason set if the line is malformed.
+    private boolean splitFields(int from, int to) {
+        int field = 0;
+        int i = from;
+        while (true) {
+            if (field == FIELDS) {
+                rejectReason = "too many fields";
+                return false;
+            }
+            while (i < to && buffer[i] == ' ') {
+                i++;
+            }
+            fieldEscaped[field] = false;
+            if (i < to && buffer[i] == '"') {
+                // Quoted field: runs to the next quote that is not doubled.
+                int contentStart = ++i;
+                while (true) {
+                    if (i >= to) {
+                        rejectReason = "unterminated quote";
+                        return false;
+                    }
+                    if (buffer[i] == '"') {
+                        if (i + 1 < to && buffer[i + 1] == '"') {
+                            fieldEscaped[field] = true;
+                            i += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    i++;
+                }
+                fieldStart[field] = contentStart;
+                fieldEnd[field] = i;
+                i++;
+                while (i < to && buffer[i] == ' ') {
+                    i++;
+                }
+                if (i < to && buffer[i] != ',') {
+                    rejectReason = "text after closing quote";
+                    return false;
+                }
+            } else {
+                int contentStart = i;
+                while (i < to && buffer[i] != ',') {
+                    i++;
+                }
+                int contentEnd = i;
+                while (contentEnd > contentStart && buffer[contentEnd - 1] == ' ') {
+                    contentEnd--;
+                }
+                fieldStart[field] = contentStart;
+                fieldEnd[field] = contentEnd;
+            }
+            field++;
+            if (i >= to) {
+                break;
+            }
+            i++; // Skip the comma.
+        }
+        if (field != FIELDS) {
+            rejectReason = "expected " + FIELDS + " fields but found " + field;
+            return false;
+        }
+        return true;
+    }
+
+    // Method to parse a yyyy-MM-dd date from the buffer, returning Record.INVALID_DAY if it is not one.
+    private int parseDate(int from, int to) {
+        if (to - from != 10 || buffer[from + 4] != '-' || buffer[from + 7] != '-') {
+            return Record.INVALID_DAY;
+        }
+        int year = digits(from, from + 4);
+        int month = digits(from + 5, from + 7);
+        int day = digits(from + 8, from + 10);
+        if (year < 0 || month < 0 || day < 0) {
+            return Record.INVALID_DAY;
+        }
+        return Record.toEpochDay(year, month, day);
+    }
+
+    // Method to read a run of digits from the buffer, returning -1 if any byte is not a digit.
+    private int digits(int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = buffer[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    // Method to parse an amount with at most two decimals into amountCents. Returns false with rejectReason set
+    // if it is not a valid amount.
+    private boolean parseAmount(int from, int to) {
+        boolean negative = false;
+        if (from < to && (buffer[from] == '-' || buffer[from] == '+')) {
+            negative = buffer[from] == '-';
+            from++;
+        }
+        long cents = 0;
+        int decimals = -1;       // Digits seen after the point, or -1 before it.
+        boolean anyDigit = false;
+        for (int i = from; i < to; i++) {
+            byte b = buffer[i];
+            if (b == '.' && decimals < 0) {
+                decimals = 0;
+            } else if (b >= '0' && b <= '9') {
+                if (decimals == 2) {
+                    rejectReason = "amount has more than two decimals";
+                    return false;
+                }
+                if (cents > (Long.MAX_VALUE - 9) / 10) {
+                    rejectReason = "amount is too large";
+                    return false;
+                }
+                cents = cents * 10 + (b - '0');
+                anyDigit = true;
+                if (decimals >= 0) {
+                    decimals++;
+                }
+            } else {
+                rejectReason = "unparseable amount";
+                return false;
+            }
+        }
+        if (!anyDigit) {
+            rejectReason = "missing amount";
+            return false;
+        }
+        for (int d = Math.max(decimals, 0); d < 2; d++) {
+            if (cents > Long.MAX_VALUE / 10) {
+                rejectReason = "amount is too large";
+                return false;
+            }
+            cents *= 10;
+        }
+        amountCents = negative ? -cents : cents;
+        return true;
+    }
+
+    // Method to compare a field with an ASCII word ignoring case.
+    private boolean equalsIgnoreCase(int from, int to, String word) {
+        if (to - from != word.length()) {
+            return false;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            int b = buffer[from + i];
+            if (b >= 'a' && b <= 'z') {
+                b -= 'a' - 'A';
+            }
+            if (b != word.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Method to decode a field, reusing the String from earlier rows when the bytes are the same.
+    private String cachedString(int field) {
+        if (fieldEscaped[field]) {
+            return string(field);
+        }
+        int from = fieldStart[field];
+        int to = fieldEnd[field];
+        int hash = 0x811C9DC5;
+        for (int i = from; i < to; i++) {
+            hash = (hash ^ buffer[i]) * 0x01000193;
+        }
+        int probe = hash & (CACHE_SIZE - 1);
+        while (cachedBytes[probe] != null) {
+            byte[] cached = cachedBytes[probe];
+            if (Arrays.equals(cached, 0, cached.length, buffer, from, to)) {
+                return cachedStrings[probe];
+            }
+            probe = (probe + 1) & (CACHE_SIZE - 1);
+        }
+        String value = new String(buffer, from, to - from, StandardCharsets.UTF_8);
+        if (cachedCount < CACHE_SIZE / 2) {
+            cachedBytes[probe] = Arrays.copyOfRange(buffer, from, to);
+            cachedStrings[probe] = value;
+            cachedCount++;
+        }
+        return value;
+    }
+
+    // Method to decode a field, turning "" back into a single quote in quoted fields.
+    private String string(int field) {
+        int from = fieldStart[field];
+        int to = fieldEnd[field];
+        if (!fieldEscaped[field]) {
+            return new String(buffer, from, to - from, StandardCharsets.UTF_8);
+        }
+        if (scratch.length < to - from) {
+            scratch = new byte[to - from];
+        }
+        int length = 0;
+        for (int i = from; i < to; i++) {
+            scratch[length++] = buffer[i];
+            if (buffer[i] == '"') {
+                i++; // Skip the second quote of the pair.
+            }
+        }
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,257 @@
+package personalfinancetracker;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// The DailySummaryIndex class keeps income, expense and record-count totals per epoch day in Fenwick trees
+// (binary indexed trees), one per segment of SEGMENT_DAYS consecutive days. The totals of a [start, end] window
+// take two prefix walks of O(log SEGMENT_DAYS) for each of the (at most two) segments it covers only in part, and
+// one read of the segment totals for each segment it covers whole, so a window over k segments costs
+// O(log SEGMENT_DAYS + k). Only segments holding records exist, so k is at most one per 1024 days of the window.
+// Segments are only created for days that hold records, so an outlying date (year 1 next to year 9999) costs one
+// more segment instead of arrays spanning every day in between.
+// Amounts are exact cents. Per-day totals are overflow-checked; the tree nodes add without checks, because
+// long arithmetic wraps exactly, so a window total is right whenever the total itself is in range.
+class DailySummaryIndex {
+    private static final int SEGMENT_DAYS = 1024;  // A power of two, so the last node of each tree holds its total.
+
+    private final TreeMap<Long, Segment> segments; // Segments by first day / SEGMENT_DAYS.
+
+    // Constructor to initialize an empty index.
+    DailySummaryIndex() {
+        this.segments = new TreeMap<>();
+    }
+
+    // Method to include a record's values on its day.
+    void add(int epochDay, boolean income, boolean expense, long amount) {
+        update(epochDay, income, expense, amount, 1);
+    }
+
+    // Method to take a record's values back out of its day.
+    void remove(int epochDay, boolean income, boolean expense, long amount) {
+        update(epochDay, income, expense, Money.subtract(0, amount), -1);
+    }
+
+    // Method to check that including the records, in order, would not overflow any per-day total, without changing
+    // anything. Throws ArithmeticException if it would.
+    void checkAdd(List<Record> records) {
+        Map<Long, Long> totals = new HashMap<>();   // Day totals as they would become, by 2 * day (+ 1 for expenses).
+        for (Record record : records) {
+            checkDay(totals, record, record.getAmountCents());
+        }
+    }
+
+    // Method to check that replacing a record's values with edited ones would not overflow any per-day total, without
+    // changing anything. Throws ArithmeticException if it would.
+    void checkReplace(Record old, Record edited) {
+        Map<Long, Long> totals = new HashMap<>();   // Day totals as they would become, keyed as in checkAdd.
+        checkDay(totals, old, Money.subtract(0, old.getAmountCents()));
+        checkDay(totals, edited, edited.getAmountCents());
+    }
+
+    // Method to add an amount to the total a record's day would have, throwing ArithmeticException on overflow.
+    private void checkDay(Map<Long, Long> totals, Record record, long amount) {
+        boolean income = isIncome(record);
+        if (!income && !isExpense(record)) {
+            return;
+        }
+        long key = 2L * record.getEpochDay() + (income ? 0 : 1);
+        Long total = totals.get(key);
+        if (total == null) {
+            total = dayTotal(record.getEpochDay(), income);
+        }
+        totals.put(key, Money.add(total, amount));
+    }
+
+    // Method to include a batch of records. Large batches update the per-day totals and rebuild the trees of each
+    // segment they touch once, in O(batch + touched days), instead of paying O(log SEGMENT_DAYS) per record.
+    void addAll(List<Record> records) {
+        if (records.size() < SEGMENT_DAYS / 16) {
+            for (Record record : records) {
+                add(record.getEpochDay(), isIncome(record), isExpense(record), record.getAmountCents());
+            }
+            return;
+        }
+        Map<Segment, Boolean> touched = new IdentityHashMap<>();
+        for (Record record : records) {
+            Segment segment = segment(record.getEpochDay());
+            int position = segment.position(record.getEpochDay());
+            if (isIncome(record)) {
+                segment.dailyIncome[position] = Money.add(segment.dailyIncome[position], record.getAmountCents());
+            } else if (isExpense(record)) {
+                segment.dailyExpenses[position] = Money.add(segment.dailyExpenses[position], record.getAmountCents());
+            }
+            segment.dailyCounts[position]++;
+            touched.put(segment, Boolean.TRUE);
+        }
+        for (Segment segment : touched.keySet()) {
+            build(segment.dailyIncome, segment.incomeTree);
+            build(segment.dailyExpenses, segment.expenseTree);
+            build(segment.dailyCounts, segment.countTree);
+        }
+    }
+
+    // Method to get the totals between two days (inclusive).
+    PeriodSummary summarize(int startDay, int endDay) {
+        long income = 0;
+        long expenses = 0;
+        int count = 0;
+        if (startDay <= endDay) {
+            for (Segment segment : segments.subMap(key(startDay), true, key(endDay), true).values()) {
+                // Offsets are taken in long, so days near either end of the int range cannot overflow them.
+                int from = (int) (Math.max(startDay, segment.firstDay) - segment.firstDay);
+                int to = (int) (Math.min(endDay, segment.firstDay + SEGMENT_DAYS - 1) - segment.firstDay);
+                if (from == 0 && to == SEGMENT_DAYS - 1) {
+                    income += segment.incomeTree[SEGMENT_DAYS];   // The last node of a power-of-two tree is its total.
+                    expenses += segment.expenseTree[SEGMENT_DAYS];
+                    count += segment.countTree[SEGMENT_DAYS];
+                    continue;
+                }
+                income += prefix(segment.incomeTree, to) - prefix(segment.incomeTree, from - 1);
+                expenses += prefix(segment.expenseTree, to) - prefix(segment.expenseTree, from - 1);
+                count += prefix(segment.countTree, to) - prefix(segment.countTree, from - 1);
+            }
+        }
+        return new PeriodSummary(startDay, endDay, income, expenses, count);
+    }
+
+    // Method to get the number of days currently covered by the trees.
+    int capacity() {
+        return segments.size() * SEGMENT_DAYS;
+    }
+
+    // Method to estimate the heap held by the index, in bytes: per segment, four long arrays and two int arrays
+    // per day, plus its map entry.
+    long estimateHeapBytes() {
+        return 64 + segments.size() * (40 + 16 + 32 + 6 * 16 + (long) SEGMENT_DAYS * (4 * 8 + 2 * 4));
+    }
+
+    // Method to empty the index.
+    void clear() {
+        segments.clear();
+    }
+
+    // Method to check whether a record counts as income.
+    static boolean isIncome(Record record) {
+        return record.getType().equalsIgnoreCase("INCOME");
+    }
+
+    // Method to check whether a record counts as an expense.
+    static boolean isExpense(Record record) {
+        return record.getType().equalsIgnoreCase("EXPENSE");
+    }
+
+    // Method to get the income or expense total of one day, in cents.
+    private long dayTotal(int epochDay, boolean income) {
+        Segment segment = segments.get(key(epochDay));
+        if (segment == null) {
+            return 0;
+        }
+        int position = segment.position(epochDay);
+        return income ? segment.dailyIncome[position] : segment.dailyExpenses[position];
+    }
+
+    // Method to apply a change to one day in the per-day totals and the trees.
+    private void update(int epochDay, boolean income, boolean expense, long amount, int count) {
+        Segment segment = segment(epochDay);
+        int position = segment.position(epochDay);
+        if (income) {
+            segment.dailyIncome[position] = Money.add(segment.dailyIncome[position], amount);
+            for (int i = position + 1; i <= SEGMENT_DAYS; i += i & -i) {
+                segment.incomeTree[i] += amount;
+            }
+        } else if (expense) {
+            segment.dailyExpenses[position] = Money.add(segment.dailyExpenses[position], amount);
+            for (int i = position + 1; i <= SEGMENT_DAYS; i += i & -i) {
+                segment.expenseTree[i] += amount;
+            }
+        }
+        segment.dailyCounts[position] += count;
+        for (int i = position + 1; i <= SEGMENT_DAYS; i += i & -i) {
+            segment.countTree[i] += count;
+        }
+    }
+
+    // Method to get the segment holding a day, creating it on first use.
+    private Segment segment(int epochDay) {
+        return segments.computeIfAbsent(key(epochDay), key -> new Segment(key * SEGMENT_DAYS));
+    }
+
+    // Method to get the key of the segment holding a day.
+    private static long key(int epochDay) {
+        return Math.floorDiv((long) epochDay, SEGMENT_DAYS);
+    }
+
+    // Method to build a Fenwick tree from per-day totals in O(D).
+    private static void build(long[] values, long[] tree) {
+        Arrays.fill(tree, 0);
+        for (int i = 1; i < tree.length; i++) {
+            tree[i] += values[i - 1];
+            int parent = i + (i & -i);
+            if (parent < tree.length) {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+
+    // Method to build a Fenwick tree from per-day counts in O(D).
+    private static void build(int[] values, int[] tree) {
+        Arrays.fill(tree, 0);
+        for (int i = 1; i < tree.length; i++) {
+            tree[i] += values[i - 1];
+            int parent = i + (i & -i);
+            if (parent < tree.length) {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+
+    // Method to sum the first (position + 1) days of a tree.
+    private static long prefix(long[] tree, int position) {
+        long sum = 0;
+        for (int i = position + 1; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    // Method to sum the first (position + 1) days of a count tree.
+    private static int prefix(int[] tree, int position) {
+        int sum = 0;
+        for (int i = position + 1; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    // The totals of SEGMENT_DAYS consecutive days, starting at firstDay.
+    private static final class Segment {
+        final long firstDay;        // Epoch day stored at position 0.
+        final long[] dailyIncome;   // Plain per-day totals, kept so the trees can be rebuilt after a batch.
+        final long[] dailyExpenses;
+        final int[] dailyCounts;
+        final long[] incomeTree;    // Fenwick trees over the per-day totals (1-based).
+        final long[] expenseTree;
+        final int[] countTree;
+
+        // Constructor to initialize an empty segment.
+        Segment(long firstDay) {
+            this.firstDay = firstDay;
+            this.dailyIncome = new long[SEGMENT_DAYS];
+            this.dailyExpenses = new long[SEGMENT_DAYS];
+            this.dailyCounts = new int[SEGMENT_DAYS];
+            this.incomeTree = new long[SEGMENT_DAYS + 1];
+            this.expenseTree = new long[SEGMENT_DAYS + 1];
+            this.countTree = new int[SEGMENT_DAYS + 1];
+        }
+
+        // Method to get a day's position inside the segment.
+        int position(int epochDay) {
+            return (int) (epochDay - firstDay);
+        }
+    }
+}
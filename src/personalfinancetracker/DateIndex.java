@@ -0,0 +1,251 @@
+package personalfinancetracker;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+
+// The DateIndex class is a sorted secondary index from epoch day to record slots.
+// Several records may share a day, so every day keeps its own list of slots in insertion order.
+class DateIndex {
+    private final NavigableMap<Integer, SlotList> days; // Sorted map of epoch day -> slots on that day.
+    private int size;                                   // Total number of indexed slots.
+
+    // Constructor to initialize an empty index.
+    DateIndex() {
+        this.days = new TreeMap<>();
+    }
+
+    // Method to add a slot under the given day.
+    void add(int epochDay, int slot) {
+        days.computeIfAbsent(epochDay, d -> new SlotList()).add(slot);
+        size++;
+    }
+
+    // Method to remove a single slot from the given day. Returns false if it was not indexed.
+    boolean remove(int epochDay, int slot) {
+        SlotList slots = days.get(epochDay);
+        if (slots == null || !slots.remove(slot)) {
+            return false;
+        }
+        if (slots.size() == 0) {
+            days.remove(epochDay); // Drop empty days so range scans stay tight.
+        }
+        size--;
+        return true;
+    }
+
+    // Method to get the first (oldest inserted) slot on a day, or -1 if there is none.
+    int first(int epochDay) {
+        SlotList slots = days.get(epochDay);
+        return slots == null ? -1 : slots.get(0);
+    }
+
+    // Method to remove a whole day, returning its slots (or null if there were none).
+    SlotList removeDay(int epochDay) {
+        SlotList slots = days.remove(epochDay);
+        if (slots != null) {
+            size -= slots.size();
+        }
+        return slots;
+    }
+
+    // Method to get all slots on a day, or null if there are none.
+    SlotList slots(int epochDay) {
+        return days.get(epochDay);
+    }
+
+    // Method to count the slots on a day.
+    int count(int epochDay) {
+        SlotList slots = days.get(epochDay);
+        return slots == null ? 0 : slots.size();
+    }
+
+    // Method to visit every slot between two days (inclusive), in date order.
+    void forEachInRange(int startDay, int endDay, IntConsumer action) {
+        if (startDay > endDay) {
+            return;
+        }
+        for (SlotList slots : days.subMap(startDay, true, endDay, true).values()) {
+            for (int i = 0; i < slots.size(); i++) {
+                action.accept(slots.get(i));
+            }
+        }
+    }
+
+    // Method to visit the slots between two days (inclusive), latest day first and in slot order within a day,
+    // until the action returns false.
+    void forEachInRangeDescending(int startDay, int endDay, IntPredicate action) {
+        if (startDay > endDay) {
+            return;
+        }
+        for (SlotList slots : days.subMap(startDay, true, endDay, true).descendingMap().values()) {
+            for (int i = 0; i < slots.size(); i++) {
+                if (!action.test(slots.get(i))) {
+                    return;
+                }
+            }
+        }
+    }
+
+    // Method to count the slots between two days (inclusive).
+    int countInRange(int startDay, int endDay) {
+        if (startDay > endDay) {
+            return 0;
+        }
+        int count = 0;
+        for (SlotList slots : days.subMap(startDay, true, endDay, true).values()) {
+            count += slots.size();
+        }
+        return count;
+    }
+
+    // Method to visit every slot in date order.
+    void forEach(IntConsumer action) {
+        for (Map.Entry<Integer, SlotList> entry : days.entrySet()) {
+            SlotList slots = entry.getValue();
+            for (int i = 0; i < slots.size(); i++) {
+                action.accept(slots.get(i));
+            }
+        }
+    }
+
+    // Method to renumber the remaining slots after the given (ascending) slots were removed from the backing list.
+    void shiftAfterRemoval(SlotList removed) {
+        if (removed.size() == 0) {
+            return;
+        }
+        for (SlotList slots : days.values()) {
+            for (int i = 0; i < slots.size(); i++) {
+                int slot = slots.get(i);
+                slots.set(i, slot - removed.countBelow(slot));
+            }
+        }
+    }
+
+    // Method to get the number of indexed slots.
+    int size() {
+        return size;
+    }
+
+    // Method to get the number of distinct days.
+    int dayCount() {
+        return days.size();
+    }
+
+    // Method to estimate the heap held by the index, in bytes.
+    long estimateHeapBytes() {
+        long bytes = 48;
+        for (SlotList slots : days.values()) {
+            bytes += 40 + 16 + slots.heapBytes(); // Tree entry, boxed day and the list.
+        }
+        return bytes;
+    }
+
+    // Method to empty the index.
+    void clear() {
+        days.clear();
+        size = 0;
+    }
+
+    // A growable list of primitive slot numbers, kept in insertion order.
+    static final class SlotList {
+        private int[] slots = new int[2];
+        private int size;
+
+        void add(int slot) {
+            if (size == slots.length) {
+                int[] grown = new int[slots.length * 2];
+                System.arraycopy(slots, 0, grown, 0, size);
+                slots = grown;
+            }
+            slots[size++] = slot;
+        }
+
+        // Inserts a slot at its place in a list kept in ascending order, unless it is already there.
+        boolean insertSorted(int slot) {
+            int at = countBelow(slot);
+            if (at < size && slots[at] == slot) {
+                return false;
+            }
+            add(slot);
+            System.arraycopy(slots, at, slots, at + 1, size - 1 - at);
+            slots[at] = slot;
+            return true;
+        }
+
+        // Removes a slot from a list kept in ascending order, with a binary search.
+        boolean removeSorted(int slot) {
+            int at = countBelow(slot);
+            if (at == size || slots[at] != slot) {
+                return false;
+            }
+            System.arraycopy(slots, at + 1, slots, at, size - at - 1);
+            size--;
+            return true;
+        }
+
+        // Drops the given (ascending) slots and renumbers the rest after they were removed from the store.
+        void removeAndShift(SlotList removed) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int slot = slots[i];
+                int below = removed.countBelow(slot);
+                if (below < removed.size && removed.slots[below] == slot) {
+                    continue; // One of the removed slots.
+                }
+                slots[kept++] = slot - below;
+            }
+            size = kept;
+        }
+
+        // Number of bytes the list holds on the heap.
+        long heapBytes() {
+            return 32 + 16 + 4L * slots.length;
+        }
+
+        boolean remove(int slot) {
+            for (int i = 0; i < size; i++) {
+                if (slots[i] == slot) {
+                    System.arraycopy(slots, i + 1, slots, i, size - i - 1);
+                    size--;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        int get(int index) {
+            return slots[index];
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(slots, size);
+        }
+
+        void set(int index, int slot) {
+            slots[index] = slot;
+        }
+
+        // Number of slots below the given one; the list must be in ascending order.
+        int countBelow(int slot) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (slots[mid] < slot) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,330 @@
+package personalfinancetracker;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// The DescriptionIndex class is a full-text index over record descriptions, with two parts:
+//  - a token index: every lower-cased word (run of letters and digits) -> the slots whose description has it;
+//  - a trigram index: every three characters of the lower-cased description -> the slots that contain them.
+// Whole-word terms use the token index. Substring and prefix searches intersect the posting lists of the query's
+// trigrams and then check the few remaining candidates against the description itself.
+// Posting lists are kept in ascending slot order, so results come back in ledger order and lists intersect by
+// binary search.
+class DescriptionIndex {
+    private static final int MAX_INTERSECTED = 4;         // Most trigram lists intersected for one search.
+    private final Map<String, DateIndex.SlotList> tokens; // Map of lower-cased word -> slots.
+    private long[] trigramKeys;                           // Open-addressing table of packed trigrams, 0 = empty.
+    private DateIndex.SlotList[] trigramLists;            // Posting list for each key in the table.
+    private int trigramCount;                             // Number of distinct trigrams in the table.
+    private long postings;                                // Total entries over all posting lists.
+
+    // Constructor to initialize an empty index.
+    DescriptionIndex() {
+        this.tokens = new HashMap<>();
+        this.trigramKeys = new long[1 << 12];
+        this.trigramLists = new DateIndex.SlotList[1 << 12];
+    }
+
+    // Method to index the description of a slot.
+    void add(String description, int slot) {
+        for (String token : tokenize(description)) {
+            if (tokens.computeIfAbsent(token, t -> new DateIndex.SlotList()).insertSorted(slot)) {
+                postings++;
+            }
+        }
+        String lower = lowerCase(description);
+        for (int i = 0; i + 3 <= lower.length(); i++) {
+            if (trigramList(trigramKey(lower, i), true).insertSorted(slot)) {
+                postings++;
+            }
+        }
+    }
+
+    // Method to take the description of a slot out of the index.
+    void remove(String description, int slot) {
+        for (String token : tokenize(description)) {
+            DateIndex.SlotList slots = tokens.get(token);
+            if (slots != null && slots.removeSorted(slot)) {
+                postings--;
+                if (slots.size() == 0) {
+                    tokens.remove(token);
+                }
+            }
+        }
+        String lower = lowerCase(description);
+        for (int i = 0; i + 3 <= lower.length(); i++) {
+            DateIndex.SlotList slots = trigramList(trigramKey(lower, i), false);
+            if (slots != null && slots.removeSorted(slot)) {
+                postings--; // Empty trigram lists stay in the table; there are few distinct trigrams.
+            }
+        }
+    }
+
+    // Method to drop the given (ascending) slots and renumber the rest after they were removed from the store.
+    void removeAndShift(DateIndex.SlotList removed) {
+        if (removed.size() == 0) {
+            return;
+        }
+        Iterator<DateIndex.SlotList> lists = tokens.values().iterator();
+        while (lists.hasNext()) {
+            DateIndex.SlotList slots = lists.next();
+            postings -= slots.size();
+            slots.removeAndShift(removed);
+            postings += slots.size();
+            if (slots.size() == 0) {
+                lists.remove();
+            }
+        }
+        for (DateIndex.SlotList slots : trigramLists) {
+            if (slots != null) {
+                postings -= slots.size();
+                slots.removeAndShift(removed);
+                postings += slots.size();
+            }
+        }
+    }
+
+    // Method to get the candidate slots for a case-sensitive substring search, or null if the text is too short
+    // to narrow the search and every record has to be checked. Candidates still have to be checked with contains().
+    int[] substringCandidates(String text) {
+        if (text.length() < 3) {
+            return null;
+        }
+        String lower = lowerCase(text);
+        List<DateIndex.SlotList> lists = new ArrayList<>();
+        for (int i = 0; i + 3 <= lower.length(); i++) {
+            DateIndex.SlotList slots = trigramList(trigramKey(lower, i), false);
+            if (slots == null || slots.size() == 0) {
+                return new int[0];
+            }
+            lists.add(slots);
+        }
+        return intersect(lists);
+    }
+
+    // Method to get the candidate slots for one search term: a whole word, or a word prefix when it ends with '*'.
+    // Returns null if a short prefix cannot be narrowed down by the trigrams.
+    int[] termCandidates(String term) {
+        if (term.endsWith("*")) {
+            String prefix = term.substring(0, term.length() - 1);
+            return prefix.length() < 3 ? null : substringCandidates(prefix);
+        }
+        DateIndex.SlotList slots = tokens.get(term);
+        return slots == null ? new int[0] : slots.toArray();
+    }
+
+    // Method to get the candidate slots for terms that must all match, or null if none of them narrows the search.
+    int[] termsCandidates(List<String> terms) {
+        int[] result = null;
+        for (String term : terms) {
+            int[] candidates = termCandidates(term);
+            if (candidates != null) {
+                result = result == null ? candidates : intersect(result, candidates);
+            }
+        }
+        return result;
+    }
+
+    // Method to split a search into normalized terms, keeping a trailing '*' that marks a prefix.
+    static List<String> parseTerms(String search) {
+        List<String> terms = new ArrayList<>();
+        for (String part : search.trim().split("\\s+")) {
+            boolean prefix = part.endsWith("*");
+            for (String token : tokenize(part)) {
+                terms.add(token);
+            }
+            if (prefix && !terms.isEmpty()) {
+                terms.set(terms.size() - 1, terms.get(terms.size() - 1) + "*");
+            }
+        }
+        return terms;
+    }
+
+    // Method to check a description against parsed terms: every term must match a whole word or word prefix.
+    static boolean matchesTerms(String description, List<String> terms) {
+        List<String> words = tokenize(description);
+        for (String term : terms) {
+            boolean found = false;
+            boolean prefix = term.endsWith("*");
+            String stem = prefix ? term.substring(0, term.length() - 1) : term;
+            for (String word : words) {
+                if (prefix ? word.startsWith(stem) : word.equals(stem)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Method to get the total number of entries over all posting lists.
+    long postingCount() {
+        return postings;
+    }
+
+    // Method to estimate the heap held by the index, in bytes.
+    long estimateHeapBytes() {
+        long bytes = 16L * trigramKeys.length;             // Keys and list references of the trigram table.
+        for (DateIndex.SlotList slots : trigramLists) {
+            if (slots != null) {
+                bytes += slots.heapBytes();
+            }
+        }
+        for (Map.Entry<String, DateIndex.SlotList> entry : tokens.entrySet()) {
+            bytes += 48 + 40 + 2L * entry.getKey().length(); // Map entry, table slot and the word itself.
+            bytes += entry.getValue().heapBytes();
+        }
+        return bytes;
+    }
+
+    // Method to describe the size of the index.
+    String describe() {
+        return String.format("%,d words, %,d trigrams, %,d postings, about %,d KB",
+                tokens.size(), trigramCount, postings, estimateHeapBytes() / 1024);
+    }
+
+    // Method to empty the index.
+    void clear() {
+        tokens.clear();
+        trigramKeys = new long[1 << 12];
+        trigramLists = new DateIndex.SlotList[1 << 12];
+        trigramCount = 0;
+        postings = 0;
+    }
+
+    // Method to split a text into distinct lower-cased words.
+    static List<String> tokenize(String text) {
+        List<String> words = new ArrayList<>(4);
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                String word = text.substring(start, i).toLowerCase(Locale.ROOT);
+                if (!words.contains(word)) {
+                    words.add(word);
+                }
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    // Method to lower-case a text one character at a time, so that positions and lengths are unchanged.
+    private static String lowerCase(String text) {
+        char[] chars = text.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(chars[i]);
+        }
+        return new String(chars);
+    }
+
+    // Method to pack the three characters at a position into a non-zero key.
+    private static long trigramKey(String text, int at) {
+        return 1L << 62 | (long) text.charAt(at) << 32 | (long) text.charAt(at + 1) << 16 | text.charAt(at + 2);
+    }
+
+    // Method to find the posting list of a trigram, creating it if asked to.
+    private DateIndex.SlotList trigramList(long key, boolean create) {
+        int mask = trigramKeys.length - 1;
+        int probe = (int) ((key * 0x9E3779B97F4A7C15L) >>> 40) & mask;
+        while (trigramKeys[probe] != 0) {
+            if (trigramKeys[probe] == key) {
+                return trigramLists[probe];
+            }
+            probe = (probe + 1) & mask;
+        }
+        if (!create) {
+            return null;
+        }
+        if (trigramCount * 2 >= trigramKeys.length) {
+            growTrigrams();
+            return trigramList(key, true);
+        }
+        trigramKeys[probe] = key;
+        trigramLists[probe] = new DateIndex.SlotList();
+        trigramCount++;
+        return trigramLists[probe];
+    }
+
+    // Method to double the trigram table.
+    private void growTrigrams() {
+        long[] oldKeys = trigramKeys;
+        DateIndex.SlotList[] oldLists = trigramLists;
+        trigramKeys = new long[oldKeys.length * 2];
+        trigramLists = new DateIndex.SlotList[oldKeys.length * 2];
+        int mask = trigramKeys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int probe = (int) ((oldKeys[i] * 0x9E3779B97F4A7C15L) >>> 40) & mask;
+                while (trigramKeys[probe] != 0) {
+                    probe = (probe + 1) & mask;
+                }
+                trigramKeys[probe] = oldKeys[i];
+                trigramLists[probe] = oldLists[i];
+            }
+        }
+    }
+
+    // Method to intersect two ascending slot arrays.
+    private static int[] intersect(int[] a, int[] b) {
+        int[] result = new int[Math.min(a.length, b.length)];
+        int size = 0;
+        for (int i = 0, j = 0; i < a.length && j < b.length; ) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[size++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    // Method to intersect ascending posting lists, starting from the shortest. Lists of similar length are merged;
+    // much longer ones are binary-searched. Only the shortest few are used: candidates are checked afterwards
+    // anyway, and by then one more long list costs more than it removes.
+    private static int[] intersect(List<DateIndex.SlotList> lists) {
+        lists.sort((a, b) -> Integer.compare(a.size(), b.size()));
+        int[] result = lists.get(0).toArray();
+        int size = result.length;
+        for (int l = 1; l < Math.min(lists.size(), MAX_INTERSECTED) && size > 0; l++) {
+            DateIndex.SlotList other = lists.get(l);
+            int kept = 0;
+            if (other.size() / 8 <= size) {
+                int j = 0;
+                for (int i = 0; i < size && j < other.size(); ) {
+                    if (result[i] < other.get(j)) {
+                        i++;
+                    } else if (result[i] > other.get(j)) {
+                        j++;
+                    } else {
+                        result[kept++] = result[i++];
+                        j++;
+                    }
+                }
+            } else {
+                for (int i = 0; i < size; i++) {
+                    int at = other.countBelow(result[i]);
+                    if (at < other.size() && other.get(at) == result[i]) {
+                        result[kept++] = result[i];
+                    }
+                }
+            }
+            size = kept;
+        }
+        return Arrays.copyOf(result, size);
+    }
+}
@@ -0,0 +1,8 @@
+package personalfinancetracker;
+
+// The FsyncPolicy enum decides when the journal, or the mapped ledger files, force their changes to disk.
+public enum FsyncPolicy {
+    ALWAYS, // Force after every change. Nothing acknowledged is ever lost, but each change waits for the disk.
+    GROUP,  // Group commit: force once per batch of changes or once per interval, whichever comes first.
+    NONE    // Never force; the operating system writes the files back when it chooses. Forced only on close.
+}
@@ -0,0 +1,117 @@
+package personalfinancetracker;
+
+// The IdIndex class maps record ids to slots in an open-addressing hash table of primitive longs and ints,
+// so finding a record by id takes about one probe and boxes nothing. Removed entries are closed up by shifting
+// later entries back, so the table never fills with deleted markers.
+class IdIndex {
+    private static final int INITIAL_CAPACITY = 1 << 10;
+    private long[] ids;                     // Table of ids, 0 = empty.
+    private int[] slots;                    // Slot of the record whose id is at the same position.
+    private int shift;                      // 64 minus the number of bits in a table position.
+    private int size;                       // Number of ids in the table.
+
+    // Constructor to initialize an empty index.
+    IdIndex() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    // Method to set the slot of an id, adding the id if it is not in the index yet.
+    void put(long id, int slot) {
+        int at = find(id);
+        if (ids[at] == id) {
+            slots[at] = slot;
+            return;
+        }
+        if ((size + 1) * 2 > ids.length) {
+            grow();
+            at = find(id);
+        }
+        ids[at] = id;
+        slots[at] = slot;
+        size++;
+    }
+
+    // Method to get the slot of an id, or -1 if it is not in the index.
+    int get(long id) {
+        int at = find(id);
+        return ids[at] == id ? slots[at] : -1;
+    }
+
+    // Method to remove an id, returning the slot it had or -1 if it was not in the index.
+    int remove(long id) {
+        int hole = find(id);
+        if (ids[hole] != id) {
+            return -1;
+        }
+        int slot = slots[hole];
+        int mask = ids.length - 1;
+        // Move back every later entry of the probe run that may sit in the hole, so lookups never stop early.
+        for (int next = (hole + 1) & mask; ids[next] != 0; next = (next + 1) & mask) {
+            int home = home(ids[next]);
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                ids[hole] = ids[next];
+                slots[hole] = slots[next];
+                hole = next;
+            }
+        }
+        ids[hole] = 0;
+        size--;
+        return slot;
+    }
+
+    // Method to get the number of ids in the index.
+    int size() {
+        return size;
+    }
+
+    // Method to empty the index.
+    void clear() {
+        allocate(INITIAL_CAPACITY);
+        size = 0;
+    }
+
+    // Method to estimate the heap held by the table, in bytes.
+    long estimateHeapBytes() {
+        return 12L * ids.length;
+    }
+
+    // Method to find the position of an id, or the empty position where it would go.
+    private int find(long id) {
+        int mask = ids.length - 1;
+        int at = home(id);
+        while (ids[at] != 0 && ids[at] != id) {
+            at = (at + 1) & mask;
+        }
+        return at;
+    }
+
+    // Method to get the position an id hashes to. Ids are consecutive, so they are spread by a multiplicative hash.
+    private int home(long id) {
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> shift);
+    }
+
+    // Method to double the table and re-insert every id.
+    private void grow() {
+        long[] oldIds = ids;
+        int[] oldSlots = slots;
+        allocate(oldIds.length * 2);
+        int mask = ids.length - 1;
+        for (int i = 0; i < oldIds.length; i++) {
+            if (oldIds[i] != 0) {
+                int at = home(oldIds[i]);
+                while (ids[at] != 0) {
+                    at = (at + 1) & mask;
+                }
+                ids[at] = oldIds[i];
+                slots[at] = oldSlots[i];
+            }
+        }
+    }
+
+    // Method to replace the table with an empty one of the given (power of two) capacity.
+    private void allocate(int capacity) {
+        ids = new long[capacity];
+        slots = new int[capacity];
+        shift = 64 - Integer.numberOfTrailingZeros(capacity);
+    }
+}
@@ -0,0 +1,58 @@
+package personalfinancetracker;
+
+import java.util.List;
+
+// The ImportResult class reports what a bulk import did.
+public class ImportResult {
+    private final long linesRead;           // Lines read, including blank and header lines.
+    private final long imported;            // Records added to the ledger.
+    private final long rejected;            // Lines that could not be imported.
+    private final long elapsedNanos;        // Wall-clock time of the import.
+    private final List<String> rejectSamples; // The first few rejected lines with their reasons.
+
+    // Constructor to initialize a result with given values.
+    public ImportResult(long linesRead, long imported, long rejected, long elapsedNanos, List<String> rejectSamples) {
+        this.linesRead = linesRead;
+        this.imported = imported;
+        this.rejected = rejected;
+        this.elapsedNanos = elapsedNanos;
+        this.rejectSamples = rejectSamples;
+    }
+
+    // Getter method to retrieve the number of lines read.
+    public long getLinesRead() {
+        return linesRead;
+    }
+
+    // Getter method to retrieve the number of records imported.
+    public long getImported() {
+        return imported;
+    }
+
+    // Getter method to retrieve the number of rejected lines.
+    public long getRejected() {
+        return rejected;
+    }
+
+    // Getter method to retrieve the time taken in nanoseconds.
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    // Getter method to retrieve the first rejected lines, each as "line N: reason: text".
+    public List<String> getRejectSamples() {
+        return rejectSamples;
+    }
+
+    // Method to get the import speed in lines per second.
+    public double getRowsPerSecond() {
+        return elapsedNanos == 0 ? 0 : linesRead / (elapsedNanos / 1e9);
+    }
+
+    // Override the toString method to provide a one-line report.
+    @Override
+    public String toString() {
+        return String.format("Imported %,d records, rejected %,d of %,d lines in %.2f s (%,.0f rows/s)",
+                imported, rejected, linesRead, elapsedNanos / 1e9, getRowsPerSecond());
+    }
+}
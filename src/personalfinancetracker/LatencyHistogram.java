@@ -0,0 +1,95 @@
+package personalfinancetracker;
+
+import java.util.Arrays;
+
+// The LatencyHistogram class records durations in nanoseconds into log-linear buckets, the layout HdrHistogram
+// uses: every power of two is split into 32 equal buckets, so a recorded value is known to within about 3% while
+// the whole range up to hours fits in about 1,300 counters. Recording is a few shifts and an array increment and
+// never allocates. Values above the range are counted in the last bucket; the exact maximum is kept separately.
+// Like RecordManager, recording is not synchronized; readers on other threads may see a slightly stale histogram.
+class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 6;                       // 64 buckets below 64 ns, then 32 per power.
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int HALF = SUB_BUCKETS / 2;
+    private static final int MAX_BIT = 43;                              // Highest tracked value is about 2.4 hours.
+    private static final int BUCKETS = SUB_BUCKETS + (MAX_BIT - SUB_BUCKET_BITS + 1) * HALF;
+
+    private final long[] counts = new long[BUCKETS];
+    private long count;                     // Number of recorded values.
+    private long sum;                       // Sum of the recorded values, for the mean.
+    private long max;                       // Largest recorded value.
+
+    // Method to record one duration in nanoseconds.
+    void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts[index(value)]++;
+        count++;
+        sum += value;
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    // Method to get the number of recorded values.
+    long getCount() {
+        return count;
+    }
+
+    // Method to get the mean of the recorded values, in nanoseconds.
+    double getMean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    // Method to get the largest recorded value, in nanoseconds.
+    long getMax() {
+        return max;
+    }
+
+    // Method to get the value below which the given percentage (0 to 100) of the recorded values fall.
+    // The answer is the upper end of a bucket, so it overstates the true value by at most about 3%.
+    long getPercentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(highestIn(i), max);
+            }
+        }
+        return max;
+    }
+
+    // Method to forget every recorded value.
+    void reset() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        sum = 0;
+        max = 0;
+    }
+
+    // Method to find the bucket of a value.
+    private static int index(long value) {
+        int bit = 63 - Long.numberOfLeadingZeros(value); // Position of the highest set bit, -1 for 0.
+        if (bit < SUB_BUCKET_BITS) {
+            return (int) value;                             // Small values get a bucket each.
+        }
+        if (bit > MAX_BIT) {
+            return BUCKETS - 1;
+        }
+        int shift = bit - SUB_BUCKET_BITS + 1;              // Keeps the top SUB_BUCKET_BITS bits of the value.
+        return SUB_BUCKETS + (shift - 1) * HALF + (int) (value >>> shift) - HALF;
+    }
+
+    // Method to get the largest value that falls in a bucket.
+    private static long highestIn(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKETS) / HALF + 1;
+        long top = (index - SUB_BUCKETS) % HALF + HALF;
+        return ((top + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,363 @@
+package personalfinancetracker;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+// The LedgerJournal class makes a RecordManager durable with an append-only write-ahead log plus periodic snapshots.
+// Every add, edit and delete is appended to journal.log before it is applied. Every snapshotEvery entries the whole
+// ledger is written to snapshot.bin and the log is truncated. On startup recover() loads the snapshot and replays
+// the entries written after it.
+// Log entry layout: int body length, int CRC32 of the body, then the body:
+// long sequence, byte operation, the target (int epoch day, or long record id for the by-id operations) and,
+// for add and edit, type, category, description and amount.
+// Added records are not logged with their ids: replay adds them in the same order after the snapshot restored
+// the id counter, so they get the same ids again.
+public class LedgerJournal implements Closeable {
+    public static final String LOG_FILE = "journal.log";
+    public static final String SNAPSHOT_FILE = "snapshot.bin";
+    private static final byte ADD = 1;
+    private static final byte EDIT = 2;
+    private static final byte DELETE = 3;
+    private static final byte EDIT_BY_ID = 4;
+    private static final byte DELETE_BY_ID = 5;
+    private static final int HEADER_SIZE = 8;          // Body length and CRC.
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Path directory;                      // Directory holding the log and the snapshot.
+    private final FsyncPolicy policy;                  // When appends are forced to disk.
+    private final int groupSize;                       // Entries per group commit.
+    private final long groupMillis;                    // Longest time an entry waits in the buffer.
+    private final long snapshotEvery;                  // Entries between automatic snapshots (0 turns them off).
+    private final CRC32 crc;                           // Reused checksum for entries.
+    private FileChannel channel;                       // The open log, positioned at its end.
+    private ByteBuffer buffer;                         // Entries not yet written to the channel.
+    private ScheduledExecutorService flusher;          // Background flush for GROUP and NONE.
+    private long sequence;                             // Sequence number of the last entry.
+    private int unforced;                              // Entries written since the last force.
+    private long entriesSinceSnapshot;                 // Entries in the log since the last snapshot.
+
+    // Constructor to initialize a journal with group commit every 256 entries or 10 ms and a snapshot every 1M entries.
+    public LedgerJournal(Path directory, FsyncPolicy policy) {
+        this(directory, policy, 256, 10, 1_000_000);
+    }
+
+    // Constructor to initialize a journal with explicit group-commit and snapshot settings.
+    public LedgerJournal(Path directory, FsyncPolicy policy, int groupSize, long groupMillis, long snapshotEvery) {
+        this.directory = directory;
+        this.policy = policy;
+        this.groupSize = Math.max(1, groupSize);
+        this.groupMillis = Math.max(1, groupMillis);
+        this.snapshotEvery = snapshotEvery;
+        this.crc = new CRC32();
+        this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    }
+
+    // Method to load the saved ledger into an empty manager, open the log for appending and attach to the manager.
+    // A torn entry at the end of the log (from a crash mid-write) is dropped; everything before it is kept.
+    public synchronized void recover(RecordManager manager) throws IOException {
+        if (channel != null) {
+            throw new IllegalStateException("Journal is already open");
+        }
+        Files.createDirectories(directory);
+        Path snapshot = directory.resolve(SNAPSHOT_FILE);
+        long snapshotSequence = 0;
+        if (Files.exists(snapshot)) {
+            snapshotSequence = LedgerSnapshot.read(snapshot, manager::restoreRecord, manager::reserveIds);
+        }
+        sequence = snapshotSequence;
+        channel = FileChannel.open(directory.resolve(LOG_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long validEnd = replay(manager, snapshotSequence);
+        channel.truncate(validEnd);
+        channel.position(validEnd);
+        if (policy != FsyncPolicy.ALWAYS) {
+            flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "ledger-journal-flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.scheduleWithFixedDelay(this::flushInBackground, groupMillis, groupMillis, TimeUnit.MILLISECONDS);
+        }
+        manager.attachJournal(this);
+    }
+
+    // Method to log an added record.
+    synchronized void logAdd(int epochDay, String type, String category, String description, double amount) {
+        append(ADD, epochDay, type, category, description, amount);
+        commit();
+    }
+
+    // Method to log a batch of added records as one group commit.
+    synchronized void logAdds(List<Record> records) {
+        for (Record record : records) {
+            append(ADD, record.getEpochDay(), record.getType(), record.getCategory(), record.getDescription(), record.getAmount());
+        }
+        commit();
+    }
+
+    // Method to log an edit, with the same arguments editRecord received.
+    synchronized void logEdit(int epochDay, String type, String category, String description, double amount) {
+        append(EDIT, epochDay, type, category, description, amount);
+        commit();
+    }
+
+    // Method to log a delete of every record on a day.
+    synchronized void logDelete(int epochDay) {
+        append(DELETE, epochDay, null, null, null, 0);
+        commit();
+    }
+
+    // Method to log an edit of the record with the given id.
+    synchronized void logEditById(long id, String type, String category, String description, double amount) {
+        append(EDIT_BY_ID, id, type, category, description, amount);
+        commit();
+    }
+
+    // Method to log a delete of the record with the given id.
+    synchronized void logDeleteById(long id) {
+        append(DELETE_BY_ID, id, null, null, null, 0);
+        commit();
+    }
+
+    // Method to check whether enough entries have been logged to take a snapshot.
+    synchronized boolean isSnapshotDue() {
+        return snapshotEvery > 0 && entriesSinceSnapshot >= snapshotEvery;
+    }
+
+    // Method to write a snapshot of the manager's records and truncate the log.
+    public synchronized void snapshot(RecordManager manager) throws IOException {
+        checkOpen();
+        flush(true);
+        LedgerSnapshot.write(directory.resolve(SNAPSHOT_FILE), sequence, manager.getStore());
+        // The snapshot records the last sequence it holds, so a crash before this truncate only causes skipped replays.
+        channel.truncate(0);
+        channel.position(0);
+        channel.force(true);
+        entriesSinceSnapshot = 0;
+    }
+
+    // Method to write and force everything still buffered.
+    public synchronized void sync() throws IOException {
+        checkOpen();
+        flush(true);
+    }
+
+    // Method to get the sequence number of the last logged entry.
+    public synchronized long getSequence() {
+        return sequence;
+    }
+
+    // Method to get the number of bytes of entries waiting in the buffer to be written.
+    public synchronized int getBufferedBytes() {
+        return buffer == null ? 0 : buffer.position();
+    }
+
+    // Method to get the number of entries written since the log was last forced to disk.
+    public synchronized int getUnforcedEntries() {
+        return unforced;
+    }
+
+    // Method to flush, force and close the log.
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel == null) {
+            return;
+        }
+        if (flusher != null) {
+            flusher.shutdownNow();
+            flusher = null;
+        }
+        try {
+            flush(true);
+        } finally {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    // Method to write out and force pending entries according to the fsync policy.
+    private void commit() {
+        try {
+            if (policy == FsyncPolicy.ALWAYS || (policy == FsyncPolicy.GROUP && unforced >= groupSize)) {
+                flush(true);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write to the journal", e);
+        }
+    }
+
+    // Method to encode one entry into the buffer. The target is an epoch day, or a record id for the by-id operations.
+    private void append(byte operation, long target, String type, String category, String description, double amount) {
+        checkOpen();
+        byte[] typeBytes = bytes(type);
+        byte[] categoryBytes = bytes(category);
+        byte[] descriptionBytes = bytes(description);
+        int bodySize = Long.BYTES + 1 + (isById(operation) ? Long.BYTES : Integer.BYTES);
+        if (operation != DELETE && operation != DELETE_BY_ID) {
+            bodySize += 3 * Integer.BYTES + typeBytes.length + categoryBytes.length + descriptionBytes.length + Double.BYTES;
+        }
+        try {
+            if (buffer.remaining() < HEADER_SIZE + bodySize) {
+                flush(false);
+                if (buffer.capacity() < HEADER_SIZE + bodySize) {
+                    buffer = ByteBuffer.allocate(HEADER_SIZE + bodySize); // Oversized entry.
+                }
+            }
+            int start = buffer.position();
+            buffer.position(start + HEADER_SIZE);
+            buffer.putLong(++sequence);
+            buffer.put(operation);
+            if (isById(operation)) {
+                buffer.putLong(target);
+            } else {
+                buffer.putInt((int) target);
+            }
+            if (operation != DELETE && operation != DELETE_BY_ID) {
+                buffer.putInt(typeBytes.length).put(typeBytes);
+                buffer.putInt(categoryBytes.length).put(categoryBytes);
+                buffer.putInt(descriptionBytes.length).put(descriptionBytes);
+                buffer.putDouble(amount);
+            }
+            crc.reset();
+            crc.update(buffer.array(), start + HEADER_SIZE, bodySize);
+            buffer.putInt(start, bodySize);
+            buffer.putInt(start + Integer.BYTES, (int) crc.getValue());
+            entriesSinceSnapshot++;
+            unforced++;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write to the journal", e);
+        }
+    }
+
+    // Method to write the buffer to the log, forcing it to disk if asked.
+    private void flush(boolean force) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+        if (force && unforced > 0) {
+            channel.force(false);
+            unforced = 0;
+        }
+    }
+
+    // Method run by the flusher thread so no entry waits longer than groupMillis.
+    private synchronized void flushInBackground() {
+        if (channel == null || (buffer.position() == 0 && unforced == 0)) {
+            return;
+        }
+        try {
+            flush(policy == FsyncPolicy.GROUP);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // Method to apply every intact entry after the snapshot, returning the end of the last intact entry.
+    private long replay(RecordManager manager, long snapshotSequence) throws IOException {
+        long size = channel.size();
+        long position = 0;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        ByteBuffer body = ByteBuffer.allocate(BUFFER_SIZE);
+        while (position + HEADER_SIZE <= size) {
+            header.clear();
+            readFully(header, position);
+            int bodySize = header.getInt(0);
+            if (bodySize <= 0 || position + HEADER_SIZE + bodySize > size) {
+                break; // Torn or garbage tail.
+            }
+            if (body.capacity() < bodySize) {
+                body = ByteBuffer.allocate(bodySize);
+            }
+            body.clear().limit(bodySize);
+            readFully(body, position + HEADER_SIZE);
+            crc.reset();
+            crc.update(body.array(), 0, bodySize);
+            if ((int) crc.getValue() != header.getInt(Integer.BYTES)) {
+                break;
+            }
+            body.flip();
+            long entrySequence = body.getLong();
+            if (entrySequence > snapshotSequence) {
+                apply(manager, body);
+                entriesSinceSnapshot++;
+            }
+            sequence = Math.max(sequence, entrySequence);
+            position += HEADER_SIZE + bodySize;
+        }
+        return position;
+    }
+
+    // Method to apply one logged operation to the manager.
+    private static void apply(RecordManager manager, ByteBuffer body) {
+        byte operation = body.get();
+        long id = isById(operation) ? body.getLong() : 0;
+        int epochDay = isById(operation) ? 0 : body.getInt();
+        if (operation == DELETE) {
+            manager.deleteRecord(LocalDate.ofEpochDay(epochDay).toString());
+            return;
+        }
+        if (operation == DELETE_BY_ID) {
+            manager.deleteRecord(id);
+            return;
+        }
+        String type = string(body);
+        String category = string(body);
+        String description = string(body);
+        double amount = body.getDouble();
+        if (operation == ADD) {
+            manager.restoreRecord(new Record(epochDay, type, category, description, amount));
+        } else if (operation == EDIT_BY_ID) {
+            manager.editRecord(id, type, category, description, amount);
+        } else {
+            manager.editRecord(LocalDate.ofEpochDay(epochDay).toString(), type, category, description, amount);
+        }
+    }
+
+    // Method to check whether an operation names its record by id rather than by day.
+    private static boolean isById(byte operation) {
+        return operation == EDIT_BY_ID || operation == DELETE_BY_ID;
+    }
+
+    // Method to read into a buffer from an absolute file position until it is full.
+    private void readFully(ByteBuffer target, long position) throws IOException {
+        while (target.hasRemaining()) {
+            if (channel.read(target, position + target.position()) < 0) {
+                throw new IOException("Unexpected end of journal");
+            }
+        }
+    }
+
+    // Method to check the log is open.
+    private void checkOpen() {
+        if (channel == null) {
+            throw new IllegalStateException("Journal is not open; call recover() first");
+        }
+    }
+
+    // Method to encode a possibly-null string as UTF-8.
+    private static byte[] bytes(String value) {
+        return value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Method to decode a length-prefixed UTF-8 string from a buffer.
+    private static String string(ByteBuffer body) {
+        byte[] bytes = new byte[body.getInt()];
+        body.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,143 @@
+package personalfinancetracker;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+// The LedgerSnapshot class writes and reads a compact binary copy of every record.
+// Layout: magic, version, last journal sequence number included, next record id, record count, the records
+// (each starting with its id), then a CRC32 of it all. Version-1 snapshots had no ids; their records get new ones.
+class LedgerSnapshot {
+    private static final int MAGIC = 0x50465453;  // "PFTS"
+    private static final int VERSION = 2;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    // Method to write a snapshot atomically: the new file only replaces the old one once it is complete and forced.
+    static void write(Path file, long lastSequence, RecordStore store) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileOutputStream fileOut = new FileOutputStream(temp.toFile())) {
+            CRC32 crc = new CRC32();
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new CheckedOutputStream(fileOut, crc), BUFFER_SIZE));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(lastSequence);
+            out.writeLong(store.getNextId());
+            out.writeInt(store.size());
+            for (int slot = 0; slot < store.size(); slot++) {
+                Record record = store.get(slot);
+                out.writeLong(record.getId());
+                out.writeInt(record.getEpochDay());
+                writeString(out, record.getType());
+                writeString(out, record.getCategory());
+                writeString(out, record.getDescription());
+                out.writeDouble(record.getAmount());
+            }
+            out.flush();
+            new DataOutputStream(fileOut).writeLong(crc.getValue()); // Trailer, outside the checksum.
+            fileOut.getChannel().force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Method to read a snapshot, handing the next record id to idConsumer and each record to the consumer.
+    // Returns the last sequence number it includes.
+    static long read(Path file, Consumer<Record> consumer, LongConsumer idConsumer) throws IOException {
+        long bodySize = Files.size(file) - Long.BYTES;
+        try (InputStream fileIn = Files.newInputStream(file)) {
+            CRC32 crc = new CRC32();
+            // Only the body goes through the checksum, so read-ahead never pulls the trailer into it.
+            DataInputStream in = new DataInputStream(new BufferedInputStream(
+                    new CheckedInputStream(new BoundedInputStream(fileIn, Math.max(0, bodySize)), crc), BUFFER_SIZE));
+            int version = in.readInt() == MAGIC ? in.readInt() : -1;
+            if (version != 1 && version != VERSION) {
+                throw new IOException("Not a ledger snapshot: " + file);
+            }
+            long lastSequence = in.readLong();
+            if (version >= 2) {
+                idConsumer.accept(in.readLong());
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                long id = version >= 2 ? in.readLong() : 0;
+                int epochDay = in.readInt();
+                String type = readString(in);
+                String category = readString(in);
+                String description = readString(in);
+                long amountCents = Money.toCents(in.readDouble()); // Written as the double view, which round-trips.
+                consumer.accept(new Record(id, epochDay, type, category, description, amountCents));
+            }
+            if (in.read() != -1) {
+                throw new IOException("Unexpected data after the last record: " + file);
+            }
+            if (new DataInputStream(fileIn).readLong() != crc.getValue()) {
+                throw new IOException("Snapshot checksum mismatch: " + file);
+            }
+            return lastSequence;
+        } catch (EOFException e) {
+            throw new IOException("Snapshot is truncated: " + file, e);
+        }
+    }
+
+    // An input stream that stops after a fixed number of bytes.
+    private static final class BoundedInputStream extends FilterInputStream {
+        private long remaining;
+
+        BoundedInputStream(InputStream in, long limit) {
+            super(in);
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int value = super.read();
+            if (value >= 0) {
+                remaining--;
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int read = super.read(buffer, offset, (int) Math.min(length, remaining));
+            if (read > 0) {
+                remaining -= read;
+            }
+            return read;
+        }
+    }
+
+    // Method to write a length-prefixed UTF-8 string.
+    static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    // Method to read a length-prefixed UTF-8 string.
+    static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
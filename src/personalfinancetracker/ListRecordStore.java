@@ -0,0 +1,147 @@
+package personalfinancetracker;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// The ListRecordStore class keeps Record objects in an ArrayList. It is the default backend.
+public class ListRecordStore implements RecordStore {
+    private final ArrayList<Record> records; // List to store all records.
+    private long nextId = 1;             // Id the next new record is given.
+
+    // Constructor to initialize an empty store.
+    public ListRecordStore() {
+        this.records = new ArrayList<>();
+    }
+
+    @Override
+    public int size() {
+        return records.size();
+    }
+
+    @Override
+    public Record get(int slot) {
+        return records.get(slot);
+    }
+
+    @Override
+    public void add(Record record) {
+        if (record.getId() == 0) {
+            record.setId(nextId);
+        }
+        nextId = Math.max(nextId, record.getId() + 1);
+        records.add(record);
+    }
+
+    @Override
+    public void reserve(List<Record> added) {
+        records.ensureCapacity(records.size() + added.size());
+    }
+
+    @Override
+    public void set(int slot, Record record) {
+        records.set(slot, record);
+    }
+
+    @Override
+    public void removeSlots(int[] slots, int count) {
+        if (count == 0) {
+            return;
+        }
+        // Compact the list in a single pass, skipping the removed slots.
+        int write = slots[0];
+        int next = 0;
+        for (int read = slots[0]; read < records.size(); read++) {
+            if (next < count && slots[next] == read) {
+                next++;
+                continue;
+            }
+            records.set(write++, records.get(read));
+        }
+        records.subList(write, records.size()).clear();
+    }
+
+    @Override
+    public void markDeleted(int slot) {
+        // Nothing to persist; the journal records the delete.
+    }
+
+    @Override
+    public boolean isDeleted(int slot) {
+        return false;
+    }
+
+    @Override
+    public long getId(int slot) {
+        return records.get(slot).getId();
+    }
+
+    @Override
+    public long getNextId() {
+        return nextId;
+    }
+
+    @Override
+    public void reserveIds(long nextId) {
+        this.nextId = Math.max(this.nextId, nextId);
+    }
+
+    @Override
+    public int getEpochDay(int slot) {
+        return records.get(slot).getEpochDay();
+    }
+
+    @Override
+    public String getType(int slot) {
+        return records.get(slot).getType();
+    }
+
+    @Override
+    public String getCategory(int slot) {
+        return records.get(slot).getCategory();
+    }
+
+    @Override
+    public String getDescription(int slot) {
+        return records.get(slot).getDescription();
+    }
+
+    @Override
+    public long getAmountCents(int slot) {
+        return records.get(slot).getAmountCents();
+    }
+
+    @Override
+    public boolean isIncome(int slot) {
+        return records.get(slot).getType().equalsIgnoreCase("INCOME");
+    }
+
+    @Override
+    public boolean isExpense(int slot) {
+        return records.get(slot).getType().equalsIgnoreCase("EXPENSE");
+    }
+
+    @Override
+    public long calculateBalanceCents() {
+        long balance = 0;
+        for (Record record : records) {
+            balance = record.getType().equalsIgnoreCase("INCOME") ? Money.add(balance, record.getAmountCents())
+                    : Money.subtract(balance, record.getAmountCents());
+        }
+        return balance;
+    }
+
+    @Override
+    public long estimateHeapBytes() {
+        long bytes = 16 + 4L * records.size();  // The list and its array of references.
+        for (Record record : records) {
+            // The record, then each string's object and bytes; strings shared between records are counted each time.
+            bytes += 48 + 3 * 40 + record.getType().length() + record.getCategory().length() + record.getDescription().length();
+        }
+        return bytes;
+    }
+
+    @Override
+    public List<Record> asList() {
+        return records; // The live list, exactly as RecordManager used to expose it.
+    }
+}
@@ -0,0 +1,539 @@
+package personalfinancetracker;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// The MappedRecordStore class keeps the ledger in two memory-mapped files and reads them in place.
+//
+// ledger.rows holds a 64-byte header (magic, version, row count, bytes used in ledger.strings, next record id)
+// followed by fixed-width 48-byte rows: int epoch day, int flags (bit 0 = INCOME, bit 1 = EXPENSE, bit 2 = deleted),
+// long amount in minor units, long offsets of the type, category and description in ledger.strings, then long id.
+// Files of any other version, such as version-1 files whose 40-byte rows had no id, are refused, never rewritten.
+// ledger.strings holds length-prefixed UTF-8 strings. Types and categories are written once per session and shared.
+//
+// Changes are forced to disk according to an FsyncPolicy, as the journal does: the rows and strings touched since the
+// last force first, then the header. The row count, strings size and next id are only written into the header by a
+// force, after the rows and strings they cover, so the counts on disk never cover bytes that have not reached it.
+// Compaction writes the surviving rows to a new file, forces it and renames it over the old one, so a crash leaves
+// either the old rows or the new ones, never a mix.
+// Opening only maps the files, so it takes the same time for any ledger size. Scans read the mapped pages directly
+// and a Record is only built for rows that are returned.
+public class MappedRecordStore implements RecordStore, Closeable {
+    public static final String ROWS_FILE = "ledger.rows";
+    public static final String STRINGS_FILE = "ledger.strings";
+    private static final int MAGIC = 0x5046544D;                  // "PFTM"
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 64;
+    private static final int ROW_SIZE = 48;
+    private static final int ROWS_PER_SEGMENT = 1 << 22;          // 192 MB of rows per mapping.
+    private static final long STRING_SEGMENT_SIZE = 1L << 27;     // 128 MB of strings per mapping.
+    private static final int INCOME_FLAG = 1;
+    private static final int EXPENSE_FLAG = 2;
+    private static final int DELETED_FLAG = 4;
+    private static final int GROUP_SIZE = 256;                    // Changes per group commit.
+    private static final long GROUP_MILLIS = 10;                  // Longest time a change waits to be forced.
+
+    private final Path directory;
+    private FileChannel rowsChannel;                              // Replaced when compaction switches files.
+    private final FileChannel stringsChannel;
+    private MappedByteBuffer header;
+    // Mapped segments, mapped on first use. The arrays are replaced, never changed, so parallel queries can read them.
+    private volatile MappedByteBuffer[] rowSegments;
+    private volatile MappedByteBuffer[] stringSegments;
+    private final Map<String, Long> sharedStrings;                // Offsets of types and categories written this session.
+    private final List<Record> view;
+    private final FsyncPolicy policy;                             // When changes are forced to disk.
+    private ScheduledExecutorService flusher;                     // Background force for GROUP.
+    private int size;                                             // Number of rows.
+    private long stringsSize;                                     // Bytes used in the strings file.
+    private long nextId;                                          // Id for the next record added without one.
+    private int unforced;                                         // Changes made since the last force.
+    private int dirtyRowsFrom = Integer.MAX_VALUE;                // Rows written since the last force, from (inclusive)
+    private int dirtyRowsTo;                                      // to (exclusive).
+    private long forcedStringsSize;                               // Bytes of the strings file forced so far.
+    private boolean closed;
+
+    // Constructor used by open().
+    private MappedRecordStore(Path directory, FileChannel rowsChannel, FileChannel stringsChannel, FsyncPolicy policy) throws IOException {
+        this.directory = directory;
+        this.policy = policy;
+        this.rowsChannel = rowsChannel;
+        this.stringsChannel = stringsChannel;
+        this.header = rowsChannel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+        this.rowSegments = new MappedByteBuffer[0];
+        this.stringSegments = new MappedByteBuffer[0];
+        this.sharedStrings = new HashMap<>();
+        this.view = new RowView();
+        if (header.getInt(0) == 0) {
+            header.putInt(0, MAGIC);                                  // New file.
+            header.putInt(4, VERSION);
+            header.putLong(24, 1);                                    // The counts are all zero, so this is safe early.
+            unforced++;
+        } else if (header.getInt(0) != MAGIC) {
+            throw new IOException("Not a ledger file");
+        } else if (header.getInt(4) != VERSION) {
+            throw new IOException("Ledger file version " + header.getInt(4) + " is not supported; only version " + VERSION + " can be opened");
+        }
+        long rows = header.getLong(8);
+        if (rows > Integer.MAX_VALUE) {
+            throw new IOException("Ledger file has too many rows: " + rows);
+        }
+        this.size = (int) rows;
+        this.stringsSize = header.getLong(16);
+        this.forcedStringsSize = stringsSize;
+        this.nextId = header.getLong(24);
+    }
+
+    // Method to open (or create) the ledger files in a directory. Changes are forced to disk only when it is closed.
+    public static MappedRecordStore open(Path directory) throws IOException {
+        return open(directory, FsyncPolicy.NONE);
+    }
+
+    // Method to open (or create) the ledger files in a directory, forcing changes to disk according to a policy.
+    public static MappedRecordStore open(Path directory, FsyncPolicy policy) throws IOException {
+        Files.createDirectories(directory);
+        Files.deleteIfExists(directory.resolve(ROWS_FILE + ".tmp")); // Left by a compaction that did not finish.
+        FileChannel rows = FileChannel.open(directory.resolve(ROWS_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        FileChannel strings = FileChannel.open(directory.resolve(STRINGS_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedRecordStore store = new MappedRecordStore(directory, rows, strings, policy);
+        if (policy == FsyncPolicy.GROUP) {
+            store.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "ledger-mapped-flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            store.flusher.scheduleWithFixedDelay(store::forceInBackground, GROUP_MILLIS, GROUP_MILLIS, TimeUnit.MILLISECONDS);
+        }
+        return store;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Record get(int slot) {
+        checkSlot(slot);
+        MappedByteBuffer segment = rowSegment(slot);
+        int at = rowOffset(slot);
+        return new Record(segment.getLong(at + 40), segment.getInt(at), readString(segment.getLong(at + 16)), readString(segment.getLong(at + 24)),
+                readString(segment.getLong(at + 32)), segment.getLong(at + 8));
+    }
+
+    @Override
+    public synchronized void add(Record record) {
+        if (size == Integer.MAX_VALUE) {
+            throw new IllegalStateException("Ledger file is full");
+        }
+        if (record.getId() == 0) {
+            record.setId(nextId);
+        }
+        nextId = Math.max(nextId, record.getId() + 1);
+        writeRow(size, record);
+        size++;
+        changed();
+    }
+
+    @Override
+    public void reserve(List<Record> records) {
+        if ((long) size + records.size() > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Ledger file is full");
+        }
+    }
+
+    @Override
+    public synchronized void set(int slot, Record record) {
+        checkSlot(slot);
+        writeRow(slot, record); // An edited description is appended; the old bytes are left in the strings file.
+        changed();
+    }
+
+    // Compaction always forces, whatever the policy: the new file must be complete on disk before it replaces the old one.
+    @Override
+    public synchronized void removeSlots(int[] slots, int count) {
+        if (count == 0) {
+            return;
+        }
+        force();                                                  // The strings the new rows point to reach disk first.
+        Path rowsFile = directory.resolve(ROWS_FILE);
+        Path temp = rowsFile.resolveSibling(ROWS_FILE + ".tmp");
+        int kept = size - count;
+        try {
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + 4096 * ROW_SIZE);
+                buffer.putInt(MAGIC).putInt(VERSION).putLong(kept).putLong(stringsSize).putLong(nextId);
+                buffer.position(HEADER_SIZE);
+                byte[] row = new byte[ROW_SIZE];
+                int next = 0;
+                for (int read = 0; read < size; read++) {
+                    if (next < count && slots[next] == read) {
+                        next++;
+                        continue;
+                    }
+                    rowSegment(read).get(rowOffset(read), row);
+                    if (buffer.remaining() < ROW_SIZE) {
+                        writeFully(out, buffer);
+                    }
+                    buffer.put(row);
+                }
+                writeFully(out, buffer);
+                out.force(true);
+            }
+            rowsChannel.close();
+            Files.move(temp, rowsFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            rowsChannel = FileChannel.open(rowsFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            header = rowsChannel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not compact the ledger file", e);
+        }
+        rowSegments = new MappedByteBuffer[0];                    // Queries still holding the old mappings keep reading them.
+        size = kept;
+    }
+
+    @Override
+    public synchronized void markDeleted(int slot) {
+        checkSlot(slot);
+        MappedByteBuffer segment = rowSegment(slot);
+        int at = rowOffset(slot) + 4;
+        segment.putInt(at, segment.getInt(at) | DELETED_FLAG);
+        touchRows(slot, slot + 1);
+        changed();
+    }
+
+    @Override
+    public boolean isDeleted(int slot) {
+        checkSlot(slot);
+        return (rowSegment(slot).getInt(rowOffset(slot) + 4) & DELETED_FLAG) != 0;
+    }
+
+    @Override
+    public long getId(int slot) {
+        checkSlot(slot);
+        return rowSegment(slot).getLong(rowOffset(slot) + 40);
+    }
+
+    @Override
+    public long getNextId() {
+        return nextId;
+    }
+
+    @Override
+    public synchronized void reserveIds(long nextId) {
+        this.nextId = Math.max(this.nextId, nextId);
+        changed();
+    }
+
+    @Override
+    public int getEpochDay(int slot) {
+        checkSlot(slot);
+        return rowSegment(slot).getInt(rowOffset(slot));
+    }
+
+    @Override
+    public String getType(int slot) {
+        checkSlot(slot);
+        return readString(rowSegment(slot).getLong(rowOffset(slot) + 16));
+    }
+
+    @Override
+    public String getCategory(int slot) {
+        checkSlot(slot);
+        return readString(rowSegment(slot).getLong(rowOffset(slot) + 24));
+    }
+
+    @Override
+    public String getDescription(int slot) {
+        checkSlot(slot);
+        return readString(rowSegment(slot).getLong(rowOffset(slot) + 32));
+    }
+
+    @Override
+    public long getAmountCents(int slot) {
+        checkSlot(slot);
+        return rowSegment(slot).getLong(rowOffset(slot) + 8);
+    }
+
+    @Override
+    public boolean isIncome(int slot) {
+        checkSlot(slot);
+        return (rowSegment(slot).getInt(rowOffset(slot) + 4) & INCOME_FLAG) != 0;
+    }
+
+    @Override
+    public boolean isExpense(int slot) {
+        checkSlot(slot);
+        return (rowSegment(slot).getInt(rowOffset(slot) + 4) & EXPENSE_FLAG) != 0;
+    }
+
+    @Override
+    public long estimateHeapBytes() {
+        // Rows and strings live in the mapped files, outside the heap; only the shared-string cache is on it.
+        long bytes = 64L * (rowSegments.length + stringSegments.length);
+        for (String shared : sharedStrings.keySet()) {
+            bytes += 48 + 16 + 40 + shared.length(); // Map entry, boxed offset and the string.
+        }
+        return bytes;
+    }
+
+    @Override
+    public long calculateBalanceCents() {
+        long balance = 0;
+        for (int slot = 0; slot < size; slot++) {
+            MappedByteBuffer segment = rowSegment(slot);
+            int at = rowOffset(slot);
+            long amount = segment.getLong(at + 8);
+            balance = (segment.getInt(at + 4) & INCOME_FLAG) != 0 ? Money.add(balance, amount) : Money.subtract(balance, amount);
+        }
+        return balance;
+    }
+
+    @Override
+    public List<Record> asList() {
+        return view;
+    }
+
+    // Method to write the changes made since the last force to disk: the touched rows and strings, then the header
+    // with the counts that cover them.
+    public synchronized void force() {
+        if (closed) {
+            return;
+        }
+        MappedByteBuffer[] rows = rowSegments;
+        for (int slot = dirtyRowsFrom; slot < dirtyRowsTo; slot = (slot / ROWS_PER_SEGMENT + 1) * ROWS_PER_SEGMENT) {
+            int end = Math.min(dirtyRowsTo, (slot / ROWS_PER_SEGMENT + 1) * ROWS_PER_SEGMENT);
+            rows[slot / ROWS_PER_SEGMENT].force(rowOffset(slot), (end - slot) * ROW_SIZE);
+        }
+        MappedByteBuffer[] strings = stringSegments;
+        for (long offset = forcedStringsSize; offset < stringsSize; offset = (offset / STRING_SEGMENT_SIZE + 1) * STRING_SEGMENT_SIZE) {
+            long end = Math.min(stringsSize, (offset / STRING_SEGMENT_SIZE + 1) * STRING_SEGMENT_SIZE);
+            strings[(int) (offset / STRING_SEGMENT_SIZE)].force((int) (offset % STRING_SEGMENT_SIZE), (int) (end - offset));
+        }
+        header.putLong(8, size);
+        header.putLong(16, stringsSize);
+        header.putLong(24, nextId);
+        header.force();
+        dirtyRowsFrom = Integer.MAX_VALUE;
+        dirtyRowsTo = 0;
+        forcedStringsSize = stringsSize;
+        unforced = 0;
+    }
+
+    // Method to force and close both files.
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        if (flusher != null) {
+            flusher.shutdownNow();
+            flusher = null;
+        }
+        try {
+            force();
+        } finally {
+            closed = true;
+            rowsChannel.close();
+            stringsChannel.close();
+        }
+    }
+
+    // Method to count a change and force it to disk according to the fsync policy.
+    private void changed() {
+        unforced++;
+        if (policy == FsyncPolicy.ALWAYS || (policy == FsyncPolicy.GROUP && unforced >= GROUP_SIZE)) {
+            force();
+        }
+    }
+
+    // Method run by the flusher thread so no change waits longer than GROUP_MILLIS to be forced.
+    private synchronized void forceInBackground() {
+        if (closed || unforced == 0) {
+            return;
+        }
+        try {
+            force();
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // Method to note that rows from (inclusive) to (exclusive) must be forced.
+    private void touchRows(int from, int to) {
+        dirtyRowsFrom = Math.min(dirtyRowsFrom, from);
+        dirtyRowsTo = Math.max(dirtyRowsTo, to);
+    }
+
+    // Method to write a record's values into a row.
+    private void writeRow(int slot, Record record) {
+        String type = record.getType();
+        int flags = (type.equalsIgnoreCase("INCOME") ? INCOME_FLAG : 0) | (type.equalsIgnoreCase("EXPENSE") ? EXPENSE_FLAG : 0);
+        long typeOffset = sharedString(type);
+        long categoryOffset = sharedString(record.getCategory());
+        long descriptionOffset = appendString(record.getDescription());
+        MappedByteBuffer segment = rowSegment(slot);
+        int at = rowOffset(slot);
+        segment.putInt(at, record.getEpochDay());
+        segment.putInt(at + 4, flags);
+        segment.putLong(at + 8, record.getAmountCents());
+        segment.putLong(at + 16, typeOffset);
+        segment.putLong(at + 24, categoryOffset);
+        segment.putLong(at + 32, descriptionOffset);
+        segment.putLong(at + 40, record.getId());
+        touchRows(slot, slot + 1);
+    }
+
+    // Method to get the offset of a type or category, writing it the first time it is seen.
+    private long sharedString(String value) {
+        Long offset = sharedStrings.get(value);
+        if (offset == null) {
+            offset = appendString(value);
+            sharedStrings.put(value, offset);
+        }
+        return offset;
+    }
+
+    // Method to append a length-prefixed string to the strings file, returning its offset.
+    private long appendString(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        long offset = stringsSize;
+        byte[] length = {(byte) (bytes.length >>> 24), (byte) (bytes.length >>> 16), (byte) (bytes.length >>> 8), (byte) bytes.length};
+        writeStringBytes(offset, length);
+        writeStringBytes(offset + 4, bytes);
+        stringsSize += 4 + bytes.length;
+        return offset;
+    }
+
+    // Method to read a length-prefixed string from the strings file.
+    private String readString(long offset) {
+        byte[] length = new byte[4];
+        readStringBytes(offset, length);
+        byte[] bytes = new byte[((length[0] & 0xFF) << 24) | ((length[1] & 0xFF) << 16) | ((length[2] & 0xFF) << 8) | (length[3] & 0xFF)];
+        readStringBytes(offset + 4, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Method to copy bytes out of the strings file; a string may span two segments.
+    private void readStringBytes(long offset, byte[] target) {
+        int done = 0;
+        while (done < target.length) {
+            long position = offset + done;
+            int inSegment = (int) (position % STRING_SEGMENT_SIZE);
+            int chunk = (int) Math.min(target.length - done, STRING_SEGMENT_SIZE - inSegment);
+            stringSegment((int) (position / STRING_SEGMENT_SIZE)).get(inSegment, target, done, chunk);
+            done += chunk;
+        }
+    }
+
+    // Method to copy bytes into the strings file; a string may span two segments.
+    private void writeStringBytes(long offset, byte[] source) {
+        int done = 0;
+        while (done < source.length) {
+            long position = offset + done;
+            int inSegment = (int) (position % STRING_SEGMENT_SIZE);
+            int chunk = (int) Math.min(source.length - done, STRING_SEGMENT_SIZE - inSegment);
+            stringSegment((int) (position / STRING_SEGMENT_SIZE)).put(inSegment, source, done, chunk);
+            done += chunk;
+        }
+    }
+
+    // Method to write all of a buffer's contents to a channel, leaving the buffer empty for more.
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    // Method to get the mapped segment holding a row, mapping it (and growing the file) on first use.
+    private MappedByteBuffer rowSegment(int slot) {
+        int index = slot / ROWS_PER_SEGMENT;
+        MappedByteBuffer[] segments = rowSegments;
+        if (index < segments.length && segments[index] != null) {
+            return segments[index];
+        }
+        synchronized (this) {
+            segments = rowSegments;
+            if (index >= segments.length || segments[index] == null) {
+                segments = Arrays.copyOf(segments, Math.max(segments.length, index + 1));
+                segments[index] = map(rowsChannel, HEADER_SIZE + (long) index * ROWS_PER_SEGMENT * ROW_SIZE,
+                        (long) ROWS_PER_SEGMENT * ROW_SIZE);
+                rowSegments = segments;
+            }
+            return segments[index];
+        }
+    }
+
+    // Method to get a mapped segment of the strings file, mapping it on first use.
+    private MappedByteBuffer stringSegment(int index) {
+        MappedByteBuffer[] segments = stringSegments;
+        if (index < segments.length && segments[index] != null) {
+            return segments[index];
+        }
+        synchronized (this) {
+            segments = stringSegments;
+            if (index >= segments.length || segments[index] == null) {
+                segments = Arrays.copyOf(segments, Math.max(segments.length, index + 1));
+                segments[index] = map(stringsChannel, index * STRING_SEGMENT_SIZE, STRING_SEGMENT_SIZE);
+                stringSegments = segments;
+            }
+            return segments[index];
+        }
+    }
+
+    // Method to map part of a file for reading and writing.
+    private static MappedByteBuffer map(FileChannel channel, long position, long length) {
+        try {
+            return channel.map(FileChannel.MapMode.READ_WRITE, position, length);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not map the ledger file", e);
+        }
+    }
+
+    // Method to get a row's byte offset inside its segment.
+    private static int rowOffset(int slot) {
+        return (slot % ROWS_PER_SEGMENT) * ROW_SIZE;
+    }
+
+    // Method to reject slots outside the stored rows.
+    private void checkSlot(int slot) {
+        if (slot < 0 || slot >= size) {
+            throw new IndexOutOfBoundsException("Slot " + slot + " out of " + size);
+        }
+    }
+
+    // Read-only list view that materializes a Record for each get().
+    private final class RowView extends AbstractList<Record> implements RandomAccess {
+        @Override
+        public Record get(int index) {
+            return MappedRecordStore.this.get(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package personalfinancetracker;
+
+// The Money class is an exact amount of money held as a whole number of minor units (cents).
+// Amounts are added and subtracted as longs, so totals never drift the way sums of doubles do, and every
+// operation that would overflow throws an ArithmeticException instead of wrapping around.
+// Hot paths (scans, running totals, trees) use the static methods on raw cents so they allocate nothing;
+// Money objects are for amounts passed in and out of the public API.
+public final class Money implements Comparable<Money> {
+    public static final Money ZERO = new Money(0);
+    private static final int CENTS_PER_UNIT = 100;
+    private static final double MAX_AMOUNT = Long.MAX_VALUE / (double) CENTS_PER_UNIT; // Largest amount in range.
+
+    private final long cents;       // The amount in minor units.
+
+    // Constructor used by the factory methods.
+    private Money(long cents) {
+        this.cents = cents;
+    }
+
+    // Method to create an amount from a number of cents.
+    public static Money ofCents(long cents) {
+        return cents == 0 ? ZERO : new Money(cents);
+    }
+
+    // Method to create an amount from a double, rounded to the nearest cent.
+    public static Money of(double amount) {
+        return ofCents(toCents(amount));
+    }
+
+    // Method to parse an amount such as "12", "-0.5" or "1234.56" exactly, without going through a double.
+    // Throws NumberFormatException if the text is not an amount with at most two decimals or is out of range.
+    public static Money parse(String text) {
+        String trimmed = text.trim();
+        int at = 0;
+        boolean negative = false;
+        if (at < trimmed.length() && (trimmed.charAt(at) == '-' || trimmed.charAt(at) == '+')) {
+            negative = trimmed.charAt(at++) == '-';
+        }
+        long cents = 0;
+        int digits = 0;
+        int decimals = -1;                  // Digits seen after the point, or -1 before it.
+        for (; at < trimmed.length(); at++) {
+            char c = trimmed.charAt(at);
+            if (c == '.' && decimals < 0) {
+                decimals = 0;
+            } else if (c >= '0' && c <= '9' && decimals < 2) {
+                if (cents > (Long.MAX_VALUE - (c - '0')) / 10) {
+                    throw new NumberFormatException("Amount out of range: \"" + text + "\"");
+                }
+                cents = cents * 10 + (c - '0');
+                digits++;
+                if (decimals >= 0) {
+                    decimals++;
+                }
+            } else {
+                throw new NumberFormatException("Not an amount with at most two decimals: \"" + text + "\"");
+            }
+        }
+        if (digits == 0) {
+            throw new NumberFormatException("Not an amount: \"" + text + "\"");
+        }
+        for (int scale = Math.max(decimals, 0); scale < 2; scale++) {
+            if (cents > Long.MAX_VALUE / 10) {
+                throw new NumberFormatException("Amount out of range: \"" + text + "\"");
+            }
+            cents *= 10;
+        }
+        return ofCents(negative ? -cents : cents);
+    }
+
+    // Getter method to retrieve the amount in cents.
+    public long getCents() {
+        return cents;
+    }
+
+    // Method to get the amount as a double, for callers that still work in doubles.
+    public double toDouble() {
+        return toAmount(cents);
+    }
+
+    // Method to add another amount, throwing ArithmeticException on overflow.
+    public Money plus(Money other) {
+        return ofCents(add(cents, other.cents));
+    }
+
+    // Method to subtract another amount, throwing ArithmeticException on overflow.
+    public Money minus(Money other) {
+        return ofCents(subtract(cents, other.cents));
+    }
+
+    // Method to check whether the amount is below zero.
+    public boolean isNegative() {
+        return cents < 0;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(cents, other.cents);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Money && ((Money) other).cents == cents;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(cents);
+    }
+
+    // Override the toString method to give the exact amount with two decimals, for example "-12.30".
+    @Override
+    public String toString() {
+        return format(cents);
+    }
+
+    // Method to add two amounts in cents, throwing ArithmeticException on overflow.
+    public static long add(long a, long b) {
+        long sum = a + b;
+        if (((a ^ sum) & (b ^ sum)) < 0) {
+            throw new ArithmeticException("Amount overflow: " + format(a) + " + " + format(b));
+        }
+        return sum;
+    }
+
+    // Method to subtract two amounts in cents, throwing ArithmeticException on overflow.
+    public static long subtract(long a, long b) {
+        long difference = a - b;
+        if (((a ^ b) & (a ^ difference)) < 0) {
+            throw new ArithmeticException("Amount overflow: " + format(a) + " - " + format(b));
+        }
+        return difference;
+    }
+
+    // Method to convert a double amount into cents, rounded to the nearest cent.
+    // Throws IllegalArgumentException for NaN and ArithmeticException for amounts out of range.
+    public static long toCents(double amount) {
+        if (Double.isNaN(amount)) {
+            throw new IllegalArgumentException("Amount is not a number");
+        }
+        if (Math.abs(amount) >= MAX_AMOUNT) {
+            throw new ArithmeticException("Amount out of range: " + amount);
+        }
+        return Math.round(amount * CENTS_PER_UNIT);
+    }
+
+    // Method to convert cents into the nearest double amount.
+    public static double toAmount(long cents) {
+        return cents / (double) CENTS_PER_UNIT;
+    }
+
+    // Method to get the smallest number of cents whose amount is at least the given double, used for lower bounds.
+    static long ceilCents(double amount) {
+        if (Double.isNaN(amount) || amount <= -MAX_AMOUNT) {
+            return Long.MIN_VALUE;
+        }
+        if (amount >= MAX_AMOUNT) {
+            return Long.MAX_VALUE;
+        }
+        long cents = (long) Math.ceil(amount * CENTS_PER_UNIT);
+        while (toAmount(cents - 1) >= amount) {
+            cents--;                        // The product was rounded up past a whole cent.
+        }
+        while (toAmount(cents) < amount) {
+            cents++;
+        }
+        return cents;
+    }
+
+    // Method to get the largest number of cents whose amount is at most the given double, used for upper bounds.
+    static long floorCents(double amount) {
+        if (Double.isNaN(amount) || amount >= MAX_AMOUNT) {
+            return Long.MAX_VALUE;
+        }
+        if (amount <= -MAX_AMOUNT) {
+            return Long.MIN_VALUE;
+        }
+        long cents = (long) Math.floor(amount * CENTS_PER_UNIT);
+        while (toAmount(cents + 1) <= amount) {
+            cents++;
+        }
+        while (toAmount(cents) > amount) {
+            cents--;
+        }
+        return cents;
+    }
+
+    // Method to divide an amount in cents by a count, rounding half away from zero.
+    static long divide(long cents, long divisor) {
+        long quotient = cents / divisor;
+        long remainder = cents % divisor;
+        if (Math.abs(remainder) * 2 >= divisor) {
+            quotient += cents < 0 ? -1 : 1;
+        }
+        return quotient;
+    }
+
+    // Method to format cents exactly with two decimals, for example 123456 -> "1234.56" and -5 -> "-0.05".
+    public static String format(long cents) {
+        return append(new StringBuilder(24), cents).toString();
+    }
+
+    // Method to append cents formatted exactly with two decimals, without building an intermediate string.
+    static StringBuilder append(StringBuilder out, long cents) {
+        if (cents < 0) {
+            out.append('-');
+        }
+        // Work on the negative value so that Long.MIN_VALUE needs no special case.
+        long negative = cents < 0 ? cents : -cents;
+        out.append(-(negative / CENTS_PER_UNIT)).append('.');
+        int fraction = (int) -(negative % CENTS_PER_UNIT);
+        return out.append((char) ('0' + fraction / 10)).append((char) ('0' + fraction % 10));
+    }
+}
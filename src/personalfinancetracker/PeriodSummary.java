@@ -0,0 +1,67 @@
+package personalfinancetracker;
+
+import java.time.LocalDate;
+
+// The PeriodSummary class holds the income, expense and record-count totals of a date window.
+// Totals are exact cents; the double getters are views of them for callers that still work in doubles.
+public class PeriodSummary {
+    private final int startDay;      // First day of the window, as an epoch day.
+    private final int endDay;        // Last day of the window, as an epoch day.
+    private final long totalIncome;  // Total income in cents.
+    private final long totalExpenses; // Total expenses in cents.
+    private final int recordCount;
+
+    // Constructor to initialize a summary with given values, the totals in cents.
+    public PeriodSummary(int startDay, int endDay, long totalIncome, long totalExpenses, int recordCount) {
+        this.startDay = startDay;
+        this.endDay = endDay;
+        this.totalIncome = totalIncome;
+        this.totalExpenses = totalExpenses;
+        this.recordCount = recordCount;
+    }
+
+    // Getter method to retrieve the first day of the window in yyyy-MM-dd form.
+    public String getStartDate() {
+        return LocalDate.ofEpochDay(startDay).toString();
+    }
+
+    // Getter method to retrieve the last day of the window in yyyy-MM-dd form.
+    public String getEndDate() {
+        return LocalDate.ofEpochDay(endDay).toString();
+    }
+
+    // Getter method to retrieve the total income in the window.
+    public double getTotalIncome() {
+        return Money.toAmount(totalIncome);
+    }
+
+    // Getter method to retrieve the exact total income in the window, in cents.
+    public long getTotalIncomeCents() {
+        return totalIncome;
+    }
+
+    // Getter method to retrieve the total expenses in the window.
+    public double getTotalExpenses() {
+        return Money.toAmount(totalExpenses);
+    }
+
+    // Getter method to retrieve the exact total expenses in the window, in cents.
+    public long getTotalExpensesCents() {
+        return totalExpenses;
+    }
+
+    // Getter method to retrieve the number of records in the window.
+    public int getRecordCount() {
+        return recordCount;
+    }
+
+    // Getter method to retrieve the expenses per record in the window.
+    public double getAverageDailySpending() {
+        return Money.toAmount(getAverageDailySpendingCents());
+    }
+
+    // Getter method to retrieve the expenses per record in the window, rounded to the cent.
+    public long getAverageDailySpendingCents() {
+        return recordCount > 0 ? Money.divide(totalExpenses, recordCount) : 0;
+    }
+}
@@ -1,12 +1,77 @@
 package personalfinancetracker;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.text.ParseException;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Locale;
 import java.util.Scanner;
 
 public class PersonalFinanceTracker {
 
     public static void main(String[] args) {
-        RecordManager manager = new RecordManager();
+        // Pick the storage backend with -Dpft.store: list (default), columnar (primitive columns in memory)
+        // or mapped (memory-mapped ledger files in the data directory, opened without loading them).
+        Path dataDirectory = Paths.get(System.getProperty("pft.data", "pft-data"));
+        String backend = System.getProperty("pft.store", "list");
+        // -Dpft.fsync=ALWAYS|GROUP|NONE picks when changes are forced to disk: the log's, or the mapped files'.
+        FsyncPolicy fsync = FsyncPolicy.valueOf(System.getProperty("pft.fsync", "GROUP").toUpperCase(Locale.ROOT));
+        RecordStore store;
+        try {
+            if ("mapped".equalsIgnoreCase(backend)) {
+                store = MappedRecordStore.open(dataDirectory, fsync);
+            } else if ("columnar".equalsIgnoreCase(backend)) {
+                store = new ColumnarRecordStore();
+            } else {
+                store = new ListRecordStore();
+            }
+        } catch (IOException e) {
+            System.out.println("Could not open the ledger file: " + e.getMessage());
+            return;
+        }
+        RecordManager manager = new RecordManager(store);
+        // The mapped files are durable themselves; the in-memory backends load saved records and log every change.
+        LedgerJournal journal = null;
+        if (!(store instanceof MappedRecordStore)) {
+            journal = new LedgerJournal(dataDirectory, fsync);
+            try {
+                journal.recover(manager);
+            } catch (IOException e) {
+                System.out.println("Could not load saved records: " + e.getMessage());
+                return;
+            }
+        }
+        Closeable persistence = journal != null ? journal : (MappedRecordStore) store;
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                persistence.close(); // Make sure buffered changes reach the disk however the program ends.
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }));
+        manager.setConsistencyCheck(Boolean.getBoolean("pft.checkAggregates")); // Debug switch for the running totals.
+        manager.setQueryParallelism(Integer.getInteger("pft.parallelism", 1)); // Threads for filters, searches and sorts.
+        if (RecordManagerMetrics.isEnabled()) {
+            manager.registerMBean(); // Stats for jconsole; -Dpft.metrics=false turns metrics and the MBean off.
+        }
+        // Non-interactive bulk import: PersonalFinanceTracker --import file.csv [file.csv ...]
+        if (args.length > 0 && "--import".equals(args[0])) {
+            importFiles(manager, journal, persistence, args);
+            return;
+        }
+        // Non-interactive export for other tools: PersonalFinanceTracker --export csv|json|text [file]
+        if (args.length > 0 && "--export".equals(args[0])) {
+            exportRecords(manager, persistence, args);
+            return;
+        }
         Scanner scanner = new Scanner(System.in);
 
         while (true) {
@@ -17,7 +82,8 @@ public class PersonalFinanceTracker {
             System.out.println("3. Edit Record");
             System.out.println("4. Delete Record");
             System.out.println("5. Summarize Records");
-            System.out.println("6. Exit");
+            System.out.println("6. Stats");
+            System.out.println("7. Exit");
             System.out.print("Choose an option: ");
 
             int choice = scanner.nextInt();
@@ -36,24 +102,27 @@ public class PersonalFinanceTracker {
                         System.out.print("Enter description: ");
                         String description = scanner.nextLine();
                         System.out.print("Enter amount: ");
-                        double amount = scanner.nextDouble();
-                        scanner.nextLine(); // Consume newline
+                        Money amount = Money.parse(scanner.nextLine()); // Parsed exactly, to the cent.
 
                         manager.addRecord(date, type, category, description, amount);
                         System.out.println("Record added successfully!");
                     } catch (ParseException e) {
                         System.out.println("Invalid date format.");
+                    } catch (NumberFormatException e) {
+                        System.out.println("Invalid amount: use at most two decimals, for example 12.50.");
+                    } catch (IllegalArgumentException e) {
+                        System.out.println(e.getMessage()); // The type is neither INCOME nor EXPENSE.
                     }
                     break;
                 case 2:
                     // View Records
-                    manager.printAllRecords(manager.getAllRecords());
+                    printRecords(manager, scanner, manager.getAllRecords());
                     viewMenu(manager, scanner);
                     break;
                 case 3:
                     // Edit Record
-                    System.out.print("Enter date of the record to edit: ");
-                    String editDate = scanner.nextLine();
+                    System.out.print("Enter the id of the record to edit, or a date to edit its first record: ");
+                    String editTarget = scanner.nextLine().trim();
                     System.out.print("Enter new type (or leave blank): ");
                     String editType = scanner.nextLine();
                     System.out.print("Enter new category (or leave blank): ");
@@ -63,15 +132,27 @@ public class PersonalFinanceTracker {
                     System.out.print("Enter new amount (or enter -1 to leave unchanged): ");
                     double editAmount = scanner.nextDouble();
                     scanner.nextLine(); // Consume newline
+                    if (!editType.trim().isEmpty()) {
+                        RecordType parsedType = RecordType.of(editType);
+                        if (parsedType == null) {
+                            System.out.println("Invalid type \"" + editType + "\": use INCOME or EXPENSE.");
+                            break;
+                        }
+                        editType = parsedType.name(); // Stored without the spaces or case it was typed with.
+                    }
 
-                    boolean edited = manager.editRecord(editDate, editType, editCategory, editDescription, editAmount);
+                    boolean edited = isId(editTarget)
+                            ? manager.editRecord(Long.parseLong(editTarget), editType, editCategory, editDescription, editAmount)
+                            : manager.editRecord(editTarget, editType, editCategory, editDescription, editAmount);
                     System.out.println(edited ? "Record edited successfully!" : "Record not found.");
                     break;
                 case 4:
                     // Delete Record
-                    System.out.print("Enter date of the record to delete: ");
-                    String deleteDate = scanner.nextLine();
-                    boolean deleted = manager.deleteRecord(deleteDate);
+                    System.out.print("Enter the id of the record to delete, or a date to delete every record on it: ");
+                    String deleteTarget = scanner.nextLine().trim();
+                    boolean deleted = isId(deleteTarget)
+                            ? manager.deleteRecord(Long.parseLong(deleteTarget))
+                            : manager.deleteRecord(deleteTarget);
                     System.out.println(deleted ? "Record deleted successfully!" : "Record not found.");
                     break;
                 case 5:
@@ -79,8 +160,20 @@ public class PersonalFinanceTracker {
                     summarizeMenu(manager, scanner);
                     break;
                 case 6:
+                    // Operation latencies and ledger sizes
+                    manager.printStats();
+                    break;
+                case 7:
                     // Exit
                     System.out.println("Exiting...");
+                    try {
+                        if (journal != null) {
+                            journal.snapshot(manager); // Start the next session from a compact snapshot.
+                        }
+                        persistence.close();
+                    } catch (IOException e) {
+                        System.out.println("Could not save records: " + e.getMessage());
+                    }
                     scanner.close();
                     return;
                 default:
@@ -89,6 +182,99 @@ public class PersonalFinanceTracker {
         }
     }
 
+    // Method to check whether the user entered a record id rather than a date.
+    private static boolean isId(String input) {
+        return !input.isEmpty() && input.length() <= 18 && input.chars().allMatch(Character::isDigit);
+    }
+
+    // Method to import the CSV files named on the command line, then save and close the ledger
+    private static void importFiles(RecordManager manager, LedgerJournal journal, Closeable persistence, String[] args) {
+        if (args.length < 2) {
+            System.out.println("Usage: PersonalFinanceTracker --import file.csv [file.csv ...]");
+        }
+        CsvImporter importer = new CsvImporter(manager);
+        for (int i = 1; i < args.length; i++) {
+            try {
+                ImportResult result = importer.importFile(Paths.get(args[i]));
+                System.out.println(args[i] + ": " + result);
+                for (String reject : result.getRejectSamples()) {
+                    System.out.println("  " + reject);
+                }
+                if (result.getRejected() > result.getRejectSamples().size()) {
+                    System.out.println("  ... " + (result.getRejected() - result.getRejectSamples().size()) + " more rejected lines");
+                }
+            } catch (IOException e) {
+                System.out.println("Could not import " + args[i] + ": " + e.getMessage());
+            }
+        }
+        try {
+            if (journal != null) {
+                journal.snapshot(manager);
+            }
+            persistence.close();
+        } catch (IOException e) {
+            System.out.println("Could not save records: " + e.getMessage());
+        }
+    }
+
+    // Method to export the whole ledger named on the command line to a file or standard output, then close it
+    private static void exportRecords(RecordManager manager, Closeable persistence, String[] args) {
+        if (args.length < 2) {
+            System.out.println("Usage: PersonalFinanceTracker --export csv|json|text [file]");
+            return;
+        }
+        RecordPrinter.Format format;
+        try {
+            format = RecordPrinter.Format.parse(args[1]);
+        } catch (IllegalArgumentException e) {
+            System.out.println("Unknown format " + args[1] + "; use csv, json or text.");
+            return;
+        }
+        OutputStream out = System.out;
+        try {
+            if (args.length > 2) {
+                out = Files.newOutputStream(Paths.get(args[2]));
+            }
+            RecordPrinter printer = new RecordPrinter(out, format, StandardCharsets.UTF_8);
+            List<Record> records = manager.getAllRecords();
+            printer.printHeader();
+            manager.printRecords(records, 0, manager.getPrintableSize(records), printer);
+            printer.flush();
+            if (out != System.out) {
+                out.close();
+                System.out.println("Exported " + printer.getRows() + " records to " + args[2]);
+            }
+            persistence.close();
+        } catch (IOException | UncheckedIOException e) {
+            System.out.println("Could not export records: " + e.getMessage());
+        }
+    }
+
+    // Method to print records a page at a time. -Dpft.pageSize sets the rows per page; 0 (the default) prints all.
+    private static void printRecords(RecordManager manager, Scanner scanner, List<Record> records) {
+        int pageSize = Integer.getInteger("pft.pageSize", 0);
+        int size = manager.getPrintableSize(records); // Compacts the ledger's own view before it is counted.
+        if (pageSize <= 0 || size <= pageSize) {
+            manager.printAllRecords(records);
+            return;
+        }
+        RecordPrinter printer = new RecordPrinter(System.out, RecordPrinter.Format.TEXT, StandardCharsets.UTF_8);
+        for (int from = 0; from < size; from += pageSize) {
+            int to = Math.min(from + pageSize, size);
+            manager.printRecords(records, from, to, printer);
+            if (to < size) {
+                printer.println("Records " + (from + 1) + "-" + to + " of " + size
+                        + ". Press Enter for the next page, or q to stop: ");
+                printer.flush();
+                if (scanner.nextLine().trim().equalsIgnoreCase("q")) {
+                    break;
+                }
+            }
+        }
+        printer.println("Balance: " + manager.getBalance());
+        printer.flush();
+    }
+
     // Method for displaying and handling the view menu
     private static void viewMenu(RecordManager manager, Scanner scanner) {
         while (true) {
@@ -112,7 +298,7 @@ public class PersonalFinanceTracker {
                     // Search Records
                     System.out.print("Enter description to search: ");
                     String searchDesc = scanner.nextLine();
-                    manager.printAllRecords(manager.searchByDescription(manager.getAllRecords(), searchDesc));
+                    printRecords(manager, scanner, manager.searchByDescription(manager.getAllRecords(), searchDesc));
                     break;
                 case 4:
                     // Back to Main Menu
@@ -129,7 +315,8 @@ public class PersonalFinanceTracker {
         System.out.println("1. By Type");
         System.out.println("2. By Category");
         System.out.println("3. By Date Range");
-        System.out.println("4. Back to View Menu");
+        System.out.println("4. By Type and Category");
+        System.out.println("5. Back to View Menu");
         System.out.print("Choose an option: ");
         int filterChoice = scanner.nextInt();
         scanner.nextLine(); // Consume newline
@@ -138,21 +325,36 @@ public class PersonalFinanceTracker {
             case 1:
                 System.out.print("Enter type (INCOME/EXPENSE): ");
                 String filterType = scanner.nextLine();
-                manager.printAllRecords(manager.filterByType(manager.getAllRecords(), filterType));
+                printRecords(manager, scanner, manager.filterByType(manager.getAllRecords(), filterType));
                 break;
             case 2:
                 System.out.print("Enter category: ");
                 String filterCategory = scanner.nextLine();
-                manager.printAllRecords(manager.filterByCategory(manager.getAllRecords(), filterCategory));
+                printRecords(manager, scanner, manager.filterByCategory(manager.getAllRecords(), filterCategory));
                 break;
             case 3:
                 System.out.print("Enter start date (yyyy-MM-dd): ");
                 String startDate = scanner.nextLine();
                 System.out.print("Enter end date (yyyy-MM-dd): ");
                 String endDate = scanner.nextLine();
-                manager.printAllRecords(manager.filterByDateRange(manager.getAllRecords(), startDate, endDate));
+                try {
+                    printRecords(manager, scanner, manager.filterByDateRange(manager.getAllRecords(), startDate, endDate));
+                } catch (IllegalArgumentException e) {
+                    System.out.println("Invalid date format.");
+                }
                 break;
             case 4:
+                System.out.print("Enter type (INCOME/EXPENSE): ");
+                RecordType type = RecordType.of(scanner.nextLine());
+                System.out.print("Enter category: ");
+                String category = scanner.nextLine();
+                if (type == null) {
+                    System.out.println("Invalid type: use INCOME or EXPENSE.");
+                } else {
+                    printRecords(manager, scanner, manager.filterByTypeAndCategory(manager.getAllRecords(), type.name(), category));
+                }
+                break;
+            case 5:
                 // Back to View Menu
                 return;
             default:
@@ -172,10 +374,10 @@ public class PersonalFinanceTracker {
 
         switch (sortChoice) {
             case 1:
-                manager.printAllRecords(manager.sortByDate(manager.getAllRecords()));
+                printRecords(manager, scanner, manager.sortByDate(manager.getAllRecords()));
                 break;
             case 2:
-                manager.printAllRecords(manager.sortByAmount(manager.getAllRecords()));
+                printRecords(manager, scanner, manager.sortByAmount(manager.getAllRecords()));
                 break;
             case 3:
                 // Back to View Menu
@@ -190,11 +392,73 @@ public class PersonalFinanceTracker {
         System.out.println("Summarize Options:");
         System.out.println("1. Last 7 Days");
         System.out.println("2. Last 30 Days");
+        System.out.println("3. Last 90 Days");
+        System.out.println("4. Last 365 Days");
+        System.out.println("5. Year to Date");
+        System.out.println("6. Custom Date Range");
+        System.out.println("7. Monthly Breakdown");
+        System.out.println("8. Categories by Month for a Year");
+        System.out.println("9. Categories for One Month");
         System.out.print("Choose an option: ");
         int summarizeChoice = scanner.nextInt();
         scanner.nextLine(); // Consume newline
 
-        int days = (summarizeChoice == 1) ? 7 : 30;
-        manager.printSummary(days);
+        switch (summarizeChoice) {
+            case 1:
+                manager.printSummary(7);
+                break;
+            case 2:
+                manager.printSummary(30);
+                break;
+            case 3:
+                manager.printSummary(90);
+                break;
+            case 4:
+                manager.printSummary(365);
+                break;
+            case 5:
+                manager.printYearToDateSummary();
+                break;
+            case 6:
+                try {
+                    System.out.print("Enter start date (yyyy-MM-dd): ");
+                    String startDate = scanner.nextLine();
+                    System.out.print("Enter end date (yyyy-MM-dd): ");
+                    String endDate = scanner.nextLine();
+                    manager.printSummary(startDate, endDate);
+                } catch (ParseException e) {
+                    System.out.println("Invalid date format.");
+                }
+                break;
+            case 7:
+                System.out.print("Enter year: ");
+                int year = scanner.nextInt();
+                scanner.nextLine(); // Consume newline
+                manager.printMonthlySummary(year);
+                break;
+            case 8:
+                System.out.print("Enter year: ");
+                int pivotYear = scanner.nextInt();
+                scanner.nextLine(); // Consume newline
+                System.out.print("Enter type (INCOME/EXPENSE): ");
+                String pivotTypeInput = scanner.nextLine();
+                RecordType pivotType = RecordType.of(pivotTypeInput);
+                if (pivotType == null) {
+                    System.out.println("Invalid type \"" + pivotTypeInput.trim() + "\": use INCOME or EXPENSE.");
+                    break;
+                }
+                manager.printCategoryPivot(pivotYear, pivotType);
+                break;
+            case 9:
+                try {
+                    System.out.print("Enter month (yyyy-MM): ");
+                    manager.printCategoryBreakdown(YearMonth.parse(scanner.nextLine().trim()));
+                } catch (DateTimeParseException e) {
+                    System.out.println("Invalid month format.");
+                }
+                break;
+            default:
+                System.out.println("Invalid option.");
+        }
     }
 }
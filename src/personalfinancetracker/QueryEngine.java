@@ -0,0 +1,260 @@
+package personalfinancetracker;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Predicate;
+
+// The QueryEngine class runs RecordManager's filters, searches and sorts, either on the calling thread or split
+// into chunks across a ForkJoin pool. Inputs below SEQUENTIAL_THRESHOLD rows always stay on the calling thread,
+// where forking would cost more than it saves. Results keep the order of the input, and sorts are stable.
+class QueryEngine {
+    static final int SEQUENTIAL_THRESHOLD = 1 << 16;  // Smaller inputs are not worth splitting.
+    private static final int MIN_CHUNK = 1 << 13;     // Smallest filter chunk or sort run handed to one task.
+    private static final int CHUNKS_PER_THREAD = 4;   // Extra chunks so that uneven chunks still balance.
+
+    private final int parallelism;                    // Worker threads, or 1 for sequential execution.
+    private final ForkJoinPool pool;                  // Workers for parallel queries, or null when sequential.
+
+    // Constructor to initialize an engine with the given number of worker threads.
+    QueryEngine(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1: " + parallelism);
+        }
+        this.parallelism = parallelism;
+        this.pool = parallelism == 1 ? null : new ForkJoinPool(parallelism);
+    }
+
+    // Method to get the number of worker threads.
+    int getParallelism() {
+        return parallelism;
+    }
+
+    // Method to stop the worker threads.
+    void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    // Method to keep the records that match a predicate.
+    List<Record> filter(List<Record> records, Predicate<Record> predicate) {
+        if (!(records instanceof RandomAccess)) {
+            records = new ArrayList<>(records); // Chunks are addressed by index.
+        }
+        List<Record> list = records;
+        return filterRanges(list.size(), (from, to) -> {
+            List<Record> part = new ArrayList<>();
+            for (Record record : list.subList(from, to)) {
+                if (predicate.test(record)) {
+                    part.add(record);
+                }
+            }
+            return part;
+        });
+    }
+
+    // Method to run a filter over positions 0..size-1, one chunk per task, and join the parts in order.
+    List<Record> filterRanges(int size, RangeFilter filter) {
+        if (!isParallel(size)) {
+            return filter.apply(0, size);
+        }
+        int chunkSize = chunkSize(size);
+        int chunks = (size + chunkSize - 1) / chunkSize;
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        List<Record>[] parts = new List[chunks];
+        pool.invoke(new FilterTask(parts, 0, chunks, chunkSize, size, filter));
+        int total = 0;
+        for (List<Record> part : parts) {
+            total += part.size();
+        }
+        List<Record> result = new ArrayList<>(total);
+        for (List<Record> part : parts) {
+            result.addAll(part);
+        }
+        return result;
+    }
+
+    // Method to return a sorted copy of the records.
+    List<Record> sort(List<Record> records, Comparator<Record> comparator) {
+        Record[] array = records.toArray(new Record[0]);
+        if (!isParallel(array.length)) {
+            Arrays.sort(array, comparator);
+        } else {
+            Record[] buffer = new Record[array.length];
+            pool.invoke(new SortTask(array, buffer, 0, array.length, chunkSize(array.length), comparator));
+        }
+        return new ArrayList<>(Arrays.asList(array));
+    }
+
+    // Method to decide whether an input of the given size is split across the pool.
+    private boolean isParallel(int size) {
+        return pool != null && size >= SEQUENTIAL_THRESHOLD;
+    }
+
+    // Method to pick a chunk size that gives every worker a few chunks.
+    private int chunkSize(int size) {
+        return Math.max(MIN_CHUNK, size / (parallelism * CHUNKS_PER_THREAD));
+    }
+
+    // A filter over the positions from..to-1, returning the matches in order.
+    interface RangeFilter {
+        List<Record> apply(int from, int to);
+    }
+
+    // Filters a run of chunks, splitting it in half until a single chunk is left.
+    private static final class FilterTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<Record>[] parts;
+        private final int firstChunk;
+        private final int endChunk;
+        private final int chunkSize;
+        private final int size;
+        private final RangeFilter filter;
+
+        FilterTask(List<Record>[] parts, int firstChunk, int endChunk, int chunkSize, int size, RangeFilter filter) {
+            this.parts = parts;
+            this.firstChunk = firstChunk;
+            this.endChunk = endChunk;
+            this.chunkSize = chunkSize;
+            this.size = size;
+            this.filter = filter;
+        }
+
+        @Override
+        protected void compute() {
+            if (endChunk - firstChunk > 1) {
+                int mid = (firstChunk + endChunk) >>> 1;
+                invokeAll(new FilterTask(parts, firstChunk, mid, chunkSize, size, filter),
+                        new FilterTask(parts, mid, endChunk, chunkSize, size, filter));
+                return;
+            }
+            int from = firstChunk * chunkSize;
+            parts[firstChunk] = filter.apply(from, Math.min(size, from + chunkSize));
+        }
+    }
+
+    // Sorts array[from, to) with a merge sort whose halves, and whose merges, run in parallel.
+    // Runs of at most leafSize rows are sorted with Arrays.sort; buffer is scratch space of the same length.
+    private static final class SortTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Record[] array;
+        private final Record[] buffer;
+        private final int from;
+        private final int to;
+        private final int leafSize;
+        private final Comparator<Record> comparator;
+
+        SortTask(Record[] array, Record[] buffer, int from, int to, int leafSize, Comparator<Record> comparator) {
+            this.array = array;
+            this.buffer = buffer;
+            this.from = from;
+            this.to = to;
+            this.leafSize = leafSize;
+            this.comparator = comparator;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= leafSize) {
+                Arrays.sort(array, from, to, comparator);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new SortTask(array, buffer, from, mid, leafSize, comparator),
+                    new SortTask(array, buffer, mid, to, leafSize, comparator));
+            if (comparator.compare(array[mid - 1], array[mid]) <= 0) {
+                return; // Already in order, as for ledgers entered by date.
+            }
+            new MergeTask(array, from, mid, mid, to, buffer, from, leafSize, comparator).invoke();
+            System.arraycopy(buffer, from, array, from, to - from);
+        }
+    }
+
+    // Merges two sorted runs of source into target, splitting large merges around the middle of the longer run.
+    // On equal keys the left run goes first, which keeps the sort stable.
+    private static final class MergeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Record[] source;
+        private final int leftFrom;
+        private final int leftTo;
+        private final int rightFrom;
+        private final int rightTo;
+        private final Record[] target;
+        private final int targetFrom;
+        private final int leafSize;
+        private final Comparator<Record> comparator;
+
+        MergeTask(Record[] source, int leftFrom, int leftTo, int rightFrom, int rightTo, Record[] target, int targetFrom,
+                int leafSize, Comparator<Record> comparator) {
+            this.source = source;
+            this.leftFrom = leftFrom;
+            this.leftTo = leftTo;
+            this.rightFrom = rightFrom;
+            this.rightTo = rightTo;
+            this.target = target;
+            this.targetFrom = targetFrom;
+            this.leafSize = leafSize;
+            this.comparator = comparator;
+        }
+
+        @Override
+        protected void compute() {
+            int leftLength = leftTo - leftFrom;
+            int rightLength = rightTo - rightFrom;
+            if (leftLength + rightLength <= leafSize) {
+                merge();
+                return;
+            }
+            int leftSplit;
+            int rightSplit;
+            if (leftLength >= rightLength) {
+                // Right-run elements equal to the pivot stay after it.
+                leftSplit = (leftFrom + leftTo) >>> 1;
+                rightSplit = search(rightFrom, rightTo, source[leftSplit], false);
+            } else {
+                // Left-run elements equal to the pivot stay before it.
+                rightSplit = (rightFrom + rightTo) >>> 1;
+                leftSplit = search(leftFrom, leftTo, source[rightSplit], true);
+            }
+            int targetSplit = targetFrom + (leftSplit - leftFrom) + (rightSplit - rightFrom);
+            invokeAll(new MergeTask(source, leftFrom, leftSplit, rightFrom, rightSplit, target, targetFrom, leafSize, comparator),
+                    new MergeTask(source, leftSplit, leftTo, rightSplit, rightTo, target, targetSplit, leafSize, comparator));
+        }
+
+        // Method to find the first index in [from, to) whose element sorts after the key, or when inclusive is false,
+        // the first index whose element does not sort before it.
+        private int search(int from, int to, Record key, boolean inclusive) {
+            while (from < to) {
+                int mid = (from + to) >>> 1;
+                int order = comparator.compare(source[mid], key);
+                if (order < 0 || (inclusive && order == 0)) {
+                    from = mid + 1;
+                } else {
+                    to = mid;
+                }
+            }
+            return from;
+        }
+
+        // Method to merge the two runs sequentially.
+        private void merge() {
+            int left = leftFrom;
+            int right = rightFrom;
+            int out = targetFrom;
+            while (left < leftTo && right < rightTo) {
+                target[out++] = comparator.compare(source[right], source[left]) < 0 ? source[right++] : source[left++];
+            }
+            System.arraycopy(source, left, target, out, leftTo - left);
+            out += leftTo - left;
+            System.arraycopy(source, right, target, out, rightTo - right);
+        }
+    }
+}
@@ -0,0 +1,321 @@
+package personalfinancetracker;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// The QueryEvaluator class plans and runs one RecordQuery.
+// Planning picks the cheapest way to find candidate slots: the date index when a date range is set, the type and
+// category bitmaps (ANDed when both are set) when a type or category is set, the description index when a text
+// is set, or a scan of the whole store, whichever yields the fewest candidates. Every
+// candidate is then tested against all criteria on the store's columns, cheapest test first, and only the
+// returned rows are built into Record objects.
+class QueryEvaluator {
+    // The ways candidate slots can be found.
+    enum Access {
+        FULL_SCAN,
+        DATE_INDEX,
+        BITMAP_INDEX,
+        DESCRIPTION_INDEX
+    }
+
+    private final RecordStore store;
+    private final DateIndex dateIndex;
+    private final CategoryIndex categoryIndex;
+    private final DescriptionIndex descriptionIndex; // Null when the query has no text.
+    private final RecordQuery query;
+    private Access access;                  // Chosen way to find candidates.
+    private int candidates;                 // Number of candidate slots the chosen access visits.
+    private SlotBitmap bitmapCandidates;    // Slots of the type and category, or null if none match.
+    private int[] textCandidates;           // Slots whose description has every trigram of the text.
+    private int matched;                    // Number of slots that passed every test.
+    private List<Record> records;           // Rows returned by run().
+
+    // Constructor to plan a query against the given store and indexes.
+    QueryEvaluator(RecordStore store, DateIndex dateIndex, CategoryIndex categoryIndex,
+            DescriptionIndex descriptionIndex, RecordQuery query) {
+        this.store = store;
+        this.dateIndex = dateIndex;
+        this.categoryIndex = categoryIndex;
+        this.descriptionIndex = descriptionIndex;
+        this.query = query;
+        plan();
+    }
+
+    // Method to pick the access with the fewest candidates.
+    private void plan() {
+        access = Access.FULL_SCAN;
+        candidates = store.size();
+        if (query.getStartDay() != Integer.MIN_VALUE || query.getEndDay() != Integer.MAX_VALUE) {
+            int inRange = dateIndex.countInRange(query.getStartDay(), query.getEndDay());
+            if (inRange < candidates) {
+                access = Access.DATE_INDEX;
+                candidates = inRange;
+            }
+        }
+        if (query.getType() != null || query.getCategory() != null) {
+            bitmapCandidates = categoryIndex.select(query.getType(), query.getCategory());
+            int selected = bitmapCandidates == null ? 0 : bitmapCandidates.cardinality();
+            if (selected < candidates) {
+                access = Access.BITMAP_INDEX;
+                candidates = selected;
+            }
+        }
+        if (descriptionIndex != null) {
+            textCandidates = descriptionIndex.substringCandidates(query.getText());
+            if (textCandidates != null && textCandidates.length < candidates) {
+                access = Access.DESCRIPTION_INDEX;
+                candidates = textCandidates.length;
+            }
+        }
+    }
+
+    // Method to evaluate the query. With countOnly set only the number of matches is worked out.
+    void run(boolean countOnly) {
+        int wanted = (int) Math.min(Integer.MAX_VALUE, (long) query.getOffset() + query.getLimit());
+        records = new ArrayList<>();
+        if (countOnly && access == Access.BITMAP_INDEX && onlyTypeAndCategory()) {
+            matched = candidates;           // The bitmaps already hold exactly the matches.
+            return;
+        }
+        if (countOnly) {
+            visit(slot -> matched++, Integer.MAX_VALUE);
+            return;
+        }
+        if (query.getLimit() == 0) {
+            return;
+        }
+        if (query.getOrder() == RecordQuery.Order.LEDGER && access != Access.DATE_INDEX) {
+            // Full scans and index lists other than the date index run in ledger order, so stop once the page is full.
+            visit(slot -> {
+                if (matched++ >= query.getOffset()) {
+                    records.add(store.get(slot));
+                }
+            }, wanted);
+            return;
+        }
+        if (query.getOrder() == RecordQuery.Order.LATEST_FIRST && (access == Access.FULL_SCAN || access == Access.DATE_INDEX)) {
+            // Walk the date index from the latest day back, which is already the requested order.
+            dateIndex.forEachInRangeDescending(query.getStartDay(), query.getEndDay(), slot -> {
+                if (matches(slot) && matched++ >= query.getOffset()) {
+                    records.add(store.get(slot));
+                }
+                return matched < wanted;
+            });
+            return;
+        }
+        // Keep the best rows in a bounded heap instead of sorting every match.
+        TopSlots top = new TopSlots(wanted);
+        visit(slot -> {
+            matched++;
+            top.offer(slot, sortKey(slot));
+        }, Integer.MAX_VALUE);
+        int[] best = top.drainInOrder();
+        for (int i = query.getOffset(); i < best.length; i++) {
+            records.add(store.get(best[i]));
+        }
+    }
+
+    // Method to get the rows found by run().
+    List<Record> getRecords() {
+        return records;
+    }
+
+    // Method to get the number of matching rows seen by run().
+    int getMatched() {
+        return matched;
+    }
+
+    // Method to describe the plan.
+    String explain() {
+        boolean latestFirstWalk = query.getOrder() == RecordQuery.Order.LATEST_FIRST
+                && (access == Access.FULL_SCAN || access == Access.DATE_INDEX);
+        String how;
+        if (latestFirstWalk) {
+            how = "date index, latest first";
+        } else if (access == Access.DATE_INDEX) {
+            how = "date index";
+        } else if (access == Access.BITMAP_INDEX) {
+            how = query.getType() == null ? "category bitmap" : query.getCategory() == null ? "type bitmap" : "type AND category bitmaps";
+        } else if (access == Access.DESCRIPTION_INDEX) {
+            how = "description index";
+        } else {
+            how = "full scan";
+        }
+        String plan = String.format("%s (%,d candidates)", how, candidates);
+        if (!latestFirstWalk && (query.getOrder() != RecordQuery.Order.LEDGER || access == Access.DATE_INDEX)) {
+            plan += query.getLimit() == Integer.MAX_VALUE ? ", heap sort of all matches"
+                    : String.format(", top %,d heap", (long) query.getOffset() + query.getLimit());
+        }
+        return plan;
+    }
+
+    // Receives the matching slots.
+    private interface SlotVisitor {
+        void accept(int slot);
+    }
+
+    // Method to pass every candidate that matches all criteria to the visitor, stopping after the given number.
+    private void visit(SlotVisitor visitor, int stopAfter) {
+        int found = 0;
+        switch (access) {
+            case DATE_INDEX:
+                dateIndex.forEachInRange(query.getStartDay(), query.getEndDay(), slot -> {
+                    if (matches(slot)) {
+                        visitor.accept(slot); // Date order, so ledger-order pages need every match.
+                    }
+                });
+                break;
+            case BITMAP_INDEX:
+                if (bitmapCandidates != null) {
+                    int[] bitmapFound = new int[1];
+                    bitmapCandidates.forEach(slot -> {
+                        if (matches(slot)) {
+                            bitmapFound[0]++;
+                            visitor.accept(slot);
+                        }
+                        return bitmapFound[0] < stopAfter;
+                    });
+                }
+                break;
+            case DESCRIPTION_INDEX:
+                for (int i = 0; i < textCandidates.length && found < stopAfter; i++) {
+                    if (matches(textCandidates[i])) {
+                        found++;
+                        visitor.accept(textCandidates[i]);
+                    }
+                }
+                break;
+            default:
+                for (int slot = 0; slot < store.size() && found < stopAfter; slot++) {
+                    if (matches(slot)) {
+                        found++;
+                        visitor.accept(slot);
+                    }
+                }
+        }
+    }
+
+    // Method to check whether the query has no criteria beyond its type and category.
+    private boolean onlyTypeAndCategory() {
+        return query.getStartDay() == Integer.MIN_VALUE && query.getEndDay() == Integer.MAX_VALUE
+                && query.getMinCents() == Long.MIN_VALUE && query.getMaxCents() == Long.MAX_VALUE && query.getText() == null;
+    }
+
+    // Method to test one slot against every criterion, reading only the columns each test needs.
+    private boolean matches(int slot) {
+        int epochDay = store.getEpochDay(slot);
+        if (epochDay < query.getStartDay() || epochDay > query.getEndDay()) {
+            return false;
+        }
+        long amount = store.getAmountCents(slot);
+        if (amount < query.getMinCents() || amount > query.getMaxCents()) {
+            return false;
+        }
+        if (query.getType() != null && access != Access.BITMAP_INDEX && !store.getType(slot).equalsIgnoreCase(query.getType())) {
+            return false;
+        }
+        if (query.getCategory() != null && access != Access.BITMAP_INDEX
+                && !store.getCategory(slot).equalsIgnoreCase(query.getCategory())) {
+            return false;
+        }
+        return query.getText() == null || store.getDescription(slot).contains(query.getText());
+    }
+
+    // Method to get the key a slot is ordered by; higher keys come first.
+    private long sortKey(int slot) {
+        switch (query.getOrder()) {
+            case LATEST_FIRST:
+                return store.getEpochDay(slot);
+            case HIGHEST_AMOUNT_FIRST:
+                return store.getAmountCents(slot);
+            default:
+                return -slot; // Ledger order.
+        }
+    }
+
+    // A bounded heap of the best slots seen so far: higher key first, lower slot first among equal keys.
+    // The worst kept slot sits at the root so a better one can replace it in O(log n).
+    private static final class TopSlots {
+        private final int capacity;
+        private int[] slots = new int[16];
+        private long[] keys = new long[16];
+        private int size;
+
+        TopSlots(int capacity) {
+            this.capacity = capacity;
+        }
+
+        void offer(int slot, long key) {
+            if (size < capacity) {
+                if (size == slots.length) {
+                    int grown = (int) Math.min(capacity, slots.length * 2L);
+                    slots = Arrays.copyOf(slots, grown);
+                    keys = Arrays.copyOf(keys, grown);
+                }
+                slots[size] = slot;
+                keys[size] = key;
+                siftUp(size++);
+            } else if (capacity > 0 && worse(slots[0], keys[0], slot, key)) {
+                slots[0] = slot;
+                keys[0] = key;
+                siftDown(0);
+            }
+        }
+
+        // Empties the heap, returning its slots best first.
+        int[] drainInOrder() {
+            int[] ordered = new int[size];
+            for (int i = size - 1; i >= 0; i--) {
+                ordered[i] = slots[0];
+                size--;
+                slots[0] = slots[size];
+                keys[0] = keys[size];
+                siftDown(0);
+            }
+            return ordered;
+        }
+
+        private static boolean worse(int slotA, long keyA, int slotB, long keyB) {
+            int order = Long.compare(keyA, keyB);
+            return order < 0 || (order == 0 && slotA > slotB);
+        }
+
+        private void siftUp(int at) {
+            while (at > 0) {
+                int parent = (at - 1) >>> 1;
+                if (!worse(slots[at], keys[at], slots[parent], keys[parent])) {
+                    break;
+                }
+                swap(at, parent);
+                at = parent;
+            }
+        }
+
+        private void siftDown(int at) {
+            while (true) {
+                int child = 2 * at + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && worse(slots[child + 1], keys[child + 1], slots[child], keys[child])) {
+                    child++;
+                }
+                if (!worse(slots[child], keys[child], slots[at], keys[at])) {
+                    break;
+                }
+                swap(at, child);
+                at = child;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int slot = slots[a];
+            slots[a] = slots[b];
+            slots[b] = slot;
+            long key = keys[a];
+            keys[a] = keys[b];
+            keys[b] = key;
+        }
+    }
+}
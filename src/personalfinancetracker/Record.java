@@ -1,26 +1,62 @@
 package personalfinancetracker;
 
+import java.text.ParseException;
+import java.time.LocalDate;
+import java.util.Comparator;
+
 // The Record class represents a financial record in the personal finance tracker.
 public class Record {
+    // Comparator that orders records from the latest to the oldest date, comparing plain ints.
+    public static final Comparator<Record> LATEST_FIRST = (r1, r2) -> Integer.compare(r2.epochDay, r1.epochDay);
+
+    // Comparator that orders records from the highest to the lowest amount, comparing exact cents.
+    public static final Comparator<Record> HIGHEST_AMOUNT_FIRST = (r1, r2) -> Long.compare(r2.amountCents, r1.amountCents);
+
+    // Marker returned by toEpochDay(int, int, int) for dates that do not exist.
+    static final int INVALID_DAY = Integer.MIN_VALUE;
+
     // Private member variables to store the details of the record.
-    private String date;          // The date of the record.
+    private long id;              // Unique id given when the record is first stored, or 0 before that.
+    private final int epochDay;   // The date of the record, parsed once into days since 1970-01-01.
     private String type;          // The type of the record (e.g., income, expense).
     private String category;      // The category of the record (e.g., groceries, salary).
     private String description;   // A brief description of the record.
-    private double amount;        // The amount of money involved in the record.
+    private long amountCents;     // The amount of money involved in the record, exactly, in cents.
 
-    // Constructor to initialize a new Record object with given values.
+    // Constructor to initialize a new Record object with given values. The amount is rounded to the cent.
+    // The date must be in yyyy-MM-dd form; an IllegalArgumentException is thrown otherwise.
     public Record(String date, String type, String category, String description, double amount) {
-        this.date = date;               // Set the date.
-        this.type = type;               // Set the type.
+        this(parseDate(date), type, category, description, amount);
+    }
+
+    // Constructor to initialize a new Record object from an already parsed epoch day.
+    public Record(int epochDay, String type, String category, String description, double amount) {
+        this(0, epochDay, type, category, description, Money.toCents(amount));
+    }
+
+    // Constructor used by the stores to rebuild a stored record with its id and exact amount.
+    Record(long id, int epochDay, String type, String category, String description, long amountCents) {
+        this.id = id;                   // Set the id.
+        this.epochDay = epochDay;       // Set the date.
+        this.type = RecordType.canonical(type); // Set the type, sharing the INCOME and EXPENSE constants.
         this.category = category;       // Set the category.
         this.description = description; // Set the description.
-        this.amount = amount;           // Set the amount.
+        this.amountCents = amountCents; // Set the amount.
     }
 
-    // Getter method to retrieve the date of the record.
+    // Getter method to retrieve the id of the record, or 0 if it has not been stored yet.
+    public long getId() {
+        return id;
+    }
+
+    // Getter method to retrieve the date of the record in yyyy-MM-dd form.
     public String getDate() {
-        return date;
+        return LocalDate.ofEpochDay(epochDay).toString();
+    }
+
+    // Getter method to retrieve the date of the record as days since 1970-01-01.
+    public int getEpochDay() {
+        return epochDay;
     }
 
     // Getter method to retrieve the type of the record.
@@ -28,6 +64,11 @@ public class Record {
         return type;
     }
 
+    // Getter method to retrieve the type as a RecordType, or null for a type other than INCOME or EXPENSE.
+    public RecordType getRecordType() {
+        return RecordType.of(type);
+    }
+
     // Getter method to retrieve the category of the record.
     public String getCategory() {
         return category;
@@ -38,14 +79,24 @@ public class Record {
         return description;
     }
 
-    // Getter method to retrieve the amount of the record.
+    // Getter method to retrieve the amount of the record as a double.
     public double getAmount() {
-        return amount;
+        return Money.toAmount(amountCents);
+    }
+
+    // Getter method to retrieve the exact amount of the record in cents.
+    public long getAmountCents() {
+        return amountCents;
+    }
+
+    // Setter method used by the stores to give a new record its id.
+    void setId(long id) {
+        this.id = id;
     }
 
     // Setter method to update the type of the record.
     public void setType(String type) {
-        this.type = type;
+        this.type = RecordType.canonical(type);
     }
 
     // Setter method to update the category of the record.
@@ -58,20 +109,99 @@ public class Record {
         this.description = description;
     }
 
-    // Setter method to update the amount of the record.
+    // Setter method to update the amount of the record, rounded to the cent.
     public void setAmount(double amount) {
-        this.amount = amount;
+        this.amountCents = Money.toCents(amount);
+    }
+
+    // Setter method to update the amount of the record in cents.
+    public void setAmountCents(long amountCents) {
+        this.amountCents = amountCents;
     }
 
     // Override the toString method to provide a string representation of the record.
     @Override
     public String toString() {
         return "Record{" +
-                "date='" + date + '\'' +
+                "id=" + id +
+                ", date='" + getDate() + '\'' +
                 ", type='" + type + '\'' +
                 ", category='" + category + '\'' +
                 ", description='" + description + '\'' +
-                ", amount=" + amount +
+                ", amount=" + Money.format(amountCents) +
                 '}';
     }
+
+    // Method to convert a yyyy-MM-dd date into days since 1970-01-01.
+    // Hand-rolled instead of SimpleDateFormat so it allocates nothing and is safe to share between threads.
+    public static int toEpochDay(String date) throws ParseException {
+        if (date == null) {
+            throw new ParseException("Missing date", 0);
+        }
+        if (date.length() != 10 || date.charAt(4) != '-' || date.charAt(7) != '-') {
+            throw new ParseException("Unparseable date: \"" + date + "\"", 0);
+        }
+        int year = digits(date, 0, 4);
+        int month = digits(date, 5, 7);
+        int day = digits(date, 8, 10);
+        if (year < 0 || month < 0 || day < 0) {
+            throw new ParseException("Unparseable date: \"" + date + "\"", 0);
+        }
+        int epochDay = toEpochDay(year, month, day);
+        if (epochDay == INVALID_DAY) {
+            throw new ParseException("Invalid date: \"" + date + "\"", 0);
+        }
+        return epochDay;
+    }
+
+    // Method to convert a calendar date into days since 1970-01-01, or INVALID_DAY if there is no such date.
+    // Uses the days-from-civil formula for the proleptic Gregorian calendar, so no objects are created.
+    static int toEpochDay(int year, int month, int day) {
+        if (month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+            return INVALID_DAY;
+        }
+        int y = month <= 2 ? year - 1 : year;
+        int era = (y >= 0 ? y : y - 399) / 400;
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    // Method to get the number of days in a month.
+    private static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                return (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    // Method to read a run of decimal digits, returning -1 if any character is not a digit.
+    private static int digits(String text, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    // Method used by the String constructor to validate and parse the date.
+    private static int parseDate(String date) {
+        try {
+            return toEpochDay(date);
+        } catch (ParseException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+    }
 }
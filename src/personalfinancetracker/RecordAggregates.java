@@ -0,0 +1,190 @@
+package personalfinancetracker;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// The RecordAggregates class keeps running totals so balance and per-type/per-category sums never need a scan.
+// Types and categories are grouped ignoring case, the same way the filters match them.
+// Totals are exact cents, so removing a record restores exactly the totals from before it was added.
+class RecordAggregates {
+    private long balance;                         // Income minus everything else, in cents.
+    private int count;                            // Number of records included.
+    private final Map<String, Totals> byType;     // Totals per type, keyed by upper-cased type.
+    private final Map<String, Totals> byCategory; // Totals per category, keyed by upper-cased category.
+
+    // Constructor to initialize empty aggregates.
+    RecordAggregates() {
+        this.byType = new HashMap<>();
+        this.byCategory = new HashMap<>();
+    }
+
+    // Method to include a record's values.
+    void add(String type, String category, long amount) {
+        balance = "INCOME".equalsIgnoreCase(type) ? Money.add(balance, amount) : Money.subtract(balance, amount);
+        count++;
+        byType.computeIfAbsent(key(type), k -> new Totals()).add(amount);
+        byCategory.computeIfAbsent(key(category), k -> new Totals()).add(amount);
+    }
+
+    // Method to check that including the records, in order, would not overflow any total, without changing anything.
+    // Throws ArithmeticException if it would.
+    void checkAdd(List<Record> records) {
+        long newBalance = balance;
+        Map<String, Long> typeSums = new HashMap<>();     // Type totals as they would become, by key.
+        Map<String, Long> categorySums = new HashMap<>(); // Category totals as they would become, by key.
+        for (Record record : records) {
+            long amount = record.getAmountCents();
+            newBalance = "INCOME".equalsIgnoreCase(record.getType()) ? Money.add(newBalance, amount) : Money.subtract(newBalance, amount);
+            checkGroup(byType, typeSums, key(record.getType()), amount);
+            checkGroup(byCategory, categorySums, key(record.getCategory()), amount);
+        }
+    }
+
+    // Method to check that replacing a record's values with edited ones would not overflow any total, without
+    // changing anything. Throws ArithmeticException if it would.
+    void checkReplace(Record old, Record edited) {
+        long newBalance = "INCOME".equalsIgnoreCase(old.getType())
+                ? Money.subtract(balance, old.getAmountCents()) : Money.add(balance, old.getAmountCents());
+        newBalance = "INCOME".equalsIgnoreCase(edited.getType())
+                ? Money.add(newBalance, edited.getAmountCents()) : Money.subtract(newBalance, edited.getAmountCents());
+        Map<String, Long> typeSums = new HashMap<>();
+        checkGroup(byType, typeSums, key(old.getType()), Money.subtract(0, old.getAmountCents()));
+        checkGroup(byType, typeSums, key(edited.getType()), edited.getAmountCents());
+        Map<String, Long> categorySums = new HashMap<>();
+        checkGroup(byCategory, categorySums, key(old.getCategory()), Money.subtract(0, old.getAmountCents()));
+        checkGroup(byCategory, categorySums, key(edited.getCategory()), edited.getAmountCents());
+    }
+
+    // Method to take a record's values back out.
+    void remove(String type, String category, long amount) {
+        balance = "INCOME".equalsIgnoreCase(type) ? Money.subtract(balance, amount) : Money.add(balance, amount);
+        count--;
+        subtract(byType, key(type), amount);
+        subtract(byCategory, key(category), amount);
+    }
+
+    // Method to replace a record's old values with its new ones.
+    void replace(String oldType, String oldCategory, long oldAmount, String type, String category, long amount) {
+        remove(oldType, oldCategory, oldAmount);
+        add(type, category, amount);
+    }
+
+    // Method to get the balance in cents.
+    long getBalance() {
+        return balance;
+    }
+
+    // Method to get the number of records included.
+    int getCount() {
+        return count;
+    }
+
+    // Method to get the total amount for a type (ignoring case), in cents.
+    long getTypeTotal(String type) {
+        Totals totals = byType.get(key(type));
+        return totals == null ? 0 : totals.sum;
+    }
+
+    // Method to get the number of records of a type (ignoring case).
+    int getTypeCount(String type) {
+        Totals totals = byType.get(key(type));
+        return totals == null ? 0 : totals.count;
+    }
+
+    // Method to get the total amount for a category (ignoring case), in cents.
+    long getCategoryTotal(String category) {
+        Totals totals = byCategory.get(key(category));
+        return totals == null ? 0 : totals.sum;
+    }
+
+    // Method to get the number of records in a category (ignoring case).
+    int getCategoryCount(String category) {
+        Totals totals = byCategory.get(key(category));
+        return totals == null ? 0 : totals.count;
+    }
+
+    // Method to empty the aggregates.
+    void clear() {
+        balance = 0;
+        count = 0;
+        byType.clear();
+        byCategory.clear();
+    }
+
+    // Method to describe the first difference from another set of aggregates, or return null if they agree.
+    String difference(RecordAggregates other) {
+        if (count != other.count) {
+            return "record count " + count + " != " + other.count;
+        }
+        if (balance != other.balance) {
+            return "balance " + Money.format(balance) + " != " + Money.format(other.balance);
+        }
+        String type = differentKey(byType, other.byType);
+        if (type != null) {
+            return "type " + type;
+        }
+        String category = differentKey(byCategory, other.byCategory);
+        return category == null ? null : "category " + category;
+    }
+
+    // Method to find a group whose totals differ between two maps.
+    private static String differentKey(Map<String, Totals> mine, Map<String, Totals> theirs) {
+        for (Map.Entry<String, Totals> entry : mine.entrySet()) {
+            Totals other = theirs.get(entry.getKey());
+            if (other == null ? entry.getValue().count != 0 : !entry.getValue().matches(other)) {
+                return entry.getKey();
+            }
+        }
+        for (Map.Entry<String, Totals> entry : theirs.entrySet()) {
+            if (!mine.containsKey(entry.getKey()) && entry.getValue().count != 0) {
+                return entry.getKey();
+            }
+        }
+        return null;
+    }
+
+    // Method to add an amount to the would-be total of a group, starting from its current total.
+    private static void checkGroup(Map<String, Totals> groups, Map<String, Long> sums, String key, long amount) {
+        Long sum = sums.get(key);
+        if (sum == null) {
+            Totals totals = groups.get(key);
+            sum = totals == null ? 0 : totals.sum;
+        }
+        sums.put(key, Money.add(sum, amount));
+    }
+
+    // Method to take an amount out of a group, dropping the group once it is empty.
+    private static void subtract(Map<String, Totals> groups, String key, long amount) {
+        Totals totals = groups.get(key);
+        if (totals == null) {
+            return;
+        }
+        totals.sum = Money.subtract(totals.sum, amount);
+        totals.count--;
+        if (totals.count == 0) {
+            groups.remove(key);
+        }
+    }
+
+    // Method to build the case-insensitive grouping key.
+    private static String key(String name) {
+        return name.toUpperCase(Locale.ROOT);
+    }
+
+    // Sum and count for one group.
+    private static final class Totals {
+        long sum;
+        int count;
+
+        void add(long amount) {
+            sum = Money.add(sum, amount);
+            count++;
+        }
+
+        boolean matches(Totals other) {
+            return count == other.count && sum == other.sum;
+        }
+    }
+}
@@ -1,200 +1,982 @@
 package personalfinancetracker;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.YearMonth;
+import java.time.format.TextStyle;
 import java.util.*;
-import java.util.stream.Collectors;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
 
 // The RecordManager class handles the operations on financial records.
+// It is not thread-safe; ConcurrentRecordManager is the variant for concurrent readers and writers.
+// Deleted records stay in the store as tombstones: they leave the totals, the date index and the id index at once,
+// and are compacted out of the store and the other indexes in one pass, once a quarter of the slots are dead or
+// before anything scans the whole store.
 public class RecordManager {
     // Member variables
-    private List<Record> records;                   // List to store all records.
-    private Queue<Record> recentRecordsQueue;       // Queue to store recent records for quick access.
-    private SimpleDateFormat dateFormat;            // Date format for parsing and formatting dates.
-    private static final int DAYS_30 = 30;          // Constant for 30 days.
+    private RecordStore store;                      // Backend that stores all records.
+    private IdIndex idIndex;                        // Hash index of record id -> slot in the store.
+    private DateIndex.SlotList tombstones;          // Slots of deleted records not yet compacted out of the store.
+    private DateIndex dateIndex;                    // Sorted index of epoch day -> slots in the store.
+    private CategoryIndex categoryIndex;            // Index of category -> slots in the store, for queries.
+    private DescriptionIndex descriptionIndex;      // Full-text index of descriptions, built on the first search.
+    private RecordAggregates aggregates;            // Running balance and per-type/per-category totals.
+    private DailySummaryIndex summaryIndex;         // Per-day totals for window summaries.
+    private RollupCube rollup;                      // Totals per month, type and category for monthly reports.
+    private boolean consistencyCheck;               // Whether to verify the aggregates after every change.
+    private LedgerJournal journal;                  // Write-ahead log for durability, or null when in memory only.
+    private boolean indexed;                        // Whether the indexes and totals cover the store's records yet.
+    private QueryEngine queryEngine;                // Runs filters, searches and sorts, sequentially or in parallel.
+    private final RecordManagerMetrics metrics;     // Counts and latencies of the public operations.
 
-    // Constructor to initialize the RecordManager.
+    // Constructor to initialize the RecordManager with the default list backend.
     public RecordManager() {
-        this.records = new ArrayList<>();           // Initialize the records list.
-        this.recentRecordsQueue = new LinkedList<>(); // Initialize the recent records queue.
-        this.dateFormat = new SimpleDateFormat("yyyy-MM-dd"); // Initialize the date format.
+        this(new ListRecordStore());
     }
 
-    // Method to add a new record.
+    // Constructor to initialize the RecordManager on top of the given backend.
+    public RecordManager(RecordStore store) {
+        this.store = store;
+        this.idIndex = new IdIndex();               // Initialize the id index.
+        this.tombstones = new DateIndex.SlotList(); // Nothing is waiting to be compacted.
+        this.dateIndex = new DateIndex();           // Initialize the date index.
+        this.categoryIndex = new CategoryIndex();   // Initialize the category index.
+        this.aggregates = new RecordAggregates();   // Initialize the running totals.
+        this.summaryIndex = new DailySummaryIndex(); // Initialize the per-day totals.
+        this.rollup = new RollupCube();             // Initialize the monthly rollup.
+        this.indexed = store.size() == 0;           // Records already in the store are indexed on first use.
+        this.queryEngine = new QueryEngine(1);      // Queries run on the calling thread until told otherwise.
+        this.metrics = new RecordManagerMetrics();  // Does nothing when started with -Dpft.metrics=false.
+    }
+
+    // Method to add a new record. The amount is rounded to the cent.
     public void addRecord(String date, String type, String category, String description, double amount) throws ParseException {
-        Record newRecord = new Record(date, type, category, description, amount); // Create a new record.
-        records.add(newRecord);             // Add the new record to the list.
-        updateRecentRecordsQueue(newRecord); // Update the recent records queue.
+        addRecord(date, type, category, description, Money.of(amount));
+    }
+
+    // Method to add a new record with an exact amount.
+    // Throws IllegalArgumentException if the type is not INCOME or EXPENSE (ignoring case), and ArithmeticException
+    // if the amount would overflow a total; in both cases nothing is logged or changed.
+    public void addRecord(String date, String type, String category, String description, Money amount) throws ParseException {
+        long started = metrics.start();
+        type = RecordType.parse(type).name(); // Validate the type before anything is logged.
+        int epochDay = toEpochDay(date);    // Validate and parse the date once.
+        Record newRecord = new Record(0, epochDay, type, category, description, amount.getCents()); // Create a new record.
+        ensureIndexed();
+        checkTotals(Collections.singletonList(newRecord));
+        if (journal != null) {
+            journal.logAdd(epochDay, type, category, description, amount.toDouble()); // Log the change before applying it.
+        }
+        insert(newRecord);
+        checkConsistency();
+        snapshotIfDue();
+        metrics.stop(RecordManagerMetrics.Operation.ADD_RECORD, started);
+    }
+
+    // Method to add many records at once, as the bulk importer does. The journal commits the batch as one group,
+    // the per-day totals are rebuilt once for large batches and the consistency check and snapshot check run once.
+    // The whole batch is checked before it is logged, then applied, so it is added entirely or not at all: it throws
+    // IllegalArgumentException if a record's type is not INCOME or EXPENSE, ArithmeticException if a total would
+    // overflow and IllegalStateException if the backend has no room for it. The caller's records are copied, never
+    // changed, and every copy gets an id of its own.
+    public void addRecords(List<Record> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        long started = metrics.start();
+        List<Record> records = new ArrayList<>(batch.size());
+        for (Record record : batch) {
+            records.add(new Record(0, record.getEpochDay(), RecordType.parse(record.getType()).name(), record.getCategory(),
+                    record.getDescription(), record.getAmountCents()));
+        }
+        ensureIndexed();
+        checkTotals(records);
+        store.reserve(records);
+        if (journal != null) {
+            journal.logAdds(records);
+        }
+        for (Record record : records) {
+            record.setCategory(categoryIndex.canonicalCategory(record.getCategory())); // Share one String per category.
+            dateIndex.add(record.getEpochDay(), store.size());
+            categoryIndex.add(record.getType(), record.getCategory(), store.size());
+            if (descriptionIndex != null) {
+                descriptionIndex.add(record.getDescription(), store.size());
+            }
+            store.add(record);
+            idIndex.put(record.getId(), store.size() - 1);
+            aggregates.add(record.getType(), record.getCategory(), record.getAmountCents());
+            rollup.add(record.getEpochDay(), record.getType(), record.getCategory(), record.getAmountCents());
+        }
+        summaryIndex.addAll(records);
+        checkConsistency();
+        snapshotIfDue();
+        metrics.stop(RecordManagerMetrics.Operation.ADD_RECORDS, started);
+    }
+
+    // Method to add an already validated record without logging it, used when loading saved records.
+    // A record read from a snapshot keeps its id.
+    void restoreRecord(Record record) {
+        ensureIndexed();
+        checkTotals(Collections.singletonList(record));
+        insert(record);
+    }
+
+    // Method to make sure ids below the given one are not handed out again, used when loading a snapshot.
+    void reserveIds(long nextId) {
+        store.reserveIds(nextId);
+    }
+
+    // Method to make sure adding the records cannot overflow any running total, before anything is logged or changed.
+    // Throws ArithmeticException if it would.
+    private void checkTotals(List<Record> records) {
+        aggregates.checkAdd(records);
+        summaryIndex.checkAdd(records);
+        rollup.checkAdd(records);
+    }
+
+    // Method to store a record and update every index and total. The caller has built the indexes and checked the
+    // totals with checkTotals, so nothing here can fail part-way.
+    private void insert(Record record) {
+        record.setCategory(categoryIndex.canonicalCategory(record.getCategory())); // Share one String per category.
+        dateIndex.add(record.getEpochDay(), store.size()); // Index the slot the record is about to take.
+        categoryIndex.add(record.getType(), record.getCategory(), store.size());
+        if (descriptionIndex != null) {
+            descriptionIndex.add(record.getDescription(), store.size());
+        }
+        store.add(record);                  // Add the new record to the store, which gives it its id.
+        idIndex.put(record.getId(), store.size() - 1);
+        aggregates.add(record.getType(), record.getCategory(), record.getAmountCents()); // Update the running totals.
+        addToSummary(record);
     }
 
     // Method to get all records.
     public List<Record> getAllRecords() {
-        return records;
+        ensureCompacted();
+        return store.asList();
+    }
+
+    // Method to get the record with the given id, or null if there is none.
+    public Record getRecord(long id) {
+        long started = metrics.start();
+        ensureIndexed();
+        int slot = idIndex.get(id);
+        return metrics.stop(RecordManagerMetrics.Operation.GET_RECORD, started, slot < 0 ? null : store.get(slot));
     }
 
     // Method to print all records along with the balance.
     public void printAllRecords(List<Record> records) {
-        for (Record record : records) {
-            System.out.println(record);     // Print each record.
+        RecordPrinter printer = new RecordPrinter(System.out, RecordPrinter.Format.TEXT, StandardCharsets.UTF_8);
+        printRecords(records, 0, getPrintableSize(records), printer);
+        printer.println("Balance: " + getBalance()); // Print the balance with two decimals.
+        printer.flush();
+    }
+
+    // Method to get the number of records a list will print. The store's own view still counts deleted records
+    // until it is compacted, so it is compacted first; page through a list by this size.
+    public int getPrintableSize(List<Record> records) {
+        compactIfStoreView(records);
+        return records.size();
+    }
+
+    // Method to print the records from index from (inclusive) to index to (exclusive) of a list, for paging.
+    // The printer is not flushed, so that pages and totals can follow in the same buffer.
+    public void printRecords(List<Record> records, int from, int to, RecordPrinter printer) {
+        long started = metrics.start();
+        if (records == store.asList()) {
+            ensureCompacted();
+            for (int slot = from; slot < to; slot++) {
+                printer.print(store, slot);     // Straight from the backend, without building Records.
+            }
+        } else {
+            for (Record record : records.subList(from, to)) {
+                printer.print(record);
+            }
         }
-        double balance = calculateBalance(); // Calculate the balance.
-        System.out.println("Balance: " + balance); // Print the balance.
+        metrics.stop(RecordManagerMetrics.Operation.PRINT_RECORDS, started);
     }
 
-    // Method to search records by date.
+    // Method to search records by date using the date index.
     public List<Record> searchRecordsByDate(String date) {
-        return records.stream()
-                .filter(record -> record.getDate().equals(date)) // Filter records by date.
-                .collect(Collectors.toList());
+        long started = metrics.start();
+        List<Record> result = new ArrayList<>();
+        Integer epochDay = toEpochDayOrNull(date);
+        if (epochDay == null) {
+            return metrics.stop(RecordManagerMetrics.Operation.SEARCH_BY_DATE, started, result); // An unparseable date cannot match any record.
+        }
+        ensureIndexed();
+        DateIndex.SlotList slots = dateIndex.slots(epochDay);
+        if (slots != null) {
+            for (int i = 0; i < slots.size(); i++) {
+                result.add(store.get(slots.get(i)));
+            }
+        }
+        return metrics.stop(RecordManagerMetrics.Operation.SEARCH_BY_DATE, started, result);
     }
 
-    // Method to edit a record.
+    // Method to edit the first record added on the given date. Use the record's id to edit any other record.
+    // Throws IllegalArgumentException if a new type is given and is not INCOME or EXPENSE (ignoring case).
     public boolean editRecord(String date, String type, String category, String description, double amount) {
-        for (Record record : records) {
-            if (record.getDate().equals(date)) { // Find the record by date.
-                if (type != null && !type.isEmpty()) {
-                    record.setType(type);         // Update type if provided.
-                }
-                if (category != null && !category.isEmpty()) {
-                    record.setCategory(category); // Update category if provided.
-                }
-                if (description != null && !description.isEmpty()) {
-                    record.setDescription(description); // Update description if provided.
-                }
-                if (amount >= 0) {
-                    record.setAmount(amount);     // Update amount if provided.
-                }
-                return true; // Return true if record is edited.
-            }
+        long started = metrics.start();
+        type = editedType(type);            // Validate the type before anything is logged.
+        ensureIndexed();
+        Integer epochDay = toEpochDayOrNull(date);
+        int slot = epochDay == null ? -1 : dateIndex.first(epochDay); // Find the record by date.
+        if (slot < 0) {
+            return metrics.stop(RecordManagerMetrics.Operation.EDIT_RECORD, started, false); // Return false if record is not found.
+        }
+        Record edited = edited(store.get(slot), type, category, description, amount);
+        checkEdit(store.get(slot), edited); // Nothing is logged or changed if the edit would overflow a total.
+        if (journal != null) {
+            journal.logEdit(epochDay, type, category, description, amount);
+        }
+        editSlot(slot, edited);
+        return metrics.stop(RecordManagerMetrics.Operation.EDIT_RECORD, started, true); // Return true if record is edited.
+    }
+
+    // Method to edit the record with the given id in O(1). Blank strings and a negative amount leave a value unchanged.
+    // Throws IllegalArgumentException if a new type is given and is not INCOME or EXPENSE (ignoring case).
+    public boolean editRecord(long id, String type, String category, String description, double amount) {
+        long started = metrics.start();
+        type = editedType(type);            // Validate the type before anything is logged.
+        ensureIndexed();
+        int slot = idIndex.get(id);
+        if (slot < 0) {
+            return metrics.stop(RecordManagerMetrics.Operation.EDIT_RECORD, started, false);
+        }
+        Record edited = edited(store.get(slot), type, category, description, amount);
+        checkEdit(store.get(slot), edited);
+        if (journal != null) {
+            journal.logEditById(id, type, category, description, amount);
+        }
+        editSlot(slot, edited);
+        return metrics.stop(RecordManagerMetrics.Operation.EDIT_RECORD, started, true);
+    }
+
+    // Method to parse the new type of an edit, turning a blank one into "" so the type is left unchanged.
+    private static String editedType(String type) {
+        return type == null || type.trim().isEmpty() ? "" : RecordType.parse(type).name();
+    }
+
+    // Method to build a record's values after an edit, without changing the record. Blank strings and a negative
+    // amount keep the old value. Throws ArithmeticException if the new amount is out of range.
+    private Record edited(Record record, String type, String category, String description, double amount) {
+        return new Record(record.getId(), record.getEpochDay(),
+                type != null && !type.isEmpty() ? type : record.getType(),
+                category != null && !category.isEmpty() ? categoryIndex.canonicalCategory(category) : record.getCategory(),
+                description != null && !description.isEmpty() ? description : record.getDescription(),
+                amount >= 0 ? Money.toCents(amount) : record.getAmountCents());
+    }
+
+    // Method to check that replacing a record's values with edited ones would not overflow any total, without
+    // changing anything. Throws ArithmeticException if it would.
+    private void checkEdit(Record record, Record edited) {
+        aggregates.checkReplace(record, edited);
+        summaryIndex.checkReplace(record, edited);
+        rollup.checkReplace(record, edited);
+    }
+
+    // Method to apply an edit that has already been checked to the record in a slot and update every index and total.
+    private void editSlot(int slot, Record edited) {
+        Record record = store.get(slot);
+        removeFromSummary(record);                 // The day stays the same; type, category and amount may change.
+        String oldType = record.getType();         // Keep the old values to take them out of the totals.
+        String oldCategory = record.getCategory();
+        String oldDescription = record.getDescription();
+        long oldAmount = record.getAmountCents();
+        record.setType(edited.getType());
+        record.setCategory(edited.getCategory());
+        record.setDescription(edited.getDescription());
+        record.setAmountCents(edited.getAmountCents());
+        store.set(slot, record);          // Write the changes back to the backend.
+        aggregates.replace(oldType, oldCategory, oldAmount, record.getType(), record.getCategory(), record.getAmountCents());
+        categoryIndex.replace(oldType, oldCategory, record.getType(), record.getCategory(), slot);
+        if (descriptionIndex != null && !oldDescription.equals(record.getDescription())) {
+            descriptionIndex.remove(oldDescription, slot);
+            descriptionIndex.add(record.getDescription(), slot);
         }
-        return false; // Return false if record is not found.
+        addToSummary(record);
+        checkConsistency();
+        snapshotIfDue();
     }
 
-    // Method to delete a record by date.
+    // Method to delete every record on the given date.
     public boolean deleteRecord(String date) {
-        return records.removeIf(record -> record.getDate().equals(date)); // Remove records by date.
+        long started = metrics.start();
+        ensureIndexed();
+        Integer epochDay = toEpochDayOrNull(date);
+        DateIndex.SlotList removed = epochDay == null ? null : dateIndex.removeDay(epochDay);
+        if (removed == null) {
+            return metrics.stop(RecordManagerMetrics.Operation.DELETE_RECORD, started, false); // Nothing on that date, so the list is left untouched.
+        }
+        if (journal != null) {
+            journal.logDelete(epochDay);
+        }
+        for (int i = 0; i < removed.size(); i++) {
+            bury(removed.get(i));
+        }
+        compactIfDue();
+        checkConsistency();
+        snapshotIfDue();
+        return metrics.stop(RecordManagerMetrics.Operation.DELETE_RECORD, started, true);
+    }
+
+    // Method to delete the record with the given id in O(1); the store is compacted later.
+    public boolean deleteRecord(long id) {
+        long started = metrics.start();
+        ensureIndexed();
+        int slot = idIndex.get(id);
+        if (slot < 0) {
+            return metrics.stop(RecordManagerMetrics.Operation.DELETE_RECORD, started, false);
+        }
+        if (journal != null) {
+            journal.logDeleteById(id);
+        }
+        dateIndex.remove(store.getEpochDay(slot), slot); // Only the records of one day are searched.
+        bury(slot);
+        compactIfDue();
+        checkConsistency();
+        snapshotIfDue();
+        return metrics.stop(RecordManagerMetrics.Operation.DELETE_RECORD, started, true);
+    }
+
+    // Method to take a deleted slot out of the totals and the id index and leave it as a tombstone.
+    // The caller has already taken it out of the date index.
+    private void bury(int slot) {
+        Record record = store.get(slot);
+        aggregates.remove(record.getType(), record.getCategory(), record.getAmountCents());
+        removeFromSummary(record);
+        idIndex.remove(record.getId());
+        store.markDeleted(slot);
+        tombstones.add(slot);
+    }
+
+    // Method to compact once a quarter of the store's slots are tombstones, so each compaction is paid for by
+    // at least as many deletes as a quarter of the records it moves.
+    private void compactIfDue() {
+        if (tombstones.size() * 4L >= store.size()) {
+            compact();
+        }
+    }
+
+    // Method to remove every tombstone from the store in one pass and renumber the slots in every index.
+    private void compact() {
+        if (tombstones.size() == 0) {
+            return;
+        }
+        long started = metrics.start();
+        int[] slots = tombstones.toArray();
+        Arrays.sort(slots);
+        DateIndex.SlotList removed = new DateIndex.SlotList();
+        for (int slot : slots) {
+            removed.add(slot);
+        }
+        store.removeSlots(slots, slots.length);
+        dateIndex.shiftAfterRemoval(removed); // Renumber the slots that moved down.
+        categoryIndex.removeAndShift(removed);
+        if (descriptionIndex != null) {
+            descriptionIndex.removeAndShift(removed);
+        }
+        for (int slot = slots[0]; slot < store.size(); slot++) {
+            idIndex.put(store.getId(slot), slot);
+        }
+        tombstones = new DateIndex.SlotList();
+        metrics.stop(RecordManagerMetrics.Operation.COMPACT, started);
     }
 
     // Method to filter records by type.
     public List<Record> filterByType(List<Record> records, String type) {
-        return records.stream()
-                .filter(record -> record.getType().equalsIgnoreCase(type)) // Filter records by type.
-                .collect(Collectors.toList());
+        long started = metrics.start();
+        if (records == store.asList()) {
+            // Whole ledger: read the type's slots from its bitmap.
+            ensureCompacted();
+            return metrics.stop(RecordManagerMetrics.Operation.FILTER_BY_TYPE, started, recordsIn(categoryIndex.typeSlots(type)));
+        }
+        return metrics.stop(RecordManagerMetrics.Operation.FILTER_BY_TYPE, started,
+                queryEngine.filter(records, record -> record.getType().equalsIgnoreCase(type))); // Filter records by type.
     }
 
     // Method to filter records by category.
     public List<Record> filterByCategory(List<Record> records, String category) {
-        return records.stream()
-                .filter(record -> record.getCategory().equalsIgnoreCase(category)) // Filter records by category.
-                .collect(Collectors.toList());
+        long started = metrics.start();
+        if (records == store.asList()) {
+            // Whole ledger: read the category's slots from its bitmap.
+            ensureCompacted();
+            return metrics.stop(RecordManagerMetrics.Operation.FILTER_BY_CATEGORY, started, recordsIn(categoryIndex.slots(category)));
+        }
+        return metrics.stop(RecordManagerMetrics.Operation.FILTER_BY_CATEGORY, started,
+                queryEngine.filter(records, record -> record.getCategory().equalsIgnoreCase(category))); // Filter records by category.
+    }
+
+    // Method to filter records by type and category at once (both ignoring case).
+    public List<Record> filterByTypeAndCategory(List<Record> records, String type, String category) {
+        long started = metrics.start();
+        if (records == store.asList()) {
+            // Whole ledger: AND the type's bitmap with the category's.
+            ensureCompacted();
+            return metrics.stop(RecordManagerMetrics.Operation.FILTER_BY_TYPE_AND_CATEGORY, started,
+                    recordsIn(categoryIndex.select(type, category)));
+        }
+        return metrics.stop(RecordManagerMetrics.Operation.FILTER_BY_TYPE_AND_CATEGORY, started, queryEngine.filter(records,
+                record -> record.getType().equalsIgnoreCase(type) && record.getCategory().equalsIgnoreCase(category)));
+    }
+
+    // Method to build the records of the slots in a bitmap, in ledger order. A null bitmap has no records.
+    private List<Record> recordsIn(SlotBitmap slots) {
+        if (slots == null) {
+            return new ArrayList<>();
+        }
+        List<Record> result = new ArrayList<>(slots.cardinality());
+        slots.forEach(slot -> result.add(store.get(slot)));
+        return result;
     }
 
     // Method to filter records by date range.
+    // Throws IllegalArgumentException if either date is not a yyyy-MM-dd date.
     public List<Record> filterByDateRange(List<Record> records, String startDate, String endDate) {
-        return records.stream()
-                .filter(record -> {
-                    try {
-                        Date recordDate = dateFormat.parse(record.getDate());
-                        Date start = dateFormat.parse(startDate);
-                        Date end = dateFormat.parse(endDate);
-                        return !recordDate.before(start) && !recordDate.after(end); // Check if date is within range.
-                    } catch (ParseException e) {
-                        e.printStackTrace();
-                        return false;
-                    }
-                })
-                .collect(Collectors.toList());
+        long started = metrics.start();
+        int start;
+        int end;
+        try {
+            start = toEpochDay(startDate); // Parse the bounds once, not once per record.
+            end = toEpochDay(endDate);
+        } catch (ParseException e) {
+            metrics.stop(RecordManagerMetrics.Operation.FILTER_BY_DATE_RANGE, started);
+            throw new IllegalArgumentException("Invalid date range: " + startDate + " to " + endDate, e);
+        }
+        if (records == store.asList()) {
+            // Whole ledger: walk only the matching part of the date index.
+            ensureIndexed();
+            List<Record> result = new ArrayList<>();
+            dateIndex.forEachInRange(start, end, slot -> result.add(store.get(slot)));
+            return metrics.stop(RecordManagerMetrics.Operation.FILTER_BY_DATE_RANGE, started, result);
+        }
+        return metrics.stop(RecordManagerMetrics.Operation.FILTER_BY_DATE_RANGE, started,
+                queryEngine.filter(records, record -> record.getEpochDay() >= start && record.getEpochDay() <= end)); // Check if date is within range.
     }
 
     // Method to sort records by date.
     public List<Record> sortByDate(List<Record> records) {
-        return records.stream()
-                .sorted((r1, r2) -> {
-                    try {
-                        return dateFormat.parse(r2.getDate()).compareTo(dateFormat.parse(r1.getDate())); // Sort from latest to oldest.
-                    } catch (ParseException e) {
-                        e.printStackTrace();
-                        return 0;
-                    }
-                })
-                .collect(Collectors.toList());
+        long started = metrics.start();
+        compactIfStoreView(records);
+        return metrics.stop(RecordManagerMetrics.Operation.SORT_BY_DATE, started,
+                queryEngine.sort(records, Record.LATEST_FIRST)); // Sort from latest to oldest on the pre-parsed epoch days.
     }
 
     // Method to sort records by amount.
     public List<Record> sortByAmount(List<Record> records) {
-        return records.stream()
-                .sorted((r1, r2) -> Double.compare(r2.getAmount(), r1.getAmount())) // Sort from highest to lowest.
-                .collect(Collectors.toList());
+        long started = metrics.start();
+        compactIfStoreView(records);
+        return metrics.stop(RecordManagerMetrics.Operation.SORT_BY_AMOUNT, started,
+                queryEngine.sort(records, Record.HIGHEST_AMOUNT_FIRST)); // Sort from highest to lowest on the exact cents.
     }
 
     // Method to search records by description.
     public List<Record> searchByDescription(List<Record> records, String description) {
-        return records.stream()
-                .filter(record -> record.getDescription().contains(description)) // Filter records by description.
-                .collect(Collectors.toList());
+        long started = metrics.start();
+        compactIfStoreView(records);
+        if (records == store.asList()) {
+            // Whole ledger: only check the records that contain every trigram of the text.
+            int[] candidates = ensureDescriptionIndex().substringCandidates(description);
+            if (candidates != null) {
+                List<Record> result = new ArrayList<>();
+                for (int slot : candidates) {
+                    if (store.getDescription(slot).contains(description)) {
+                        result.add(store.get(slot));
+                    }
+                }
+                return metrics.stop(RecordManagerMetrics.Operation.SEARCH_BY_DESCRIPTION, started, result);
+            }
+        }
+        return metrics.stop(RecordManagerMetrics.Operation.SEARCH_BY_DESCRIPTION, started,
+                queryEngine.filter(records, record -> record.getDescription().contains(description))); // Filter records by description.
+    }
+
+    // Method to search all descriptions for words, ignoring case. Every word must appear; a word ending in '*'
+    // matches any word starting with it, for example "amazon mktp*" or "coffee star*".
+    public List<Record> searchDescriptions(String search) {
+        long started = metrics.start();
+        List<String> terms = DescriptionIndex.parseTerms(search);
+        List<Record> result = new ArrayList<>();
+        if (terms.isEmpty()) {
+            return metrics.stop(RecordManagerMetrics.Operation.SEARCH_DESCRIPTIONS, started, result);
+        }
+        int[] candidates = ensureDescriptionIndex().termsCandidates(terms);
+        int count = candidates == null ? store.size() : candidates.length;
+        for (int i = 0; i < count; i++) {
+            int slot = candidates == null ? i : candidates[i];
+            if (DescriptionIndex.matchesTerms(store.getDescription(slot), terms)) {
+                result.add(store.get(slot));
+            }
+        }
+        return metrics.stop(RecordManagerMetrics.Operation.SEARCH_DESCRIPTIONS, started, result);
+    }
+
+    // Method to describe the size of the description index, or say that it has not been built yet.
+    public String describeDescriptionIndex() {
+        return descriptionIndex == null ? "not built (built on the first description search)" : descriptionIndex.describe();
     }
 
-    // Method to calculate the balance.
+    // Method to start a query that combines several criteria and is evaluated in one pass, see RecordQuery.
+    public RecordQuery query() {
+        return new RecordQuery(this);
+    }
+
+    // Method to plan and run a query built by query().
+    QueryEvaluator runQuery(RecordQuery query, boolean countOnly) {
+        long started = metrics.start();
+        QueryEvaluator evaluator = new QueryEvaluator(store, dateIndex, categoryIndex, textIndexFor(query), query);
+        evaluator.run(countOnly);
+        return metrics.stop(RecordManagerMetrics.Operation.QUERY, started, evaluator);
+    }
+
+    // Method to describe how a query would be run.
+    String explainQuery(RecordQuery query) {
+        return new QueryEvaluator(store, dateIndex, categoryIndex, textIndexFor(query), query).explain();
+    }
+
+    // Method to build the indexes a query uses, returning the description index if the query has a text.
+    private DescriptionIndex textIndexFor(RecordQuery query) {
+        ensureCompacted();
+        return query.getText() == null ? null : ensureDescriptionIndex();
+    }
+
+    // Method to run filters, searches and sorts on the given number of threads; 1 keeps them on the calling thread.
+    // Small inputs stay sequential either way.
+    public void setQueryParallelism(int threads) {
+        QueryEngine previous = queryEngine;
+        queryEngine = new QueryEngine(threads);
+        previous.shutdown();
+    }
+
+    // Method to get the number of threads queries run on.
+    public int getQueryParallelism() {
+        return queryEngine.getParallelism();
+    }
+
+    // Method to get the balance from the running totals as a double.
     public double calculateBalance() {
-        return records.stream()
-                .mapToDouble(record -> record.getType().equalsIgnoreCase("INCOME") ? record.getAmount() : -record.getAmount()) // Calculate income and expenses.
-                .sum(); // Sum the values to get the balance.
+        long started = metrics.start();
+        ensureIndexed();
+        return metrics.stop(RecordManagerMetrics.Operation.BALANCE, started, Money.toAmount(aggregates.getBalance()));
     }
 
-    // Method to update the recent records queue.
-    private void updateRecentRecordsQueue(Record newRecord) throws ParseException {
-        Date newRecordDate = dateFormat.parse(newRecord.getDate());
-        Calendar calendar = Calendar.getInstance();
-        calendar.add(Calendar.DAY_OF_YEAR, -DAYS_30);
-        Date cutoffDate = calendar.getTime();
+    // Method to get the exact balance from the running totals.
+    public Money getBalance() {
+        long started = metrics.start();
+        ensureIndexed();
+        return metrics.stop(RecordManagerMetrics.Operation.BALANCE, started, Money.ofCents(aggregates.getBalance()));
+    }
 
-        recentRecordsQueue.add(newRecord); // Add the new record to the queue.
+    // Method to get the total amount of all records of a type (ignoring case).
+    public double getTypeTotal(String type) {
+        ensureIndexed();
+        return Money.toAmount(aggregates.getTypeTotal(type));
+    }
+
+    // Method to get the number of records of a type (ignoring case).
+    public int getTypeCount(String type) {
+        ensureIndexed();
+        return aggregates.getTypeCount(type);
+    }
+
+    // Method to get the total amount of all records in a category (ignoring case).
+    public double getCategoryTotal(String category) {
+        ensureIndexed();
+        return Money.toAmount(aggregates.getCategoryTotal(category));
+    }
+
+    // Method to get the number of records in a category (ignoring case).
+    public int getCategoryCount(String category) {
+        ensureIndexed();
+        return aggregates.getCategoryCount(category);
+    }
+
+    // Method to turn on checking of the running totals against a full recompute after every change.
+    // This costs a full scan per change and is meant for testing and debugging.
+    public void setConsistencyCheck(boolean enabled) {
+        this.consistencyCheck = enabled;
+    }
+
+    // Method to recompute every total from the store and compare it with the running totals.
+    // Throws IllegalStateException describing the first mismatch.
+    public void verifyAggregates() {
+        ensureCompacted();
+        RecordAggregates recomputed = new RecordAggregates();
+        RollupCube recomputedRollup = new RollupCube();
+        for (int slot = 0; slot < store.size(); slot++) {
+            Record record = store.get(slot);
+            recomputed.add(record.getType(), record.getCategory(), record.getAmountCents());
+            recomputedRollup.add(record.getEpochDay(), record.getType(), record.getCategory(), record.getAmountCents());
+        }
+        String difference = aggregates.difference(recomputed);
+        if (difference == null && aggregates.getBalance() != store.calculateBalanceCents()) {
+            difference = "balance differs from the store's own sum";
+        }
+        if (difference == null && idIndex.size() != store.size()) {
+            difference = "id index holds " + idIndex.size() + " ids for " + store.size() + " records";
+        }
+        PeriodSummary everything = summaryIndex.summarize(Integer.MIN_VALUE, Integer.MAX_VALUE);
+        if (difference == null && (everything.getRecordCount() != recomputed.getCount()
+                || everything.getTotalIncomeCents() != recomputed.getTypeTotal("INCOME")
+                || everything.getTotalExpensesCents() != recomputed.getTypeTotal("EXPENSE"))) {
+            difference = "per-day summary totals";
+        }
+        if (difference == null) {
+            difference = rollup.difference(recomputedRollup);
+        }
+        if (difference != null) {
+            throw new IllegalStateException("Running totals are out of date: " + difference);
+        }
+    }
+
+    // Method to get the operation counts and latencies.
+    public RecordManagerMetrics getMetrics() {
+        return metrics;
+    }
+
+    // Method to get the number of live records, leaving out deleted ones not yet compacted away.
+    public int getRecordCount() {
+        ensureIndexed();
+        return store.size() - tombstones.size();
+    }
+
+    // Method to get the number of deleted records waiting to be compacted out of the store.
+    public int getPendingTombstones() {
+        ensureIndexed();
+        return tombstones.size();
+    }
+
+    // Method to get the number of distinct days in the date index.
+    public int getIndexedDays() {
+        ensureIndexed();
+        return dateIndex.dayCount();
+    }
+
+    // Method to get the number of distinct categories in the category index.
+    public int getIndexedCategories() {
+        ensureIndexed();
+        return categoryIndex.categoryCount();
+    }
 
-        // Remove records older than 30 days from the queue.
-        while (!recentRecordsQueue.isEmpty()) {
+    // Method to get the number of postings in the description index, or -1 if it has not been built.
+    public long getDescriptionPostings() {
+        return descriptionIndex == null ? -1 : descriptionIndex.postingCount();
+    }
+
+    // Method to get the number of bytes of journal entries waiting to be written, or 0 without a journal.
+    public int getJournalBufferedBytes() {
+        return journal == null ? 0 : journal.getBufferedBytes();
+    }
+
+    // Method to get the number of journal entries not yet forced to disk, or 0 without a journal.
+    public int getJournalUnforcedEntries() {
+        return journal == null ? 0 : journal.getUnforcedEntries();
+    }
+
+    // Method to estimate the heap held by the backend, in bytes.
+    public long estimateStoreHeapBytes() {
+        return store.estimateHeapBytes();
+    }
+
+    // Method to estimate the heap held by the indexes and running totals, in bytes.
+    public long estimateIndexHeapBytes() {
+        long bytes = idIndex.estimateHeapBytes() + dateIndex.estimateHeapBytes() + categoryIndex.estimateHeapBytes()
+                + summaryIndex.estimateHeapBytes() + rollup.estimateHeapBytes() + tombstones.heapBytes();
+        return descriptionIndex == null ? bytes : bytes + descriptionIndex.estimateHeapBytes();
+    }
+
+    // Method to print the operation latencies followed by the sizes of the ledger, its indexes and the journal.
+    public void printStats() {
+        for (String line : metrics.describe()) {
+            System.out.println(line);
+        }
+        Runtime runtime = Runtime.getRuntime();
+        long postings = getDescriptionPostings();
+        System.out.println("Records: " + getRecordCount() + " (" + getPendingTombstones() + " deleted, awaiting compaction)");
+        System.out.println("Date index: " + getIndexedDays() + " days; category index: " + getIndexedCategories()
+                + " categories; description index: " + (postings < 0 ? "not built" : postings + " postings"));
+        System.out.println("Journal: " + (journal == null ? "none" : getJournalBufferedBytes() + " bytes buffered, "
+                + getJournalUnforcedEntries() + " entries not yet forced"));
+        System.out.println("Estimated heap: store " + estimateStoreHeapBytes() / 1024 + " KB, indexes "
+                + estimateIndexHeapBytes() / 1024 + " KB; JVM heap used "
+                + (runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024) + " MB");
+    }
+
+    // Method to publish the stats over JMX as personalfinancetracker:type=RecordManager, for jconsole and the like.
+    // Returns false if another RecordManager is already registered under that name.
+    public boolean registerMBean() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new RecordManagerStats(this), RecordManagerStats.NAME);
+            return true;
+        } catch (InstanceAlreadyExistsException e) {
+            return false;
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not register the stats MBean", e);
+        }
+    }
+
+    // Method to build the indexes and totals for records that were already in the store when it was handed over.
+    // Deferred to first use so that opening a large mapped ledger does not scan it.
+    private void ensureIndexed() {
+        if (indexed) {
+            return;
+        }
+        indexed = true;
+        for (int slot = 0; slot < store.size(); slot++) {
+            if (store.isDeleted(slot)) {
+                tombstones.add(slot); // Deleted in an earlier session and not compacted away yet.
+                continue;
+            }
+            long amount = store.getAmountCents(slot);
+            idIndex.put(store.getId(slot), slot);
+            dateIndex.add(store.getEpochDay(slot), slot);
+            categoryIndex.add(store.getType(slot), store.getCategory(slot), slot);
+            aggregates.add(store.getType(slot), store.getCategory(slot), amount);
+            summaryIndex.add(store.getEpochDay(slot), store.isIncome(slot), store.isExpense(slot), amount);
+            rollup.add(store.getEpochDay(slot), store.getType(slot), store.getCategory(slot), amount);
+        }
+    }
+
+    // Method to build the indexes and compact the tombstones away, before a read that covers every slot.
+    private void ensureCompacted() {
+        ensureIndexed();
+        compact();
+    }
+
+    // Method to compact before reading a list that is the store's own view, which still shows tombstones.
+    private void compactIfStoreView(List<Record> records) {
+        if (records == store.asList()) {
+            ensureCompacted();
+        }
+    }
+
+    // Method to build the description index the first time a search needs it.
+    private DescriptionIndex ensureDescriptionIndex() {
+        ensureCompacted();
+        if (descriptionIndex == null) {
+            descriptionIndex = new DescriptionIndex();
+            for (int slot = 0; slot < store.size(); slot++) {
+                descriptionIndex.add(store.getDescription(slot), slot);
+            }
+        }
+        return descriptionIndex;
+    }
+
+    // Method to start logging every change to the given journal. Called by LedgerJournal.recover().
+    void attachJournal(LedgerJournal journal) {
+        this.journal = journal;
+    }
+
+    // Method to get the backend with the tombstones compacted away, used when writing snapshots.
+    RecordStore getStore() {
+        ensureCompacted();
+        return store;
+    }
+
+    // Method to write a snapshot once the journal has grown enough.
+    private void snapshotIfDue() {
+        if (journal != null && journal.isSnapshotDue()) {
+            long started = metrics.start();
             try {
-                Date oldestDate = dateFormat.parse(recentRecordsQueue.peek().getDate());
-                if (oldestDate.before(cutoffDate)) {
-                    recentRecordsQueue.poll();
-                } else {
-                    break; // The queue is now up-to-date.
-                }
-            } catch (ParseException e) {
-                e.printStackTrace();
+                journal.snapshot(this);
+                metrics.stop(RecordManagerMetrics.Operation.SNAPSHOT, started);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not write a snapshot", e);
             }
         }
     }
 
-    // Method to print summary for the last 7 or 30 days using the queue.
+    // Method to run the consistency check if it is turned on.
+    private void checkConsistency() {
+        if (consistencyCheck) {
+            verifyAggregates();
+        }
+    }
+
+    // Method to convert a yyyy-MM-dd date into a day number counted from 1970-01-01.
+    static int toEpochDay(String date) throws ParseException {
+        return Record.toEpochDay(date);
+    }
+
+    // Method to convert a date into an epoch day, returning null if it cannot be parsed.
+    private static Integer toEpochDayOrNull(String date) {
+        try {
+            return toEpochDay(date);
+        } catch (ParseException e) {
+            return null;
+        }
+    }
+
+    // Method to summarize the records between two dates (inclusive) in O(log D).
+    public PeriodSummary summarize(String startDate, String endDate) throws ParseException {
+        long started = metrics.start();
+        ensureIndexed();
+        return metrics.stop(RecordManagerMetrics.Operation.SUMMARIZE, started, summaryIndex.summarize(toEpochDay(startDate), toEpochDay(endDate)));
+    }
+
+    // Method to summarize the last given number of days, ending today.
+    public PeriodSummary summarizeLastDays(int days) {
+        long started = metrics.start();
+        ensureIndexed();
+        int today = today();
+        return metrics.stop(RecordManagerMetrics.Operation.SUMMARIZE, started, summaryIndex.summarize(today - days + 1, today));
+    }
+
+    // Method to summarize each month of a year, January first.
+    public List<PeriodSummary> summarizeMonths(int year) {
+        long started = metrics.start();
+        ensureIndexed();
+        List<PeriodSummary> months = new ArrayList<>(12);
+        for (int month = 1; month <= 12; month++) {
+            LocalDate first = LocalDate.of(year, month, 1);
+            int start = (int) first.toEpochDay();
+            months.add(summaryIndex.summarize(start, start + first.lengthOfMonth() - 1));
+        }
+        return metrics.stop(RecordManagerMetrics.Operation.SUMMARIZE, started, months);
+    }
+
+    // Method to print summary for the last given number of days.
     public void printSummary(int days) {
-        Calendar calendar = Calendar.getInstance();
-        calendar.add(Calendar.DAY_OF_YEAR, -days);
-        Date cutoffDate = calendar.getTime();
+        printSummary("Summary for the last " + days + " days:", summarizeLastDays(days));
+    }
 
-        double totalIncome = 0;
-        double totalExpenses = 0;
-        int recordCount = 0;
+    // Method to print summary for a date range.
+    public void printSummary(String startDate, String endDate) throws ParseException {
+        printSummary("Summary for " + startDate + " to " + endDate + ":", summarize(startDate, endDate));
+    }
 
-        for (Record record : recentRecordsQueue) {
-            try {
-                Date recordDate = dateFormat.parse(record.getDate());
-                if (!recordDate.before(cutoffDate)) {
-                    recordCount++;
-                    if (record.getType().equalsIgnoreCase("INCOME")) {
-                        totalIncome += record.getAmount();
-                    } else if (record.getType().equalsIgnoreCase("EXPENSE")) {
-                        totalExpenses += record.getAmount();
-                    }
-                }
-            } catch (ParseException e) {
-                e.printStackTrace();
+    // Method to print summary from the first of January up to today.
+    public void printYearToDateSummary() {
+        long started = metrics.start();
+        ensureIndexed();
+        LocalDate today = LocalDate.now();
+        PeriodSummary summary = metrics.stop(RecordManagerMetrics.Operation.SUMMARIZE, started,
+                summaryIndex.summarize((int) today.withDayOfYear(1).toEpochDay(), (int) today.toEpochDay()));
+        printSummary("Summary for " + today.getYear() + " to date:", summary);
+    }
+
+    // Method to print one summary line per month of a year.
+    public void printMonthlySummary(int year) {
+        List<PeriodSummary> months = summarizeMonths(year);
+        long started = metrics.start(); // Summarizing is measured on its own.
+        System.out.println("Monthly summary for " + year + ":");
+        for (PeriodSummary month : months) {
+            System.out.println(month.getStartDate().substring(0, 7)
+                    + "  Income: " + Money.format(month.getTotalIncomeCents())
+                    + "  Expenses: " + Money.format(month.getTotalExpensesCents())
+                    + "  Records: " + month.getRecordCount());
+        }
+        metrics.stop(RecordManagerMetrics.Operation.PRINT_SUMMARY, started);
+    }
+
+    // Method to get the total of a type and category (either may be null for all) over a range of months, in cents.
+    public long getRollupTotalCents(YearMonth from, YearMonth to, String type, String category) {
+        long started = metrics.start();
+        ensureIndexed();
+        long total = rollup.total(RollupCube.monthOf(from.getYear(), from.getMonthValue()),
+                RollupCube.monthOf(to.getYear(), to.getMonthValue()), type, category);
+        metrics.stop(RecordManagerMetrics.Operation.SUMMARIZE, started);
+        return total;
+    }
+
+    // Method to get the number of records of a type and category (either may be null for all) over a range of months.
+    public int getRollupCount(YearMonth from, YearMonth to, String type, String category) {
+        long started = metrics.start();
+        ensureIndexed();
+        int count = rollup.count(RollupCube.monthOf(from.getYear(), from.getMonthValue()),
+                RollupCube.monthOf(to.getYear(), to.getMonthValue()), type, category);
+        metrics.stop(RecordManagerMetrics.Operation.SUMMARIZE, started);
+        return count;
+    }
+
+    // Method to get a year of totals per category and month for a type from the rollup.
+    // Throws IllegalArgumentException if the type is null: income and expenses are never added into the same cells.
+    public CategoryPivot pivotCategories(int year, RecordType type) {
+        if (type == null) {
+            throw new IllegalArgumentException("A category pivot needs a type: INCOME or EXPENSE.");
+        }
+        long started = metrics.start();
+        ensureIndexed();
+        return metrics.stop(RecordManagerMetrics.Operation.SUMMARIZE, started, rollup.pivot(year, type.name()));
+    }
+
+    // Method to print a year of totals for a type as a table of categories by month.
+    public void printCategoryPivot(int year, RecordType type) {
+        CategoryPivot pivot = pivotCategories(year, type);
+        long started = metrics.start();
+        System.out.println(type + " by category and month for " + year + ":");
+        StringBuilder line = new StringBuilder(String.format("%-16s", "Category"));
+        for (Month month : Month.values()) {
+            line.append(String.format(" %10s", month.getDisplayName(TextStyle.SHORT, Locale.ROOT)));
+        }
+        System.out.println(line.append(String.format(" %12s", "Total")));
+        for (int row = 0; row < pivot.getCategories().size(); row++) {
+            line.setLength(0);
+            line.append(String.format("%-16s", pivot.getCategories().get(row)));
+            for (int month = 1; month <= 12; month++) {
+                line.append(String.format(" %10s", Money.format(pivot.getTotalCents(row, month))));
             }
+            System.out.println(line.append(String.format(" %12s", Money.format(pivot.getCategoryTotalCents(row)))));
+        }
+        line.setLength(0);
+        line.append(String.format("%-16s", "Total"));
+        for (int month = 1; month <= 12; month++) {
+            line.append(String.format(" %10s", Money.format(pivot.getMonthTotalCents(month))));
         }
+        System.out.println(line.append(String.format(" %12s", Money.format(pivot.getYearTotalCents()))));
+        metrics.stop(RecordManagerMetrics.Operation.PRINT_SUMMARY, started);
+    }
+
+    // Method to print the income and expenses of each category in one month.
+    public void printCategoryBreakdown(YearMonth month) {
+        long started = metrics.start();
+        ensureIndexed();
+        int key = RollupCube.monthOf(month.getYear(), month.getMonthValue());
+        System.out.println("Categories for " + month + ":");
+        System.out.println(String.format("%-16s %12s %12s %8s", "Category", "Income", "Expenses", "Records"));
+        for (String category : rollup.pivot(month.getYear(), null).getCategories()) {
+            int count = rollup.count(key, key, null, category);
+            if (count > 0) {
+                System.out.println(String.format("%-16s %12s %12s %8d", category,
+                        Money.format(rollup.total(key, key, "INCOME", category)),
+                        Money.format(rollup.total(key, key, "EXPENSE", category)), count));
+            }
+        }
+        System.out.println(String.format("%-16s %12s %12s %8d", "Total", Money.format(rollup.total(key, key, "INCOME", null)),
+                Money.format(rollup.total(key, key, "EXPENSE", null)), rollup.count(key, key, null, null)));
+        metrics.stop(RecordManagerMetrics.Operation.PRINT_SUMMARY, started);
+    }
+
+    // Method to print the totals of one summary. Summarizing is measured on its own.
+    private void printSummary(String heading, PeriodSummary summary) {
+        long started = metrics.start();
+        System.out.println(heading);
+        System.out.println("Total Income: " + Money.format(summary.getTotalIncomeCents()));
+        System.out.println("Total Expenses: " + Money.format(summary.getTotalExpensesCents()));
+        System.out.println("Average Daily Spending: " + Money.format(summary.getAverageDailySpendingCents()));
+        metrics.stop(RecordManagerMetrics.Operation.PRINT_SUMMARY, started);
+    }
+
+    // Method to add a record to the per-day totals and the monthly rollup.
+    private void addToSummary(Record record) {
+        summaryIndex.add(record.getEpochDay(), DailySummaryIndex.isIncome(record), DailySummaryIndex.isExpense(record), record.getAmountCents());
+        rollup.add(record.getEpochDay(), record.getType(), record.getCategory(), record.getAmountCents());
+    }
+
+    // Method to take a record out of the per-day totals and the monthly rollup.
+    private void removeFromSummary(Record record) {
+        summaryIndex.remove(record.getEpochDay(), DailySummaryIndex.isIncome(record), DailySummaryIndex.isExpense(record), record.getAmountCents());
+        rollup.remove(record.getEpochDay(), record.getType(), record.getCategory(), record.getAmountCents());
+    }
 
-        double averageDailySpending = recordCount > 0 ? totalExpenses / recordCount : 0;
-        System.out.println("Summary for the last " + days + " days:");
-        System.out.println("Total Income: " + totalIncome);
-        System.out.println("Total Expenses: " + totalExpenses);
-        System.out.println("Average Daily Spending: " + averageDailySpending);
+    // Method to get today's date as an epoch day.
+    private static int today() {
+        return (int) LocalDate.now().toEpochDay();
     }
 }
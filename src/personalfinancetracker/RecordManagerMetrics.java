@@ -0,0 +1,127 @@
+package personalfinancetracker;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// The RecordManagerMetrics class counts RecordManager operations and records how long each one took in a
+// LatencyHistogram per operation. The hot path is one System.nanoTime() call at each end of an operation and an
+// array increment; nothing is allocated.
+// Metrics are on unless the program is started with -Dpft.metrics=false. The switch is a static final constant,
+// so with metrics off the JIT compiles the start and stop calls away and nothing is measured or stored.
+public final class RecordManagerMetrics {
+    static final boolean ENABLED = !"false".equalsIgnoreCase(System.getProperty("pft.metrics"));
+
+    // The operations that are measured. Both variants of edit and delete share one entry.
+    public enum Operation {
+        ADD_RECORD,
+        ADD_RECORDS,
+        GET_RECORD,
+        SEARCH_BY_DATE,
+        EDIT_RECORD,
+        DELETE_RECORD,
+        FILTER_BY_TYPE,
+        FILTER_BY_CATEGORY,
+        FILTER_BY_TYPE_AND_CATEGORY,
+        FILTER_BY_DATE_RANGE,
+        SORT_BY_DATE,
+        SORT_BY_AMOUNT,
+        SEARCH_BY_DESCRIPTION,
+        SEARCH_DESCRIPTIONS,
+        QUERY,
+        BALANCE,
+        SUMMARIZE,
+        PRINT_RECORDS,
+        PRINT_SUMMARY,
+        COMPACT,
+        SNAPSHOT
+    }
+
+    private static final Operation[] OPERATIONS = Operation.values();
+    private final LatencyHistogram[] histograms;  // Histogram of each operation, by ordinal; null when disabled.
+
+    // Constructor to initialize empty metrics.
+    RecordManagerMetrics() {
+        if (ENABLED) {
+            this.histograms = new LatencyHistogram[OPERATIONS.length];
+            for (int i = 0; i < histograms.length; i++) {
+                histograms[i] = new LatencyHistogram();
+            }
+        } else {
+            this.histograms = null;
+        }
+    }
+
+    // Method to check whether metrics are collected.
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    // Method to mark the start of an operation; pass the result to stop().
+    long start() {
+        return ENABLED ? System.nanoTime() : 0;
+    }
+
+    // Method to record an operation that started at the given time.
+    void stop(Operation operation, long started) {
+        if (ENABLED) {
+            histograms[operation.ordinal()].record(System.nanoTime() - started);
+        }
+    }
+
+    // Method to record an operation and pass its result through, so a method can end with "return stop(...)".
+    <T> T stop(Operation operation, long started, T result) {
+        stop(operation, started);
+        return result;
+    }
+
+    // Method to record an operation and pass its boolean result through without boxing it.
+    boolean stop(Operation operation, long started, boolean result) {
+        stop(operation, started);
+        return result;
+    }
+
+    // Method to record an operation and pass its double result through without boxing it.
+    double stop(Operation operation, long started, double result) {
+        stop(operation, started);
+        return result;
+    }
+
+    // Method to get the number of times an operation ran.
+    public long getCount(Operation operation) {
+        return ENABLED ? histograms[operation.ordinal()].getCount() : 0;
+    }
+
+    // Method to get the latency of an operation at a percentile (0 to 100), in microseconds.
+    public double getPercentileMicros(Operation operation, double percentile) {
+        return ENABLED ? histograms[operation.ordinal()].getPercentile(percentile) / 1e3 : 0;
+    }
+
+    // Method to forget everything measured so far.
+    public void reset() {
+        if (ENABLED) {
+            for (LatencyHistogram histogram : histograms) {
+                histogram.reset();
+            }
+        }
+    }
+
+    // Method to describe every operation that has run, one line each with its count and latencies.
+    public List<String> describe() {
+        List<String> lines = new ArrayList<>();
+        if (!ENABLED) {
+            lines.add("Metrics are turned off (-Dpft.metrics=false).");
+            return lines;
+        }
+        lines.add(String.format("%-22s %10s %10s %10s %10s %10s %10s", "operation (us)", "count",
+                "mean", "p50", "p99", "p99.9", "max"));
+        for (Operation operation : OPERATIONS) {
+            LatencyHistogram histogram = histograms[operation.ordinal()];
+            if (histogram.getCount() > 0) {
+                lines.add(String.format("%-22s %,10d %10.1f %10.1f %10.1f %10.1f %10.1f", operation,
+                        histogram.getCount(), histogram.getMean() / 1e3, histogram.getPercentile(50) / 1e3,
+                        histogram.getPercentile(99) / 1e3, histogram.getPercentile(99.9) / 1e3, histogram.getMax() / 1e3));
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,149 @@
+package personalfinancetracker;
+
+import java.util.Arrays;
+import java.util.Locale;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+
+// The RecordManagerStats class is the standard MBean that RecordManager.registerMBean() publishes.
+// JMX calls arrive on their own threads while RecordManager is not thread-safe, so a gauge read that runs into
+// a change in progress returns -1 instead of failing; the values are meant for monitoring, not for bookkeeping.
+class RecordManagerStats implements RecordManagerStatsMBean {
+    static final ObjectName NAME = objectName("personalfinancetracker:type=RecordManager");
+
+    private final RecordManager manager;
+
+    // Constructor to initialize the MBean for a manager.
+    RecordManagerStats(RecordManager manager) {
+        this.manager = manager;
+    }
+
+    @Override
+    public boolean isMetricsEnabled() {
+        return RecordManagerMetrics.isEnabled();
+    }
+
+    @Override
+    public int getRecordCount() {
+        try {
+            return manager.getRecordCount();
+        } catch (RuntimeException e) {
+            return -1;
+        }
+    }
+
+    @Override
+    public int getPendingTombstones() {
+        try {
+            return manager.getPendingTombstones();
+        } catch (RuntimeException e) {
+            return -1;
+        }
+    }
+
+    @Override
+    public int getIndexedDays() {
+        try {
+            return manager.getIndexedDays();
+        } catch (RuntimeException e) {
+            return -1;
+        }
+    }
+
+    @Override
+    public int getIndexedCategories() {
+        try {
+            return manager.getIndexedCategories();
+        } catch (RuntimeException e) {
+            return -1;
+        }
+    }
+
+    @Override
+    public long getDescriptionPostings() {
+        try {
+            return manager.getDescriptionPostings();
+        } catch (RuntimeException e) {
+            return -1;
+        }
+    }
+
+    @Override
+    public int getJournalBufferedBytes() {
+        try {
+            return manager.getJournalBufferedBytes();
+        } catch (RuntimeException e) {
+            return -1;
+        }
+    }
+
+    @Override
+    public int getJournalUnforcedEntries() {
+        try {
+            return manager.getJournalUnforcedEntries();
+        } catch (RuntimeException e) {
+            return -1;
+        }
+    }
+
+    @Override
+    public long getStoreHeapBytes() {
+        try {
+            return manager.estimateStoreHeapBytes();
+        } catch (RuntimeException e) {
+            return -1;
+        }
+    }
+
+    @Override
+    public long getIndexHeapBytes() {
+        try {
+            return manager.estimateIndexHeapBytes();
+        } catch (RuntimeException e) {
+            return -1;
+        }
+    }
+
+    @Override
+    public String[] getOperationStats() {
+        return manager.getMetrics().describe().toArray(new String[0]);
+    }
+
+    @Override
+    public long getOperationCount(String operation) {
+        return manager.getMetrics().getCount(operation(operation));
+    }
+
+    @Override
+    public double getLatencyPercentileMicros(String operation, double percentile) {
+        return manager.getMetrics().getPercentileMicros(operation(operation), percentile);
+    }
+
+    @Override
+    public void resetOperationStats() {
+        manager.getMetrics().reset();
+    }
+
+    // Method to look up an operation by name, in any case.
+    // Throws IllegalArgumentException listing the known operations if there is none by that name.
+    private static RecordManagerMetrics.Operation operation(String name) {
+        if (name != null) {
+            for (RecordManagerMetrics.Operation operation : RecordManagerMetrics.Operation.values()) {
+                if (operation.name().equals(name.trim().toUpperCase(Locale.ROOT))) {
+                    return operation;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation \"" + name + "\": use one of "
+                + Arrays.toString(RecordManagerMetrics.Operation.values()));
+    }
+
+    // Method to build the fixed object name.
+    private static ObjectName objectName(String name) {
+        try {
+            return new ObjectName(name);
+        } catch (MalformedObjectNameException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package personalfinancetracker;
+
+// The RecordManagerStatsMBean interface lists what RecordManagerStats publishes over JMX.
+// Latencies are in microseconds; operation names are those of RecordManagerMetrics.Operation.
+public interface RecordManagerStatsMBean {
+    boolean isMetricsEnabled();
+
+    int getRecordCount();
+
+    int getPendingTombstones();
+
+    int getIndexedDays();
+
+    int getIndexedCategories();
+
+    long getDescriptionPostings();
+
+    int getJournalBufferedBytes();
+
+    int getJournalUnforcedEntries();
+
+    long getStoreHeapBytes();
+
+    long getIndexHeapBytes();
+
+    String[] getOperationStats();
+
+    long getOperationCount(String operation);
+
+    double getLatencyPercentileMicros(String operation, double percentile);
+
+    void resetOperationStats();
+}
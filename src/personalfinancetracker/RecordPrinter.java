@@ -0,0 +1,267 @@
+package personalfinancetracker;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Locale;
+
+// The RecordPrinter class renders records as text, CSV or JSON lines onto an output stream.
+//
+// Each row is formatted into one reusable StringBuilder and copied into a 64 KB byte buffer, which is written out
+// when it fills up, so the stream sees a few large writes instead of a synchronized, flushed println per row.
+// Dates, amounts and ids are appended as digits without building strings, so printing an ASCII row allocates
+// nothing; rows with other characters are encoded through the charset. The first rows are flushed early so the
+// start of a long listing shows up straight away.
+//
+// TEXT matches Record.toString(). CSV has the columns CsvImporter reads, so an export can be imported again.
+// JSON writes one object per line, with the amount as an exact decimal number.
+public class RecordPrinter implements Flushable {
+    // Output formats.
+    public enum Format {
+        TEXT, CSV, JSON;
+
+        // Method to look up a format by name, in any case.
+        public static Format parse(String name) {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int FIRST_FLUSH = 50;             // Rows written before the first flush.
+    private static final String CSV_HEADER = "date,type,category,description,amount";
+
+    private final OutputStream out;
+    private final Format format;
+    private final Charset charset;
+    private final boolean utf8;                            // Whether non-ASCII characters can be encoded by hand.
+    private final StringBuilder row = new StringBuilder(256); // The row being formatted.
+    private char[] chars = new char[256];                  // The row's characters, copied out in one go.
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;                                  // Bytes waiting in the buffer.
+    private long rows;                                     // Rows printed so far.
+
+    // Constructor to initialize a printer writing in the platform charset, as System.out does.
+    public RecordPrinter(OutputStream out, Format format) {
+        this(out, format, Charset.defaultCharset());
+    }
+
+    // Constructor to initialize a printer writing in the given charset.
+    public RecordPrinter(OutputStream out, Format format, Charset charset) {
+        this.out = out;
+        this.format = format;
+        this.charset = charset;
+        this.utf8 = StandardCharsets.UTF_8.equals(charset);
+    }
+
+    // Method to print the header line of the format, if it has one.
+    public void printHeader() {
+        if (format == Format.CSV) {
+            println(CSV_HEADER);
+        }
+    }
+
+    // Method to print one record.
+    public void print(Record record) {
+        print(record.getId(), record.getEpochDay(), record.getType(), record.getCategory(), record.getDescription(),
+                record.getAmountCents());
+    }
+
+    // Method to print the record in a slot of a store, without building a Record for it.
+    void print(RecordStore store, int slot) {
+        print(store.getId(slot), store.getEpochDay(slot), store.getType(slot), store.getCategory(slot),
+                store.getDescription(slot), store.getAmountCents(slot));
+    }
+
+    // Method to print a line of plain text, such as a total after the rows.
+    public void println(String line) {
+        row.setLength(0);
+        row.append(line).append('\n');
+        write();
+    }
+
+    // Method to get the number of records printed so far.
+    public long getRows() {
+        return rows;
+    }
+
+    // Method to write out everything buffered.
+    @Override
+    public void flush() {
+        try {
+            drain();
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write records", e);
+        }
+    }
+
+    // Method to format one row in the chosen format and buffer it.
+    private void print(long id, int epochDay, String type, String category, String description, long amountCents) {
+        row.setLength(0);
+        switch (format) {
+            case CSV:
+                appendDate(epochDay).append(',');
+                appendCsv(type).append(',');
+                appendCsv(category).append(',');
+                appendCsv(description).append(',');
+                Money.append(row, amountCents);
+                break;
+            case JSON:
+                row.append("{\"id\":").append(id).append(",\"date\":\"");
+                appendDate(epochDay).append("\",\"type\":");
+                appendJson(type).append(",\"category\":");
+                appendJson(category).append(",\"description\":");
+                appendJson(description).append(",\"amount\":");
+                Money.append(row, amountCents).append('}');
+                break;
+            default:
+                row.append("Record{id=").append(id).append(", date='");
+                appendDate(epochDay).append("', type='").append(type)
+                        .append("', category='").append(category)
+                        .append("', description='").append(description).append("', amount=");
+                Money.append(row, amountCents).append('}');
+        }
+        row.append('\n');
+        write();
+        if (++rows == FIRST_FLUSH) {
+            flush();
+        }
+    }
+
+    // Method to append an epoch day as yyyy-MM-dd, the way LocalDate prints it.
+    private StringBuilder appendDate(int epochDay) {
+        // Civil date from days since 1970-01-01, counting in 400-year eras that start on March 1st.
+        int z = epochDay + 719_468;
+        int era = Math.floorDiv(z, 146_097);
+        int dayOfEra = z - era * 146_097;
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int shiftedMonth = (5 * dayOfYear + 2) / 153;
+        int day = dayOfYear - (153 * shiftedMonth + 2) / 5 + 1;
+        int month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+        int year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        if (year < 0 || year > 9999) {
+            return row.append(LocalDate.ofEpochDay(epochDay)); // LocalDate adds a sign and extra digits.
+        }
+        row.append((char) ('0' + year / 1000)).append((char) ('0' + year / 100 % 10))
+                .append((char) ('0' + year / 10 % 10)).append((char) ('0' + year % 10)).append('-');
+        row.append((char) ('0' + month / 10)).append((char) ('0' + month % 10)).append('-');
+        return row.append((char) ('0' + day / 10)).append((char) ('0' + day % 10));
+    }
+
+    // Method to append a CSV field, quoted only if it holds a comma, a quote or a line break.
+    private StringBuilder appendCsv(String field) {
+        boolean quote = false;
+        for (int i = 0; i < field.length() && !quote; i++) {
+            char c = field.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            return row.append(field);
+        }
+        row.append('"');
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c == '"') {
+                row.append('"');
+            }
+            row.append(c == '\n' || c == '\r' ? ' ' : c); // CsvImporter reads one record per line.
+        }
+        return row.append('"');
+    }
+
+    // Method to append a JSON string with its quotes and escapes.
+    private StringBuilder appendJson(String value) {
+        row.append('"');
+        int plain = 0;
+        while (plain < value.length() && value.charAt(plain) >= 0x20 && value.charAt(plain) != '"' && value.charAt(plain) != '\\') {
+            plain++;
+        }
+        row.append(value, 0, plain);        // Most values need no escapes and are copied in one go.
+        for (int i = plain; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                row.append('\\').append(c);
+            } else if (c < 0x20) {
+                row.append("\\u00").append(Character.forDigit(c >> 4, 16)).append(Character.forDigit(c & 15, 16));
+            } else {
+                row.append(c);
+            }
+        }
+        return row.append('"');
+    }
+
+    // Method to copy the formatted row into the byte buffer.
+    private void write() {
+        int length = row.length();
+        if (chars.length < length) {
+            chars = new char[Math.max(length, 2 * chars.length)];
+        }
+        row.getChars(0, length, chars, 0);
+        if (position + 4 * length > BUFFER_SIZE) {
+            drainQuietly();
+        }
+        for (int i = 0; i < length; i++) {
+            if (position + 4 > BUFFER_SIZE) {
+                drainQuietly();             // Only a row longer than the buffer gets here.
+            }
+            char c = chars[i];
+            if (c < 0x80) {
+                buffer[position++] = (byte) c;
+            } else if (!utf8) {
+                writeEncoded(i, length);  // Rare: let the charset encode the rest of the row.
+                return;
+            } else if (c < 0x800) {
+                buffer[position++] = (byte) (0xC0 | c >> 6);
+                buffer[position++] = (byte) (0x80 | c & 0x3F);
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(chars[i + 1])) {
+                int codePoint = Character.toCodePoint(c, chars[++i]);
+                buffer[position++] = (byte) (0xF0 | codePoint >> 18);
+                buffer[position++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                buffer[position++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                buffer[position++] = (byte) (0x80 | codePoint & 0x3F);
+            } else if (Character.isSurrogate(c)) {
+                buffer[position++] = '?';   // A lone surrogate, replaced as String.getBytes() would.
+            } else {
+                buffer[position++] = (byte) (0xE0 | c >> 12);
+                buffer[position++] = (byte) (0x80 | c >> 6 & 0x3F);
+                buffer[position++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+    }
+
+    // Method to encode the end of the row through the charset.
+    private void writeEncoded(int from, int to) {
+        byte[] bytes = row.substring(from, to).getBytes(charset);
+        for (int written = 0; written < bytes.length; ) {
+            if (position == BUFFER_SIZE) {
+                drainQuietly();
+            }
+            int chunk = Math.min(bytes.length - written, BUFFER_SIZE - position);
+            System.arraycopy(bytes, written, buffer, position, chunk);
+            position += chunk;
+            written += chunk;
+        }
+    }
+
+    // Method to write the buffered bytes to the stream.
+    private void drain() throws IOException {
+        if (position > 0) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+
+    // Method to write the buffered bytes, for callers that do not declare IOException.
+    private void drainQuietly() {
+        try {
+            drain();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write records", e);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package personalfinancetracker;
+
+import java.text.ParseException;
+import java.util.List;
+
+// The RecordQuery class combines several criteria into one query over the ledger, for example:
+//
+//     manager.query().type("EXPENSE").category("Food").between("2024-01-01", "2024-03-31")
+//            .sortByAmount().limit(10).list();
+//
+// The query is planned and evaluated in one pass by RecordManager: it walks the date index or the type and
+// category bitmaps when one of them narrows the search most, tests the remaining criteria on the store's columns, and only builds Record
+// objects for the rows it returns. A limited sorted query keeps just the best rows in a bounded heap.
+public class RecordQuery {
+    // The orders a query can return its rows in.
+    public enum Order {
+        LEDGER,                 // The order the records were added in.
+        LATEST_FIRST,           // By date, latest first, like sortByDate.
+        HIGHEST_AMOUNT_FIRST    // By amount, highest first, like sortByAmount.
+    }
+
+    private final RecordManager manager;
+    private String type;                                  // Type to match ignoring case, or null for any.
+    private String category;                              // Category to match ignoring case, or null for any.
+    private int startDay = Integer.MIN_VALUE;             // First epoch day to include.
+    private int endDay = Integer.MAX_VALUE;               // Last epoch day to include.
+    private String text;                                  // Text the description must contain, or null.
+    private long minCents = Long.MIN_VALUE;               // Smallest amount to include, in cents.
+    private long maxCents = Long.MAX_VALUE;               // Largest amount to include, in cents.
+    private Order order = Order.LEDGER;
+    private int offset;                                   // Matching rows to skip.
+    private int limit = Integer.MAX_VALUE;                // Most rows to return.
+
+    // Constructor used by RecordManager.query().
+    RecordQuery(RecordManager manager) {
+        this.manager = manager;
+    }
+
+    // Method to keep only records of the given type (ignoring case).
+    public RecordQuery type(String type) {
+        this.type = type;
+        return this;
+    }
+
+    // Method to keep only records in the given category (ignoring case).
+    public RecordQuery category(String category) {
+        this.category = category;
+        return this;
+    }
+
+    // Method to keep only records between two dates (inclusive).
+    public RecordQuery between(String startDate, String endDate) throws ParseException {
+        this.startDay = Record.toEpochDay(startDate);
+        this.endDay = Record.toEpochDay(endDate);
+        return this;
+    }
+
+    // Method to keep only records whose description contains the given text.
+    public RecordQuery descriptionContains(String text) {
+        this.text = text;
+        return this;
+    }
+
+    // Method to keep only records with an amount of at least the given value.
+    public RecordQuery minAmount(double minAmount) {
+        this.minCents = Money.ceilCents(minAmount);
+        return this;
+    }
+
+    // Method to keep only records with an amount of at least the given exact value.
+    public RecordQuery minAmount(Money minAmount) {
+        this.minCents = minAmount.getCents();
+        return this;
+    }
+
+    // Method to keep only records with an amount of at most the given value.
+    public RecordQuery maxAmount(double maxAmount) {
+        this.maxCents = Money.floorCents(maxAmount);
+        return this;
+    }
+
+    // Method to keep only records with an amount of at most the given exact value.
+    public RecordQuery maxAmount(Money maxAmount) {
+        this.maxCents = maxAmount.getCents();
+        return this;
+    }
+
+    // Method to return the rows by date, latest first.
+    public RecordQuery sortByDate() {
+        this.order = Order.LATEST_FIRST;
+        return this;
+    }
+
+    // Method to return the rows by amount, highest first.
+    public RecordQuery sortByAmount() {
+        this.order = Order.HIGHEST_AMOUNT_FIRST;
+        return this;
+    }
+
+    // Method to skip the first matching rows, for paging.
+    public RecordQuery offset(int offset) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("Offset cannot be negative: " + offset);
+        }
+        this.offset = offset;
+        return this;
+    }
+
+    // Method to return at most the given number of rows.
+    public RecordQuery limit(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit cannot be negative: " + limit);
+        }
+        this.limit = limit;
+        return this;
+    }
+
+    // Method to run the query and get the matching records.
+    public List<Record> list() {
+        return manager.runQuery(this, false).getRecords();
+    }
+
+    // Method to count all matching records, ignoring offset and limit.
+    public int count() {
+        return manager.runQuery(this, true).getMatched();
+    }
+
+    // Method to describe how the query would be evaluated, for example "date index (1,234 candidates)".
+    public String explain() {
+        return manager.explainQuery(this);
+    }
+
+    // Getter methods used by the evaluator.
+    String getType() {
+        return type;
+    }
+
+    String getCategory() {
+        return category;
+    }
+
+    int getStartDay() {
+        return startDay;
+    }
+
+    int getEndDay() {
+        return endDay;
+    }
+
+    String getText() {
+        return text;
+    }
+
+    long getMinCents() {
+        return minCents;
+    }
+
+    long getMaxCents() {
+        return maxCents;
+    }
+
+    Order getOrder() {
+        return order;
+    }
+
+    int getOffset() {
+        return offset;
+    }
+
+    int getLimit() {
+        return limit;
+    }
+}
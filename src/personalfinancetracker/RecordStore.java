@@ -0,0 +1,75 @@
+package personalfinancetracker;
+
+import java.util.List;
+
+// The RecordStore interface is the storage backend behind RecordManager.
+// Records are addressed by slot: slots run from 0 to size() - 1 in insertion order and
+// move down when earlier slots are removed. Every record also has an id that never changes: ids are handed out
+// in increasing order, starting at 1, and are never reused, even after the record is removed.
+public interface RecordStore {
+    // Method to get the number of stored records.
+    int size();
+
+    // Method to get the record in a slot. Backends that do not keep Record objects build a new one on each call.
+    Record get(int slot);
+
+    // Method to append a record in slot size(). A record without an id is given the next one;
+    // a record loaded from a saved ledger keeps its own.
+    void add(Record record);
+
+    // Method to make room for the given records before any of them is added, so that adding them in order
+    // cannot fail part-way. Throws IllegalStateException if they do not fit.
+    void reserve(List<Record> records);
+
+    // Method to write an edited record back into its slot.
+    void set(int slot, Record record);
+
+    // Method to remove the given slots (ascending, no duplicates) and close the gaps.
+    void removeSlots(int[] slots, int count);
+
+    // Method to mark a slot as deleted until it is removed, so that a persistent store does not bring the record
+    // back after a restart. RecordManager keeps its own list of deleted slots, so in-memory stores ignore this.
+    void markDeleted(int slot);
+
+    // Method to check whether a slot was marked deleted in an earlier session and has not been removed yet.
+    boolean isDeleted(int slot);
+
+    // Method to get the id of the record in a slot.
+    long getId(int slot);
+
+    // Method to get the id the next new record will be given.
+    long getNextId();
+
+    // Method to make sure no id below the given one is handed out again, used when loading a saved ledger.
+    void reserveIds(long nextId);
+
+    // Method to get the epoch day of the record in a slot.
+    int getEpochDay(int slot);
+
+    // Method to get the type of the record in a slot.
+    String getType(int slot);
+
+    // Method to get the category of the record in a slot.
+    String getCategory(int slot);
+
+    // Method to get the description of the record in a slot.
+    String getDescription(int slot);
+
+    // Method to get the exact amount of the record in a slot, in cents.
+    long getAmountCents(int slot);
+
+    // Method to check whether the record in a slot has type INCOME (ignoring case).
+    boolean isIncome(int slot);
+
+    // Method to check whether the record in a slot has type EXPENSE (ignoring case).
+    boolean isExpense(int slot);
+
+    // Method to calculate income minus everything else over the whole store, in cents.
+    long calculateBalanceCents();
+
+    // Method to estimate the heap held by the store, in bytes. Data kept outside the heap is not counted.
+    long estimateHeapBytes();
+
+    // Method to get a list view of the store. The same instance is returned on every call.
+    List<Record> asList();
+}
@@ -0,0 +1,44 @@
+package personalfinancetracker;
+
+import java.util.Locale;
+
+// The RecordType enum lists the types a new record may have. Input is checked against it; records loaded from
+// older ledgers may still carry other types, which are kept and grouped as they are.
+public enum RecordType {
+    INCOME,
+    EXPENSE;
+
+    // Method to parse a type ignoring case and surrounding spaces.
+    // Throws IllegalArgumentException naming the accepted types if it is neither.
+    public static RecordType parse(String type) {
+        RecordType parsed = of(type);
+        if (parsed == null) {
+            throw new IllegalArgumentException("Invalid type \"" + type + "\": use INCOME or EXPENSE.");
+        }
+        return parsed;
+    }
+
+    // Method to look up a type ignoring case, or return null if it is neither.
+    public static RecordType of(String type) {
+        if (type == null) {
+            return null;
+        }
+        if (INCOME.name().equalsIgnoreCase(type)) {
+            return INCOME;
+        }
+        if (EXPENSE.name().equalsIgnoreCase(type)) {
+            return EXPENSE;
+        }
+        String trimmed = type.trim().toUpperCase(Locale.ROOT);
+        return trimmed.equals(INCOME.name()) ? INCOME : trimmed.equals(EXPENSE.name()) ? EXPENSE : null;
+    }
+
+    // Method to get the shared constant String of a type if it is INCOME or EXPENSE in any case, or the type itself.
+    // Only the case is changed, so the record still groups exactly as before.
+    static String canonical(String type) {
+        if (INCOME.name().equalsIgnoreCase(type)) {
+            return INCOME.name();
+        }
+        return EXPENSE.name().equalsIgnoreCase(type) ? EXPENSE.name() : type;
+    }
+}
@@ -0,0 +1,270 @@
+package personalfinancetracker;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+// The RollupCube class keeps the total and record count of every (month, type, category) cell, updated as records
+// come and go, so monthly reports read a few hundred counters instead of scanning the ledger once per cell.
+// Months are keyed as year * 12 + month - 1. Types and categories are grouped ignoring case, like
+// RecordAggregates, and get small ids; each month holds a [type][category] grid of sums and counts.
+// A year by category pivot reads 12 rows per type, so any slice comes back in microseconds.
+class RollupCube {
+    private final StringDictionary types;        // Upper-cased type -> id.
+    private final StringDictionary categories;   // Upper-cased category -> id.
+    private final List<String> categoryNames;    // Category spelling as first seen, by id.
+    private final TreeMap<Integer, MonthCells> months; // Cells of each month that has had records.
+
+    // Constructor to initialize an empty cube.
+    RollupCube() {
+        this.types = new StringDictionary();
+        this.categories = new StringDictionary();
+        this.categoryNames = new ArrayList<>();
+        this.months = new TreeMap<>();
+    }
+
+    // Method to get the month key of an epoch day.
+    static int monthOf(int epochDay) {
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+        return date.getYear() * 12 + date.getMonthValue() - 1;
+    }
+
+    // Method to get the month key of a year and month (1 to 12).
+    static int monthOf(int year, int month) {
+        return year * 12 + month - 1;
+    }
+
+    // Method to include a record's amount in its cell.
+    void add(int epochDay, String type, String category, long amount) {
+        MonthCells cells = months.computeIfAbsent(monthOf(epochDay), k -> new MonthCells());
+        cells.add(types.idOf(key(type)), categoryId(category), amount, 1);
+    }
+
+    // Method to check that including the records, in order, would not overflow any cell, without changing anything.
+    // Throws ArithmeticException if it would.
+    void checkAdd(List<Record> records) {
+        Map<List<Object>, Long> sums = new HashMap<>(); // Cell sums as they would become, by month, type and category.
+        for (Record record : records) {
+            checkCell(sums, record, record.getAmountCents());
+        }
+    }
+
+    // Method to check that replacing a record's values with edited ones would not overflow any cell, without
+    // changing anything. Throws ArithmeticException if it would.
+    void checkReplace(Record old, Record edited) {
+        Map<List<Object>, Long> sums = new HashMap<>(); // Cell sums as they would become, keyed as in checkAdd.
+        checkCell(sums, old, Money.subtract(0, old.getAmountCents()));
+        checkCell(sums, edited, edited.getAmountCents());
+    }
+
+    // Method to add an amount to the sum a record's cell would have, throwing ArithmeticException on overflow.
+    private void checkCell(Map<List<Object>, Long> sums, Record record, long amount) {
+        int month = monthOf(record.getEpochDay());
+        String typeKey = key(record.getType());
+        String categoryKey = key(record.getCategory());
+        List<Object> cell = Arrays.asList(month, typeKey, categoryKey);
+        Long sum = sums.get(cell);
+        if (sum == null) {
+            sum = cell(month, typeKey, categoryKey, false);
+        }
+        sums.put(cell, Money.add(sum, amount));
+    }
+
+    // Method to take a record's amount back out of its cell.
+    void remove(int epochDay, String type, String category, long amount) {
+        MonthCells cells = months.get(monthOf(epochDay));
+        if (cells != null) {
+            cells.add(types.idOf(key(type)), categoryId(category), Money.subtract(0, amount), -1);
+        }
+    }
+
+    // Method to get the total of the cells from month from to month to (inclusive), in cents.
+    // A null type or category matches every type or category.
+    long total(int from, int to, String type, String category) {
+        boolean[] typeIds = typeIds(type);
+        boolean[] categoryIds = categoryIds(category);
+        long total = 0;
+        for (MonthCells cells : months.subMap(from, true, to, true).values()) {
+            total = Money.add(total, cells.sum(typeIds, categoryIds, false));
+        }
+        return total;
+    }
+
+    // Method to get the number of records in the cells from month from to month to (inclusive).
+    int count(int from, int to, String type, String category) {
+        boolean[] typeIds = typeIds(type);
+        boolean[] categoryIds = categoryIds(category);
+        int count = 0;
+        for (MonthCells cells : months.subMap(from, true, to, true).values()) {
+            count += (int) cells.sum(typeIds, categoryIds, true);
+        }
+        return count;
+    }
+
+    // Method to build the category by month totals of a year for one type (null for every type).
+    // Categories without records of that type in the year are left out.
+    CategoryPivot pivot(int year, String type) {
+        boolean[] typeIds = typeIds(type);
+        long[][] sums = new long[categories.size()][12];
+        int[] counts = new int[categories.size()];
+        for (int month = 0; month < 12; month++) {
+            MonthCells cells = months.get(monthOf(year, month + 1));
+            if (cells == null) {
+                continue;
+            }
+            for (int typeId = 0; typeId < cells.sums.length; typeId++) {
+                if (!typeIds[typeId]) {
+                    continue;
+                }
+                long[] row = cells.sums[typeId];
+                int[] rowCounts = cells.counts[typeId];
+                for (int categoryId = 0; categoryId < Math.min(row.length, counts.length); categoryId++) {
+                    sums[categoryId][month] = Money.add(sums[categoryId][month], row[categoryId]);
+                    counts[categoryId] += rowCounts[categoryId];
+                }
+            }
+        }
+        List<String> names = new ArrayList<>();
+        List<long[]> rows = new ArrayList<>();
+        for (int categoryId = 0; categoryId < counts.length; categoryId++) {
+            if (counts[categoryId] > 0) {
+                names.add(categoryNames.get(categoryId));
+                rows.add(sums[categoryId]);
+            }
+        }
+        return new CategoryPivot(year, type, names, rows.toArray(new long[0][]));
+    }
+
+    // Method to estimate the heap held by the cube, in bytes.
+    long estimateHeapBytes() {
+        long bytes = 64 + 64L * categoryNames.size();
+        for (MonthCells cells : months.values()) {
+            bytes += 40 + 16 + 32;        // Tree entry, boxed key and the grid objects.
+            for (int typeId = 0; typeId < cells.sums.length; typeId++) {
+                bytes += 32 + 12L * cells.sums[typeId].length;
+            }
+        }
+        return bytes;
+    }
+
+    // Method to describe the first cell that differs from another cube, or return null if they agree.
+    String difference(RollupCube other) {
+        for (Map.Entry<Integer, MonthCells> entry : months.entrySet()) {
+            int month = entry.getKey();
+            MonthCells cells = entry.getValue();
+            for (int typeId = 0; typeId < cells.sums.length; typeId++) {
+                for (int categoryId = 0; categoryId < Math.min(cells.sums[typeId].length, categories.size()); categoryId++) {
+                    String type = types.name(typeId);
+                    String category = categories.name(categoryId);
+                    if (cells.sums[typeId][categoryId] != other.cell(month, type, category, false)
+                            || cells.counts[typeId][categoryId] != other.cell(month, type, category, true)) {
+                        return "rollup cell " + (month / 12) + "-" + (month % 12 + 1) + " " + type + " " + category;
+                    }
+                }
+            }
+        }
+        // Every cell here matches, so the other cube can only differ by holding records in cells this one lacks.
+        if (count(Integer.MIN_VALUE, Integer.MAX_VALUE, null, null) != other.count(Integer.MIN_VALUE, Integer.MAX_VALUE, null, null)) {
+            return "rollup record count";
+        }
+        return null;
+    }
+
+    // Method to read one cell's sum, or its count, by upper-cased type and category.
+    private long cell(int month, String typeKey, String categoryKey, boolean countOnly) {
+        MonthCells cells = months.get(month);
+        Integer typeId = types.find(typeKey);
+        Integer categoryId = categories.find(categoryKey);
+        if (cells == null || typeId == null || categoryId == null || typeId >= cells.sums.length
+                || categoryId >= cells.sums[typeId].length) {
+            return 0;
+        }
+        return countOnly ? cells.counts[typeId][categoryId] : cells.sums[typeId][categoryId];
+    }
+
+    // Method to get the id of a category, remembering how it was first spelled.
+    private int categoryId(String category) {
+        int id = categories.idOf(key(category));
+        if (id == categoryNames.size()) {
+            categoryNames.add(category);
+        }
+        return id;
+    }
+
+    // Method to flag the type ids matching a type, or every id for null.
+    private boolean[] typeIds(String type) {
+        return matching(types, type);
+    }
+
+    // Method to flag the category ids matching a category, or every id for null.
+    private boolean[] categoryIds(String category) {
+        return matching(categories, category);
+    }
+
+    // Method to flag the ids of a dictionary of upper-cased keys that match a name.
+    private static boolean[] matching(StringDictionary dictionary, String name) {
+        boolean[] matches = new boolean[dictionary.size()];
+        if (name == null) {
+            Arrays.fill(matches, true);
+        } else {
+            Integer id = dictionary.find(key(name));
+            if (id != null) {
+                matches[id] = true;
+            }
+        }
+        return matches;
+    }
+
+    // Method to build the case-insensitive grouping key.
+    private static String key(String name) {
+        return name.toUpperCase(Locale.ROOT);
+    }
+
+    // The sums and counts of one month, by type id and then category id. Rows grow as ids are handed out, with
+    // room to spare, so a row can be longer than the number of categories.
+    private static final class MonthCells {
+        long[][] sums = new long[0][];
+        int[][] counts = new int[0][];
+
+        // Method to add an amount and a count to a cell, growing the grid to reach it.
+        void add(int typeId, int categoryId, long amount, int count) {
+            if (typeId >= sums.length) {
+                int oldLength = sums.length;
+                sums = Arrays.copyOf(sums, typeId + 1);
+                counts = Arrays.copyOf(counts, typeId + 1);
+                for (int i = oldLength; i <= typeId; i++) {
+                    sums[i] = new long[0];
+                    counts[i] = new int[0];
+                }
+            }
+            if (categoryId >= sums[typeId].length) {
+                int length = Math.max(categoryId + 1, 2 * sums[typeId].length);
+                sums[typeId] = Arrays.copyOf(sums[typeId], length);
+                counts[typeId] = Arrays.copyOf(counts[typeId], length);
+            }
+            sums[typeId][categoryId] = Money.add(sums[typeId][categoryId], amount);
+            counts[typeId][categoryId] += count;
+        }
+
+        // Method to add up the sums, or the counts, of the flagged cells.
+        long sum(boolean[] typeIds, boolean[] categoryIds, boolean countOnly) {
+            long total = 0;
+            for (int typeId = 0; typeId < sums.length; typeId++) {
+                if (!typeIds[typeId]) {
+                    continue;
+                }
+                for (int categoryId = 0; categoryId < Math.min(sums[typeId].length, categoryIds.length); categoryId++) {
+                    if (categoryIds[categoryId]) {
+                        total = countOnly ? total + counts[typeId][categoryId] : Money.add(total, sums[typeId][categoryId]);
+                    }
+                }
+            }
+            return total;
+        }
+    }
+}
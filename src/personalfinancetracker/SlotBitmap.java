@@ -0,0 +1,291 @@
+package personalfinancetracker;
+
+import java.util.Arrays;
+
+// The SlotBitmap class is a compressed set of record slots laid out the way Roaring bitmaps are: slots are split
+// into chunks of 65,536 by their high 16 bits, and each chunk keeps its low 16 bits either as a sorted array
+// (up to 4,096 slots, 2 bytes each) or as a 65,536-bit bitmap (8 KB), whichever is smaller.
+// A rare category costs a few bytes per record while a common type costs one bit per slot, and intersecting two
+// sets is a merge of arrays, a probe of a bitmap per array entry, or an AND of 1,024 words per chunk.
+// Slot numbers are dense (0 to the store's size), so chunks are found by index rather than by a key search.
+final class SlotBitmap {
+    private static final int ARRAY_MAX = 4096;     // An array chunk above this size becomes a bitmap.
+    private static final int WORDS = 1024;         // Words of a bitmap chunk.
+
+    // Receives the slots of a walk in ascending order; returning false stops the walk.
+    interface SlotVisitor {
+        boolean visit(int slot);
+    }
+
+    private Chunk[] chunks = new Chunk[0];         // Chunk of each high 16 bits, or null if it holds nothing.
+    private int cardinality;                       // Number of slots in the set.
+
+    // Method to add a slot. Returns false if it was already in the set.
+    boolean add(int slot) {
+        int high = slot >>> 16;
+        if (high >= chunks.length) {
+            chunks = Arrays.copyOf(chunks, Math.max(high + 1, 2 * chunks.length));
+        }
+        if (chunks[high] == null) {
+            chunks[high] = new Chunk();
+        }
+        if (!chunks[high].add((char) slot)) {
+            return false;
+        }
+        cardinality++;
+        return true;
+    }
+
+    // Method to remove a slot. Returns false if it was not in the set.
+    boolean remove(int slot) {
+        int high = slot >>> 16;
+        if (high >= chunks.length || chunks[high] == null || !chunks[high].remove((char) slot)) {
+            return false;
+        }
+        if (chunks[high].cardinality == 0) {
+            chunks[high] = null;
+        }
+        cardinality--;
+        return true;
+    }
+
+    // Method to check whether a slot is in the set.
+    boolean contains(int slot) {
+        int high = slot >>> 16;
+        return high < chunks.length && chunks[high] != null && chunks[high].contains((char) slot);
+    }
+
+    // Method to get the number of slots in the set.
+    int cardinality() {
+        return cardinality;
+    }
+
+    // Method to get the smallest slot at or above the given one, or -1 if there is none.
+    int nextSlot(int from) {
+        for (int high = Math.max(0, from >>> 16); high < chunks.length; high++) {
+            if (chunks[high] != null) {
+                int low = chunks[high].next(high == from >>> 16 ? from & 0xFFFF : 0);
+                if (low >= 0) {
+                    return high << 16 | low;
+                }
+            }
+        }
+        return -1;
+    }
+
+    // Method to pass every slot to the visitor in ascending order, until it returns false.
+    // Returns false if the visitor stopped the walk.
+    boolean forEach(SlotVisitor visitor) {
+        for (int high = 0; high < chunks.length; high++) {
+            Chunk chunk = chunks[high];
+            if (chunk == null) {
+                continue;
+            }
+            int base = high << 16;
+            if (chunk.words == null) {
+                for (int i = 0; i < chunk.cardinality; i++) {
+                    if (!visitor.visit(base | chunk.values[i])) {
+                        return false;
+                    }
+                }
+                continue;
+            }
+            for (int word = 0; word < WORDS; word++) {
+                for (long bits = chunk.words[word]; bits != 0; bits &= bits - 1) {
+                    if (!visitor.visit(base | word << 6 | Long.numberOfTrailingZeros(bits))) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    // Method to build the intersection of two sets, chunk by chunk.
+    static SlotBitmap and(SlotBitmap a, SlotBitmap b) {
+        SlotBitmap result = new SlotBitmap();
+        int length = Math.min(a.chunks.length, b.chunks.length);
+        result.chunks = new Chunk[length];
+        for (int high = 0; high < length; high++) {
+            if (a.chunks[high] != null && b.chunks[high] != null) {
+                Chunk chunk = Chunk.and(a.chunks[high], b.chunks[high]);
+                if (chunk.cardinality > 0) {
+                    result.chunks[high] = chunk;
+                    result.cardinality += chunk.cardinality;
+                }
+            }
+        }
+        return result;
+    }
+
+    // Method to build a copy without the given (ascending) slots, with the rest renumbered after they were
+    // removed from the store.
+    SlotBitmap removeAndShift(DateIndex.SlotList removed) {
+        SlotBitmap shifted = new SlotBitmap();
+        int[] below = new int[1];                  // Removed slots below the current one.
+        forEach(slot -> {
+            while (below[0] < removed.size() && removed.get(below[0]) < slot) {
+                below[0]++;
+            }
+            if (below[0] == removed.size() || removed.get(below[0]) != slot) {
+                shifted.add(slot - below[0]);
+            }
+            return true;
+        });
+        return shifted;
+    }
+
+    // Method to estimate the heap held by the set, in bytes.
+    long heapBytes() {
+        long bytes = 32 + 16 + 4L * chunks.length;
+        for (Chunk chunk : chunks) {
+            if (chunk != null) {
+                bytes += 32 + (chunk.words != null ? 16 + 8L * WORDS : 16 + 2L * chunk.values.length);
+            }
+        }
+        return bytes;
+    }
+
+    // The low 16 bits of the slots of one chunk, as a sorted array or as a bitmap.
+    private static final class Chunk {
+        char[] values = new char[4];   // Sorted values while the chunk is an array; null once it is a bitmap.
+        long[] words;                  // Bits while the chunk is a bitmap; null while it is an array.
+        int cardinality;
+
+        boolean add(char value) {
+            if (words != null) {
+                long bit = 1L << value;
+                if ((words[value >>> 6] & bit) != 0) {
+                    return false;
+                }
+                words[value >>> 6] |= bit;
+                cardinality++;
+                return true;
+            }
+            int at = Arrays.binarySearch(values, 0, cardinality, value);
+            if (at >= 0) {
+                return false;
+            }
+            if (cardinality == ARRAY_MAX) {
+                toBitmap();
+                return add(value);
+            }
+            at = -at - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_MAX, 2 * values.length));
+            }
+            System.arraycopy(values, at, values, at + 1, cardinality - at);
+            values[at] = value;
+            cardinality++;
+            return true;
+        }
+
+        boolean remove(char value) {
+            if (words != null) {
+                long bit = 1L << value;
+                if ((words[value >>> 6] & bit) == 0) {
+                    return false;
+                }
+                words[value >>> 6] &= ~bit;
+                if (--cardinality < ARRAY_MAX / 2) {
+                    toArray();                 // Well below the limit, so adds and removes near it do not flip-flop.
+                }
+                return true;
+            }
+            int at = Arrays.binarySearch(values, 0, cardinality, value);
+            if (at < 0) {
+                return false;
+            }
+            System.arraycopy(values, at + 1, values, at, cardinality - at - 1);
+            cardinality--;
+            return true;
+        }
+
+        boolean contains(char value) {
+            if (words != null) {
+                return (words[value >>> 6] & 1L << value) != 0;
+            }
+            return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+        }
+
+        // Returns the smallest value at or above from, or -1.
+        int next(int from) {
+            if (words != null) {
+                int word = from >>> 6;
+                long bits = words[word] & -1L << from;
+                while (bits == 0) {
+                    if (++word == WORDS) {
+                        return -1;
+                    }
+                    bits = words[word];
+                }
+                return word << 6 | Long.numberOfTrailingZeros(bits);
+            }
+            int at = Arrays.binarySearch(values, 0, cardinality, (char) from);
+            at = at >= 0 ? at : -at - 1;
+            return at < cardinality ? values[at] : -1;
+        }
+
+        void toBitmap() {
+            words = new long[WORDS];
+            for (int i = 0; i < cardinality; i++) {
+                words[values[i] >>> 6] |= 1L << values[i];
+            }
+            values = null;
+        }
+
+        void toArray() {
+            values = new char[Math.max(4, cardinality)];
+            int size = 0;
+            for (int word = 0; word < WORDS; word++) {
+                for (long bits = words[word]; bits != 0; bits &= bits - 1) {
+                    values[size++] = (char) (word << 6 | Long.numberOfTrailingZeros(bits));
+                }
+            }
+            words = null;
+        }
+
+        static Chunk and(Chunk a, Chunk b) {
+            Chunk result = new Chunk();
+            if (a.words != null && b.words != null) {
+                long[] words = new long[WORDS];
+                int cardinality = 0;
+                for (int i = 0; i < WORDS; i++) {
+                    words[i] = a.words[i] & b.words[i];
+                    cardinality += Long.bitCount(words[i]);
+                }
+                result.words = words;
+                result.values = null;
+                result.cardinality = cardinality;
+                if (cardinality <= ARRAY_MAX) {
+                    result.toArray();
+                }
+                return result;
+            }
+            if (a.words != null || b.words != null) {
+                Chunk array = a.words == null ? a : b;     // Probe the bitmap for each array value.
+                Chunk bitmap = a.words == null ? b : a;
+                result.values = new char[Math.max(4, array.cardinality)];
+                for (int i = 0; i < array.cardinality; i++) {
+                    if (bitmap.contains(array.values[i])) {
+                        result.values[result.cardinality++] = array.values[i];
+                    }
+                }
+                return result;
+            }
+            result.values = new char[Math.max(4, Math.min(a.cardinality, b.cardinality))];
+            for (int i = 0, j = 0; i < a.cardinality && j < b.cardinality; ) { // Merge two sorted arrays.
+                if (a.values[i] < b.values[j]) {
+                    i++;
+                } else if (a.values[i] > b.values[j]) {
+                    j++;
+                } else {
+                    result.values[result.cardinality++] = a.values[i];
+                    i++;
+                    j++;
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package personalfinancetracker;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// The StringDictionary class maps each distinct string to a small int id, handed out in first-seen order.
+class StringDictionary {
+    private final Map<String, Integer> ids; // Map of string -> id.
+    private final List<String> names;       // List of strings, indexed by id.
+
+    // Constructor to initialize an empty dictionary.
+    StringDictionary() {
+        this.ids = new HashMap<>();
+        this.names = new ArrayList<>();
+    }
+
+    // Method to get the id of a string, adding it if it is new.
+    int idOf(String name) {
+        Integer id = ids.get(name);
+        if (id == null) {
+            id = names.size();
+            ids.put(name, id);
+            names.add(name);
+        }
+        return id;
+    }
+
+    // Method to get the id of a string, or null if it has not been added.
+    Integer find(String name) {
+        return ids.get(name);
+    }
+
+    // Method to get the string for an id.
+    String name(int id) {
+        return names.get(id);
+    }
+
+    // Method to get the number of distinct strings.
+    int size() {
+        return names.size();
+    }
+}
@@ -0,0 +1,207 @@
+package personalfinancetracker;
+
+import java.text.ParseException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+// Tests for ConcurrentRecordManager, including a short multi-threaded stress run.
+public class ConcurrentRecordManagerTest {
+    private static final int DAYS = 400;
+    private static final int FIRST_DAY = (int) LocalDate.of(2024, 1, 1).toEpochDay();
+    private static final int WRITERS = 4;
+    private static final int READERS = 4;
+    private static final long STRESS_MILLIS = 2000;
+
+    @Test
+    public void publishedRecordsCannotBeChanged() throws ParseException {
+        ConcurrentRecordManager manager = new ConcurrentRecordManager();
+        manager.addRecord("2024-03-01", "INCOME", "Salary", "March", 100.00);
+        Record record = manager.snapshot().getRecords().get(0);
+        try {
+            record.setAmount(1.00);
+            fail("a published record accepted a new amount");
+        } catch (UnsupportedOperationException expected) {
+        }
+        try {
+            record.setCategory("Other");
+            fail("a published record accepted a new category");
+        } catch (UnsupportedOperationException expected) {
+        }
+        assertEquals(10000, manager.snapshot().getBalance().getCents());
+    }
+
+    @Test
+    public void addRecordsCopiesTheCallersRecords() {
+        ConcurrentRecordManager manager = new ConcurrentRecordManager();
+        Record mine = new Record(FIRST_DAY, "income", "Salary", "January", 50.00);
+        manager.addRecords(Collections.singletonList(mine));
+        mine.setAmount(1.00);
+        ConcurrentRecordManager.Snapshot snapshot = manager.snapshot();
+        assertEquals(5000, snapshot.getBalance().getCents());
+        assertEquals("INCOME", snapshot.getRecords().get(0).getType());
+    }
+
+    @Test
+    public void addRecordsRejectsAnInvalidTypeBeforeAddingAnything() {
+        ConcurrentRecordManager manager = new ConcurrentRecordManager();
+        List<Record> batch = new ArrayList<>();
+        batch.add(new Record(FIRST_DAY, "INCOME", "Salary", "January", 50.00));
+        batch.add(new Record(FIRST_DAY + 1, "Transfer", "Savings", "January", 10.00));
+        try {
+            manager.addRecords(batch);
+            fail("a batch with an invalid type was accepted");
+        } catch (IllegalArgumentException expected) {
+        }
+        assertEquals(0, manager.snapshot().size());
+    }
+
+    @Test
+    public void recordsGetTheirOwnIdsAndEditsKeepThem() throws ParseException {
+        ConcurrentRecordManager manager = new ConcurrentRecordManager();
+        String date = LocalDate.ofEpochDay(FIRST_DAY).toString();
+        manager.addRecord(date, "INCOME", "Salary", "January", 100.00);
+        List<Record> batch = new ArrayList<>();
+        batch.add(new Record(42, FIRST_DAY + 1, "EXPENSE", "Food", "Lunch", 1250));
+        batch.add(new Record(42, FIRST_DAY + 2, "EXPENSE", "Food", "Lunch", 1250)); // The caller's ids are not kept.
+        manager.addRecords(batch);
+        List<Long> ids = new ArrayList<>();
+        for (Record record : manager.snapshot().getRecords()) {
+            ids.add(record.getId());
+        }
+        assertEquals(List.of(1L, 2L, 3L), ids);
+
+        assertTrue(manager.editRecord(date, "", "", "Bonus", 30.00));
+        Record edited = manager.searchRecordsByDate(date).get(0);
+        assertEquals(1, edited.getId());
+        assertEquals("Bonus", edited.getDescription());
+        assertEquals(3000, edited.getAmountCents());
+    }
+
+    // Each writer owns the days d with d % WRITERS == its number, so it can keep its own model of what those days
+    // hold while all writers share partitions. Writers add, batch-add, edit and delete; readers keep taking
+    // snapshots and check that every snapshot's balance, counts and per-day totals equal a recompute from its
+    // records. At the end the manager must hold exactly the union of the writers' models.
+    @Test
+    public void concurrentWritersAndReadersKeepSnapshotsConsistent() throws InterruptedException {
+        ConcurrentRecordManager manager = new ConcurrentRecordManager();
+        AtomicBoolean stop = new AtomicBoolean();
+        Queue<String> failures = new ConcurrentLinkedQueue<>();
+        AtomicLong snapshots = new AtomicLong();
+        List<Map<Integer, List<Double>>> models = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(WRITERS + READERS);
+
+        for (int w = 0; w < WRITERS; w++) {
+            Map<Integer, List<Double>> model = new HashMap<>(); // Day -> amounts of the INCOME records on it.
+            models.add(model);
+            int writer = w;
+            new Thread(() -> {
+                Random random = new Random(writer);
+                try {
+                    while (!stop.get() && failures.isEmpty()) {
+                        int day = FIRST_DAY + random.nextInt(DAYS / WRITERS) * WRITERS + writer;
+                        String date = LocalDate.ofEpochDay(day).toString();
+                        int op = random.nextInt(10);
+                        if (op < 5) {
+                            double amount = random.nextInt(10000) / 100.0;
+                            manager.addRecord(date, "INCOME", "Stress", "writer " + writer, amount);
+                            model.computeIfAbsent(day, d -> new ArrayList<>()).add(amount);
+                        } else if (op < 6) {
+                            List<Record> batch = new ArrayList<>();
+                            for (int i = 0; i < 20; i++) {
+                                int batchDay = FIRST_DAY + random.nextInt(DAYS / WRITERS) * WRITERS + writer;
+                                double amount = random.nextInt(10000) / 100.0;
+                                batch.add(new Record(batchDay, "INCOME", "Stress", "batch " + writer, amount));
+                                model.computeIfAbsent(batchDay, d -> new ArrayList<>()).add(amount);
+                            }
+                            manager.addRecords(batch);
+                        } else if (op < 9) {
+                            double amount = random.nextInt(10000) / 100.0;
+                            boolean edited = manager.editRecord(date, "", "", "edited", amount);
+                            List<Double> amounts = model.get(day);
+                            if (edited != (amounts != null)) {
+                                failures.add("edit of " + date + " returned " + edited);
+                            } else if (edited) {
+                                amounts.set(0, amount);
+                            }
+                        } else {
+                            boolean deleted = manager.deleteRecord(date);
+                            if (deleted != (model.remove(day) != null)) {
+                                failures.add("delete of " + date + " returned " + deleted);
+                            }
+                        }
+                    }
+                } catch (ParseException | RuntimeException e) {
+                    failures.add("writer " + writer + " failed: " + e);
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+        for (int r = 0; r < READERS; r++) {
+            new Thread(() -> {
+                try {
+                    while (!stop.get() && failures.isEmpty()) {
+                        ConcurrentRecordManager.Snapshot snapshot = manager.snapshot();
+                        snapshot.verify();
+                        List<Record> records = snapshot.getRecords();
+                        long sum = 0;
+                        for (Record record : records) {
+                            sum += record.getAmountCents(); // Every record is INCOME, so the balance is their sum.
+                        }
+                        if (records.size() != snapshot.size() || sum != snapshot.getBalance().getCents()) {
+                            failures.add("snapshot balance " + snapshot.getBalance() + " but records sum to " + Money.format(sum));
+                        }
+                        PeriodSummary summary = snapshot.summarize(Integer.MIN_VALUE, Integer.MAX_VALUE);
+                        if (summary.getRecordCount() != records.size() || summary.getTotalIncomeCents() != sum) {
+                            failures.add("snapshot summary does not match its records");
+                        }
+                        snapshots.incrementAndGet();
+                    }
+                } catch (RuntimeException e) {
+                    failures.add("reader failed: " + e);
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+
+        Thread.sleep(STRESS_MILLIS);
+        stop.set(true);
+        done.await();
+        assertTrue(String.join("\n", failures), failures.isEmpty());
+        assertTrue("no snapshot was checked", snapshots.get() > 0);
+
+        // The final state must be exactly what the writers' models say.
+        int expectedCount = 0;
+        long expectedBalance = 0;
+        for (Map<Integer, List<Double>> model : models) {
+            for (Map.Entry<Integer, List<Double>> day : model.entrySet()) {
+                List<Record> stored = manager.searchRecordsByDate(LocalDate.ofEpochDay(day.getKey()).toString());
+                assertEquals("records on day " + day.getKey(), day.getValue().size(), stored.size());
+                for (int i = 0; i < stored.size(); i++) {
+                    assertEquals("record " + i + " on day " + day.getKey(),
+                            Money.toCents(day.getValue().get(i)), stored.get(i).getAmountCents());
+                    expectedBalance += stored.get(i).getAmountCents();
+                }
+                expectedCount += stored.size();
+            }
+        }
+        ConcurrentRecordManager.Snapshot last = manager.snapshot();
+        assertEquals(expectedCount, last.size());
+        assertEquals(expectedBalance, last.getBalance().getCents());
+    }
+}
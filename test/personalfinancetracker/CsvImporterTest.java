@@ -0,0 +1,86 @@
+package personalfinancetracker;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+// Tests for CsvImporter: quoting, headers, signed bank amounts, rejected lines and batches that would overflow.
+public class CsvImporterTest {
+
+    @Test
+    public void readsQuotedFieldsAndSkipsAHeader() throws IOException {
+        RecordManager manager = new RecordManager();
+        ImportResult result = importCsv(manager, 100,
+                "date,type,category,description,amount\r\n"
+                + "2024-01-01,income,Salary,\"January, paid late\",1000\r\n"
+                + "2024-01-02,EXPENSE, \"Food\" ,\"Caf\u00e9 \"\"Le Bon\"\"\",12.5\n"
+                + "\n"
+                + "2024-01-03,,Rent,Standing order,-500.00");
+        assertEquals(5, result.getLinesRead());
+        assertEquals(3, result.getImported());
+        assertEquals(0, result.getRejected());
+        List<Record> records = manager.getAllRecords();
+        assertEquals("INCOME", records.get(0).getType());
+        assertEquals("January, paid late", records.get(0).getDescription());
+        assertEquals("Food", records.get(1).getCategory());
+        assertEquals("Caf\u00e9 \"Le Bon\"", records.get(1).getDescription());
+        assertEquals(1250, records.get(1).getAmountCents());
+        assertEquals("EXPENSE", records.get(2).getType());       // A blank type takes the sign of the amount.
+        assertEquals(50000, records.get(2).getAmountCents());
+        assertEquals(48750, manager.getBalance().getCents());
+    }
+
+    @Test
+    public void countsAndReportsBadLinesWithoutStopping() throws IOException {
+        RecordManager manager = new RecordManager();
+        ImportResult result = importCsv(manager, 2,
+                "2024-01-01,INCOME,Salary,ok,10\n"
+                + "2024-02-30,INCOME,Salary,bad date,10\n"
+                + "2024-01-02,TRANSFER,Savings,bad type,10\n"
+                + "2024-01-03,EXPENSE,Food,too precise,1.234\n"
+                + "2024-01-04,EXPENSE,Food,\"unterminated,1\n"
+                + "2024-01-05,EXPENSE,Food,missing amount\n"
+                + "2024-01-06,EXPENSE,Food,signed,-3\n"
+                + "2024-01-07,EXPENSE,Food,ok,3\n");
+        assertEquals(2, result.getImported());
+        assertEquals(6, result.getRejected());
+        List<String> samples = result.getRejectSamples();
+        assertEquals(6, samples.size());
+        assertTrue(samples.get(0), samples.get(0).startsWith("line 2: unparseable date"));
+        assertTrue(samples.get(1), samples.get(1).startsWith("line 3: type must be INCOME or EXPENSE"));
+        assertTrue(samples.get(2), samples.get(2).startsWith("line 4: amount has more than two decimals"));
+        assertTrue(samples.get(3), samples.get(3).startsWith("line 5: unterminated quote"));
+        assertTrue(samples.get(4), samples.get(4).startsWith("line 6: expected 5 fields but found 4"));
+        assertTrue(samples.get(5), samples.get(5).startsWith("line 7: negative amount with an explicit type"));
+        assertEquals(2, manager.getAllRecords().size());
+    }
+
+    @Test
+    public void aLineThatWouldOverflowTheTotalsOnlyLosesThatLine() throws IOException {
+        RecordManager manager = new RecordManager();
+        ImportResult result = importCsv(manager, 3,
+                "2024-01-01,INCOME,Salary,first batch,1.00\n"
+                + "2024-01-02,INCOME,Salary,big,50000000000000000\n"
+                + "2024-01-03,INCOME,Salary,first batch,2.00\n"
+                + "2024-01-04,INCOME,Salary,too much,50000000000000000\n"
+                + "2024-01-05,INCOME,Salary,second batch,3.00\n"
+                + "2024-01-06,INCOME,Salary,last batch,4.00\n");
+        assertEquals(5, result.getImported());
+        assertEquals(1, result.getRejected());
+        assertEquals("line 4: amount would overflow the totals", result.getRejectSamples().get(0));
+        List<Record> records = manager.getAllRecords();
+        assertEquals(5, records.size());
+        assertEquals("second batch", records.get(3).getDescription());
+        assertEquals(5_000_000_000_000_001_000L, manager.getBalance().getCents());
+        manager.verifyAggregates();
+    }
+
+    // Method to import CSV text into a manager in batches of the given size.
+    private static ImportResult importCsv(RecordManager manager, int batchSize, String csv) throws IOException {
+        return new CsvImporter(manager, batchSize).importStream(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+    }
+}
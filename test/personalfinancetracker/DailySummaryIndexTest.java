@@ -0,0 +1,78 @@
+package personalfinancetracker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+
+// Tests for DailySummaryIndex: window totals compared against a plain sum, for windows that cover segments in part
+// and whole.
+public class DailySummaryIndexTest {
+    private static final int SEGMENT = 1024;
+
+    @Test
+    public void windowsMatchAPlainSum() {
+        Random random = new Random(5);
+        DailySummaryIndex index = new DailySummaryIndex();
+        List<Record> records = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            int day = -3 * SEGMENT + random.nextInt(12 * SEGMENT);          // Days on both sides of the epoch.
+            Record record = new Record(0, day, random.nextBoolean() ? "INCOME" : "EXPENSE", "c", "", random.nextInt(100000));
+            records.add(record);
+            index.add(day, DailySummaryIndex.isIncome(record), DailySummaryIndex.isExpense(record), record.getAmountCents());
+        }
+        for (int i = 0; i < 2000; i++) {
+            int start = -4 * SEGMENT + random.nextInt(14 * SEGMENT);
+            int end = start + random.nextInt(8 * SEGMENT);
+            if (i % 4 == 0) {
+                start = Math.floorDiv(start, SEGMENT) * SEGMENT;              // Windows made of whole segments.
+                end = Math.floorDiv(end, SEGMENT) * SEGMENT + SEGMENT - 1;
+            }
+            assertWindow(index, records, start, end);
+        }
+        assertWindow(index, records, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    @Test
+    public void removeAndBatchAddKeepTheSameTotals() {
+        DailySummaryIndex single = new DailySummaryIndex();
+        DailySummaryIndex batch = new DailySummaryIndex();
+        List<Record> records = new ArrayList<>();
+        for (int day = 0; day < 3 * SEGMENT; day += 7) {
+            Record record = new Record(0, day, day % 2 == 0 ? "INCOME" : "EXPENSE", "c", "", day);
+            records.add(record);
+            single.add(day, DailySummaryIndex.isIncome(record), DailySummaryIndex.isExpense(record), day);
+        }
+        batch.addAll(records);
+        single.add(5, true, false, 999);
+        single.remove(5, true, false, 999);
+        for (int start = 0; start < 3 * SEGMENT; start += 300) {
+            PeriodSummary expected = single.summarize(start, start + SEGMENT);
+            PeriodSummary actual = batch.summarize(start, start + SEGMENT);
+            assertEquals(expected.getTotalIncomeCents(), actual.getTotalIncomeCents());
+            assertEquals(expected.getTotalExpensesCents(), actual.getTotalExpensesCents());
+            assertEquals(expected.getRecordCount(), actual.getRecordCount());
+        }
+        assertWindow(batch, records, 0, 3 * SEGMENT - 1);
+    }
+
+    // Method to compare a window's totals with a sum over the records.
+    private static void assertWindow(DailySummaryIndex index, List<Record> records, int start, int end) {
+        long income = 0;
+        long expenses = 0;
+        int count = 0;
+        for (Record record : records) {
+            if (record.getEpochDay() >= start && record.getEpochDay() <= end) {
+                income += DailySummaryIndex.isIncome(record) ? record.getAmountCents() : 0;
+                expenses += DailySummaryIndex.isExpense(record) ? record.getAmountCents() : 0;
+                count++;
+            }
+        }
+        PeriodSummary summary = index.summarize(start, end);
+        String window = start + ".." + end;
+        assertEquals(window, income, summary.getTotalIncomeCents());
+        assertEquals(window, expenses, summary.getTotalExpensesCents());
+        assertEquals(window, count, summary.getRecordCount());
+    }
+}
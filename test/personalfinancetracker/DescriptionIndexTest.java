@@ -0,0 +1,159 @@
+package personalfinancetracker;
+
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.function.Predicate;
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+// Tests for DescriptionIndex: word and trigram candidates after slots are edited, removed and renumbered, compared
+// against an index built afresh and against a plain search of the descriptions.
+public class DescriptionIndexTest {
+    private static final String[] WORDS = {"coffee", "Starbucks", "AMAZON", "mktp", "amazonia", "rent", "tram", "Caf\u00e9",
+            "grocer", "groceries", "fuel", "x"};
+    private static final String[] SEARCHES = {"coffee", "amazon", "amazon*", "AMAZON MKTP", "groc*", "gro*", "caf\u00e9",
+            "star* coffee", "tram", "nothing", "x"};
+    private static final String[] SUBSTRINGS = {"coffee", "mazon", "AMAZON", "ocer", "Caf\u00e9 ", "s\nt", "tram fu", "zzz"};
+
+    @Test
+    public void candidatesAfterRemoveAndShiftMatchAFreshIndex() {
+        Random random = new Random(11);
+        List<String> descriptions = new ArrayList<>();
+        DescriptionIndex index = new DescriptionIndex();
+        for (int slot = 0; slot < 2000; slot++) {
+            descriptions.add(randomDescription(random));
+            index.add(descriptions.get(slot), slot);
+        }
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 200; i++) {                 // Edits replace a description in place.
+                int slot = random.nextInt(descriptions.size());
+                index.remove(descriptions.get(slot), slot);
+                descriptions.set(slot, randomDescription(random));
+                index.add(descriptions.get(slot), slot);
+            }
+            DateIndex.SlotList removed = new DateIndex.SlotList();
+            List<String> kept = new ArrayList<>();
+            for (int slot = 0; slot < descriptions.size(); slot++) {
+                if (random.nextInt(4) == 0) {
+                    removed.add(slot);
+                } else {
+                    kept.add(descriptions.get(slot));
+                }
+            }
+            index.removeAndShift(removed);
+            descriptions = kept;
+
+            DescriptionIndex fresh = new DescriptionIndex();
+            for (int slot = 0; slot < descriptions.size(); slot++) {
+                fresh.add(descriptions.get(slot), slot);
+            }
+            assertEquals(fresh.postingCount(), index.postingCount());
+            for (String search : SEARCHES) {
+                List<String> terms = DescriptionIndex.parseTerms(search);
+                for (String term : terms) {
+                    assertArrayEquals(term, fresh.termCandidates(term), index.termCandidates(term));
+                }
+                assertArrayEquals(search, fresh.termsCandidates(terms), index.termsCandidates(terms));
+                assertCovers(search, index.termsCandidates(terms), descriptions, d -> DescriptionIndex.matchesTerms(d, terms));
+            }
+            for (String text : SUBSTRINGS) {
+                assertArrayEquals(text, fresh.substringCandidates(text), index.substringCandidates(text));
+                String lower = text.toLowerCase(Locale.ROOT);
+                assertCovers(text, index.substringCandidates(text), descriptions, d -> d.toLowerCase(Locale.ROOT).contains(lower));
+            }
+        }
+    }
+
+    @Test
+    public void wholeWordsAreExactAndShortTextsAreNotNarrowed() {
+        DescriptionIndex index = new DescriptionIndex();
+        index.add("Amazon Mktp order", 0);
+        index.add("amazonia trip", 1);
+        index.add("AMAZON refund", 2);
+        assertArrayEquals(new int[] {0, 2}, index.termCandidates("amazon"));
+        assertArrayEquals(new int[] {0, 1, 2}, index.termCandidates("amaz*"));
+        assertArrayEquals(new int[0], index.termCandidates("amazons"));
+        assertNull(index.termCandidates("am*"));
+        assertNull(index.substringCandidates("am"));
+        assertArrayEquals(new int[] {0}, index.termsCandidates(DescriptionIndex.parseTerms("amazon mkt*")));
+        assertEquals(Arrays.asList("amazon", "mk*"), DescriptionIndex.parseTerms("  Amazon   MK*"));
+    }
+
+    @Test
+    public void searchesStayCorrectAfterDeletesCompactTheLedger() throws ParseException {
+        Random random = new Random(13);
+        RecordManager manager = new RecordManager();
+        for (int i = 0; i < 3000; i++) {
+            manager.addRecord("2024-01-" + (10 + random.nextInt(20)), "EXPENSE", "Shopping", randomDescription(random), 1.00);
+        }
+        manager.searchDescriptions("coffee");               // Builds the index before the deletes.
+        for (Record record : new ArrayList<>(manager.getAllRecords())) {
+            if (random.nextInt(3) == 0) {
+                manager.deleteRecord(record.getId());
+            } else if (random.nextInt(10) == 0) {
+                manager.editRecord(record.getId(), null, null, randomDescription(random), -1);
+            }
+        }
+        manager.deleteRecord("2024-01-15");
+        List<Record> records = manager.getAllRecords();
+        for (String search : SEARCHES) {
+            List<String> terms = DescriptionIndex.parseTerms(search);
+            List<Record> expected = new ArrayList<>();
+            for (Record record : records) {
+                if (!terms.isEmpty() && DescriptionIndex.matchesTerms(record.getDescription(), terms)) {
+                    expected.add(record);
+                }
+            }
+            assertEquals(search, ids(expected), ids(manager.searchDescriptions(search)));
+        }
+        for (String text : SUBSTRINGS) {
+            List<Record> expected = new ArrayList<>();
+            for (Record record : records) {
+                if (record.getDescription().contains(text)) {
+                    expected.add(record);
+                }
+            }
+            assertEquals(text, ids(expected), ids(manager.searchByDescription(manager.getAllRecords(), text)));
+        }
+    }
+
+    // Method to check that candidates are ascending and include every description that matches.
+    private static void assertCovers(String search, int[] candidates, List<String> descriptions,
+            Predicate<String> matches) {
+        if (candidates == null) {
+            return;                                         // Not narrowed: every slot is checked.
+        }
+        for (int i = 1; i < candidates.length; i++) {
+            assertTrue(search, candidates[i - 1] < candidates[i]);
+        }
+        for (int slot = 0; slot < descriptions.size(); slot++) {
+            if (matches.test(descriptions.get(slot))) {
+                assertTrue(search + " missed slot " + slot, Arrays.binarySearch(candidates, slot) >= 0);
+            }
+        }
+    }
+
+    // Method to make a description of a few random words.
+    private static String randomDescription(Random random) {
+        StringBuilder description = new StringBuilder();
+        for (int i = 1 + random.nextInt(4); i > 0; i--) {
+            description.append(WORDS[random.nextInt(WORDS.length)]).append(random.nextInt(5) == 0 ? "\n" : " ");
+        }
+        return description.toString().trim();
+    }
+
+    private static List<Long> ids(List<Record> records) {
+        List<Long> ids = new ArrayList<>();
+        for (Record record : records) {
+            ids.add(record.getId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,84 @@
+package personalfinancetracker;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+
+// Tests for IdIndex: growth of the table and removal with backward shifting.
+public class IdIndexTest {
+
+    @Test
+    public void growsAndKeepsEveryId() {
+        IdIndex index = new IdIndex();
+        for (int id = 1; id <= 100_000; id++) {
+            index.put(id, id - 1);
+        }
+        assertEquals(100_000, index.size());
+        for (int id = 1; id <= 100_000; id++) {
+            assertEquals(id - 1, index.get(id));
+        }
+        assertEquals(-1, index.get(100_001));
+    }
+
+    @Test
+    public void putOfAKnownIdMovesItsSlot() {
+        IdIndex index = new IdIndex();
+        index.put(7, 1);
+        index.put(7, 2);
+        assertEquals(1, index.size());
+        assertEquals(2, index.get(7));
+    }
+
+    @Test
+    public void removeReturnsTheSlotAndKeepsTheOthersReachable() {
+        IdIndex index = new IdIndex();
+        for (int id = 1; id <= 1000; id++) {
+            index.put(id, id * 10);
+        }
+        for (int id = 1; id <= 1000; id += 2) {
+            assertEquals(id * 10, index.remove(id));
+        }
+        assertEquals(-1, index.remove(1));
+        assertEquals(500, index.size());
+        for (int id = 1; id <= 1000; id++) {
+            assertEquals(id % 2 == 0 ? id * 10 : -1, index.get(id));
+        }
+    }
+
+    @Test
+    public void randomPutsAndRemovesMatchAHashMap() {
+        Random random = new Random(7);
+        IdIndex index = new IdIndex();
+        Map<Long, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 200_000; i++) {
+            // Ids spread over a narrow and a wide range, so probe runs collide and wrap around the table.
+            long id = random.nextBoolean() ? 1 + random.nextInt(5000) : 1 + (random.nextLong() >>> 1);
+            if (random.nextInt(3) == 0) {
+                Integer slot = expected.remove(id);
+                assertEquals(slot == null ? -1 : slot, index.remove(id));
+            } else {
+                index.put(id, i);
+                expected.put(id, i);
+            }
+        }
+        assertEquals(expected.size(), index.size());
+        for (Map.Entry<Long, Integer> entry : expected.entrySet()) {
+            assertEquals((int) entry.getValue(), index.get(entry.getKey()));
+        }
+    }
+
+    @Test
+    public void clearEmptiesTheIndex() {
+        IdIndex index = new IdIndex();
+        for (int id = 1; id <= 100; id++) {
+            index.put(id, id);
+        }
+        index.clear();
+        assertEquals(0, index.size());
+        assertEquals(-1, index.get(50));
+        index.put(50, 3);
+        assertEquals(3, index.get(50));
+    }
+}
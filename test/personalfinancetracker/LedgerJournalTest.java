@@ -0,0 +1,125 @@
+package personalfinancetracker;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.assertEquals;
+
+// Tests for LedgerJournal recovery: replay, a torn tail and a corrupted entry.
+public class LedgerJournalTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void recoverReplaysAddsEditsAndDeletes() throws IOException, ParseException {
+        Path directory = folder.getRoot().toPath();
+        RecordManager manager = new RecordManager();
+        LedgerJournal journal = recover(directory, manager);
+        manager.addRecord("2024-01-01", "INCOME", "Salary", "January", 1000.00);
+        manager.addRecord("2024-01-02", "EXPENSE", "Food", "Lunch", 12.50);
+        manager.addRecord("2024-01-03", "EXPENSE", "Rent", "January", 500.00);
+        manager.editRecord(2, "", "", "Dinner", 30.00);
+        manager.deleteRecord(3);
+        journal.close();
+
+        RecordManager recovered = new RecordManager();
+        LedgerJournal recoveredJournal = recover(directory, recovered);
+        List<Record> records = recovered.getAllRecords();
+        assertEquals(2, records.size());
+        assertEquals("Dinner", recovered.getRecord(2).getDescription());
+        assertEquals(3000, recovered.getRecord(2).getAmountCents());
+        assertEquals(97000, recovered.getBalance().getCents());
+        recoveredJournal.close();
+    }
+
+    @Test
+    public void recoverDropsATornLastEntryAndAppendsAfterTheRest() throws IOException, ParseException {
+        Path directory = folder.getRoot().toPath();
+        Path log = directory.resolve(LedgerJournal.LOG_FILE);
+        RecordManager manager = new RecordManager();
+        LedgerJournal journal = recover(directory, manager);
+        manager.addRecord("2024-01-01", "INCOME", "Salary", "January", 1000.00);
+        manager.addRecord("2024-01-02", "EXPENSE", "Food", "Lunch", 12.50);
+        long intact = Files.size(log);
+        manager.addRecord("2024-01-03", "EXPENSE", "Rent", "January", 500.00);
+        journal.close();
+        try (RandomAccessFile file = new RandomAccessFile(log.toFile(), "rw")) {
+            file.setLength(file.length() - 3);     // A crash part-way through writing the last entry.
+        }
+
+        RecordManager recovered = new RecordManager();
+        LedgerJournal recoveredJournal = recover(directory, recovered);
+        assertEquals(2, recovered.getAllRecords().size());
+        assertEquals(intact, Files.size(log));     // The torn bytes are cut off before anything is appended.
+        recovered.addRecord("2024-01-04", "EXPENSE", "Fun", "Cinema", 8.00);
+        recoveredJournal.close();
+
+        RecordManager again = new RecordManager();
+        LedgerJournal againJournal = recover(directory, again);
+        assertEquals(3, again.getAllRecords().size());
+        assertEquals("Cinema", again.getAllRecords().get(2).getDescription());
+        againJournal.close();
+    }
+
+    @Test
+    public void recoverStopsAtAnEntryWhoseChecksumDoesNotMatch() throws IOException, ParseException {
+        Path directory = folder.getRoot().toPath();
+        Path log = directory.resolve(LedgerJournal.LOG_FILE);
+        RecordManager manager = new RecordManager();
+        LedgerJournal journal = recover(directory, manager);
+        manager.addRecord("2024-01-01", "INCOME", "Salary", "January", 1000.00);
+        long first = Files.size(log);
+        manager.addRecord("2024-01-02", "EXPENSE", "Food", "Lunch", 12.50);
+        manager.addRecord("2024-01-03", "EXPENSE", "Rent", "January", 500.00);
+        journal.close();
+        try (RandomAccessFile file = new RandomAccessFile(log.toFile(), "rw")) {
+            long inBody = first + 8 + 10;           // Past the second entry's length and CRC.
+            file.seek(inBody);
+            int value = file.read();
+            file.seek(inBody);
+            file.write(value ^ 0xFF);
+        }
+
+        RecordManager recovered = new RecordManager();
+        LedgerJournal recoveredJournal = recover(directory, recovered);
+        List<Record> records = recovered.getAllRecords();
+        assertEquals(1, records.size());            // Nothing after a damaged entry can be trusted.
+        assertEquals("Salary", records.get(0).getCategory());
+        assertEquals(first, Files.size(log));
+        recoveredJournal.close();
+    }
+
+    @Test
+    public void snapshotTruncatesTheLogAndKeepsIds() throws IOException, ParseException {
+        Path directory = folder.getRoot().toPath();
+        RecordManager manager = new RecordManager();
+        LedgerJournal journal = recover(directory, manager);
+        manager.addRecord("2024-01-01", "INCOME", "Salary", "January", 1000.00);
+        manager.addRecord("2024-01-02", "EXPENSE", "Food", "Lunch", 12.50);
+        manager.deleteRecord(1);
+        journal.snapshot(manager);
+        assertEquals(0, Files.size(directory.resolve(LedgerJournal.LOG_FILE)));
+        manager.addRecord("2024-01-03", "EXPENSE", "Rent", "January", 500.00);
+        journal.close();
+
+        RecordManager recovered = new RecordManager();
+        LedgerJournal recoveredJournal = recover(directory, recovered);
+        assertEquals(2, recovered.getAllRecords().size());
+        assertEquals("Lunch", recovered.getRecord(2).getDescription());
+        assertEquals("Rent", recovered.getRecord(3).getCategory());
+        recoveredJournal.close();
+    }
+
+    // Method to recover a manager from a directory with a journal that forces every entry and never snapshots.
+    private static LedgerJournal recover(Path directory, RecordManager manager) throws IOException {
+        LedgerJournal journal = new LedgerJournal(directory, FsyncPolicy.ALWAYS, 1, 10, 0);
+        journal.recover(manager);
+        return journal;
+    }
+}
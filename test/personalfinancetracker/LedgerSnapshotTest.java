@@ -0,0 +1,141 @@
+package personalfinancetracker;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+// Tests for LedgerSnapshot: version-2 round trips, version-1 files and damaged files.
+public class LedgerSnapshotTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void writeThenReadGivesBackEveryRecordWithItsId() throws IOException, ParseException {
+        RecordStore store = new ListRecordStore();
+        RecordManager manager = new RecordManager(store);
+        manager.addRecord("2024-01-01", "INCOME", "Salary", "January", 1000.00);
+        manager.addRecord("2024-01-02", "EXPENSE", "Food", "Caf\u00e9 \u00e9t\u00e9 \uD83C\uDF54", 12.34);
+        manager.addRecord("1999-12-31", "EXPENSE", "Rent", "", 0.01);
+        manager.deleteRecord(1);
+        manager.getAllRecords();                    // Compacts the deleted record away.
+        Path file = folder.getRoot().toPath().resolve(LedgerJournal.SNAPSHOT_FILE);
+        LedgerSnapshot.write(file, 42, store);
+
+        List<Record> read = new ArrayList<>();
+        long[] nextId = new long[1];
+        assertEquals(42, LedgerSnapshot.read(file, read::add, id -> nextId[0] = id));
+        assertEquals(4, nextId[0]);
+        assertEquals(2, read.size());
+        for (int i = 0; i < read.size(); i++) {
+            assertSameRecord(store.get(i), read.get(i));
+        }
+        assertTrue(Files.notExists(file.resolveSibling(file.getFileName() + ".tmp")));
+    }
+
+    @Test
+    public void readsVersion1SnapshotsWithoutIds() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0x50465453);
+        out.writeInt(1);
+        out.writeLong(7);                           // Last sequence; version 1 has no next id.
+        out.writeInt(2);
+        out.writeInt(19723);
+        LedgerSnapshot.writeString(out, "INCOME");
+        LedgerSnapshot.writeString(out, "Salary");
+        LedgerSnapshot.writeString(out, "January");
+        out.writeDouble(1000.00);
+        out.writeInt(19724);
+        LedgerSnapshot.writeString(out, "EXPENSE");
+        LedgerSnapshot.writeString(out, "Food");
+        LedgerSnapshot.writeString(out, "Lunch");
+        out.writeDouble(12.5);
+        CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+        out.writeLong(crc.getValue());
+        Path file = folder.getRoot().toPath().resolve(LedgerJournal.SNAPSHOT_FILE);
+        Files.write(file, bytes.toByteArray());
+
+        List<Record> read = new ArrayList<>();
+        List<Long> nextIds = new ArrayList<>();
+        assertEquals(7, LedgerSnapshot.read(file, read::add, nextIds::add));
+        assertTrue(nextIds.isEmpty());
+        assertEquals(2, read.size());
+        assertEquals(0, read.get(0).getId());       // Records get new ids when they are restored.
+        assertEquals(19723, read.get(0).getEpochDay());
+        assertEquals(100000, read.get(0).getAmountCents());
+        assertEquals("Lunch", read.get(1).getDescription());
+        assertEquals(1250, read.get(1).getAmountCents());
+    }
+
+    @Test
+    public void rejectsAChecksumMismatch() throws IOException, ParseException {
+        Path file = writeSample();
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(65);                           // Inside the first record's description.
+            int value = raf.read();
+            raf.seek(65);
+            raf.write(value ^ 0x01);
+        }
+        assertUnreadable(file, "checksum mismatch");
+    }
+
+    @Test
+    public void rejectsATruncatedFile() throws IOException, ParseException {
+        Path file = writeSample();
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.setLength(raf.length() - 20);
+        }
+        assertUnreadable(file, "truncated");
+    }
+
+    @Test
+    public void rejectsAFileThatIsNotASnapshot() throws IOException {
+        Path file = folder.getRoot().toPath().resolve(LedgerJournal.SNAPSHOT_FILE);
+        Files.write(file, new byte[] {'P', 'F', 'T', 'X', 0, 0, 0, 2, 0, 0, 0, 0, 0, 0, 0, 0});
+        assertUnreadable(file, "Not a ledger snapshot");
+    }
+
+    // Method to write a snapshot of a few records and return its file.
+    private Path writeSample() throws IOException, ParseException {
+        RecordStore store = new ListRecordStore();
+        RecordManager manager = new RecordManager(store);
+        for (int day = 1; day <= 5; day++) {
+            manager.addRecord("2024-02-0" + day, "EXPENSE", "Food", "Meal " + day, day * 3.25);
+        }
+        Path file = folder.getRoot().toPath().resolve(LedgerJournal.SNAPSHOT_FILE);
+        LedgerSnapshot.write(file, 5, store);
+        return file;
+    }
+
+    private static void assertUnreadable(Path file, String reason) {
+        try {
+            LedgerSnapshot.read(file, record -> { }, id -> { });
+            fail("a damaged snapshot was read");
+        } catch (IOException expected) {
+            assertTrue(expected.getMessage(), expected.getMessage().contains(reason));
+        }
+    }
+
+    private static void assertSameRecord(Record expected, Record actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getEpochDay(), actual.getEpochDay());
+        assertEquals(expected.getType(), actual.getType());
+        assertEquals(expected.getCategory(), actual.getCategory());
+        assertEquals(expected.getDescription(), actual.getDescription());
+        assertEquals(expected.getAmountCents(), actual.getAmountCents());
+    }
+}
@@ -0,0 +1,72 @@
+package personalfinancetracker;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+// Tests for MappedRecordStore: when the header counts reach the file, and compaction into a new file.
+public class MappedRecordStoreTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void theRowCountOnDiskOnlyChangesWhenTheRowsAreForced() throws IOException, ParseException {
+        Path directory = folder.getRoot().toPath();
+        try (MappedRecordStore store = MappedRecordStore.open(directory)) {
+            RecordManager manager = new RecordManager(store);
+            manager.addRecord("2024-01-01", "INCOME", "Salary", "January", 1000.00);
+            manager.addRecord("2024-01-02", "EXPENSE", "Food", "Lunch", 12.50);
+            assertEquals(0, rowCountOnDisk(directory));
+            store.force();
+            assertEquals(2, rowCountOnDisk(directory));
+            manager.addRecord("2024-01-03", "EXPENSE", "Rent", "January", 500.00);
+            assertEquals(2, rowCountOnDisk(directory));
+        }
+        assertEquals(3, rowCountOnDisk(directory));
+    }
+
+    @Test
+    public void compactionKeepsTheSurvivorsInOrderAndTheNextId() throws IOException, ParseException {
+        Path directory = folder.getRoot().toPath();
+        try (MappedRecordStore store = MappedRecordStore.open(directory)) {
+            RecordManager manager = new RecordManager(store);
+            for (int day = 1; day <= 9; day++) {
+                manager.addRecord("2024-01-0" + day, "EXPENSE", "Food", "Meal " + day, day);
+            }
+            manager.deleteRecord(2);
+            manager.deleteRecord(5);
+            manager.deleteRecord(9);
+            assertEquals(6, manager.getAllRecords().size()); // Compacts the deleted records away.
+            assertEquals(6, rowCountOnDisk(directory));       // Compaction commits the new file before switching to it.
+            manager.addRecord("2024-02-01", "INCOME", "Salary", "February", 100.00);
+        }
+        assertTrue(Files.notExists(directory.resolve(MappedRecordStore.ROWS_FILE + ".tmp")));
+
+        try (MappedRecordStore store = MappedRecordStore.open(directory)) {
+            List<Record> records = new RecordManager(store).getAllRecords();
+            assertEquals(7, records.size());
+            long[] ids = {1, 3, 4, 6, 7, 8, 10};
+            for (int i = 0; i < ids.length; i++) {
+                assertEquals(ids[i], records.get(i).getId());
+            }
+            assertEquals("Meal 8", records.get(5).getDescription());
+            assertEquals(11, store.getNextId());
+        }
+    }
+
+    // Method to read the row count from the header of the rows file as it is on disk.
+    private static long rowCountOnDisk(Path directory) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(directory.resolve(MappedRecordStore.ROWS_FILE).toFile(), "r")) {
+            file.seek(8);
+            return file.readLong();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package personalfinancetracker;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+// Tests for Money: exact parsing and formatting, overflow checks, and the totals that refuse an edit that would overflow.
+public class MoneyTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void parseIsExact() {
+        assertEquals(1234, Money.parse("12.34").getCents());
+        assertEquals(1200, Money.parse("12").getCents());
+        assertEquals(1250, Money.parse(" 12.5 ").getCents());
+        assertEquals(-50, Money.parse("-0.5").getCents());
+        assertEquals(7, Money.parse("+.07").getCents());
+        assertEquals(Long.MAX_VALUE, Money.parse("92233720368547758.07").getCents());
+    }
+
+    @Test
+    public void parseRejectsWhatIsNotAnAmount() {
+        for (String text : new String[] {"", "-", ".", "1.234", "1,5", "12a", "1.2.3", "92233720368547758.08"}) {
+            try {
+                Money.parse(text);
+                fail("parsed \"" + text + "\"");
+            } catch (NumberFormatException expected) {
+            }
+        }
+    }
+
+    @Test
+    public void formatAlwaysShowsTwoDecimals() {
+        assertEquals("1234.56", Money.format(123456));
+        assertEquals("0.00", Money.format(0));
+        assertEquals("-0.05", Money.format(-5));
+        assertEquals("-92233720368547758.08", Money.format(Long.MIN_VALUE));
+        assertEquals("12.30", Money.of(12.3).toString());
+    }
+
+    @Test
+    public void arithmeticThrowsInsteadOfWrapping() {
+        assertEquals(30, Money.add(10, 20));
+        assertEquals(-10, Money.subtract(10, 20));
+        try {
+            Money.add(Long.MAX_VALUE, 1);
+            fail("add wrapped around");
+        } catch (ArithmeticException expected) {
+        }
+        try {
+            Money.subtract(Long.MIN_VALUE, 1);
+            fail("subtract wrapped around");
+        } catch (ArithmeticException expected) {
+        }
+        try {
+            Money.toCents(1e17);
+            fail("an amount out of range was converted");
+        } catch (ArithmeticException expected) {
+        }
+    }
+
+    @Test
+    public void anEditThatWouldOverflowTheBalanceIsNeitherLoggedNorApplied() throws IOException, ParseException {
+        Path directory = folder.getRoot().toPath();
+        RecordManager manager = new RecordManager();
+        LedgerJournal journal = new LedgerJournal(directory, FsyncPolicy.ALWAYS, 1, 10, 0);
+        journal.recover(manager);
+        manager.addRecord("2024-01-01", "INCOME", "Salary", "January", 5e16);
+        manager.addRecord("2024-01-02", "INCOME", "Gift", "Birthday", 1.00);
+        try {
+            manager.editRecord(2, "", "", "", 5e16);
+            fail("an edit that overflows the balance was applied");
+        } catch (ArithmeticException expected) {
+        }
+        manager.verifyAggregates();
+        assertEquals(100, manager.getRecord(2).getAmountCents());
+        assertEquals(5_000_000_000_000_000_100L, manager.getBalance().getCents());
+        journal.close();
+
+        RecordManager recovered = new RecordManager();
+        LedgerJournal recoveredJournal = new LedgerJournal(directory, FsyncPolicy.ALWAYS, 1, 10, 0);
+        recoveredJournal.recover(recovered);        // Replays cleanly because the rejected edit was never logged.
+        assertEquals(2, recovered.getAllRecords().size());
+        assertEquals(manager.getBalance(), recovered.getBalance());
+        recoveredJournal.close();
+    }
+
+    @Test
+    public void anEditThatWouldOverflowACategoryTotalIsRejected() throws ParseException {
+        RecordManager manager = new RecordManager();
+        manager.addRecord("2024-01-01", "EXPENSE", "Rent", "January", 5e16);
+        manager.addRecord("2024-01-02", "INCOME", "Salary", "January", 5e16);
+        manager.addRecord("2024-01-03", "INCOME", "Salary", "February", 1.00);
+        try {
+            manager.editRecord("2024-01-03", "EXPENSE", "Rent", "", 5e16); // The balance would be fine; Rent would not.
+            fail("an edit that overflows a category total was applied");
+        } catch (ArithmeticException expected) {
+        }
+        manager.verifyAggregates();
+        assertEquals("Salary", manager.searchRecordsByDate("2024-01-03").get(0).getCategory());
+    }
+}
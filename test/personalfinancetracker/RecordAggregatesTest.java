@@ -0,0 +1,105 @@
+package personalfinancetracker;
+
+import java.text.ParseException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+// Tests for RecordAggregates and the running totals RecordManager keeps with them.
+public class RecordAggregatesTest {
+
+    @Test
+    public void addRemoveAndReplaceKeepExactTotals() {
+        RecordAggregates aggregates = new RecordAggregates();
+        aggregates.add("INCOME", "Salary", 100000);
+        aggregates.add("EXPENSE", "Food", 1250);
+        aggregates.add("expense", "food", 10);
+        assertEquals(98740, aggregates.getBalance());
+        assertEquals(3, aggregates.getCount());
+        assertEquals(1260, aggregates.getTypeTotal("Expense"));   // Grouped ignoring case.
+        assertEquals(2, aggregates.getCategoryCount("FOOD"));
+
+        aggregates.replace("EXPENSE", "Food", 1250, "EXPENSE", "Rent", 50000);
+        assertEquals(49990, aggregates.getBalance());
+        assertEquals(10, aggregates.getCategoryTotal("Food"));
+        assertEquals(50000, aggregates.getCategoryTotal("Rent"));
+
+        aggregates.remove("expense", "food", 10);
+        aggregates.remove("EXPENSE", "Rent", 50000);
+        assertEquals(100000, aggregates.getBalance());
+        assertEquals(0, aggregates.getTypeCount("EXPENSE"));
+        assertEquals(0, aggregates.getCategoryTotal("Food"));
+    }
+
+    @Test
+    public void differenceNamesTheFirstGroupThatDisagrees() {
+        RecordAggregates a = new RecordAggregates();
+        RecordAggregates b = new RecordAggregates();
+        a.add("INCOME", "Salary", 500);
+        b.add("income", "SALARY", 500);
+        assertNull(a.difference(b));
+        a.replace("INCOME", "Salary", 500, "INCOME", "Bonus", 500);
+        assertEquals("category BONUS", a.difference(b));
+        b.add("EXPENSE", "Food", 1);
+        assertTrue(a.difference(b).startsWith("record count"));
+    }
+
+    @Test
+    public void checksThrowWithoutChangingAnything() {
+        RecordAggregates aggregates = new RecordAggregates();
+        aggregates.add("INCOME", "Salary", Long.MAX_VALUE - 10);
+        Record small = new Record(0, 0, "INCOME", "Salary", "", 5);
+        Record large = new Record(0, 0, "INCOME", "Salary", "", 20);
+        aggregates.checkAdd(Arrays.asList(small));
+        try {
+            aggregates.checkAdd(Arrays.asList(small, small, small));
+            fail("a batch that overflows the balance passed the check");
+        } catch (ArithmeticException expected) {
+        }
+        Record old = new Record(0, 0, "INCOME", "Gift", "", 5);
+        aggregates.add("INCOME", "Gift", 5);
+        try {
+            aggregates.checkReplace(old, large);
+            fail("an edit that overflows the balance passed the check");
+        } catch (ArithmeticException expected) {
+        }
+        assertEquals(Long.MAX_VALUE - 5, aggregates.getBalance());
+        assertEquals(2, aggregates.getCount());
+        assertEquals(5, aggregates.getCategoryTotal("Gift"));
+    }
+
+    // Random adds, edits and deletes on every in-memory backend, with the consistency check recomputing every total
+    // from the store after each change.
+    @Test
+    public void runningTotalsMatchARecomputeAfterEveryChange() throws ParseException {
+        for (RecordStore store : new RecordStore[] {new ListRecordStore(), new ColumnarRecordStore()}) {
+            RecordManager manager = new RecordManager(store);
+            manager.setConsistencyCheck(true);
+            Random random = new Random(11);
+            String[] categories = {"Food", "FOOD", "Rent", "Fun"};
+            long expected = 0;
+            for (int i = 0; i < 400; i++) {
+                String date = LocalDate.of(2024, 1, 1).plusDays(random.nextInt(60)).toString();
+                int op = random.nextInt(4);
+                if (op < 2) {
+                    String type = random.nextBoolean() ? "INCOME" : "EXPENSE";
+                    manager.addRecord(date, type, categories[random.nextInt(categories.length)], "r" + i, random.nextInt(10000) / 100.0);
+                } else if (op == 2) {
+                    manager.editRecord(date, random.nextBoolean() ? "income" : "", categories[random.nextInt(categories.length)], "", random.nextInt(10000) / 100.0);
+                } else {
+                    manager.deleteRecord(date);
+                }
+            }
+            for (Record record : manager.getAllRecords()) {
+                expected += "INCOME".equals(record.getType()) ? record.getAmountCents() : -record.getAmountCents();
+            }
+            assertEquals(expected, manager.getBalance().getCents());
+            assertEquals(manager.getAllRecords().size(), manager.getTypeCount("INCOME") + manager.getTypeCount("EXPENSE"));
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package personalfinancetracker;
+
+import java.text.ParseException;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+// Tests for RecordManagerMetrics: operations are counted under their own names, including ones that fail.
+public class RecordManagerMetricsTest {
+
+    @Test
+    public void filtersAreCountedUnderTheirOwnOperations() throws ParseException {
+        RecordManager manager = new RecordManager();
+        RecordManagerMetrics metrics = manager.getMetrics();
+        manager.addRecord("2024-01-01", "INCOME", "Salary", "January", 1000.00);
+        manager.filterByDateRange(manager.getAllRecords(), "2024-01-01", "2024-01-31");
+        manager.filterByTypeAndCategory(manager.getAllRecords(), "INCOME", "Salary");
+        int counted = RecordManagerMetrics.isEnabled() ? 1 : 0;
+        assertEquals(counted, metrics.getCount(RecordManagerMetrics.Operation.ADD_RECORD));
+        assertEquals(counted, metrics.getCount(RecordManagerMetrics.Operation.FILTER_BY_DATE_RANGE));
+        assertEquals(counted, metrics.getCount(RecordManagerMetrics.Operation.FILTER_BY_TYPE_AND_CATEGORY));
+        assertEquals(0, metrics.getCount(RecordManagerMetrics.Operation.FILTER_BY_CATEGORY));
+    }
+
+    @Test
+    public void anInvalidDateRangeThrowsAndIsStillCounted() {
+        RecordManager manager = new RecordManager();
+        try {
+            manager.filterByDateRange(manager.getAllRecords(), "2024-13-01", "2024-12-31");
+            fail("an invalid start date was accepted");
+        } catch (IllegalArgumentException expected) {
+        }
+        assertEquals(RecordManagerMetrics.isEnabled() ? 1 : 0,
+                manager.getMetrics().getCount(RecordManagerMetrics.Operation.FILTER_BY_DATE_RANGE));
+    }
+}
@@ -0,0 +1,119 @@
+package personalfinancetracker;
+
+import java.text.ParseException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+// Tests for RecordQuery and QueryEvaluator: the plan each query gets, and results compared against plain filters
+// and sorts over every record, including offsets, limits and the bounded heap.
+public class RecordQueryTest {
+    private static final LocalDate FIRST = LocalDate.of(2023, 1, 1);
+    private static final String[] CATEGORIES = {"Food", "Rent", "Fun", "Travel", "Salary"};
+
+    private RecordManager manager;
+    private List<Record> all;
+
+    @Before
+    public void fillLedger() throws ParseException {
+        manager = new RecordManager();
+        Random random = new Random(3);
+        for (int i = 0; i < 3000; i++) {
+            String category = i % 100 == 0 ? "Gifts" : CATEGORIES[random.nextInt(CATEGORIES.length)];
+            manager.addRecord(FIRST.plusDays(random.nextInt(730)).toString(), random.nextInt(4) == 0 ? "INCOME" : "EXPENSE",
+                    category, "item " + random.nextInt(500) + (i % 7 == 0 ? " coffee" : ""), random.nextInt(20000) / 100.0);
+        }
+        all = new ArrayList<>(manager.getAllRecords());
+    }
+
+    @Test
+    public void eachQueryGetsTheAccessWithTheFewestCandidates() throws ParseException {
+        assertTrue(manager.query().explain().startsWith("full scan (3,000 candidates)"));
+        assertTrue(manager.query().between("2023-03-01", "2023-03-07").explain().startsWith("date index"));
+        assertTrue(manager.query().category("gifts").explain().startsWith("category bitmap (30 candidates)"));
+        assertTrue(manager.query().type("income").category("Gifts").explain().startsWith("type AND category bitmaps"));
+        assertTrue(manager.query().type("EXPENSE").between("2023-03-01", "2023-03-02").explain().startsWith("date index"));
+        assertTrue(manager.query().descriptionContains("item 42").explain().startsWith("description index"));
+        assertEquals("date index, latest first (3,000 candidates)", manager.query().sortByDate().explain());
+        assertEquals("full scan (3,000 candidates), top 15 heap", manager.query().sortByAmount().offset(5).limit(10).explain());
+        assertEquals("full scan (3,000 candidates), heap sort of all matches", manager.query().sortByAmount().explain());
+    }
+
+    @Test
+    public void resultsMatchPlainFiltersForEveryAccess() throws ParseException {
+        assertQuery(manager.query(), record -> true);
+        assertQuery(manager.query().type("income"), record -> record.getType().equals("INCOME"));
+        assertQuery(manager.query().category("FOOD").minAmount(50.00).maxAmount(Money.parse("150")),
+                record -> record.getCategory().equals("Food") && record.getAmountCents() >= 5000 && record.getAmountCents() <= 15000);
+        assertQuery(manager.query().between("2023-06-01", "2023-06-30").type("EXPENSE"),
+                record -> inJune(record) && record.getType().equals("EXPENSE"));
+        assertQuery(manager.query().descriptionContains("coffee").category("Rent"),
+                record -> record.getDescription().contains("coffee") && record.getCategory().equals("Rent"));
+        assertQuery(manager.query().descriptionContains("no such text"), record -> false);
+        assertQuery(manager.query().category("Nowhere"), record -> false);
+    }
+
+    @Test
+    public void sortedPagesMatchAFullSort() throws ParseException {
+        Comparator<Record> byAmount = Comparator.comparingLong(Record::getAmountCents).reversed();
+        Comparator<Record> byDate = Comparator.comparingInt(Record::getEpochDay).reversed();
+        for (int offset : new int[] {0, 7, 2990, 5000}) {
+            for (int limit : new int[] {0, 1, 25, Integer.MAX_VALUE}) {
+                assertPage(manager.query().sortByAmount().offset(offset).limit(limit), record -> true, byAmount, offset, limit);
+                assertPage(manager.query().sortByDate().offset(offset).limit(limit), record -> true, byDate, offset, limit);
+                assertPage(manager.query().offset(offset).limit(limit), record -> true, null, offset, limit);
+                assertPage(manager.query().type("INCOME").sortByAmount().offset(offset).limit(limit),
+                        record -> record.getType().equals("INCOME"), byAmount, offset, limit);
+                assertPage(manager.query().between("2023-06-01", "2023-06-30").offset(offset).limit(limit),
+                        RecordQueryTest::inJune, null, offset, limit);
+                assertPage(manager.query().between("2023-06-01", "2023-06-30").sortByDate().offset(offset).limit(limit),
+                        RecordQueryTest::inJune, byDate, offset, limit);
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void aNegativeLimitIsRejected() {
+        manager.query().limit(-1);
+    }
+
+    // Method to check a query's rows and count against a plain filter in ledger order.
+    private void assertQuery(RecordQuery query, Predicate<Record> expected) {
+        assertPage(query, expected, null, 0, Integer.MAX_VALUE);
+    }
+
+    // Method to check one page of a query against a plain filter and a stable sort of every record.
+    // Records that tie keep their ledger order.
+    private void assertPage(RecordQuery query, Predicate<Record> expected, Comparator<Record> order, int offset, int limit) {
+        List<Record> matches = new ArrayList<>();
+        for (Record record : all) {
+            if (expected.test(record)) {
+                matches.add(record);
+            }
+        }
+        assertEquals(query.explain(), matches.size(), query.count());
+        if (order != null) {
+            matches.sort(order);
+        }
+        List<Long> wanted = new ArrayList<>();
+        for (int i = offset; i < matches.size() && i - offset < limit; i++) {
+            wanted.add(matches.get(i).getId());
+        }
+        List<Long> got = new ArrayList<>();
+        for (Record record : query.list()) {
+            got.add(record.getId());
+        }
+        assertEquals(query.explain() + ", offset " + offset + ", limit " + limit, wanted, got);
+    }
+
+    private static boolean inJune(Record record) {
+        return record.getEpochDay() >= LocalDate.of(2023, 6, 1).toEpochDay() && record.getEpochDay() <= LocalDate.of(2023, 6, 30).toEpochDay();
+    }
+}
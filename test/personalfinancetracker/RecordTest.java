@@ -0,0 +1,55 @@
+package personalfinancetracker;
+
+import java.text.ParseException;
+import java.time.LocalDate;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+// Tests for Record dates: toEpochDay compared against java.time, and the dates it refuses.
+public class RecordTest {
+
+    @Test
+    public void toEpochDayMatchesLocalDateForEveryDayOfYears0To9999() throws ParseException {
+        for (LocalDate date = LocalDate.of(0, 1, 1); date.getYear() <= 9999; date = date.plusDays(1)) {
+            assertEquals(date.toString(), date.toEpochDay(), Record.toEpochDay(date.toString()));
+        }
+    }
+
+    @Test
+    public void leapDaysFollowTheGregorianRules() throws ParseException {
+        assertEquals(LocalDate.of(2000, 2, 29).toEpochDay(), Record.toEpochDay("2000-02-29"));
+        assertEquals(LocalDate.of(2024, 2, 29).toEpochDay(), Record.toEpochDay("2024-02-29"));
+        assertInvalid("1900-02-29");
+        assertInvalid("2023-02-29");
+    }
+
+    @Test
+    public void rejectsWhatIsNotAYyyyMmDdDate() {
+        for (String date : new String[] {null, "", "2024-1-01", "2024/01/01", "2024-01-1", "2024-01-001", "20x4-01-01",
+                "2024-00-10", "2024-13-01", "2024-04-31", "2024-01-00", "+024-01-01", "2024-01-01 "}) {
+            assertInvalid(date);
+        }
+    }
+
+    @Test
+    public void recordsKeepTheirDateAsAnEpochDay() {
+        Record record = new Record("1999-12-31", "income", "Salary", "December", 10.00);
+        assertEquals(LocalDate.of(1999, 12, 31).toEpochDay(), record.getEpochDay());
+        assertEquals("1999-12-31", record.getDate());
+        assertEquals("INCOME", record.getType());
+        try {
+            new Record("31/12/1999", "INCOME", "Salary", "December", 10.00);
+            fail("a record was built with a date in the wrong form");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    private static void assertInvalid(String date) {
+        try {
+            Record.toEpochDay(date);
+            fail("accepted " + date);
+        } catch (ParseException expected) {
+        }
+    }
+}
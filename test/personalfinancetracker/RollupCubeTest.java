@@ -0,0 +1,127 @@
+package personalfinancetracker;
+
+import java.text.ParseException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+// Tests for RollupCube through RecordManager: category pivots and month-range totals compared against plain sums
+// over the records, after adds, edits and deletes.
+public class RollupCubeTest {
+    private static final String[] CATEGORIES = {"Food", "food", "Rent", "Salary", "Travel", "Bonus", "FUN"};
+
+    @Test
+    public void pivotsMatchPlainSumsAfterEditsAndDeletes() throws ParseException {
+        Random random = new Random(17);
+        RecordManager manager = new RecordManager();
+        for (int i = 0; i < 4000; i++) {
+            LocalDate date = LocalDate.of(2022, 1, 1).plusDays(random.nextInt(3 * 365));
+            manager.addRecord(date.toString(), random.nextInt(3) == 0 ? "INCOME" : "EXPENSE",
+                    CATEGORIES[random.nextInt(CATEGORIES.length)], "item", random.nextInt(100000) / 100.0);
+        }
+        for (Record record : new ArrayList<>(manager.getAllRecords())) {
+            int change = random.nextInt(10);
+            if (change == 0) {
+                manager.deleteRecord(record.getId());
+            } else if (change == 1) {
+                manager.editRecord(record.getId(), null, CATEGORIES[random.nextInt(CATEGORIES.length)], null, -1);
+            } else if (change == 2) {
+                manager.editRecord(record.getId(), random.nextBoolean() ? "INCOME" : "EXPENSE", null, null, 12.34);
+            }
+        }
+        manager.deleteRecord("2023-05-17");
+        List<Record> records = manager.getAllRecords();
+        for (int year = 2021; year <= 2025; year++) {
+            for (RecordType type : RecordType.values()) {
+                assertPivot(records, manager.pivotCategories(year, type));
+            }
+        }
+        for (int i = 0; i < 200; i++) {
+            YearMonth from = YearMonth.of(2021 + random.nextInt(4), 1 + random.nextInt(12));
+            YearMonth to = from.plusMonths(random.nextInt(30));
+            String type = i % 3 == 0 ? null : (i % 3 == 1 ? "income" : "EXPENSE");
+            String category = i % 4 == 0 ? null : CATEGORIES[random.nextInt(CATEGORIES.length)];
+            long total = 0;
+            int count = 0;
+            for (Record record : records) {
+                YearMonth month = YearMonth.from(LocalDate.ofEpochDay(record.getEpochDay()));
+                if (!month.isBefore(from) && !month.isAfter(to) && (type == null || record.getType().equalsIgnoreCase(type))
+                        && (category == null || record.getCategory().equalsIgnoreCase(category))) {
+                    total += record.getAmountCents();
+                    count++;
+                }
+            }
+            String window = from + ".." + to + " " + type + " " + category;
+            assertEquals(window, total, manager.getRollupTotalCents(from, to, type, category));
+            assertEquals(window, count, manager.getRollupCount(from, to, type, category));
+        }
+        manager.verifyAggregates();
+    }
+
+    @Test
+    public void pivotRowsKeepTheFirstSpellingAndOrderAndSkipEmptyCategories() throws ParseException {
+        RecordManager manager = new RecordManager();
+        manager.addRecord("2024-01-05", "EXPENSE", "Rent", "January", 900.00);
+        manager.addRecord("2024-01-09", "INCOME", "Salary", "January", 3000.00);
+        manager.addRecord("2024-03-02", "EXPENSE", "Food", "shop", 45.50);
+        manager.addRecord("2024-03-20", "EXPENSE", "FOOD", "shop", 4.50);
+        manager.addRecord("2024-12-31", "EXPENSE", "rent", "December", 900.00);
+        manager.addRecord("2023-12-31", "EXPENSE", "Travel", "last year", 100.00);
+
+        CategoryPivot expenses = manager.pivotCategories(2024, RecordType.EXPENSE);
+        assertEquals(2024, expenses.getYear());
+        assertEquals("EXPENSE", expenses.getType());
+        assertEquals(Arrays.asList("Rent", "Food"), expenses.getCategories());
+        assertEquals(90000, expenses.getTotalCents(0, 1));
+        assertEquals(90000, expenses.getTotalCents(0, 12));
+        assertEquals(180000, expenses.getCategoryTotalCents(0));
+        assertEquals(5000, expenses.getTotalCents(1, 3));
+        assertEquals(5000, expenses.getMonthTotalCents(3));
+        assertEquals(0, expenses.getMonthTotalCents(2));
+        assertEquals(185000, expenses.getYearTotalCents());
+
+        assertEquals(Arrays.asList("Salary"), manager.pivotCategories(2024, RecordType.INCOME).getCategories());
+        assertEquals(Arrays.asList("Travel"), manager.pivotCategories(2023, RecordType.EXPENSE).getCategories());
+        assertTrue(manager.pivotCategories(2025, RecordType.EXPENSE).getCategories().isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void aPivotNeedsAType() {
+        new RecordManager().pivotCategories(2024, null);
+    }
+
+    // Method to compare a pivot with sums over the records of its year and type, grouping categories ignoring case.
+    private static void assertPivot(List<Record> records, CategoryPivot pivot) {
+        Map<String, long[]> expected = new HashMap<>();
+        for (Record record : records) {
+            LocalDate date = LocalDate.ofEpochDay(record.getEpochDay());
+            if (date.getYear() == pivot.getYear() && record.getType().equals(pivot.getType())) {
+                long[] months = expected.computeIfAbsent(record.getCategory().toUpperCase(Locale.ROOT), k -> new long[12]);
+                months[date.getMonthValue() - 1] += record.getAmountCents();
+            }
+        }
+        String where = pivot.getYear() + " " + pivot.getType();
+        assertEquals(where, expected.size(), pivot.getCategories().size());
+        long yearTotal = 0;
+        for (int row = 0; row < pivot.getCategories().size(); row++) {
+            long[] months = expected.get(pivot.getCategories().get(row).toUpperCase(Locale.ROOT));
+            long[] actual = new long[12];
+            for (int month = 1; month <= 12; month++) {
+                actual[month - 1] = pivot.getTotalCents(row, month);
+                yearTotal += months[month - 1];
+            }
+            assertArrayEquals(where + " " + pivot.getCategories().get(row), months, actual);
+        }
+        assertEquals(where, yearTotal, pivot.getYearTotalCents());
+    }
+}
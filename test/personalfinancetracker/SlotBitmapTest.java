@@ -0,0 +1,116 @@
+package personalfinancetracker;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+// Tests for SlotBitmap: add, remove and intersection compared against a BitSet, across array and bitmap chunks.
+public class SlotBitmapTest {
+    private static final int CHUNK = 1 << 16;
+
+    @Test
+    public void addRemoveAndContainsAcrossTheArrayLimit() {
+        SlotBitmap slots = new SlotBitmap();
+        BitSet expected = new BitSet();
+        for (int slot = 0; slot < 5000; slot++) {   // Past 4,096 values the chunk becomes a bitmap.
+            assertTrue(slots.add(slot * 3));
+            expected.set(slot * 3);
+        }
+        assertFalse(slots.add(3));
+        assertSame(expected, slots);
+        for (int slot = 0; slot < 4000; slot++) {   // Below 2,048 values it becomes an array again.
+            assertTrue(slots.remove(slot * 3));
+            expected.clear(slot * 3);
+        }
+        assertFalse(slots.remove(3));
+        assertSame(expected, slots);
+        assertEquals(12000, slots.nextSlot(1));
+        assertEquals(-1, slots.nextSlot(15000));
+    }
+
+    @Test
+    public void andMatchesBitSetForEveryChunkKind() {
+        Random random = new Random(42);
+        int[] densities = {10, 3000, 4096, 4097, 20000, CHUNK}; // Values per chunk, on both sides of the array limit.
+        for (int left : densities) {
+            for (int right : densities) {
+                BitSet leftBits = new BitSet();
+                BitSet rightBits = new BitSet();
+                SlotBitmap a = fill(random, left, leftBits);
+                SlotBitmap b = fill(random, right, rightBits);
+                String pair = left + " and " + right + " values per chunk";
+
+                BitSet and = (BitSet) leftBits.clone();
+                and.and(rightBits);
+                assertSame(pair, and, SlotBitmap.and(a, b));
+            }
+        }
+    }
+
+    @Test
+    public void anIntersectionIsIndependentOfItsInputs() {
+        SlotBitmap a = new SlotBitmap();
+        SlotBitmap b = new SlotBitmap();
+        for (int slot = 0; slot < 6000; slot++) {
+            a.add(slot);
+            b.add(slot);
+        }
+        SlotBitmap both = SlotBitmap.and(a, b);
+        a.remove(0);
+        b.remove(1);
+        assertTrue(both.contains(0));
+        assertTrue(both.contains(1));
+        assertEquals(6000, both.cardinality());
+    }
+
+    @Test
+    public void intersectionOfSetsOfDifferentLengths() {
+        SlotBitmap shortSet = new SlotBitmap();
+        SlotBitmap longSet = new SlotBitmap();
+        shortSet.add(5);
+        longSet.add(5);
+        longSet.add(4 * CHUNK + 7);
+        assertEquals(1, SlotBitmap.and(shortSet, longSet).cardinality());
+        assertEquals(5, SlotBitmap.and(longSet, shortSet).nextSlot(0));
+        assertEquals(-1, SlotBitmap.and(longSet, shortSet).nextSlot(6));
+    }
+
+    // Method to build a set over three chunks with about the given number of values in each, recording it in bits.
+    private static SlotBitmap fill(Random random, int perChunk, BitSet bits) {
+        SlotBitmap slots = new SlotBitmap();
+        for (int high : new int[] {0, 1, 3}) {
+            for (int i = 0; i < perChunk; i++) {
+                int slot = high * CHUNK + (perChunk == CHUNK ? i : random.nextInt(CHUNK));
+                slots.add(slot);
+                bits.set(slot);
+            }
+        }
+        return slots;
+    }
+
+    private static void assertSame(BitSet expected, SlotBitmap actual) {
+        assertSame("", expected, actual);
+    }
+
+    // Method to check that a set holds exactly the bits, through cardinality, contains, nextSlot and forEach.
+    private static void assertSame(String message, BitSet expected, SlotBitmap actual) {
+        assertEquals(message, expected.cardinality(), actual.cardinality());
+        List<Integer> walked = new ArrayList<>();
+        actual.forEach(slot -> walked.add(slot));
+        List<Integer> wanted = new ArrayList<>();
+        expected.stream().forEach(wanted::add);
+        assertEquals(message, wanted, walked);
+        int from = 0;
+        for (int slot = expected.nextSetBit(0); slot >= 0; slot = expected.nextSetBit(slot + 1)) {
+            assertEquals(message, slot, actual.nextSlot(from));
+            assertTrue(message, actual.contains(slot));
+            from = slot + 1;
+        }
+        assertEquals(message, -1, actual.nextSlot(from));
+    }
+}